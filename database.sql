@@ -18,6 +18,7 @@ CREATE TABLE `users` (
   `is_admin` BOOLEAN NOT NULL DEFAULT FALSE,
   `two_factor_enabled` BOOLEAN NOT NULL DEFAULT FALSE,
   `two_factor_secret` VARCHAR(255) DEFAULT NULL,
+  `lot_method` VARCHAR(10) NOT NULL DEFAULT 'FIFO',  -- FIFO, LIFO or AVERAGE (tax lot matching)
   `created_at` DATETIME NOT NULL,
   `updated_at` DATETIME
 ) ENGINE=InnoDB;
@@ -49,6 +50,8 @@ CREATE TABLE `orders` (
   `created_at` DATETIME NOT NULL,
   KEY `idx_orders_user` (`user_id`),
   KEY `idx_orders_symbol` (`symbol`),
+  KEY `idx_orders_status_created` (`status`, `created_at`),
+  KEY `idx_orders_user_status` (`user_id`, `status`),
   CONSTRAINT `fk_orders_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE=InnoDB;
 
@@ -65,6 +68,186 @@ CREATE TABLE `trades` (
   CONSTRAINT `fk_trades_order` FOREIGN KEY (`order_id`) REFERENCES `orders`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE=InnoDB;
 
+-- Open positions read model, one row per user/symbol/side (maintained by TradingService)
+CREATE TABLE `positions` (
+  `user_id` INT NOT NULL,
+  `symbol` VARCHAR(20) NOT NULL,
+  `side` VARCHAR(10) NOT NULL,          -- BUY (long), SELL (short)
+  `quantity` DOUBLE NOT NULL DEFAULT 0,
+  `average_entry_price` DOUBLE NOT NULL DEFAULT 0,
+  `margin` DOUBLE NOT NULL DEFAULT 0,
+  `updated_at` DATETIME NOT NULL,
+  PRIMARY KEY (`user_id`, `symbol`, `side`),
+  CONSTRAINT `fk_positions_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Open tax lots, one per executed order (one merged lot with order_id 0 per symbol/side under AVERAGE)
+CREATE TABLE `lots` (
+  `id` INT AUTO_INCREMENT PRIMARY KEY,
+  `user_id` INT NOT NULL,
+  `symbol` VARCHAR(20) NOT NULL,
+  `side` VARCHAR(10) NOT NULL,          -- BUY (long), SELL (short)
+  `order_id` INT NOT NULL,
+  `quantity` DOUBLE NOT NULL,           -- remaining quantity
+  `cost_price` DOUBLE NOT NULL,
+  `opened_at` DATETIME NOT NULL,
+  UNIQUE KEY `uq_lots_order` (`user_id`, `symbol`, `side`, `order_id`),
+  KEY `idx_lots_match` (`user_id`, `symbol`, `side`, `opened_at`),
+  CONSTRAINT `fk_lots_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Realized P&L per consumed lot, written when a position is closed
+CREATE TABLE `lot_realizations` (
+  `id` INT AUTO_INCREMENT PRIMARY KEY,
+  `user_id` INT NOT NULL,
+  `symbol` VARCHAR(20) NOT NULL,
+  `side` VARCHAR(10) NOT NULL,
+  `lot_order_id` INT NOT NULL,          -- order that opened the lot (0 = average-cost lot)
+  `close_order_id` INT NOT NULL,
+  `method` VARCHAR(10) NOT NULL,
+  `quantity` DOUBLE NOT NULL,
+  `cost_price` DOUBLE NOT NULL,
+  `close_price` DOUBLE NOT NULL,
+  `realized_pnl` DOUBLE NOT NULL,
+  `closed_at` DATETIME NOT NULL,
+  KEY `idx_lot_real_user` (`user_id`, `closed_at`),
+  CONSTRAINT `fk_lot_real_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Incremental performance state per user (maintained by PerformanceService)
+CREATE TABLE `performance_state` (
+  `user_id` INT PRIMARY KEY,
+  `state_version` INT NOT NULL DEFAULT 1,  -- rebuilt when older than PerformanceState.VERSION
+  `last_trade_id` INT NOT NULL DEFAULT 0,  -- highest trade ID already applied
+  `recent_trade_ids` TEXT NULL,            -- applied IDs within PerformanceState.RESCAN_WINDOW below it
+  `total_trades` INT NOT NULL DEFAULT 0,
+  `total_buys` INT NOT NULL DEFAULT 0,
+  `total_sells` INT NOT NULL DEFAULT 0,
+  `closed_trades` INT NOT NULL DEFAULT 0,
+  `winning_trades` INT NOT NULL DEFAULT 0,
+  `losing_trades` INT NOT NULL DEFAULT 0,
+  `realized_pnl` DOUBLE NOT NULL DEFAULT 0,
+  `gross_profit` DOUBLE NOT NULL DEFAULT 0,
+  `gross_loss` DOUBLE NOT NULL DEFAULT 0,
+  `return_count` INT NOT NULL DEFAULT 0,
+  `return_mean` DOUBLE NOT NULL DEFAULT 0,
+  `return_m2` DOUBLE NOT NULL DEFAULT 0,
+  `downside_squares` DOUBLE NOT NULL DEFAULT 0,
+  `peak_equity` DOUBLE NOT NULL DEFAULT 0,
+  `max_drawdown` DOUBLE NOT NULL DEFAULT 0,
+  `hold_millis_sum` BIGINT NOT NULL DEFAULT 0,
+  `first_trade_at` BIGINT NOT NULL DEFAULT 0,   -- epoch millis
+  `last_trade_at` BIGINT NOT NULL DEFAULT 0,
+  `open_since` BIGINT NOT NULL DEFAULT 0,
+  `in_market_millis` BIGINT NOT NULL DEFAULT 0,
+  `updated_at` DATETIME NOT NULL,
+  CONSTRAINT `fk_perf_state_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Positions still open behind performance_state, one per opening order
+CREATE TABLE `performance_lots` (
+  `user_id` INT NOT NULL,
+  `order_id` INT NOT NULL,
+  `symbol` VARCHAR(20) NOT NULL,
+  `is_long` BOOLEAN NOT NULL,
+  `quantity` DOUBLE NOT NULL,
+  `price` DOUBLE NOT NULL,
+  `opened_at` BIGINT NOT NULL,            -- epoch millis
+  PRIMARY KEY (`user_id`, `order_id`),
+  CONSTRAINT `fk_perf_lots_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Per-symbol breakdown of closed positions
+CREATE TABLE `performance_symbols` (
+  `user_id` INT NOT NULL,
+  `symbol` VARCHAR(20) NOT NULL,
+  `closed_trades` INT NOT NULL DEFAULT 0,
+  `winning_trades` INT NOT NULL DEFAULT 0,
+  `losing_trades` INT NOT NULL DEFAULT 0,
+  `realized_pnl` DOUBLE NOT NULL DEFAULT 0,
+  `gross_profit` DOUBLE NOT NULL DEFAULT 0,
+  `gross_loss` DOUBLE NOT NULL DEFAULT 0,
+  `hold_millis` BIGINT NOT NULL DEFAULT 0,
+  PRIMARY KEY (`user_id`, `symbol`),
+  CONSTRAINT `fk_perf_symbols_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Equity curve points (cumulative realized P&L after each closed position)
+CREATE TABLE `performance_equity` (
+  `user_id` INT NOT NULL,
+  `seq` INT NOT NULL,
+  `ts` DATETIME,
+  `value` DOUBLE NOT NULL,
+  PRIMARY KEY (`user_id`, `seq`),
+  CONSTRAINT `fk_perf_equity_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Periodic net asset value snapshots (cash + margin + unrealized P&L at mark), written by NavSnapshotService
+-- Raw rows are kept for a few days; the hourly/daily rollups below keep the long history
+CREATE TABLE `nav_snapshots` (
+  `user_id` INT NOT NULL,
+  `ts` DATETIME NOT NULL,
+  `nav` DOUBLE NOT NULL,
+  PRIMARY KEY (`user_id`, `ts`),
+  KEY `idx_nav_snapshots_ts` (`ts`),
+  CONSTRAINT `fk_nav_snapshots_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Hourly rollup of nav_snapshots (ts = start of the hour)
+CREATE TABLE `nav_hourly` (
+  `user_id` INT NOT NULL,
+  `ts` DATETIME NOT NULL,
+  `nav_open` DOUBLE NOT NULL,
+  `nav_high` DOUBLE NOT NULL,
+  `nav_low` DOUBLE NOT NULL,
+  `nav_close` DOUBLE NOT NULL,
+  PRIMARY KEY (`user_id`, `ts`),
+  KEY `idx_nav_hourly_ts` (`ts`),
+  CONSTRAINT `fk_nav_hourly_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Daily rollup of nav_snapshots (ts = midnight)
+CREATE TABLE `nav_daily` (
+  `user_id` INT NOT NULL,
+  `ts` DATETIME NOT NULL,
+  `nav_open` DOUBLE NOT NULL,
+  `nav_high` DOUBLE NOT NULL,
+  `nav_low` DOUBLE NOT NULL,
+  `nav_close` DOUBLE NOT NULL,
+  PRIMARY KEY (`user_id`, `ts`),
+  CONSTRAINT `fk_nav_daily_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Archived orders (CLOSED/CANCELLED orders moved out of `orders` by ArchiveService)
+CREATE TABLE `orders_archive` (
+  `id` INT PRIMARY KEY,
+  `user_id` INT NOT NULL,
+  `symbol` VARCHAR(20) NOT NULL,
+  `type` VARCHAR(20) NOT NULL,
+  `side` VARCHAR(10) NOT NULL,
+  `price` DOUBLE NOT NULL,
+  `quantity` DOUBLE NOT NULL,
+  `status` VARCHAR(20) NOT NULL,
+  `stop_loss` DOUBLE DEFAULT 0,
+  `take_profit` DOUBLE DEFAULT 0,
+  `created_at` DATETIME NOT NULL,
+  KEY `idx_orders_archive_user` (`user_id`),
+  CONSTRAINT `fk_orders_archive_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
+-- Archived trades (executions of archived orders)
+CREATE TABLE `trades_archive` (
+  `id` INT PRIMARY KEY,
+  `order_id` INT NOT NULL,
+  `symbol` VARCHAR(20) NOT NULL,
+  `side` VARCHAR(10) NOT NULL,
+  `executed_price` DOUBLE NOT NULL,
+  `quantity` DOUBLE NOT NULL,
+  `executed_at` DATETIME NOT NULL,
+  KEY `idx_trades_archive_order` (`order_id`),
+  CONSTRAINT `fk_trades_archive_order` FOREIGN KEY (`order_id`) REFERENCES `orders_archive`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE=InnoDB;
+
 -- News
 CREATE TABLE `news` (
   `id` INT AUTO_INCREMENT PRIMARY KEY,
@@ -104,14 +287,39 @@ CREATE TABLE `alerts` (
   `symbol` VARCHAR(20) NOT NULL,
   `target_price` DOUBLE NOT NULL,
   `notify_when_above` BOOLEAN NOT NULL DEFAULT TRUE,
+  `alert_type` VARCHAR(16) NOT NULL DEFAULT 'PRICE',
+  `window_minutes` INT NOT NULL DEFAULT 0,
   `enabled` BOOLEAN NOT NULL DEFAULT TRUE,
   `notify_email` BOOLEAN NOT NULL DEFAULT TRUE,
   `notify_sms` BOOLEAN NOT NULL DEFAULT FALSE,
+  `mode` VARCHAR(10) NOT NULL DEFAULT 'REPEAT',
+  `hysteresis_pct` DOUBLE NOT NULL DEFAULT 0.5,
+  `cooldown_seconds` INT NOT NULL DEFAULT 300,
+  `armed` BOOLEAN NOT NULL DEFAULT TRUE,
+  `last_triggered_at` DATETIME(3) NULL,
   `created_at` DATETIME NOT NULL,
+  `updated_at` DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
   KEY `idx_alerts_user` (`user_id`),
+  KEY `idx_alerts_enabled` (`enabled`),
+  KEY `idx_alerts_updated` (`updated_at`),
   CONSTRAINT `fk_alerts_user` FOREIGN KEY (`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE=InnoDB;
 
+-- Alert evaluation ownership: alerts are split into partitions by user_id % partition count,
+-- and each running instance leases a fair share of the partitions
+CREATE TABLE `alert_leases` (
+  `partition_no` INT PRIMARY KEY,
+  `owner` VARCHAR(100) NULL,
+  `expires_at` DATETIME(3) NULL,
+  KEY `idx_alert_leases_owner` (`owner`)
+) ENGINE=InnoDB;
+
+-- Heartbeats of running instances, used to size each instance's fair share of partitions
+CREATE TABLE `alert_instances` (
+  `instance_id` VARCHAR(100) PRIMARY KEY,
+  `heartbeat_at` DATETIME(3) NOT NULL
+) ENGINE=InnoDB;
+
 -- Password reset codes for 'forgot password' flow
 CREATE TABLE `password_resets` (
   `id` INT AUTO_INCREMENT PRIMARY KEY,
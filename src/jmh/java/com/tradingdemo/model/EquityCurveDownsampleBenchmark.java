@@ -0,0 +1,91 @@
+package com.tradingdemo.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the points the Performance chart draws for an equity curve of `points` closed trades
+ * (random walk of realized P&L), at `maxPoints` (about the chart width in pixels)
+ *  - lttbFullRange: EquityCurve.downsample over the whole curve (initial draw, resize, reset)
+ *  - lttbZoomed: EquityCurve.downsample over a 5% window that moves each call (zoom/pan)
+ *  - minMax: the lowest and highest point of each of maxPoints / 2 buckets over the whole curve,
+ *    a common single-pass alternative, for reference
+ * Run with: mvn -Pjmh package exec:exec -Djmh.args="EquityCurveDownsampleBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EquityCurveDownsampleBenchmark {
+
+    @Param({"100000", "2000000"})
+    public int points;
+
+    @Param({"800"})
+    public int maxPoints;
+
+    private EquityCurve curve;
+    private int window;
+    private int offset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        curve = new EquityCurve(points);
+        long time = 1_767_225_600_000L;
+        double equity = 0;
+        for (int i = 0; i < points; i++) {
+            time += 1_000 + random.nextInt(600_000);
+            equity += random.nextGaussian() * 100;
+            curve.add(time, equity);
+        }
+        window = points / 20;
+    }
+
+    @Benchmark
+    public int[] lttbFullRange() {
+        return curve.downsample(0, curve.size(), maxPoints);
+    }
+
+    @Benchmark
+    public int[] lttbZoomed() {
+        offset = (offset + window / 10) % (points - window);
+        return curve.downsample(offset, offset + window, maxPoints);
+    }
+
+    @Benchmark
+    public int[] minMax() {
+        int buckets = maxPoints / 2;
+        int[] kept = new int[buckets * 2];
+        int n = curve.size();
+        for (int b = 0; b < buckets; b++) {
+            int start = (int) ((long) b * n / buckets);
+            int end = (int) ((long) (b + 1) * n / buckets);
+            int min = start;
+            int max = start;
+            for (int i = start + 1; i < end; i++) {
+                double v = curve.getValue(i);
+                if (v < curve.getValue(min)) min = i;
+                if (v > curve.getValue(max)) max = i;
+            }
+            kept[2 * b] = Math.min(min, max);
+            kept[2 * b + 1] = Math.max(min, max);
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,130 @@
+package com.tradingdemo.model;
+
+import com.tradingdemo.util.SymbolRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revalues every user holding BTC after a BTC tick
+ * Compares the PositionLedger column scan against holdings kept as List&lt;WalletItem&gt;:
+ *  - walletItemsPerUser: every user's list is walked with a Map price lookup per item
+ *  - walletItemsBySymbol: only the BTC items are walked (symbol index, as before the ledger)
+ *  - ledger: PositionLedger.applyPrice plus draining the dirty slots
+ * Run with: mvn -Pjmh package exec:exec -Djmh.args="PositionLedgerBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PositionLedgerBenchmark {
+
+    private static final String[] SYMBOLS = {"BTC", "ETH", "BNB", "ADA", "SOL", "XRP", "DOGE", "USDC"};
+    private static final int HOLDINGS_PER_USER = 6;
+    private static final String TICK_SYMBOL = "BTC";
+
+    @Param({"5000", "50000"})
+    public int users;
+
+    private final Map<String, Double> prices = new HashMap<>();
+    private List<List<WalletItem>> walletsByUser;
+    private double[] walletTotals;
+    private Map<String, List<WalletItem>> itemsBySymbol;
+    private Map<Integer, double[]> totalsByUser;
+    private PositionLedger ledger;
+    private int tickSymbolId;
+    private double tickPrice;
+    private boolean up;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        for (String symbol : SYMBOLS) {
+            prices.put(symbol, 1 + random.nextDouble() * 50_000);
+        }
+        tickSymbolId = SymbolRegistry.idOf(TICK_SYMBOL);
+        tickPrice = prices.get(TICK_SYMBOL);
+
+        walletsByUser = new ArrayList<>(users);
+        walletTotals = new double[users];
+        itemsBySymbol = new HashMap<>();
+        totalsByUser = new HashMap<>();
+        ledger = new PositionLedger(id -> prices.getOrDefault(SymbolRegistry.nameOf(id), 0.0));
+
+        for (int userId = 0; userId < users; userId++) {
+            List<WalletItem> wallet = new ArrayList<>(HOLDINGS_PER_USER);
+            int slot = ledger.slotOf(userId);
+            double total = 0;
+            int first = random.nextInt(SYMBOLS.length);
+            for (int h = 0; h < HOLDINGS_PER_USER; h++) {
+                String symbol = SYMBOLS[(first + h) % SYMBOLS.length];
+                double quantity = random.nextDouble() * 10;
+                WalletItem item = new WalletItem(userId, symbol, quantity, prices.get(symbol));
+                wallet.add(item);
+                itemsBySymbol.computeIfAbsent(symbol, k -> new ArrayList<>()).add(item);
+                ledger.addSpot(slot, SymbolRegistry.idOf(symbol), quantity);
+                total += quantity * prices.get(symbol);
+            }
+            walletsByUser.add(wallet);
+            walletTotals[userId] = total;
+            totalsByUser.put(userId, new double[] { total });
+        }
+        ledger.takeDirtySlots();
+    }
+
+    // Alternates between two prices so every invocation is a real move
+    private double nextPrice() {
+        up = !up;
+        return up ? tickPrice * 1.001 : tickPrice;
+    }
+
+    @Benchmark
+    public void walletItemsPerUser(Blackhole bh) {
+        prices.put(TICK_SYMBOL, nextPrice());
+        for (int u = 0; u < users; u++) {
+            double total = 0;
+            for (WalletItem item : walletsByUser.get(u)) {
+                total += item.getQuantity() * prices.get(item.getSymbol());
+            }
+            walletTotals[u] = total;
+        }
+        bh.consume(walletTotals);
+    }
+
+    @Benchmark
+    public void walletItemsBySymbol(Blackhole bh) {
+        double previous = prices.get(TICK_SYMBOL);
+        double price = nextPrice();
+        prices.put(TICK_SYMBOL, price);
+        double delta = price - previous;
+        for (WalletItem item : itemsBySymbol.get(TICK_SYMBOL)) {
+            totalsByUser.get(item.getUserId())[0] += delta * item.getQuantity();
+        }
+        bh.consume(totalsByUser);
+    }
+
+    @Benchmark
+    public void ledger(Blackhole bh) {
+        bh.consume(ledger.applyPrice(tickSymbolId, nextPrice()));
+        bh.consume(ledger.takeDirtySlots());
+    }
+}
@@ -0,0 +1,189 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.dao.TradeDAO;
+import com.tradingdemo.model.PerformanceState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes the platform leaderboard (top 10 by P&L, win rate and drawdown) for `users` users from
+ * trade rows already in memory, in the order TradeDAO.forEachTradeOrderedByUser streams them
+ * (the query itself is excluded)
+ *  - fullRebuild: a fresh LeaderboardService, every row batched and applied on a pool of
+ *    `parallelism` workers (0 = one per core, as the service runs; 1 = sequential)
+ *  - refresh: a warmed service with no new trades, re-reading the RESCAN_WINDOW rows below the
+ *    last trade ID and ranking every cached user again
+ * Each user opens positions (up to 3 at once) and closes them later; users trade in random order.
+ * Run with: mvn -Pjmh package exec:exec -Djmh.args="LeaderboardBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+    private static final int TOP_N = 10;
+
+    @Param({"50000"})
+    public int users;
+
+    @Param({"10", "40"})
+    public int tradesPerUser;
+
+    @Param({"0", "1"})
+    public int parallelism;
+
+    // Rows grouped by user, oldest first within each user
+    private int[] userIds;
+    private int[] ids;
+    private int[] orderIds;
+    private String[] symbols;
+    private String[] sides;
+    private double[] prices;
+    private double[] quantities;
+    private long[] times;
+
+    // Positions of the rows inside the rescan window, in the same order
+    private int[] tail;
+    private int tailFrom;
+
+    private ForkJoinPool pool;
+    private LeaderboardService warmed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generate(users * tradesPerUser);
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        warmed = new LeaderboardService(this::forEachTrade, pool);
+        warmed.getLeaderboard(TOP_N);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public LeaderboardService.Leaderboard fullRebuild() {
+        return new LeaderboardService(this::forEachTrade, pool).getLeaderboard(TOP_N);
+    }
+
+    @Benchmark
+    public LeaderboardService.Leaderboard refresh() {
+        return warmed.getLeaderboard(TOP_N);
+    }
+
+    // As the query with "t.id > ?": an index on the ID serves the rescan window without a full pass
+    private boolean forEachTrade(int afterTradeId, TradeDAO.UserTradeVisitor visitor) {
+        if (afterTradeId >= tailFrom) {
+            for (int i : tail) {
+                if (ids[i] > afterTradeId) visit(i, visitor);
+            }
+        } else {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] > afterTradeId) visit(i, visitor);
+            }
+        }
+        return true;
+    }
+
+    private void visit(int i, TradeDAO.UserTradeVisitor visitor) {
+        visitor.visit(userIds[i], ids[i], orderIds[i], symbols[i], sides[i], prices[i], quantities[i], times[i]);
+    }
+
+    private void generate(int count) {
+        Random random = new Random(42);
+        String[] names = {"BTC", "ETH", "SOL", "XRP", "ADA", "BNB", "DOGE", "DOT"};
+        double[] last = {50_000, 2_500, 100, 0.6, 0.4, 300, 0.08, 7};
+
+        // Trades in execution (= ID) order
+        int[] user = new int[count];
+        int[] order = new int[count];
+        String[] symbol = new String[count];
+        String[] side = new String[count];
+        double[] price = new double[count];
+        double[] quantity = new double[count];
+        int[][] open = new int[users][3];   // opening trade index + 1 of each open slot, 0 = free
+        int orderId = 0;
+        for (int i = 0; i < count; i++) {
+            int u = random.nextInt(users);
+            int s = random.nextInt(names.length);
+            last[s] *= 1 + (random.nextDouble() - 0.5) * 0.01;
+            int slot = random.nextInt(3);
+            int opening = open[u][slot] - 1;
+            user[i] = u + 1;
+            if (opening >= 0) {
+                int sym = indexOf(names, symbol[opening]);
+                order[i] = order[opening];
+                symbol[i] = symbol[opening];
+                side[i] = "BUY".equals(side[opening]) ? "CLOSE_LONG" : "CLOSE_SHORT";
+                price[i] = last[sym];
+                quantity[i] = quantity[opening];
+                open[u][slot] = 0;
+            } else {
+                order[i] = ++orderId;
+                symbol[i] = names[s];
+                side[i] = random.nextBoolean() ? "BUY" : "SELL";
+                price[i] = last[s];
+                quantity[i] = 0.1 + random.nextInt(50) * 0.1;
+                open[u][slot] = i + 1;
+            }
+        }
+
+        // Stable counting sort by user keeps each user's trades in ID order
+        int[] start = new int[users + 2];
+        for (int i = 0; i < count; i++) start[user[i] + 1]++;
+        for (int u = 1; u < start.length; u++) start[u] += start[u - 1];
+        userIds = new int[count];
+        ids = new int[count];
+        orderIds = new int[count];
+        symbols = new String[count];
+        sides = new String[count];
+        prices = new double[count];
+        quantities = new double[count];
+        times = new long[count];
+        long epoch = 1_767_225_600_000L;
+        for (int i = 0; i < count; i++) {
+            int p = start[user[i]]++;
+            userIds[p] = user[i];
+            ids[p] = i + 1;
+            orderIds[p] = order[i];
+            symbols[p] = symbol[i];
+            sides[p] = side[i];
+            prices[p] = price[i];
+            quantities[p] = quantity[i];
+            times[p] = epoch + i * 1_000L;
+        }
+
+        tailFrom = Math.max(0, count - PerformanceState.RESCAN_WINDOW);
+        int tailSize = 0;
+        tail = new int[count - tailFrom];
+        for (int p = 0; p < count; p++) {
+            if (ids[p] > tailFrom) tail[tailSize++] = p;
+        }
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) return i;
+        }
+        return -1;
+    }
+}
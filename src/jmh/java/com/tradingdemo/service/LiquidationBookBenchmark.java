@@ -0,0 +1,127 @@
+package com.tradingdemo.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates one random-walk tick (+/-0.5%) of one of 8 symbols against the open positions, as
+ * LiquidationService.evaluate does, then opens a new position at the tick price for every one
+ * liquidated so the book stays at `positions`
+ * Entries are spread over +/-50% of the start price and positions are liquidated after a 10% adverse
+ * move (maintenance 0.9): most ticks cross a few positions, a move into a cluster of re-opened ones
+ * crosses thousands.
+ *  - sideBooks: LiquidationService.SideBook.popCrossed per side, re-opened with SideBook.insert
+ *  - scanAll: every position of the symbol compared with the tick (no index)
+ * Run with: mvn -Pjmh package exec:exec -Djmh.args="LiquidationBookBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LiquidationBookBenchmark {
+
+    private static final int SYMBOLS = 8;
+    private static final double MAINTENANCE = 0.9;
+
+    @Param({"100000", "1000000"})
+    public int positions;
+
+    private final LiquidationService.SideBook[] longs = new LiquidationService.SideBook[SYMBOLS];
+    private final LiquidationService.SideBook[] shorts = new LiquidationService.SideBook[SYMBOLS];
+    private final double[] prices = new double[SYMBOLS];
+    private final double[] start = new double[SYMBOLS];
+
+    // scanAll: liquidation price and side of every position, grouped by symbol
+    private double[][] liquidationPrices;
+    private boolean[][] isLong;
+
+    private Random random;
+    private int nextOrderId;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new Random(42);
+        int perSymbol = positions / SYMBOLS;
+        liquidationPrices = new double[SYMBOLS][perSymbol];
+        isLong = new boolean[SYMBOLS][perSymbol];
+        for (int sym = 0; sym < SYMBOLS; sym++) {
+            start[sym] = 100 * (sym + 1);
+            prices[sym] = start[sym];
+            longs[sym] = new LiquidationService.SideBook();
+            shorts[sym] = new LiquidationService.SideBook();
+            for (int i = 0; i < perSymbol; i++) {
+                boolean buy = random.nextBoolean();
+                double entry = start[sym] * (0.5 + random.nextDouble());
+                double liquidation = liquidationPrice(buy, entry);
+                // Already past its liquidation price at the start: open it at the start price instead
+                if (buy ? prices[sym] <= liquidation : prices[sym] >= liquidation) {
+                    liquidation = liquidationPrice(buy, prices[sym]);
+                }
+                liquidationPrices[sym][i] = liquidation;
+                isLong[sym][i] = buy;
+                (buy ? longs[sym] : shorts[sym]).append(LiquidationService.key(buy, liquidation), ++nextOrderId);
+            }
+            longs[sym].sort();
+            shorts[sym].sort();
+        }
+    }
+
+    // Random walk of +/-0.5% per tick, kept within +/-60% of the start price
+    private double nextPrice(int sym) {
+        double next = prices[sym] * (1 + (random.nextDouble() - 0.5) * 0.01);
+        return Math.max(start[sym] * 0.4, Math.min(start[sym] * 1.6, next));
+    }
+
+    @Benchmark
+    public int sideBooks() {
+        int sym = tick++ % SYMBOLS;
+        double price = nextPrice(sym);
+        prices[sym] = price;
+        LiquidationService.Batch batch = new LiquidationService.Batch();
+        longs[sym].popCrossed(LiquidationService.key(true, price), price, batch);
+        int crossedLongs = batch.count;
+        shorts[sym].popCrossed(LiquidationService.key(false, price), price, batch);
+        for (int i = 0; i < batch.count; i++) {
+            boolean buy = i < crossedLongs;
+            (buy ? longs[sym] : shorts[sym]).insert(LiquidationService.key(buy, liquidationPrice(buy, price)), ++nextOrderId);
+        }
+        return batch.count;
+    }
+
+    @Benchmark
+    public int scanAll() {
+        int sym = tick++ % SYMBOLS;
+        double price = nextPrice(sym);
+        prices[sym] = price;
+        double[] liquidation = liquidationPrices[sym];
+        boolean[] buy = isLong[sym];
+        int crossed = 0;
+        for (int i = 0; i < liquidation.length; i++) {
+            if (buy[i] ? price <= liquidation[i] : price >= liquidation[i]) {
+                liquidation[i] = liquidationPrice(buy[i], price);
+                crossed++;
+            }
+        }
+        return crossed;
+    }
+
+    private static double liquidationPrice(boolean isLong, double entryPrice) {
+        return isLong ? entryPrice * MAINTENANCE : entryPrice * (2 - MAINTENANCE);
+    }
+}
@@ -0,0 +1,189 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.model.EquityCurve;
+import com.tradingdemo.model.PerformanceMetrics;
+import com.tradingdemo.model.PerformanceMetrics.SymbolMetrics;
+import com.tradingdemo.model.PerformanceState;
+import com.tradingdemo.model.PerformanceState.OpenLot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Brings a user's metrics up to date after `newTrades` trades, from rows already in memory (JDBC excluded)
+ *  - incremental: the saved state (copied per invocation, outside the measurement) advanced as
+ *    computeForUser does: the RESCAN_WINDOW trades below lastTradeId re-read and skipped, the new ones applied
+ *  - fullReplay: computeFullReplay, every trade applied to a fresh state
+ * Orders are opened by BUY/SELL and closed by CLOSE_LONG/CLOSE_SHORT, up to 40 open at once.
+ * Run with: mvn -Pjmh package exec:exec -Djmh.args="PerformanceReplayBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerformanceReplayBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int trades;
+
+    @Param({"1", "1000"})
+    public int newTrades;
+
+    private int[] ids;
+    private int[] orderIds;
+    private String[] symbols;
+    private String[] sides;
+    private double[] prices;
+    private double[] quantities;
+    private long[] executedAt;
+
+    private PerformanceState saved;
+    private PerformanceState state;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        generate();
+        saved = new PerformanceState(1);
+        applyFrom(saved, 0, trades - newTrades, new EquityCurve());
+    }
+
+    @Setup(Level.Invocation)
+    public void loadState() {
+        state = copy(saved);
+    }
+
+    @Benchmark
+    public PerformanceMetrics incremental() {
+        EquityCurve newPoints = new EquityCurve();
+        // IDs are 1..trades in execution order, so the rows above rescanFrom() start at that index
+        applyFrom(state, state.rescanFrom(), trades, newPoints);
+        PerformanceMetrics m = PerformanceService.toMetrics(state);
+        m.equity = newPoints;
+        return m;
+    }
+
+    @Benchmark
+    public PerformanceMetrics fullReplay() {
+        PerformanceState fresh = new PerformanceState(1);
+        EquityCurve curve = new EquityCurve();
+        applyFrom(fresh, 0, trades, curve);
+        PerformanceMetrics m = PerformanceService.toMetrics(fresh);
+        m.equity = curve;
+        return m;
+    }
+
+    private void applyFrom(PerformanceState s, int from, int to, EquityCurve equity) {
+        for (int i = from; i < to; i++) {
+            PerformanceService.apply(s, ids[i], orderIds[i], symbols[i], sides[i], prices[i], quantities[i],
+                executedAt[i], equity);
+        }
+        s.pruneRecentTradeIds();
+    }
+
+    // As PerformanceStateDAO.getState loads it: accumulators, open lots, per-symbol rows, recent IDs
+    private static PerformanceState copy(PerformanceState s) {
+        PerformanceState c = new PerformanceState(s.userId);
+        c.lastTradeId = s.lastTradeId;
+        c.recentTradeIds = new HashSet<>(s.recentTradeIds);
+        c.totalTrades = s.totalTrades;
+        c.totalBuys = s.totalBuys;
+        c.totalSells = s.totalSells;
+        c.closedTrades = s.closedTrades;
+        c.winningTrades = s.winningTrades;
+        c.losingTrades = s.losingTrades;
+        c.realizedPnl = s.realizedPnl;
+        c.grossProfit = s.grossProfit;
+        c.grossLoss = s.grossLoss;
+        c.returnCount = s.returnCount;
+        c.returnMean = s.returnMean;
+        c.returnM2 = s.returnM2;
+        c.downsideSquares = s.downsideSquares;
+        c.peakEquity = s.peakEquity;
+        c.maxDrawdown = s.maxDrawdown;
+        c.holdMillisSum = s.holdMillisSum;
+        c.firstTradeAt = s.firstTradeAt;
+        c.lastTradeAt = s.lastTradeAt;
+        c.openSince = s.openSince;
+        c.inMarketMillis = s.inMarketMillis;
+        for (Map.Entry<Integer, OpenLot> e : s.openLots.entrySet()) {
+            OpenLot l = e.getValue();
+            c.openLots.put(e.getKey(), new OpenLot(l.symbol, l.isLong, l.quantity, l.price, l.openedAt));
+        }
+        for (Map.Entry<String, SymbolMetrics> e : s.bySymbol.entrySet()) {
+            SymbolMetrics from = e.getValue();
+            SymbolMetrics to = new SymbolMetrics();
+            to.closedTrades = from.closedTrades;
+            to.winningTrades = from.winningTrades;
+            to.losingTrades = from.losingTrades;
+            to.realizedPnl = from.realizedPnl;
+            to.grossProfit = from.grossProfit;
+            to.grossLoss = from.grossLoss;
+            to.holdMillis = from.holdMillis;
+            c.bySymbol.put(e.getKey(), to);
+        }
+        return c;
+    }
+
+    private void generate() {
+        Random random = new Random(42);
+        String[] names = {"BTC", "ETH", "SOL", "XRP", "ADA"};
+        double[] last = {50_000, 2_500, 100, 0.6, 0.4};
+        ids = new int[trades];
+        orderIds = new int[trades];
+        symbols = new String[trades];
+        sides = new String[trades];
+        prices = new double[trades];
+        quantities = new double[trades];
+        executedAt = new long[trades];
+        List<Integer> open = new ArrayList<>();
+        int orderId = 0;
+        long start = 1_767_225_600_000L;
+        for (int i = 0; i < trades; i++) {
+            ids[i] = i + 1;
+            executedAt[i] = start + i * 60_000L + random.nextInt(30_000);
+            int s = random.nextInt(names.length);
+            last[s] *= 1 + (random.nextDouble() - 0.5) * 0.02;
+            if (!open.isEmpty() && (open.size() >= 40 || random.nextBoolean())) {
+                int opening = open.remove(random.nextInt(open.size()));
+                int sym = indexOf(names, symbols[opening]);
+                orderIds[i] = orderIds[opening];
+                symbols[i] = symbols[opening];
+                sides[i] = "BUY".equals(sides[opening]) ? "CLOSE_LONG" : "CLOSE_SHORT";
+                prices[i] = last[sym];
+                quantities[i] = quantities[opening];
+            } else {
+                orderIds[i] = ++orderId;
+                symbols[i] = names[s];
+                sides[i] = random.nextBoolean() ? "BUY" : "SELL";
+                prices[i] = last[s];
+                quantities[i] = 0.1 + random.nextInt(50) * 0.1;
+                open.add(i);
+            }
+        }
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,210 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.model.News;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parses a synthetic CoinDesk-shaped RSS feed (about 1.5 KB per item) from memory, network excluded
+ *  - stax: RssFeedReader.parse, which stops reading once `limit` items are parsed
+ *  - regex: the parser before RssFeedReader (feed buffered line by line into a String, then DOTALL
+ *    regexes compiled per item and field)
+ *  - dom: the whole feed parsed into a DOM (DTDs disallowed), then the first `limit` items read
+ * Run with: mvn -Pjmh package exec:exec -Djmh.args="RssFeedReaderBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RssFeedReaderBenchmark {
+
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]+>");
+
+    @Param({"500", "5000"})
+    public int items;
+
+    @Param({"20", "5000"})
+    public int limit;
+
+    private byte[] feed;
+    private DocumentBuilderFactory domFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        feed = feed(items);
+        domFactory = DocumentBuilderFactory.newInstance();
+        domFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        domFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        domFactory.setCoalescing(true);
+    }
+
+    @Benchmark
+    public List<News> stax() {
+        return RssFeedReader.parse(new ByteArrayInputStream(feed), "CoinDesk", limit);
+    }
+
+    @Benchmark
+    public List<News> regex() throws Exception {
+        // As makeRequest read the response
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(feed)));
+        StringBuilder response = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            response.append(line).append("\n");
+        }
+        String rssContent = response.toString();
+
+        List<News> newsList = new ArrayList<>();
+        Matcher itemMatcher = Pattern.compile("<item>(.*?)</item>", Pattern.DOTALL).matcher(rssContent);
+        int count = 0;
+        while (itemMatcher.find() && count < limit) {
+            String itemContent = itemMatcher.group(1);
+            News news = new News();
+            news.setSource("CoinDesk");
+            String title = extractTag(itemContent, "title");
+            if (title != null) news.setTitle(cleanCData(title));
+            String link = extractTag(itemContent, "link");
+            if (link != null) news.setUrl(link.trim());
+            String description = extractTag(itemContent, "description");
+            if (description != null) news.setContent(regexCleanHtml(cleanCData(description)));
+            String pubDate = extractTag(itemContent, "pubDate");
+            if (pubDate != null) news.setPublishedAt(parseDate(pubDate));
+            Matcher categoryMatcher = Pattern.compile("<category>(.*?)</category>").matcher(itemContent);
+            StringBuilder tags = new StringBuilder();
+            while (categoryMatcher.find()) {
+                if (tags.length() > 0) tags.append(", ");
+                tags.append(cleanCData(categoryMatcher.group(1)));
+            }
+            if (tags.length() > 0) news.setTags(tags.toString());
+            if (news.getTitle() != null && !news.getTitle().isEmpty()) {
+                newsList.add(news);
+                count++;
+            }
+        }
+        return newsList;
+    }
+
+    @Benchmark
+    public List<News> dom() throws Exception {
+        DocumentBuilder builder = domFactory.newDocumentBuilder();
+        Document doc = builder.parse(new ByteArrayInputStream(feed));
+        NodeList itemNodes = doc.getElementsByTagName("item");
+        List<News> newsList = new ArrayList<>();
+        for (int i = 0; i < itemNodes.getLength() && newsList.size() < limit; i++) {
+            News news = new News();
+            news.setSource("CoinDesk");
+            StringBuilder tags = new StringBuilder();
+            for (Node child = itemNodes.item(i).getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (!(child instanceof Element)) continue;
+                String text = child.getTextContent();
+                switch (child.getNodeName()) {
+                    case "title": news.setTitle(text.trim()); break;
+                    case "link": news.setUrl(text.trim()); break;
+                    case "description": news.setContent(cleanHtml(text)); break;
+                    case "pubDate": news.setPublishedAt(parseDate(text)); break;
+                    case "category":
+                        if (tags.length() > 0) tags.append(", ");
+                        tags.append(text.trim());
+                        break;
+                    default: break;
+                }
+            }
+            if (tags.length() > 0) news.setTags(tags.toString());
+            if (news.getTitle() != null && !news.getTitle().isEmpty()) newsList.add(news);
+        }
+        return newsList;
+    }
+
+    private static String extractTag(String content, String tagName) {
+        Matcher matcher = Pattern.compile("<" + tagName + ">(.*?)</" + tagName + ">", Pattern.DOTALL).matcher(content);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String cleanCData(String text) {
+        return text.replaceAll("<!\\[CDATA\\[", "").replaceAll("\\]\\]>", "").trim();
+    }
+
+    private static String regexCleanHtml(String text) {
+        return text.replaceAll("<[^>]+>", "").replaceAll("&nbsp;", " ")
+                   .replaceAll("&amp;", "&").replaceAll("&lt;", "<")
+                   .replaceAll("&gt;", ">").replaceAll("&quot;", "\"").trim();
+    }
+
+    private static String cleanHtml(String text) {
+        return HTML_TAG.matcher(text).replaceAll("").replace("&nbsp;", " ")
+                   .replace("&amp;", "&").replace("&lt;", "<")
+                   .replace("&gt;", ">").replace("&quot;", "\"").trim();
+    }
+
+    private static LocalDateTime parseDate(String pubDate) {
+        try {
+            return LocalDateTime.parse(pubDate.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+        } catch (Exception e) {
+            return LocalDateTime.now();
+        }
+    }
+
+    // CDATA title/description (HTML), 0-3 categories, RFC 1123 dates
+    private static byte[] feed(int items) {
+        Random random = new Random(items);
+        String[] words = {"bitcoin", "ether", "etf", "inflows", "rally", "slips", "support", "traders", "sec", "stablecoin", "miners", "halving"};
+        ZonedDateTime date = ZonedDateTime.of(2026, 2, 13, 10, 30, 0, 0, ZoneOffset.UTC);
+        StringBuilder xml = new StringBuilder(items * 1500);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<rss version=\"2.0\"><channel><title>News</title>\n");
+        for (int i = 0; i < items; i++) {
+            xml.append("<item>\n<title><![CDATA[");
+            for (int w = 0; w < 10; w++) xml.append(w > 0 ? " " : "").append(words[random.nextInt(words.length)]);
+            xml.append(" #").append(i).append("]]></title>\n");
+            xml.append("<link>https://news.example.com/markets/").append(i).append("</link>\n");
+            xml.append("<description><![CDATA[<p>");
+            for (int s = 0; s < 8; s++) {
+                xml.append("<b>").append(words[random.nextInt(words.length)]).append("</b> &amp; ");
+                for (int w = 0; w < 12; w++) xml.append(words[random.nextInt(words.length)]).append(' ');
+                xml.append("&nbsp;");
+            }
+            xml.append("</p>]]></description>\n");
+            xml.append("<pubDate>").append(DateTimeFormatter.RFC_1123_DATE_TIME.format(date.minusMinutes(i))).append("</pubDate>\n");
+            int categories = random.nextInt(4);
+            for (int c = 0; c < categories; c++) {
+                xml.append("<category><![CDATA[").append(words[random.nextInt(words.length)]).append("]]></category>\n");
+            }
+            xml.append("</item>\n");
+        }
+        xml.append("</channel></rss>\n");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
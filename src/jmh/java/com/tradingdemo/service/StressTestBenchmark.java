@@ -0,0 +1,137 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.util.SymbolRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the preset stress scenarios against `users` users holding 1-4 positions each in 8 symbols,
+ * from holdings already in memory (the DB load and the Binance prices are excluded)
+ *  - columns: StressTestService.run over the columnar Holdings, user chunks in a parallel stream
+ *  - rows: every user's positions walked one by one per scenario, sequentially, with the
+ *    shocked price looked up per position (platform totals only, no worst-users list)
+ * Run with: mvn -Pjmh package exec:exec -Djmh.args="StressTestBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StressTestBenchmark {
+
+    private static final String[] SYMBOLS = {"BTC", "ETH", "BNB", "ADA", "SOL", "XRP", "DOGE", "USDC"};
+    private static final double MAINTENANCE = 0.5;
+
+    @Param({"100000", "1000000"})
+    public int users;
+
+    private List<StressTestService.Scenario> scenarios;
+    private StressTestService.Holdings holdings;
+
+    // rows: positions grouped by user, user u owning [first[u], first[u + 1])
+    private int[] first;
+    private int[] symbolIds;
+    private double[] signedQuantities;
+    private double[] entries;
+    private double[] margins;
+    private double[] balances;
+    private double[] prices;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        scenarios = StressTestService.getInstance().getPresets();
+        int[] ids = new int[SYMBOLS.length];
+        int symbolCount = 0;
+        for (int s = 0; s < SYMBOLS.length; s++) {
+            ids[s] = SymbolRegistry.idOf(SYMBOLS[s]);
+            symbolCount = Math.max(symbolCount, ids[s] + 1);
+        }
+        prices = new double[symbolCount];
+        for (int s = 0; s < SYMBOLS.length; s++) {
+            prices[ids[s]] = 1 + random.nextDouble() * 50_000;
+        }
+
+        int capacity = users * 4;
+        first = new int[users + 1];
+        symbolIds = new int[capacity];
+        signedQuantities = new double[capacity];
+        entries = new double[capacity];
+        margins = new double[capacity];
+        balances = new double[users];
+        holdings = new StressTestService.Holdings();
+        int positions = 0;
+        for (int u = 0; u < users; u++) {
+            balances[u] = random.nextDouble() * 10_000;
+            holdings.addUser(u + 1, balances[u]);
+            first[u] = positions;
+            int count = 1 + random.nextInt(4);
+            int start = random.nextInt(SYMBOLS.length);
+            for (int p = 0; p < count; p++) {
+                int sym = ids[(start + p) % SYMBOLS.length];
+                double entry = prices[sym] * (0.8 + random.nextDouble() * 0.4);
+                double signed = (random.nextBoolean() ? 1 : -1) * (1_000 + random.nextDouble() * 9_000) / entry;
+                double margin = Math.abs(signed) * entry;
+                symbolIds[positions] = sym;
+                signedQuantities[positions] = signed;
+                entries[positions] = entry;
+                margins[positions] = margin;
+                positions++;
+
+                holdings.exposureColumn(sym)[u] += signed;
+                holdings.margin[u] += margin;
+                holdings.cost[u] += signed * entry;
+            }
+        }
+        first[users] = positions;
+        holdings.mark(prices);
+    }
+
+    @Benchmark
+    public List<StressTestService.Result> columns() {
+        return StressTestService.run(holdings, scenarios, MAINTENANCE);
+    }
+
+    @Benchmark
+    public double rows() {
+        double total = 0;
+        double[] shocked = new double[prices.length];
+        for (StressTestService.Scenario scenario : scenarios) {
+            for (int sym = 0; sym < prices.length; sym++) {
+                shocked[sym] = prices[sym] * (1 + scenario.shockFor(SymbolRegistry.nameOf(sym)));
+            }
+            double navAfter = 0;
+            double shortfall = 0;
+            double badDebt = 0;
+            for (int u = 0; u < users; u++) {
+                double equity = 0;
+                double margin = 0;
+                for (int p = first[u]; p < first[u + 1]; p++) {
+                    equity += margins[p] + signedQuantities[p] * (shocked[symbolIds[p]] - entries[p]);
+                    margin += margins[p];
+                }
+                double nav = balances[u] + equity;
+                navAfter += nav;
+                if (margin > 0 && MAINTENANCE * margin > equity) shortfall += MAINTENANCE * margin - equity;
+                if (nav < 0) badDebt -= nav;
+            }
+            total += navAfter + shortfall + badDebt;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,158 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.model.AlertRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves the price up through crossed alerts and back down, as the alert engine does when a price
+ * oscillates around a cluster of targets with no hysteresis: every crossed alert leaves one book
+ * and enters the other on each tick
+ * Compares ThresholdBook (tree, O(log n) per move) with the sorted parallel arrays it replaced
+ * (O(n) shift per move). Targets are 0..alerts-1; the crossed block sits in the middle of the book.
+ * Run with: mvn -Pjmh package exec:exec -Djmh.args="ThresholdBookCrossingBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ThresholdBookCrossingBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int alerts;
+
+    @Param({"100", "1000"})
+    public int crossedPerTick;
+
+    private ThresholdBook rising;
+    private ThresholdBook falling;
+    private ArrayBook arrayRising;
+    private ArrayBook arrayFalling;
+    private double low;
+    private double high;
+    private final List<AlertRule> crossed = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rising = new ThresholdBook();
+        falling = new ThresholdBook();
+        arrayRising = new ArrayBook();
+        arrayFalling = new ArrayBook();
+        for (int i = 0; i < alerts; i++) {
+            AlertRule a = new AlertRule(i % 5000, "BTC", i, true);
+            a.setId(i + 1);
+            rising.insert(i, a);
+            arrayRising.insert(i, a);
+        }
+        low = alerts / 2 - 0.5;
+        high = low + crossedPerTick;
+    }
+
+    @Benchmark
+    public int thresholdBook() {
+        crossed.clear();
+        ThresholdBook.collectCrossed(rising, falling, low, high, crossed);
+        for (AlertRule a : crossed) {
+            rising.remove(a.getTargetPrice(), a);
+            falling.insert(a.getTargetPrice(), a);
+        }
+        int moved = crossed.size();
+        crossed.clear();
+        ThresholdBook.collectCrossed(rising, falling, high, low, crossed);
+        for (AlertRule a : crossed) {
+            falling.remove(a.getTargetPrice(), a);
+            rising.insert(a.getTargetPrice(), a);
+        }
+        return moved + crossed.size();
+    }
+
+    @Benchmark
+    public int arrayBook() {
+        crossed.clear();
+        arrayRising.collect(arrayRising.upperBound(low), arrayRising.upperBound(high), crossed);
+        for (AlertRule a : crossed) {
+            arrayRising.remove(a.getTargetPrice(), a);
+            arrayFalling.insert(a.getTargetPrice(), a);
+        }
+        int moved = crossed.size();
+        crossed.clear();
+        arrayFalling.collect(arrayFalling.lowerBound(low), arrayFalling.lowerBound(high), crossed);
+        for (AlertRule a : crossed) {
+            arrayFalling.remove(a.getTargetPrice(), a);
+            arrayRising.insert(a.getTargetPrice(), a);
+        }
+        return moved + crossed.size();
+    }
+
+    // The book before ThresholdBook: keys and alerts in sorted parallel arrays
+    private static class ArrayBook {
+        double[] keys = new double[16];
+        AlertRule[] alerts = new AlertRule[16];
+        int size = 0;
+
+        void insert(double key, AlertRule a) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                alerts = Arrays.copyOf(alerts, size * 2);
+            }
+            int pos = upperBound(key);
+            System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+            System.arraycopy(alerts, pos, alerts, pos + 1, size - pos);
+            keys[pos] = key;
+            alerts[pos] = a;
+            size++;
+        }
+
+        void remove(double key, AlertRule a) {
+            for (int i = lowerBound(key); i < size && keys[i] == key; i++) {
+                if (alerts[i].getId() == a.getId()) {
+                    System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                    System.arraycopy(alerts, i + 1, alerts, i, size - i - 1);
+                    alerts[--size] = null;
+                    return;
+                }
+            }
+        }
+
+        void collect(int from, int to, List<AlertRule> out) {
+            for (int i = from; i < to; i++) {
+                out.add(alerts[i]);
+            }
+        }
+
+        int lowerBound(double price) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < price) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        int upperBound(double price) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] <= price) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.model.AlertRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates one random-walk price tick of a symbol against its alerts (half notify-above, half
+ * notify-below, targets within 5% of the start price, 1% hysteresis)
+ *  - thresholdBooks: ThresholdBook.collectCrossed, then each crossed alert fires or re-arms and
+ *    moves to its other book as in AlertService.onCrossed
+ *  - scanAll: every alert's key compared with the move, as before the books
+ * Run with: mvn -Pjmh package exec:exec -Djmh.args="ThresholdBookMatchingBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThresholdBookMatchingBenchmark {
+
+    private static final double START_PRICE = 50_000;
+
+    @Param({"100000", "1000000"})
+    public int alerts;
+
+    private ThresholdBook rising;
+    private ThresholdBook falling;
+    private AlertRule[] all;
+    private final List<AlertRule> crossed = new ArrayList<>();
+    private Random random;
+    private double last;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new Random(42);
+        rising = new ThresholdBook();
+        falling = new ThresholdBook();
+        all = new AlertRule[alerts];
+        for (int i = 0; i < alerts; i++) {
+            double target = START_PRICE * (0.95 + random.nextDouble() * 0.1);
+            AlertRule a = new AlertRule(i % 5000, "BTC", target, i % 2 == 0);
+            a.setId(i + 1);
+            a.setHysteresisPct(1);
+            all[i] = a;
+        }
+        last = START_PRICE;
+        // Start from a consistent state: alerts already past the start price have fired
+        for (AlertRule a : all) {
+            boolean past = a.isNotifyWhenAbove() ? a.getTargetPrice() <= last : a.getTargetPrice() >= last;
+            if (past) a.setArmed(false);
+            book(a).insert(AlertService.keyOf(a), a);
+        }
+    }
+
+    // Random walk of +/-0.05% per tick, kept inside the target range
+    private double nextPrice() {
+        double next = last * (1 + (random.nextDouble() - 0.5) * 0.001);
+        return Math.max(START_PRICE * 0.94, Math.min(START_PRICE * 1.06, next));
+    }
+
+    @Benchmark
+    public int thresholdBooks() {
+        double value = nextPrice();
+        crossed.clear();
+        ThresholdBook.collectCrossed(rising, falling, last, value, crossed);
+        last = value;
+        for (AlertRule a : crossed) {
+            book(a).remove(AlertService.keyOf(a), a);
+            a.setArmed(!a.isArmed());
+            book(a).insert(AlertService.keyOf(a), a);
+        }
+        return crossed.size();
+    }
+
+    @Benchmark
+    public int scanAll() {
+        double value = nextPrice();
+        crossed.clear();
+        for (AlertRule a : all) {
+            double key = AlertService.keyOf(a);
+            boolean hit = AlertService.isRising(a) ? key > last && key <= value : key < last && key >= value;
+            if (hit) crossed.add(a);
+        }
+        last = value;
+        for (AlertRule a : crossed) {
+            a.setArmed(!a.isArmed());
+        }
+        return crossed.size();
+    }
+
+    private ThresholdBook book(AlertRule a) {
+        return AlertService.isRising(a) ? rising : falling;
+    }
+}
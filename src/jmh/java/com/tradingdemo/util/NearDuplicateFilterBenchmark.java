@@ -0,0 +1,127 @@
+package com.tradingdemo.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Deduplicates synthetic news titles with NearDuplicateFilter (400, 4k and 40k titles)
+ * and with the pairwise Jaccard scan it replaced (400 and 4k only; 40k would take ~40 minutes)
+ * Titles have 8-15 words; a quarter repeat an earlier title re-cased and/or with one word swapped.
+ * Run with: mvn -Pjmh package exec:exec -Djmh.args="NearDuplicateFilterBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class NearDuplicateFilterBenchmark {
+
+    private static final double THRESHOLD = 0.8;
+
+    @State(Scope.Benchmark)
+    public static class Titles {
+        @Param({"400", "4000", "40000"})
+        public int count;
+
+        List<String> titles;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            titles = titles(count);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PairwiseTitles {
+        @Param({"400", "4000"})
+        public int count;
+
+        List<String> titles;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            titles = titles(count);
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public List<String> minHash(Titles state) {
+        return NearDuplicateFilter.filter(state.titles, Function.identity(), THRESHOLD);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1, time = 1)
+    @Measurement(iterations = 3, time = 1)
+    public List<String> pairwise(PairwiseTitles state) {
+        // As AggregatedNewsService.removeDuplicates did before MinHash
+        List<String> kept = new ArrayList<>();
+        for (String title : state.titles) {
+            String current = title.toLowerCase();
+            boolean duplicate = false;
+            for (String existing : kept) {
+                String other = existing.toLowerCase();
+                if (current.equals(other) || similarity(current, other) > THRESHOLD) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) kept.add(title);
+        }
+        return kept;
+    }
+
+    private static double similarity(String s1, String s2) {
+        Set<String> set1 = new HashSet<>(Arrays.asList(s1.split("\\s+")));
+        Set<String> set2 = new HashSet<>(Arrays.asList(s2.split("\\s+")));
+        Set<String> intersection = new HashSet<>(set1);
+        intersection.retainAll(set2);
+        Set<String> union = new HashSet<>(set1);
+        union.addAll(set2);
+        return union.isEmpty() ? 0 : (double) intersection.size() / union.size();
+    }
+
+    private static List<String> titles(int count) {
+        Random random = new Random(count);
+        String[] vocabulary = new String[500];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = "w" + Integer.toString(i * 7919, 36);
+        }
+        List<String> titles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && random.nextInt(4) == 0) {
+                String[] words = titles.get(random.nextInt(i)).split(" ");
+                if (random.nextBoolean()) {
+                    words[random.nextInt(words.length)] = vocabulary[random.nextInt(vocabulary.length)];
+                }
+                String title = String.join(" ", words);
+                titles.add(random.nextBoolean() ? title.toUpperCase() : title);
+            } else {
+                String[] words = new String[8 + random.nextInt(8)];
+                for (int w = 0; w < words.length; w++) {
+                    words[w] = vocabulary[random.nextInt(vocabulary.length)];
+                }
+                titles.add(String.join(" ", words));
+            }
+        }
+        return titles;
+    }
+}
@@ -3,6 +3,18 @@ package com.tradingdemo;
 import java.io.IOException;
 import java.util.Objects;
 
+import com.tradingdemo.dao.PositionDAO;
+import com.tradingdemo.dao.TaxLotDAO;
+import com.tradingdemo.dao.WriteBehindQueue;
+import com.tradingdemo.service.AlertService;
+import com.tradingdemo.service.ArchiveService;
+import com.tradingdemo.service.LiquidationService;
+import com.tradingdemo.service.NavSnapshotService;
+import com.tradingdemo.service.NotificationDispatcher;
+import com.tradingdemo.service.PortfolioValuationService;
+import com.tradingdemo.util.AsyncExecutor;
+import com.tradingdemo.util.FxStallMonitor;
+
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -48,12 +60,50 @@ public class MainApp extends Application {
             stage.setMaximized(true); // Start maximized
             stage.show();
 
+            // Track FX thread responsiveness for the whole session
+            FxStallMonitor.getInstance().start();
+
+            // Move old closed/cancelled orders out of the hot tables in the background
+            ArchiveService.getInstance().start();
+
+            // Snapshot every user's net asset value for portfolio-over-time series
+            NavSnapshotService.getInstance().start();
+
+            // Liquidate positions whose losses have used up their margin
+            LiquidationService.getInstance().start();
+
+            // Backfill the positions read model and tax lots on databases created before they existed
+            AsyncExecutor.run(() -> {
+                new PositionDAO().rebuildIfEmpty();
+                new TaxLotDAO().rebuildIfEmpty();
+            });
+
         } catch (IOException e) {
             System.err.println("Error loading FXML: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Stops background work when the application exits
+     */
+    @Override
+    public void stop() {
+        FxStallMonitor.getInstance().stop();
+        ArchiveService.getInstance().stop();
+        NavSnapshotService.getInstance().stop();
+        PortfolioValuationService.getInstance().stop();
+        LiquidationService.getInstance().stop();
+        AlertService.getInstance().stop();
+        NotificationDispatcher.getInstance().stop();
+        System.out.println(FxStallMonitor.getInstance().summary());
+        System.out.println(LiquidationService.getInstance().summary());
+        System.out.println(NotificationDispatcher.getInstance().summary());
+        AsyncExecutor.shutdown();
+        // Flush queued trade/audit inserts after in-flight tasks have finished queuing them
+        WriteBehindQueue.closeAll();
+    }
+
     /**
      * Main method to launch the application
      * @param args Command line arguments
@@ -14,9 +14,10 @@ public class DatabaseConnection {
     // Database configuration
     // For XAMPP (phpMyAdmin) local MySQL
     // Default root has empty password. Update if you've set a password.
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/crypto_trading_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = ""; // XAMPP default: empty password
+    // Can be overridden with -Dtrading.db.url / -Dtrading.db.user / -Dtrading.db.password (e.g. a scratch test database)
+    private static final String DB_URL = System.getProperty("trading.db.url", "jdbc:mysql://localhost:3306/crypto_trading_db");
+    private static final String DB_USER = System.getProperty("trading.db.user", "root");
+    private static final String DB_PASSWORD = System.getProperty("trading.db.password", ""); // XAMPP default: empty password
     private static final String DB_DRIVER = "com.mysql.cj.jdbc.Driver";
 
     // Singleton instance
@@ -67,6 +68,17 @@ public class DatabaseConnection {
         return connection;
     }
 
+    /**
+     * Opens a new connection that is owned by the caller (not the shared singleton one).
+     * Used by background writers that need their own transaction boundaries.
+     * Batched statements are rewritten into multi-row INSERTs by the driver.
+     * @return A fresh Connection, to be closed by the caller
+     * @throws SQLException if the connection cannot be opened
+     */
+    public Connection openDedicatedConnection() throws SQLException {
+        return DriverManager.getConnection(DB_URL + (DB_URL.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true", DB_USER, DB_PASSWORD);
+    }
+
     /**
      * Closes the database connection
      */
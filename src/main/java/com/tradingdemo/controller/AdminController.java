@@ -2,15 +2,25 @@ package com.tradingdemo.controller;
 
 import java.util.List;
 
+import com.tradingdemo.dao.ArchiveDAO;
+import com.tradingdemo.dao.EntityCache;
 import com.tradingdemo.dao.TradeDAO;
 import com.tradingdemo.dao.UserDAO;
 import com.tradingdemo.model.Order;
 import com.tradingdemo.model.Trade;
 import com.tradingdemo.model.User;
+import com.tradingdemo.service.ArchiveService;
 import com.tradingdemo.service.AuthService;
+import com.tradingdemo.service.LeaderboardService;
+import com.tradingdemo.service.LiquidationService;
+import com.tradingdemo.service.NotificationDispatcher;
+import com.tradingdemo.service.StressTestService;
 import com.tradingdemo.service.TradingService;
 import com.tradingdemo.util.AlertUtils;
+import com.tradingdemo.util.AsyncExecutor;
+import com.tradingdemo.util.FxStallMonitor;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -59,8 +69,23 @@ public class AdminController {
     @FXML private Label avgBalanceLabel;
     @FXML private TextArea activityLog;
     
+    // Leaderboard Tab
+    @FXML private Label rankedUsersLabel;
+    @FXML private Label leaderboardTimeLabel;
+    @FXML private Button refreshLeaderboardButton;
+    @FXML private TextArea leaderboardLog;
+    
+    // Stress Test Tab
+    @FXML private Label stressUsersLabel;
+    @FXML private Label stressTimeLabel;
+    @FXML private TextField scenarioField;
+    @FXML private Button runScenarioButton;
+    @FXML private Button runPresetsButton;
+    @FXML private TextArea stressLog;
+    
     private final UserDAO userDAO = new UserDAO();
     private final TradeDAO tradeDAO = new TradeDAO();
+    private final ArchiveDAO archiveDAO = new ArchiveDAO();
     private final TradingService tradingService = new TradingService();
     
     @FXML
@@ -81,12 +106,16 @@ public class AdminController {
             updateBalanceButton.setOnAction(e -> handleUpdateBalance());
             deleteUserButton.setOnAction(e -> handleDeleteUser());
             refreshUsersButton.setOnAction(e -> loadUsersData());
+            refreshLeaderboardButton.setOnAction(e -> loadLeaderboard());
+            runScenarioButton.setOnAction(e -> handleRunScenario());
+            runPresetsButton.setOnAction(e -> runStressTest(StressTestService.getInstance().getPresets(), true));
             
             // Load admin data
             loadUsersData();
             loadTradesData();
             loadOrdersData();
             loadSystemStats();
+            loadLeaderboard();
         } catch (Exception e) {
             System.err.println("ERROR in AdminController.initialize(): " + e.getMessage());
             e.printStackTrace();
@@ -107,29 +136,34 @@ public class AdminController {
             int userId = Integer.parseInt(userIdText);
             double newBalance = Double.parseDouble(balanceText.replace("$", "").replace(",", ""));
             
-            // Check if user exists
-            User user = userDAO.getUserById(userId);
-            if (user == null) {
-                AlertUtils.showError("User Not Found", "No user found with ID: " + userId);
-                return;
-            }
-            
-            // Prevent modifying admin users
-            if (user.isAdmin()) {
-                AlertUtils.showError("Cannot Modify Admin", "Cannot modify balance of admin users");
-                return;
-            }
-            
-            // Update balance
-            if (userDAO.updateBalance(userId, newBalance)) {
-                AlertUtils.showInfo("Success", String.format("Balance updated for %s %s to $%.2f", 
-                    user.getFirstName(), user.getLastName(), newBalance));
-                loadUsersData(); // Refresh the users list
-                userIdField.clear();
-                newBalanceField.clear();
-            } else {
-                AlertUtils.showError("Update Failed", "Failed to update user balance");
-            }
+            AsyncExecutor.run(() -> {
+                // Check if user exists
+                User user = userDAO.getUserById(userId);
+                if (user == null) {
+                    Platform.runLater(() -> AlertUtils.showError("User Not Found", "No user found with ID: " + userId));
+                    return;
+                }
+                
+                // Prevent modifying admin users
+                if (user.isAdmin()) {
+                    Platform.runLater(() -> AlertUtils.showError("Cannot Modify Admin", "Cannot modify balance of admin users"));
+                    return;
+                }
+                
+                // Update balance
+                boolean updated = userDAO.updateBalance(userId, newBalance);
+                Platform.runLater(() -> {
+                    if (updated) {
+                        AlertUtils.showInfo("Success", String.format("Balance updated for %s %s to $%.2f", 
+                            user.getFirstName(), user.getLastName(), newBalance));
+                        loadUsersData(); // Refresh the users list
+                        userIdField.clear();
+                        newBalanceField.clear();
+                    } else {
+                        AlertUtils.showError("Update Failed", "Failed to update user balance");
+                    }
+                });
+            });
             
         } catch (NumberFormatException e) {
             AlertUtils.showError("Invalid Input", "Please enter valid numbers for User ID and Balance");
@@ -150,32 +184,43 @@ public class AdminController {
             int userId = Integer.parseInt(userIdText);
             
             // Check if user exists
-            User user = userDAO.getUserById(userId);
-            if (user == null) {
-                AlertUtils.showError("User Not Found", "No user found with ID: " + userId);
-                return;
-            }
-            
-            // Prevent deleting admin users
-            if (user.isAdmin()) {
-                AlertUtils.showError("Cannot Delete Admin", "Cannot delete admin users");
-                return;
-            }
-            
-            // Prevent deleting yourself
-            User currentUser = AuthService.getCurrentUser();
-            if (currentUser != null && currentUser.getId() == userId) {
-                AlertUtils.showError("Cannot Delete Self", "You cannot delete your own account");
-                return;
-            }
+            AsyncExecutor.supply(() -> userDAO.getUserById(userId))
+                .thenAcceptAsync(user -> confirmAndDeleteUser(userId, user), Platform::runLater);
             
-            // Confirm deletion
-            boolean confirmed = AlertUtils.showConfirmation("Confirm Deletion", 
-                String.format("Are you sure you want to delete user %s %s (%s)?", 
-                    user.getFirstName(), user.getLastName(), user.getEmail()));
-            
-            if (confirmed) {
-                if (userDAO.deleteUser(userId)) {
+        } catch (NumberFormatException e) {
+            AlertUtils.showError("Invalid Input", "Please enter a valid User ID");
+        } catch (Exception e) {
+            AlertUtils.showError("Error", "Error deleting user: " + e.getMessage());
+        }
+    }
+    
+    private void confirmAndDeleteUser(int userId, User user) {
+        if (user == null) {
+            AlertUtils.showError("User Not Found", "No user found with ID: " + userId);
+            return;
+        }
+        
+        // Prevent deleting admin users
+        if (user.isAdmin()) {
+            AlertUtils.showError("Cannot Delete Admin", "Cannot delete admin users");
+            return;
+        }
+        
+        // Prevent deleting yourself
+        User currentUser = AuthService.getCurrentUser();
+        if (currentUser != null && currentUser.getId() == userId) {
+            AlertUtils.showError("Cannot Delete Self", "You cannot delete your own account");
+            return;
+        }
+        
+        // Confirm deletion
+        boolean confirmed = AlertUtils.showConfirmation("Confirm Deletion", 
+            String.format("Are you sure you want to delete user %s %s (%s)?", 
+                user.getFirstName(), user.getLastName(), user.getEmail()));
+        
+        if (confirmed) {
+            AsyncExecutor.supply(() -> userDAO.deleteUser(userId)).thenAcceptAsync(deleted -> {
+                if (deleted) {
                     AlertUtils.showInfo("Success", "User deleted successfully");
                     loadUsersData(); // Refresh the users list
                     userIdField.clear();
@@ -183,187 +228,316 @@ public class AdminController {
                 } else {
                     AlertUtils.showError("Delete Failed", "Failed to delete user");
                 }
-            }
-            
-        } catch (NumberFormatException e) {
-            AlertUtils.showError("Invalid Input", "Please enter a valid User ID");
-        } catch (Exception e) {
-            AlertUtils.showError("Error", "Error deleting user: " + e.getMessage());
+            }, Platform::runLater);
         }
     }
     
     private void loadUsersData() {
-        try {
-            List<User> users = userDAO.getAllUsers();
-            
-            totalUsersLabel.setText(String.valueOf(users.size()));
-            
-            // Count active traders (those with orders)
-            int activeTraders = 0;
-            double totalBalance = 0;
-            StringBuilder usersList = new StringBuilder();
-            
-            for (User user : users) {
-                totalBalance += user.getBalance();
-                var orders = tradingService.getAllOrdersForUser(user.getId());
-                if (orders != null && !orders.isEmpty()) {
-                    activeTraders++;
+        usersLog.setText("Loading users...");
+        AsyncExecutor.run(() -> {
+            try {
+                List<User> users = userDAO.getAllUsers();
+                
+                // Count active traders (those with orders)
+                int activeTraders = 0;
+                double totalBalance = 0;
+                StringBuilder usersList = new StringBuilder();
+                
+                for (User user : users) {
+                    totalBalance += user.getBalance();
+                    var orders = tradingService.getAllOrdersForUser(user.getId());
+                    if (orders != null && !orders.isEmpty()) {
+                        activeTraders++;
+                    }
+                    
+                    // Format user info for display
+                    usersList.append(String.format("ID: %d | Email: %s | Name: %s %s | Balance: $%.2f | Admin: %s%n",
+                        user.getId(),
+                        user.getEmail(),
+                        user.getFirstName(),
+                        user.getLastName(),
+                        user.getBalance(),
+                        user.isAdmin() ? "YES" : "NO"));
                 }
                 
-                // Format user info for display
-                usersList.append(String.format("ID: %d | Email: %s | Name: %s %s | Balance: $%.2f | Admin: %s%n",
-                    user.getId(),
-                    user.getEmail(),
-                    user.getFirstName(),
-                    user.getLastName(),
-                    user.getBalance(),
-                    user.isAdmin() ? "YES" : "NO"));
+                final int finalActiveTraders = activeTraders;
+                final double finalTotalBalance = totalBalance;
+                Platform.runLater(() -> {
+                    totalUsersLabel.setText(String.valueOf(users.size()));
+                    activeTradersLabel.setText(String.valueOf(finalActiveTraders));
+                    totalBalanceLabel.setText(String.format("$%.2f", finalTotalBalance));
+                    usersLog.setText(usersList.toString());
+                });
+                
+            } catch (Exception e) {
+                System.err.println("Error loading users: " + e.getMessage());
+                e.printStackTrace();
+                Platform.runLater(() -> usersLog.setText("Error loading users: " + e.getMessage()));
             }
-            
-            activeTradersLabel.setText(String.valueOf(activeTraders));
-            totalBalanceLabel.setText(String.format("$%.2f", totalBalance));
-            usersLog.setText(usersList.toString());
-            
-        } catch (Exception e) {
-            System.err.println("Error loading users: " + e.getMessage());
-            e.printStackTrace();
-            usersLog.setText("Error loading users: " + e.getMessage());
-        }
+        });
     }
     
     private void loadTradesData() {
-        try {
-            List<Trade> trades = tradeDAO.getAllTrades();
-            if (trades == null) {
-                trades = new java.util.ArrayList<>();
-            }
-            
-            totalTradesLabel.setText(String.valueOf(trades.size()));
-            
-            // Count buy and sell orders
-            int buys = 0;
-            int sells = 0;
-            StringBuilder tradesList = new StringBuilder();
-            
-            for (Trade trade : trades) {
-                if ("BUY".equals(trade.getSide())) {
-                    buys++;
-                } else if ("SELL".equals(trade.getSide())) {
-                    sells++;
+        tradesLog.setText("Loading trades...");
+        AsyncExecutor.run(() -> {
+            try {
+                List<Trade> loaded = tradeDAO.getAllTrades();
+                List<Trade> trades = loaded != null ? loaded : new java.util.ArrayList<>();
+                
+                // Count buy and sell orders
+                int buys = 0;
+                int sells = 0;
+                StringBuilder tradesList = new StringBuilder();
+                
+                for (Trade trade : trades) {
+                    if ("BUY".equals(trade.getSide())) {
+                        buys++;
+                    } else if ("SELL".equals(trade.getSide())) {
+                        sells++;
+                    }
+                    
+                    // Format trade info for display
+                    tradesList.append(String.format("Trade ID: %d | Symbol: %s | Side: %s | Price: $%.2f | Qty: %.4f | Executed: %s%n",
+                        trade.getId(),
+                        trade.getSymbol(),
+                        trade.getSide(),
+                        trade.getExecutedPrice(),
+                        trade.getQuantity(),
+                        trade.getExecutedAt()));
                 }
                 
-                // Format trade info for display
-                tradesList.append(String.format("Trade ID: %d | Symbol: %s | Side: %s | Price: $%.2f | Qty: %.4f | Executed: %s%n",
-                    trade.getId(),
-                    trade.getSymbol(),
-                    trade.getSide(),
-                    trade.getExecutedPrice(),
-                    trade.getQuantity(),
-                    trade.getExecutedAt()));
+                final int finalBuys = buys;
+                final int finalSells = sells;
+                Platform.runLater(() -> {
+                    totalTradesLabel.setText(String.valueOf(trades.size()));
+                    totalBuysLabel.setText(String.valueOf(finalBuys));
+                    totalSellsLabel.setText(String.valueOf(finalSells));
+                    tradesLog.setText(tradesList.toString());
+                });
+                
+            } catch (Exception e) {
+                System.err.println("Error loading trades: " + e.getMessage());
+                e.printStackTrace();
+                Platform.runLater(() -> tradesLog.setText("Error loading trades: " + e.getMessage()));
             }
-            
-            totalBuysLabel.setText(String.valueOf(buys));
-            totalSellsLabel.setText(String.valueOf(sells));
-            tradesLog.setText(tradesList.toString());
-            
-        } catch (Exception e) {
-            System.err.println("Error loading trades: " + e.getMessage());
-            e.printStackTrace();
-            tradesLog.setText("Error loading trades: " + e.getMessage());
-        }
+        });
     }
     
     private void loadOrdersData() {
-        try {
-            // For simplicity, get all users and their orders
-            List<User> users = userDAO.getAllUsers();
-            List<Order> allOrders = new java.util.ArrayList<>();
-            
-            int pending = 0;
-            int executed = 0;
-            StringBuilder ordersList = new StringBuilder();
-            
-            for (User user : users) {
-                var userOrders = tradingService.getAllOrdersForUser(user.getId());
-                for (Order order : userOrders) {
-                    allOrders.add(order);
-                    if ("PENDING".equals(order.getStatus())) {
-                        pending++;
-                    } else if ("EXECUTED".equals(order.getStatus())) {
-                        executed++;
+        ordersLog.setText("Loading orders...");
+        AsyncExecutor.run(() -> {
+            try {
+                // For simplicity, get all users and their orders
+                List<User> users = userDAO.getAllUsers();
+                List<Order> allOrders = new java.util.ArrayList<>();
+                
+                int pending = 0;
+                int executed = 0;
+                StringBuilder ordersList = new StringBuilder();
+                
+                for (User user : users) {
+                    var userOrders = tradingService.getAllOrdersForUser(user.getId());
+                    for (Order order : userOrders) {
+                        allOrders.add(order);
+                        if ("PENDING".equals(order.getStatus())) {
+                            pending++;
+                        } else if ("EXECUTED".equals(order.getStatus())) {
+                            executed++;
+                        }
+                        
+                        // Format order info for display
+                        ordersList.append(String.format("Order ID: %d | User: %s | Symbol: %s | Type: %s | Side: %s | Price: $%.2f | Qty: %.4f | Status: %s%n",
+                            order.getId(),
+                            user.getEmail(),
+                            order.getSymbol(),
+                            order.getType(),
+                            order.getSide(),
+                            order.getPrice(),
+                            order.getQuantity(),
+                            order.getStatus()));
                     }
-                    
-                    // Format order info for display
-                    ordersList.append(String.format("Order ID: %d | User: %s | Symbol: %s | Type: %s | Side: %s | Price: $%.2f | Qty: %.4f | Status: %s%n",
-                        order.getId(),
-                        user.getEmail(),
-                        order.getSymbol(),
-                        order.getType(),
-                        order.getSide(),
-                        order.getPrice(),
-                        order.getQuantity(),
-                        order.getStatus()));
                 }
+                
+                final int finalPending = pending;
+                final int finalExecuted = executed;
+                Platform.runLater(() -> {
+                    totalOrdersLabel.setText(String.valueOf(allOrders.size()));
+                    pendingOrdersLabel.setText(String.valueOf(finalPending));
+                    executedOrdersLabel.setText(String.valueOf(finalExecuted));
+                    ordersLog.setText(ordersList.toString());
+                });
+                
+            } catch (Exception e) {
+                System.err.println("Error loading orders: " + e.getMessage());
+                e.printStackTrace();
+                Platform.runLater(() -> ordersLog.setText("Error loading orders: " + e.getMessage()));
             }
-            
-            totalOrdersLabel.setText(String.valueOf(allOrders.size()));
-            pendingOrdersLabel.setText(String.valueOf(pending));
-            executedOrdersLabel.setText(String.valueOf(executed));
-            ordersLog.setText(ordersList.toString());
-            
-        } catch (Exception e) {
-            System.err.println("Error loading orders: " + e.getMessage());
-            e.printStackTrace();
-            ordersLog.setText("Error loading orders: " + e.getMessage());
-        }
+        });
     }
     
     private void loadSystemStats() {
-        try {
-            List<User> users = userDAO.getAllUsers();
-            List<Trade> trades = tradeDAO.getAllTrades();
-            
-            // Count unique cryptocurrencies
-            java.util.Set<String> cryptos = new java.util.HashSet<>();
-            if (trades != null) {
-                for (Trade trade : trades) {
-                    cryptos.add(trade.getSymbol());
+        AsyncExecutor.run(() -> {
+            try {
+                List<User> users = userDAO.getAllUsers();
+                List<Trade> trades = tradeDAO.getAllTrades();
+                
+                // Count unique cryptocurrencies
+                java.util.Set<String> cryptos = new java.util.HashSet<>();
+                if (trades != null) {
+                    for (Trade trade : trades) {
+                        cryptos.add(trade.getSymbol());
+                    }
                 }
-            }
-            cryptoCountLabel.setText(String.valueOf(cryptos.size()));
-            
-            // Calculate total volume
-            double totalVolume = 0;
-            if (trades != null) {
-                for (Trade trade : trades) {
-                    totalVolume += trade.getExecutedPrice() * trade.getQuantity();
+                
+                // Calculate total volume
+                double totalVolume = 0;
+                if (trades != null) {
+                    for (Trade trade : trades) {
+                        totalVolume += trade.getExecutedPrice() * trade.getQuantity();
+                    }
                 }
+                
+                // Calculate average balance
+                double avgBalance = 0;
+                if (!users.isEmpty()) {
+                    double sum = 0;
+                    for (User user : users) {
+                        sum += user.getBalance();
+                    }
+                    avgBalance = sum / users.size();
+                }
+                
+                // Activity log
+                String log = "Platform loaded at " + java.time.LocalDateTime.now() + "\n\n";
+                log += "Total Users: " + users.size() + "\n";
+                log += "Total Trades: " + (trades != null ? trades.size() : 0) + "\n";
+                log += "Unique Cryptocurrencies: " + cryptos.size() + "\n";
+                log += "Total Platform Volume: $" + String.format("%.2f", totalVolume) + "\n";
+                long[] archived = archiveDAO.getArchiveCounts();
+                log += "Archived Orders / Trades: " + archived[0] + " / " + archived[1] +
+                       " (older than " + ArchiveService.getInstance().getMaxAgeDays() + " days)\n";
+                log += "\n" + FxStallMonitor.getInstance().summary() + "\n";
+                log += LiquidationService.getInstance().summary() + "\n";
+                log += NotificationDispatcher.getInstance().summary() + "\n";
+                log += "\nEntity cache:\n";
+                for (EntityCache<?, ?> cache : EntityCache.getAll()) {
+                    log += "  " + cache.summary() + "\n";
+                }
+                
+                final double finalTotalVolume = totalVolume;
+                final double finalAvgBalance = avgBalance;
+                final String finalLog = log;
+                Platform.runLater(() -> {
+                    cryptoCountLabel.setText(String.valueOf(cryptos.size()));
+                    volumeLabel.setText(String.format("$%.2f", finalTotalVolume));
+                    avgBalanceLabel.setText(String.format("$%.2f", finalAvgBalance));
+                    activityLog.setText(finalLog);
+                });
+                
+            } catch (Exception e) {
+                System.err.println("Error loading system stats: " + e.getMessage());
             }
-            volumeLabel.setText(String.format("$%.2f", totalVolume));
-            
-            // Calculate average balance
-            double avgBalance = 0;
-            if (!users.isEmpty()) {
-                double sum = 0;
-                for (User user : users) {
-                    sum += user.getBalance();
+        });
+    }
+    
+    private void loadLeaderboard() {
+        leaderboardLog.setText("Loading leaderboard...");
+        refreshLeaderboardButton.setDisable(true);
+        AsyncExecutor.run(() -> {
+            try {
+                LeaderboardService.Leaderboard lb = LeaderboardService.getInstance().getLeaderboard(10);
+                
+                java.util.Map<Integer, String> emails = new java.util.HashMap<>();
+                for (User user : userDAO.getAllUsers()) {
+                    emails.put(user.getId(), user.getEmail());
                 }
-                avgBalance = sum / users.size();
+                
+                StringBuilder log = new StringBuilder();
+                log.append(String.format("%s refresh: %d trades read in %d ms%n",
+                    lb.fullRebuild ? "Full" : "Incremental", lb.rowsRead, lb.elapsedMs));
+                
+                log.append("\nTop Realized P&L\n");
+                appendLeaderboardRows(log, lb.topByPnl, emails);
+                log.append("\nTop Win Rate (min ").append(LeaderboardService.MIN_CLOSED_FOR_RATES).append(" closed trades)\n");
+                appendLeaderboardRows(log, lb.topByWinRate, emails);
+                log.append("\nLargest Drawdown (risk watch)\n");
+                appendLeaderboardRows(log, lb.topByDrawdown, emails);
+                
+                Platform.runLater(() -> {
+                    rankedUsersLabel.setText(String.valueOf(lb.rankedUsers));
+                    leaderboardTimeLabel.setText(lb.elapsedMs + " ms");
+                    leaderboardLog.setText(log.toString());
+                    refreshLeaderboardButton.setDisable(false);
+                });
+                
+            } catch (Exception e) {
+                System.err.println("Error loading leaderboard: " + e.getMessage());
+                Platform.runLater(() -> {
+                    leaderboardLog.setText("Error loading leaderboard: " + e.getMessage());
+                    refreshLeaderboardButton.setDisable(false);
+                });
             }
-            avgBalanceLabel.setText(String.format("$%.2f", avgBalance));
-            
-            // Activity log
-            String log = "Platform loaded at " + java.time.LocalDateTime.now() + "\n\n";
-            log += "Total Users: " + users.size() + "\n";
-            log += "Total Trades: " + (trades != null ? trades.size() : 0) + "\n";
-            log += "Unique Cryptocurrencies: " + cryptos.size() + "\n";
-            log += "Total Platform Volume: $" + String.format("%.2f", totalVolume) + "\n";
-            
-            activityLog.setText(log);
-            
-        } catch (Exception e) {
-            System.err.println("Error loading system stats: " + e.getMessage());
+        });
+    }
+    
+    private void appendLeaderboardRows(StringBuilder log, List<LeaderboardService.Entry> entries,
+                                       java.util.Map<Integer, String> emails) {
+        if (entries.isEmpty()) {
+            log.append("  (no users yet)\n");
+            return;
+        }
+        int rank = 1;
+        for (LeaderboardService.Entry entry : entries) {
+            log.append(String.format("%3d. %-30s P&L: $%12.2f | Win: %5.1f%% | Closed: %5d | Max DD: $%10.2f%n",
+                rank++,
+                emails.getOrDefault(entry.userId, "user #" + entry.userId),
+                entry.metrics.realizedPnl,
+                entry.metrics.winRate * 100,
+                entry.metrics.closedTrades,
+                entry.metrics.maxDrawdown));
+        }
+    }
+    
+    private void handleRunScenario() {
+        StressTestService.Scenario scenario = StressTestService.parseScenario(scenarioField.getText());
+        if (scenario == null) {
+            AlertUtils.showError("Invalid Scenario", "Enter shocks as SYMBOL PERCENT pairs, e.g. BTC -20, ETH -30, * -10");
+            return;
         }
+        runStressTest(List.of(scenario), false);
+    }
+    
+    private void runStressTest(List<StressTestService.Scenario> scenarios, boolean reload) {
+        stressLog.setText("Running " + scenarios.size() + " scenario(s)...");
+        runScenarioButton.setDisable(true);
+        runPresetsButton.setDisable(true);
+        long start = System.currentTimeMillis();
+        StressTestService.getInstance().runScenariosAsync(scenarios, reload).thenAccept(results -> {
+            long elapsed = System.currentTimeMillis() - start;
+            StringBuilder log = new StringBuilder();
+            if (results == null) {
+                log.append("Error loading holdings, see console");
+            } else {
+                for (StressTestService.Result r : results) {
+                    log.append(String.format("%s (%d us)%n", r.scenario.name, r.elapsedMicros));
+                    log.append(String.format("  NAV: $%,.2f -> $%,.2f (%+,.2f)%n", r.navBefore, r.navAfter, r.navAfter - r.navBefore));
+                    log.append(String.format("  Below maintenance: %d users, shortfall $%,.2f%n", r.usersBelowMaintenance, r.shortfall));
+                    log.append(String.format("  Negative NAV: %d users, bad debt $%,.2f%n", r.usersNegative, r.badDebt));
+                    for (StressTestService.Entry entry : r.worst) {
+                        log.append(String.format("    user #%-8d $%,14.2f -> $%,14.2f%n", entry.userId, entry.navBefore, entry.navAfter));
+                    }
+                    log.append("\n");
+                }
+            }
+            int users = results == null || results.isEmpty() ? 0 : results.get(0).users;
+            Platform.runLater(() -> {
+                stressUsersLabel.setText(String.valueOf(users));
+                stressTimeLabel.setText(elapsed + " ms");
+                stressLog.setText(log.toString());
+                runScenarioButton.setDisable(false);
+                runPresetsButton.setDisable(false);
+            });
+        });
     }
     
     private void goBackToDashboard() {
@@ -2,7 +2,9 @@ package com.tradingdemo.controller;
 
 import com.tradingdemo.dao.AlertDAO;
 import com.tradingdemo.model.AlertRule;
+import com.tradingdemo.service.AlertService;
 import com.tradingdemo.service.AuthService;
+import com.tradingdemo.service.SymbolSeries;
 import com.tradingdemo.util.AlertUtils;
 
 import javafx.fxml.FXML;
@@ -10,6 +12,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
@@ -21,7 +24,12 @@ import java.io.IOException;
 
 public class AlertsController {
     @FXML private TextField symbolField;
+    @FXML private ComboBox<String> typeComboBox;
+    @FXML private TextField windowField;
     @FXML private TextField priceField;
+    @FXML private ComboBox<String> modeComboBox;
+    @FXML private TextField hysteresisField;
+    @FXML private TextField cooldownField;
     @FXML private Button aboveBtn;
     @FXML private Button belowBtn;
     @FXML private ListView<AlertRule> alertsList;
@@ -32,8 +40,15 @@ public class AlertsController {
     @FXML private Button backBtn;
 
     private final AlertDAO alertDAO = new AlertDAO();
+    private final AlertService alertService = AlertService.getInstance();
 
     public void initialize() {
+        typeComboBox.getItems().setAll(AlertRule.TYPE_PRICE, AlertRule.TYPE_PCT_CHANGE, AlertRule.TYPE_VOLUME_SPIKE,
+                AlertRule.TYPE_SMA_CROSS, AlertRule.TYPE_EMA_CROSS, AlertRule.TYPE_RSI);
+        typeComboBox.setValue(AlertRule.TYPE_PRICE);
+        windowField.disableProperty().bind(typeComboBox.valueProperty().isEqualTo(AlertRule.TYPE_PRICE));
+        modeComboBox.getItems().setAll(AlertRule.MODE_REPEAT, AlertRule.MODE_ONE_SHOT);
+        modeComboBox.setValue(AlertRule.MODE_REPEAT);
         aboveBtn.setOnAction(e -> createAlert(true));
         belowBtn.setOnAction(e -> createAlert(false));
         enableBtn.setOnAction(e -> setSelectedEnabled(true));
@@ -54,7 +69,7 @@ public class AlertsController {
         boolean confirmed = AlertUtils.showConfirmation("Confirm Delete", String.format("Delete alert for %s at %.4f?", sel.getSymbol(), sel.getTargetPrice()));
         if (!confirmed) return;
         try {
-            if (alertDAO.deleteAlert(sel.getId())) {
+            if (alertService.deleteAlert(sel.getId())) {
                 AlertUtils.showInfo("Deleted", "Alert deleted successfully.");
                 refreshList();
             } else {
@@ -77,8 +92,13 @@ public class AlertsController {
                         setContextMenu(null);
                     } else {
                         String cmp = item.isNotifyWhenAbove() ? ">=" : "<=";
-                        String text = String.format("%s  |  target: %.4f %s  |  %s",
-                                item.getSymbol(), item.getTargetPrice(), cmp, item.isEnabled() ? "ENABLED" : "DISABLED");
+                        String state = !item.isEnabled() ? "DISABLED" : item.isArmed() ? "ARMED" : "TRIGGERED";
+                        String condition = AlertRule.TYPE_PRICE.equals(item.getType())
+                                ? "price"
+                                : item.getType() + "(" + item.getWindowMinutes() + " min)";
+                        String text = String.format("%s  |  %s %s %.4f  |  %s  |  re-arm %.2f%%, cooldown %d min  |  %s",
+                                item.getSymbol(), condition, cmp, item.getTargetPrice(), item.getMode(),
+                                item.getHysteresisPct(), item.getCooldownSeconds() / 60, state);
                         setText(text);
                         // color for enabled/disabled
                         if (item.isEnabled()) {
@@ -90,7 +110,7 @@ public class AlertsController {
                         MenuItem toggle = new MenuItem(item.isEnabled() ? "Disable" : "Enable");
                         toggle.setOnAction(ev -> {
                             item.setEnabled(!item.isEnabled());
-                            if (alertDAO.updateAlert(item)) refreshList();
+                            if (alertService.updateAlert(item)) refreshList();
                         });
                         ContextMenu menu = new ContextMenu(toggle);
                         setContextMenu(menu);
@@ -134,12 +154,30 @@ public class AlertsController {
             String sym = symbolField.getText().trim().toUpperCase();
             double p = Double.parseDouble(priceField.getText().trim());
             AlertRule a = new AlertRule(user.getId(), sym, p, above);
-            if (alertDAO.createAlert(a)) {
+            a.setType(typeComboBox.getValue());
+            if (!AlertRule.TYPE_PRICE.equals(a.getType())) {
+                int window = Integer.parseInt(windowField.getText().trim());
+                if (window < 1 || window > SymbolSeries.MAX_WINDOW_MINUTES) {
+                    AlertUtils.showWarning("Input Error", "Window must be between 1 and " + SymbolSeries.MAX_WINDOW_MINUTES + " minutes");
+                    return;
+                }
+                a.setWindowMinutes(window);
+            }
+            a.setMode(modeComboBox.getValue());
+            String h = hysteresisField.getText().trim();
+            if (!h.isEmpty()) a.setHysteresisPct(Double.parseDouble(h));
+            String c = cooldownField.getText().trim();
+            if (!c.isEmpty()) a.setCooldownSeconds(Integer.parseInt(c) * 60);
+            if (a.getHysteresisPct() < 0 || a.getCooldownSeconds() < 0) {
+                AlertUtils.showWarning("Input Error", "Re-arm % and cooldown must not be negative");
+                return;
+            }
+            if (alertService.createAlert(a)) {
                 AlertUtils.showInfo("Alert Created", "Alert created for " + sym);
                 refreshList();
             } else AlertUtils.showError("Error", "Failed to create alert");
         } catch (NumberFormatException nfe) {
-            AlertUtils.showWarning("Input Error", "Invalid price");
+            AlertUtils.showWarning("Input Error", "Invalid threshold, window, re-arm % or cooldown");
         }
     }
 
@@ -147,7 +185,7 @@ public class AlertsController {
         AlertRule sel = alertsList.getSelectionModel().getSelectedItem();
         if (sel == null) return;
         sel.setEnabled(enabled);
-        if (alertDAO.updateAlert(sel)) refreshList();
+        if (alertService.updateAlert(sel)) refreshList();
     }
 
     private void goBack() {
@@ -1,13 +1,13 @@
 package com.tradingdemo.controller;
 
 import java.io.IOException;
-import java.util.List;
 
 import com.tradingdemo.model.User;
 import com.tradingdemo.service.AuthService;
-import com.tradingdemo.service.WalletService;
+import com.tradingdemo.service.PortfolioValuationService;
 import com.tradingdemo.util.AlertUtils;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -45,7 +45,8 @@ public class DashboardController {
     @FXML
     private Button profilebutton;
 
-    private final WalletService walletService = new WalletService();
+    private final PortfolioValuationService valuationService = PortfolioValuationService.getInstance();
+    private Runnable valuationSubscription;
     private final com.tradingdemo.service.AlertService alertService = com.tradingdemo.service.AlertService.getInstance();
 
     @FXML
@@ -148,43 +149,19 @@ public class DashboardController {
     }
 
     private void updateBalance(int userId) {
-        try {
-            System.out.println("DEBUG: Getting balance for user ID: " + userId);
-            double balance = walletService.getUserBalance(userId);
-            System.out.println("DEBUG: User balance: " + balance);
-            
-            // Calculate portfolio value (holdings + cash balance)
-            List<com.tradingdemo.model.WalletItem> holdings = walletService.getUserWallet(userId);
-            double portfolioValue = balance; // Start with cash balance
-            
-            for (com.tradingdemo.model.WalletItem item : holdings) {
-                // Simulate current price for portfolio calculation
-                double currentPrice = simulatePrice(item.getSymbol());
-                portfolioValue += item.getQuantity() * currentPrice;
-            }
-            
-            System.out.println("DEBUG: Portfolio value: " + portfolioValue);
-            balanceLabel.setText(String.format("Balance: $%.2f", balance));
-            portfolioLabel.setText(String.format("Portfolio: $%.2f", portfolioValue));
-        } catch (Exception e) {
-            System.err.println("ERROR updating balance: " + e.getMessage());
-            e.printStackTrace();
-            balanceLabel.setText("Balance: Error");
-            portfolioLabel.setText("Portfolio: Error");
-        }
+        balanceLabel.setText("Balance: ...");
+        portfolioLabel.setText("Portfolio: ...");
+        // Portfolio value = cash balance + locked margin + unrealized P/L, revalued on every price tick
+        valuationSubscription = valuationService.subscribe(userId, v -> Platform.runLater(() -> {
+            balanceLabel.setText(String.format("Balance: $%.2f", v.cash));
+            portfolioLabel.setText(String.format("Portfolio: $%.2f", v.nav));
+        }));
     }
-    
-    // Simulate cryptocurrency prices for portfolio calculation
-    private double simulatePrice(String symbol) {
-        switch (symbol.toUpperCase()) {
-            case "BTC": return 69034.61;
-            case "ETH": return 3542.88;
-            case "BNB": return 421.35;
-            case "ADA": return 0.58;
-            case "SOL": return 125.43;
-            case "XRP": return 0.62;
-            case "DOGE": return 0.087;
-            default: return 1.0;
+
+    private void stopValuationUpdates() {
+        if (valuationSubscription != null) {
+            valuationSubscription.run();
+            valuationSubscription = null;
         }
     }
 
@@ -224,6 +201,7 @@ public class DashboardController {
 
     @FXML
     private void handleLogout() {
+        stopValuationUpdates();
         AuthService authService = new AuthService();
         authService.logout();
         
@@ -252,6 +230,7 @@ public class DashboardController {
     private void loadView(String fxmlPath, String viewName) {
         try {
             System.out.println("DEBUG: Loading view: " + viewName + " from " + fxmlPath);
+            stopValuationUpdates();
             FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
             Parent root = loader.load();
             Stage stage = (Stage) tradingButton.getScene().getWindow();
@@ -8,6 +8,7 @@ import com.tradingdemo.service.AuthService;
 import com.tradingdemo.service.TradingService;
 import com.tradingdemo.util.AlertUtils;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -55,9 +56,12 @@ public class HistoryController {
     }
 
     private void refreshHistory() {
-        historyListView.getItems().clear();
         int userId = authService.getCurrentUser().getId();
-        List<Trade> trades = tradingService.getTradeHistory(userId);
+        tradingService.getTradeHistoryAsync(userId).thenAcceptAsync(this::showHistory, Platform::runLater);
+    }
+
+    private void showHistory(List<Trade> trades) {
+        historyListView.getItems().clear();
         
         for (Trade trade : trades) {
             historyListView.getItems().add(String.format(
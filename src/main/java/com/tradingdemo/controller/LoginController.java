@@ -5,10 +5,13 @@ import java.io.IOException;
 import com.tradingdemo.dao.LoginAuditDAO;
 import com.tradingdemo.service.AuthService;
 import com.tradingdemo.service.IPInfoService;
+import com.tradingdemo.model.User;
 import com.tradingdemo.util.AlertUtils;
+import com.tradingdemo.util.AsyncExecutor;
 import javafx.scene.control.TextInputDialog;
 import java.util.Optional;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -63,9 +66,27 @@ public class LoginController {
 
         System.out.println("DEBUG: Attempting login with email: " + email);
 
+        // BCrypt verification and the user lookup run on a virtual thread
+        loginButton.setDisable(true);
+        authService.loginAsync(email, password)
+            .thenAcceptAsync(this::onLoginResult, Platform::runLater)
+            .exceptionally(e -> {
+                Platform.runLater(() -> {
+                    loginButton.setDisable(false);
+                    AlertUtils.showError("Login Error", "An error occurred: " + e.getMessage());
+                    passwordField.clear();
+                });
+                return null;
+            });
+    }
+
+    /**
+     * Continues the login flow on the FX thread once credentials were checked
+     * @param user The authenticated user, or null if authentication failed
+     */
+    private void onLoginResult(User user) {
+        loginButton.setDisable(false);
         try {
-            // Attempt login
-            var user = authService.login(email, password);
             if (user != null) {
                 // If user has 2FA enabled, prompt for TOTP code
                 if (user.isTwoFactorEnabled()) {
@@ -98,7 +119,7 @@ public class LoginController {
                 System.out.println("DEBUG: Login successful, loading dashboard...");
                 
                 // Capture IP information for audit logging and session
-                new Thread(() -> {
+                AsyncExecutor.run(() -> {
                     IPInfoService.IPInfo ipInfo = IPInfoService.getIPInfo();
                     // Store in auth service for display in profile
                     com.tradingdemo.service.AuthService.setSessionIPInfo(ipInfo);
@@ -110,7 +131,7 @@ public class LoginController {
                     String location = (ipInfo != null) ? ipInfo.city + ", " + ipInfo.country : "Unknown";
                     String ipAddress = (ipInfo != null) ? ipInfo.ip : "N/A";
                     System.out.println("LOGIN AUDIT: User " + user.getEmail() + " logged in from " + location + " (IP: " + ipAddress + ")");
-                }).start();
+                });
                 
                 AlertUtils.showInfo("Success", "Welcome " + user.getFirstName() + "!");
                 loadDashboard();
@@ -8,6 +8,7 @@ import com.tradingdemo.model.News;
 import com.tradingdemo.service.AggregatedNewsService;
 import com.tradingdemo.service.NewsService;
 import com.tradingdemo.util.AlertUtils;
+import com.tradingdemo.util.AsyncExecutor;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
@@ -113,7 +114,7 @@ public class NewsController {
         updateStatus("Fetching latest news from CryptoCompare, CryptoPanic, CoinDesk, Cointelegraph...", false);
         
         // Try to fetch from real APIs first
-        new Thread(() -> {
+        AsyncExecutor.run(() -> {
             try {
                 System.out.println("Starting news fetch from aggregated sources...");
                 List<News> apiNews = aggregatedNewsService.getAggregatedNews(100); // Fetch 100 from each source
@@ -128,14 +129,14 @@ public class NewsController {
                     });
                 } else {
                     // Fallback to demo news
-                    loadDemoNews();
+                    Platform.runLater(() -> loadDemoNews());
                 }
             } catch (Exception e) {
                 System.err.println("Error loading real news: " + e.getMessage());
                 e.printStackTrace();
                 Platform.runLater(() -> loadDemoNews());
             }
-        }).start();
+        });
     }
 
     /**
@@ -1,20 +1,27 @@
 package com.tradingdemo.controller;
 
+import com.tradingdemo.model.EquityCurve;
 import com.tradingdemo.model.PerformanceMetrics;
 import com.tradingdemo.service.PerformanceService;
 import com.tradingdemo.service.AuthService;
 import com.tradingdemo.util.AlertUtils;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 public class PerformanceController {
 
@@ -22,19 +29,82 @@ public class PerformanceController {
     @FXML private Label winRateLabel;
     @FXML private Label realizedPnlLabel;
     @FXML private Label avgProfitLabel;
+    @FXML private Label maxDrawdownLabel;
+    @FXML private Label sharpeLabel;
+    @FXML private Label sortinoLabel;
+    @FXML private Label profitFactorLabel;
+    @FXML private Label avgHoldLabel;
+    @FXML private Label exposureLabel;
+    @FXML private TextArea symbolBreakdownArea;
     @FXML private LineChart<Number, Number> equityChart;
+    @FXML private NumberAxis xAxis;
+    @FXML private Label chartRangeLabel;
     @FXML private Button refreshButton;
     @FXML private Button backButton;
 
+    private static final int MIN_VISIBLE_POINTS = 10;
+
     private final PerformanceService perfService = new PerformanceService();
+    private final XYChart.Series<Number, Number> equitySeries = new XYChart.Series<>();
+
+    // Full equity curve and the visible index range [viewFrom, viewTo)
+    private EquityCurve equity = new EquityCurve();
+    private int viewFrom = 0;
+    private int viewTo = 0;
+    private double dragStartX = Double.NaN;
+    private int dragStartFrom = 0;
+    private double dragPointsPerPixel = 0;
 
     @FXML
     public void initialize() {
         refreshButton.setOnAction(e -> loadMetrics());
         backButton.setOnAction(e -> goBack());
+        setupEquityChart();
         loadMetrics();
     }
 
+    /**
+     * The chart only ever holds about one point per horizontal pixel: the visible range is
+     * downsampled (LTTB) from the full curve on every zoom, pan or resize.
+     * Scroll to zoom around the cursor, drag to pan, double-click to show everything.
+     */
+    private void setupEquityChart() {
+        equityChart.setAnimated(false);
+        equityChart.setCreateSymbols(false);
+        xAxis.setAutoRanging(false);
+        equitySeries.setName("Equity");
+        equityChart.getData().add(equitySeries);
+
+        equityChart.widthProperty().addListener((obs, oldW, newW) -> renderEquity());
+
+        equityChart.setOnScroll(e -> {
+            int visible = viewTo - viewFrom;
+            if (equity.size() < 2 || e.getDeltaY() == 0) return;
+            double factor = e.getDeltaY() > 0 ? 0.8 : 1.25;
+            int newVisible = (int) Math.round(visible * factor);
+            newVisible = Math.max(Math.min(MIN_VISIBLE_POINTS, equity.size()), Math.min(equity.size(), newVisible));
+            // Keep the point under the cursor in place
+            double anchor = indexAtSceneX(e.getSceneX());
+            double ratio = visible > 1 ? (anchor - viewFrom) / (visible - 1) : 0.5;
+            setView((int) Math.round(anchor - ratio * (newVisible - 1)), newVisible);
+            e.consume();
+        });
+        equityChart.setOnMousePressed(e -> {
+            dragStartX = e.getSceneX();
+            dragStartFrom = viewFrom;
+            dragPointsPerPixel = xAxis.getWidth() > 0 ? (viewTo - viewFrom) / xAxis.getWidth() : 0;
+        });
+        equityChart.setOnMouseDragged(e -> {
+            if (Double.isNaN(dragStartX)) return;
+            int shift = (int) Math.round((dragStartX - e.getSceneX()) * dragPointsPerPixel);
+            setView(dragStartFrom + shift, viewTo - viewFrom);
+        });
+        equityChart.setOnMouseReleased(e -> dragStartX = Double.NaN);
+        equityChart.setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2) setView(0, equity.size());
+        });
+    }
+
     private void goBack() {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/tradingdemo/view/dashboard.fxml"));
@@ -60,20 +130,89 @@ public class PerformanceController {
         var current = AuthService.getCurrentUser();
         if (current == null) return;
 
-        PerformanceMetrics m = perfService.computeForUser(current.getId());
+        perfService.computeForUserAsync(current.getId())
+            .thenAcceptAsync(this::showMetrics, Platform::runLater)
+            .exceptionally(e -> {
+                System.err.println("Error computing performance: " + e.getMessage());
+                return null;
+            });
+    }
 
+    private void showMetrics(PerformanceMetrics m) {
         totalTradesLabel.setText("Total Trades: " + m.totalTrades);
         winRateLabel.setText(String.format("Win Rate: %.1f%%", m.winRate * 100.0));
-        realizedPnlLabel.setText(String.format("Realized P&L: $%.2f", m.realizedPnl));
+        realizedPnlLabel.setText(String.format("Realized P&L: $%.2f (%s lots: $%.2f)",
+            m.realizedPnl, m.lotMethod, m.lotRealizedPnl));
         avgProfitLabel.setText(String.format("Avg P&L/Trade: $%.2f", m.avgProfitPerTrade));
 
-        // Populate equity chart
-        equityChart.getData().clear();
-        XYChart.Series<Number, Number> s = new XYChart.Series<>();
-        s.setName("Equity");
-        for (int i = 0; i < m.equityValues.size(); i++) {
-            s.getData().add(new XYChart.Data<>(i + 1, m.equityValues.get(i)));
+        // Risk metrics
+        maxDrawdownLabel.setText(String.format("Max Drawdown: $%.2f", m.maxDrawdown));
+        sharpeLabel.setText(m.closedTrades > 1 ? String.format("Sharpe: %.2f", m.sharpeRatio) : "Sharpe: --");
+        sortinoLabel.setText(m.sortinoRatio != 0 ? String.format("Sortino: %.2f", m.sortinoRatio) : "Sortino: --");
+        profitFactorLabel.setText("Profit Factor: " + formatProfitFactor(m.profitFactor, m.closedTrades));
+        avgHoldLabel.setText(m.closedTrades > 0 ? "Avg Hold: " + formatDuration((long) m.avgHoldMillis) : "Avg Hold: --");
+        exposureLabel.setText(String.format("Exposure: %.1f%%", m.exposure * 100.0));
+
+        StringBuilder sb = new StringBuilder(String.format("%-8s %8s %8s %14s %10s %12s%n",
+            "Symbol", "Closed", "Win %", "Realized P&L", "PF", "Avg Hold"));
+        for (Map.Entry<String, PerformanceMetrics.SymbolMetrics> e : m.bySymbol.entrySet()) {
+            PerformanceMetrics.SymbolMetrics sm = e.getValue();
+            sb.append(String.format("%-8s %8d %7.1f%% %14.2f %10s %12s%n",
+                e.getKey(), sm.closedTrades, sm.getWinRate() * 100.0, sm.realizedPnl,
+                formatProfitFactor(sm.getProfitFactor(), sm.closedTrades),
+                sm.closedTrades > 0 ? formatDuration(sm.holdMillis / sm.closedTrades) : "--"));
+        }
+        if (m.bySymbol.isEmpty()) {
+            sb.append("No closed positions yet");
         }
-        equityChart.getData().add(s);
+        symbolBreakdownArea.setText(sb.toString());
+
+        // Populate equity chart (full range)
+        equity = m.equity;
+        setView(0, equity.size());
+    }
+
+    private void setView(int from, int visible) {
+        visible = Math.max(0, Math.min(visible, equity.size()));
+        viewFrom = Math.max(0, Math.min(from, equity.size() - visible));
+        viewTo = viewFrom + visible;
+        renderEquity();
+    }
+
+    private void renderEquity() {
+        int maxPoints = Math.max(2, (int) equityChart.getWidth());
+        int[] indices = equity.downsample(viewFrom, viewTo, maxPoints);
+
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            points.add(new XYChart.Data<>(i + 1, equity.getValue(i)));
+        }
+        equitySeries.getData().setAll(points);
+
+        // Trade # axis follows the visible range
+        xAxis.setLowerBound(viewFrom + 1);
+        xAxis.setUpperBound(Math.max(viewFrom + 2, viewTo));
+        xAxis.setTickUnit(Math.max(1, Math.ceil((viewTo - viewFrom) / 10.0)));
+        chartRangeLabel.setText(equity.isEmpty() ? "No closed positions yet" :
+            String.format("Trades %d-%d of %d (%d points drawn) - scroll to zoom, drag to pan, double-click to reset", viewFrom + 1, viewTo, equity.size(), indices.length));
+    }
+
+    // Fractional curve index under a scene x coordinate
+    private double indexAtSceneX(double sceneX) {
+        double axisX = xAxis.sceneToLocal(sceneX, 0).getX();
+        return xAxis.getValueForDisplay(axisX).doubleValue() - 1;
+    }
+
+    private static String formatProfitFactor(double pf, int closedTrades) {
+        if (closedTrades == 0) return "--";
+        return Double.isInfinite(pf) ? "∞" : String.format("%.2f", pf);
+    }
+
+    private static String formatDuration(long millis) {
+        long minutes = millis / 60_000;
+        if (minutes < 60) return minutes + "m";
+        long hours = minutes / 60;
+        if (hours < 48) return hours + "h " + (minutes % 60) + "m";
+        return (hours / 24) + "d " + (hours % 24) + "h";
     }
 }
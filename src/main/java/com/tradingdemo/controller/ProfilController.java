@@ -1,14 +1,17 @@
 package com.tradingdemo.controller;
 import com.tradingdemo.dao.LoginAuditDAO;
 import com.tradingdemo.service.AuthService;
+import com.tradingdemo.service.TradingService;
 import com.tradingdemo.util.AlertUtils;
 import com.tradingdemo.util.QRCodeUtil;
 import com.tradingdemo.util.TOTPUtil;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Label;
 import javafx.scene.control.ButtonType;
@@ -63,7 +66,10 @@ public class ProfilController {
     private Label timezoneLabel;
     @FXML
     private javafx.scene.control.ListView<String> loginHistoryListView;
+    @FXML
+    private ComboBox<String> lotMethodComboBox;
     private final AuthService authService = new AuthService();
+    private final TradingService tradingService = new TradingService();
     private static final String EMAIL_PATTERN = "^[A-Za-z0-9+_.-]+@(.+)$";
     public void initialize() {
         backButton.setOnAction(e -> goBack());
@@ -71,7 +77,9 @@ public class ProfilController {
         resetButton.setOnAction(event -> resetForm());
         enable2FAButton.setOnAction(e -> enableTwoFactor());
         disable2FAButton.setOnAction(e -> disableTwoFactor());
+        lotMethodComboBox.getItems().addAll("FIFO", "LIFO", "AVERAGE");
         loadUserData();
+        lotMethodComboBox.setOnAction(e -> changeLotMethod());
     }
     @FXML
     private void goBack() {
@@ -137,6 +145,25 @@ public class ProfilController {
             AlertUtils.showError("Update Error", "An error occurred: " + e.getMessage());
         }
     }
+    private void changeLotMethod() {
+        var currentUser = AuthService.getCurrentUser();
+        String method = lotMethodComboBox.getValue();
+        if (currentUser == null || method == null || method.equals(currentUser.getLotMethod())) {
+            return;
+        }
+        lotMethodComboBox.setDisable(true);
+        tradingService.setLotMethodAsync(currentUser.getId(), method).thenAccept(success -> Platform.runLater(() -> {
+            lotMethodComboBox.setDisable(false);
+            if (success) {
+                currentUser.setLotMethod(method);
+                AlertUtils.showInfo("Cost Basis", "Closed positions will now be matched using " + method + ".");
+            } else {
+                lotMethodComboBox.setValue(currentUser.getLotMethod());
+                AlertUtils.showError("Cost Basis", "Could not change the cost basis method.");
+            }
+        }));
+    }
+
     private void loadUserData() {
         var currentUser = AuthService.getCurrentUser();
 
@@ -154,6 +181,7 @@ public class ProfilController {
                 enable2FAButton.setDisable(false);
                 disable2FAButton.setDisable(true);
             }
+            lotMethodComboBox.setValue(currentUser.getLotMethod());
         }
 
         // Display session IP information
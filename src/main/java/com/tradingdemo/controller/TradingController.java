@@ -6,10 +6,12 @@ import java.util.Random;
 import com.tradingdemo.model.Order;
 import com.tradingdemo.service.AuthService;
 import com.tradingdemo.service.BinanceApiService;
+import com.tradingdemo.service.PortfolioValuationService;
 import com.tradingdemo.service.SentimentAnalysisService;
 import com.tradingdemo.service.TradingService;
 import com.tradingdemo.service.WalletService;
 import com.tradingdemo.util.AlertUtils;
+import com.tradingdemo.util.AsyncExecutor;
 
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
@@ -431,7 +433,7 @@ public class TradingController {
         
         // Fetch real-time price for new symbol
         if (useRealApi) {
-            new Thread(() -> {
+            AsyncExecutor.run(() -> {
                 BinanceApiService.TickerData tickerData = binanceApiService.get24HourTicker(symbol);
                 
                 if (tickerData != null) {
@@ -454,7 +456,7 @@ public class TradingController {
                         updateSentimentDisplay();
                     });
                 }
-            }).start();
+            });
         } else {
             currentPrice = BASE_PRICES[index];
             updatePriceChart();
@@ -512,7 +514,7 @@ public class TradingController {
         
         // Add TP/SL lines if in price mode
         if ("PRICE".equals(currentChartType)) {
-            addTPSLLines(timeLabels, dataValues);
+            addTPSLLines(mainSeries, timeLabels);
         }
         
         // Update current price from last data point
@@ -601,10 +603,19 @@ public class TradingController {
     /**
      * Add Take Profit (TP) and Stop Loss (SL) reference lines (TradingView style)
      */
-    private void addTPSLLines(String[] timeLabels, double[] prices) {
-        // Get all orders for current symbol to show their TP/SL levels
-        var orders = tradingService.getAllOrdersForUser(authService.getCurrentUser().getId());
-        
+    private void addTPSLLines(XYChart.Series<String, Number> mainSeries, String[] timeLabels) {
+        // Get open orders for current symbol to show their TP/SL levels (off the FX thread)
+        tradingService.getOpenOrdersAsync(authService.getCurrentUser().getId())
+            .thenAcceptAsync(orders -> {
+                // Chart was rebuilt while we were loading - these lines belong to an old series
+                if (!priceChart.getData().contains(mainSeries)) {
+                    return;
+                }
+                drawTPSLLines(orders, timeLabels);
+            }, Platform::runLater);
+    }
+
+    private void drawTPSLLines(java.util.List<Order> orders, String[] timeLabels) {
         boolean addedTP = false;
         boolean addedSL = false;
         
@@ -800,19 +811,23 @@ public class TradingController {
     }
     
     private void updateUserBalance() {
-        try {
-            double balance = walletService.getUserBalance(authService.getCurrentUser().getId());
-            balanceHeaderLabel.setText(String.format("Balance: $%,.2f", balance));
-            availableBalanceLabel.setText(String.format("Available: $%,.2f", balance));
-        } catch (Exception e) {
-            balanceHeaderLabel.setText("Balance: $0.00");
-            availableBalanceLabel.setText("Available: $0.00");
-        }
+        walletService.getUserBalanceAsync(authService.getCurrentUser().getId())
+            .thenAcceptAsync(balance -> {
+                balanceHeaderLabel.setText(String.format("Balance: $%,.2f", balance));
+                availableBalanceLabel.setText(String.format("Available: $%,.2f", balance));
+            }, Platform::runLater)
+            .exceptionally(e -> {
+                Platform.runLater(() -> {
+                    balanceHeaderLabel.setText("Balance: $0.00");
+                    availableBalanceLabel.setText("Available: $0.00");
+                });
+                return null;
+            });
     }
     
     private void startPriceUpdates() {
         // Test API connection first
-        new Thread(() -> {
+        AsyncExecutor.run(() -> {
             boolean apiAvailable = binanceApiService.testConnection();
             useRealApi = apiAvailable;
             
@@ -825,19 +840,20 @@ public class TradingController {
                     AlertUtils.showWarning("API Status", "Binance API is unavailable.\nUsing simulated prices as fallback.");
                 }
             });
-        }).start();
+        });
         
         // Update price every 5 seconds (real-time updates)
         priceUpdateTimeline = new Timeline(new KeyFrame(Duration.seconds(5), event -> {
             if (useRealApi) {
                 // Fetch real price from Binance API in background thread
-                new Thread(() -> {
+                AsyncExecutor.run(() -> {
                     try {
                         BinanceApiService.TickerData tickerData = binanceApiService.get24HourTicker(currentSymbol);
                         
                         if (tickerData != null) {
                             currentTickerData = tickerData;
                             currentPrice = tickerData.currentPrice;
+                            PortfolioValuationService.getInstance().onTick(tickerData.symbol, tickerData.currentPrice);
                             
                             Platform.runLater(() -> {
                                 updatePriceLabelsWithRealData();
@@ -858,7 +874,7 @@ public class TradingController {
                         System.err.println("Error fetching price: " + e.getMessage());
                         simulatePriceMovement();
                     }
-                }).start();
+                });
             } else {
                 // Use simulated price movement
                 simulatePriceMovement();
@@ -892,13 +908,18 @@ public class TradingController {
      * Automatically closes positions when SL or TP is hit
      */
     private void checkStopLossTakeProfitTriggers() {
-        var orders = tradingService.getAllOrdersForUser(authService.getCurrentUser().getId());
+        // Snapshot FX-side state, then do all JDBC work on a virtual thread
+        final int userId = authService.getCurrentUser().getId();
+        final String symbol = currentSymbol;
+        final double price = currentPrice;
+        AsyncExecutor.run(() -> checkStopLossTakeProfitTriggers(userId, symbol, price));
+    }
+
+    private void checkStopLossTakeProfitTriggers(int userId, String symbol, double currentPrice) {
+        // Only executed positions for the current symbol (indexed lookup)
+        var orders = tradingService.getOpenPositionOrders(userId, symbol);
         
         for (Order order : orders) {
-            // Only check executed positions for the current symbol
-            if (!"EXECUTED".equals(order.getStatus()) || !order.getSymbol().equals(currentSymbol)) {
-                continue;
-            }
             
             boolean triggered = false;
             String triggerType = "";
@@ -1012,39 +1033,57 @@ public class TradingController {
             // Check balance for BOTH BUY (long) and SELL (short) orders
             // Both require margin (money to open the position)
             double totalCost = quantity * price;
-            double balance = walletService.getUserBalance(authService.getCurrentUser().getId());
-            if (balance < totalCost) {
-                AlertUtils.showWarning("Insufficient Balance", 
-                    String.format("You need $%.2f margin but only have $%.2f", totalCost, balance));
-                return;
-            }
-
-            // Place order
-            Order order = tradingService.placeOrder(
-                authService.getCurrentUser().getId(),
-                symbol, orderType, side, price, quantity, stopLoss, takeProfit
-            );
+            int userId = authService.getCurrentUser().getId();
+            placeOrderButton.setDisable(true);
+            walletService.getUserBalanceAsync(userId).thenAcceptAsync(balance -> {
+                if (balance < totalCost) {
+                    placeOrderButton.setDisable(false);
+                    AlertUtils.showWarning("Insufficient Balance", 
+                        String.format("You need $%.2f margin but only have $%.2f", totalCost, balance));
+                    return;
+                }
 
-            if (order != null) {
-                System.out.println("DEBUG: Order placed successfully: " + side + " " + quantity + " " + symbol);
-                AlertUtils.showInfo("Success", String.format("Order placed: %s %s %s %s @ $%.2f", 
-                    side, quantity, symbol, orderType, price));
-                clearFields();
-                System.out.println("DEBUG: Calling refreshOrderList()");
-                refreshOrderList();
-                System.out.println("DEBUG: Refreshing chart to show TP/SL lines and markers");
-                updatePriceChart();
-                updateUserBalance();
-                System.out.println("DEBUG: Chart and balance updated");
-            } else {
-                System.out.println("DEBUG: Order placement failed - returned null");
-                AlertUtils.showError("Error", "Failed to place order");
-            }
+                // Place order
+                tradingService.placeOrderAsync(userId, symbol, orderType, side, price, quantity, stopLoss, takeProfit)
+                    .thenAcceptAsync(order -> {
+                        placeOrderButton.setDisable(false);
+                        onOrderPlaced(order, symbol, orderType, side, price, quantity);
+                    }, Platform::runLater)
+                    .exceptionally(this::onPlaceOrderFailed);
+            }, Platform::runLater)
+            .exceptionally(this::onPlaceOrderFailed);
         } catch (NumberFormatException e) {
             AlertUtils.showWarning("Input Error", "Please enter valid numbers");
         }
     }
 
+    private Void onPlaceOrderFailed(Throwable e) {
+        System.err.println("Error placing order: " + e.getMessage());
+        Platform.runLater(() -> {
+            placeOrderButton.setDisable(false);
+            AlertUtils.showError("Error", "Failed to place order");
+        });
+        return null;
+    }
+
+    private void onOrderPlaced(Order order, String symbol, String orderType, String side, double price, double quantity) {
+        if (order != null) {
+            System.out.println("DEBUG: Order placed successfully: " + side + " " + quantity + " " + symbol);
+            AlertUtils.showInfo("Success", String.format("Order placed: %s %s %s %s @ $%.2f", 
+                side, quantity, symbol, orderType, price));
+            clearFields();
+            System.out.println("DEBUG: Calling refreshOrderList()");
+            refreshOrderList();
+            System.out.println("DEBUG: Refreshing chart to show TP/SL lines and markers");
+            updatePriceChart();
+            updateUserBalance();
+            System.out.println("DEBUG: Chart and balance updated");
+        } else {
+            System.out.println("DEBUG: Order placement failed - returned null");
+            AlertUtils.showError("Error", "Failed to place order");
+        }
+    }
+
     private double parseDouble(String text, double defaultValue) {
         try {
             return text.isEmpty() ? defaultValue : Double.parseDouble(text);
@@ -1062,11 +1101,19 @@ public class TradingController {
     }
 
     private void refreshOrderList() {
+        // Load open orders on a virtual thread; the Timeline calls this every 5 seconds
+        tradingService.getOpenOrdersAsync(authService.getCurrentUser().getId())
+            .thenAcceptAsync(this::renderOrderList, Platform::runLater)
+            .exceptionally(e -> {
+                System.err.println("Error refreshing order list: " + e.getMessage());
+                return null;
+            });
+    }
+
+    private void renderOrderList(java.util.List<Order> allOrders) {
         orderListView.getItems().clear();
         displayedOrders.clear();
         
-        // Get all orders for the user
-        var allOrders = tradingService.getAllOrdersForUser(authService.getCurrentUser().getId());
         System.out.println("DEBUG: Refreshing order list - found " + allOrders.size() + " total orders");
         
         double totalPnL = 0.0;
@@ -1168,24 +1215,29 @@ public class TradingController {
             return;
         }
         
-        Double profitLoss = tradingService.closePosition(selectedOrder.getId(), currentPrice);
-        
-        if (profitLoss != null) {
-            String result = profitLoss >= 0 ? 
-                String.format("Profit: +$%.2f", profitLoss) : 
-                String.format("Loss: -$%.2f", Math.abs(profitLoss));
-            
-            AlertUtils.showInfo("Position Closed", 
-                String.format("Closed %s position on %s\n%s", 
-                    "BUY".equals(selectedOrder.getSide()) ? "LONG" : "SHORT",
-                    selectedOrder.getSymbol(), result));
-            
-            refreshOrderList();
-            updateUserBalance();
-            updatePriceChart();
-        } else {
-            AlertUtils.showError("Error", "Failed to close position");
-        }
+        tradingService.closePositionAsync(selectedOrder.getId(), currentPrice).thenAcceptAsync(profitLoss -> {
+            if (profitLoss != null) {
+                String result = profitLoss >= 0 ? 
+                    String.format("Profit: +$%.2f", profitLoss) : 
+                    String.format("Loss: -$%.2f", Math.abs(profitLoss));
+                
+                AlertUtils.showInfo("Position Closed", 
+                    String.format("Closed %s position on %s\n%s", 
+                        "BUY".equals(selectedOrder.getSide()) ? "LONG" : "SHORT",
+                        selectedOrder.getSymbol(), result));
+                
+                refreshOrderList();
+                updateUserBalance();
+                updatePriceChart();
+            } else {
+                AlertUtils.showError("Error", "Failed to close position");
+            }
+        }, Platform::runLater)
+        .exceptionally(e -> {
+            System.err.println("Error closing position: " + e.getMessage());
+            Platform.runLater(() -> AlertUtils.showError("Error", "Failed to close position"));
+            return null;
+        });
     }
     
     private void handleCancelOrder() {
@@ -1202,17 +1254,24 @@ public class TradingController {
             return;
         }
         
-        if (tradingService.cancelOrder(selectedOrder.getId())) {
-            AlertUtils.showInfo("Order Cancelled", 
-                String.format("Cancelled %s order for %s %s", 
-                    "BUY".equals(selectedOrder.getSide()) ? "LONG" : "SHORT",
-                    selectedOrder.getQuantity(), selectedOrder.getSymbol()));
-            
-            refreshOrderList();
-            updateUserBalance();
-        } else {
-            AlertUtils.showError("Error", "Failed to cancel order");
-        }
+        tradingService.cancelOrderAsync(selectedOrder.getId()).thenAcceptAsync(cancelled -> {
+            if (cancelled) {
+                AlertUtils.showInfo("Order Cancelled", 
+                    String.format("Cancelled %s order for %s %s", 
+                        "BUY".equals(selectedOrder.getSide()) ? "LONG" : "SHORT",
+                        selectedOrder.getQuantity(), selectedOrder.getSymbol()));
+                
+                refreshOrderList();
+                updateUserBalance();
+            } else {
+                AlertUtils.showError("Error", "Failed to cancel order");
+            }
+        }, Platform::runLater)
+        .exceptionally(e -> {
+            System.err.println("Error cancelling order: " + e.getMessage());
+            Platform.runLater(() -> AlertUtils.showError("Error", "Failed to cancel order"));
+            return null;
+        });
     }
     
     private double getAverageBuyPrice(String symbol, int userId) {
@@ -1236,7 +1295,7 @@ public class TradingController {
     private void updateSentimentDisplay() {
         if (sentimentIndexLabel == null) return;
         
-        new Thread(() -> {
+        AsyncExecutor.run(() -> {
             try {
                 // Get sentiment for the currently selected cryptocurrency
                 SentimentAnalysisService.SentimentData sentiment = sentimentService.getCryptoSentiment(currentSymbol);
@@ -1279,7 +1338,7 @@ public class TradingController {
                     sentimentReasoningLabel.setText("Sentiment service unavailable");
                 });
             }
-        }).start();
+        });
     }
     
     /**
@@ -1303,7 +1362,7 @@ public class TradingController {
      * Shows detailed sentiment analysis in a dialog
      */
     private void showDetailedSentimentAnalysis() {
-        new Thread(() -> {
+        AsyncExecutor.run(() -> {
             // Get crypto-specific sentiment analysis
             SentimentAnalysisService.SentimentData sentiment = sentimentService.getCryptoSentiment(currentSymbol);
             
@@ -1345,7 +1404,7 @@ public class TradingController {
                     AlertUtils.showError("Error", "Unable to fetch sentiment data for " + currentSymbol);
                 });
             }
-        }).start();
+        });
     }
 
     @FXML
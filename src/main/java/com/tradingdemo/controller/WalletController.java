@@ -1,13 +1,12 @@
 package com.tradingdemo.controller;
 
 import java.io.IOException;
-import java.util.List;
 
-import com.tradingdemo.model.WalletItem;
 import com.tradingdemo.service.AuthService;
-import com.tradingdemo.service.WalletService;
+import com.tradingdemo.service.PortfolioValuationService;
 import com.tradingdemo.util.AlertUtils;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -29,8 +28,9 @@ public class WalletController {
     @FXML private Button refreshButton;
     @FXML private Button backButton;
 
-    private final WalletService walletService = new WalletService();
+    private final PortfolioValuationService valuationService = PortfolioValuationService.getInstance();
     private final AuthService authService = new AuthService();
+    private Runnable valuationSubscription;
 
     @FXML
     public void initialize() {
@@ -52,47 +52,34 @@ public class WalletController {
             return cell;
         });
         
-        refreshButton.setOnAction(e -> refreshWallet());
+        int userId = authService.getCurrentUser().getId();
+        refreshButton.setOnAction(e -> valuationService.onHoldingsChanged(userId));
         backButton.setOnAction(e -> goBack());
-        refreshWallet();
+        // Holdings are revalued in memory on every price tick and pushed here
+        valuationSubscription = valuationService.subscribe(userId, v -> Platform.runLater(() -> showWallet(v)));
     }
 
-    private void refreshWallet() {
+    private void showWallet(PortfolioValuationService.Valuation valuation) {
         walletListView.getItems().clear();
-        int userId = authService.getCurrentUser().getId();
-        List<WalletItem> items = walletService.getUserWallet(userId);
         
-        double totalValue = 0;
-        for (WalletItem item : items) {
-            // Simulate current prices
-            double currentPrice = simulatePrice(item.getSymbol());
-            double itemValue = item.getQuantity() * currentPrice;
-            totalValue += itemValue;
-            
+        for (PortfolioValuationService.Valuation.Line line : valuation.lines) {
+            if (line.side != null) {
+                continue; // open positions are valued on the dashboard
+            }
             walletListView.getItems().add(String.format("%s: %.8f @ $%.2f = $%.2f", 
-                item.getSymbol(), item.getQuantity(), currentPrice, itemValue));
+                line.symbol, line.quantity, line.price, line.value));
         }
         
-        double balance = walletService.getUserBalance(userId);
-        totalValue += balance;
-        totalValueLabel.setText(String.format("Total Balance: $%.2f | Cash: $%.2f", totalValue, balance));
-    }
-
-    private double simulatePrice(String symbol) {
-        // Simulated prices for demo
-        return switch(symbol) {
-            case "BTC" -> 45000 + (Math.random() * 2000);
-            case "ETH" -> 2500 + (Math.random() * 200);
-            case "BNB" -> 350 + (Math.random() * 50);
-            case "ADA" -> 0.50 + (Math.random() * 0.1);
-            case "SOL" -> 140 + (Math.random() * 20);
-            case "XRP" -> 2.50 + (Math.random() * 0.5);
-            default -> 100;
-        };
+        double totalValue = valuation.walletValue + valuation.cash;
+        totalValueLabel.setText(String.format("Total Balance: $%.2f | Cash: $%.2f", totalValue, valuation.cash));
     }
 
     @FXML
     private void goBack() {
+        if (valuationSubscription != null) {
+            valuationSubscription.run();
+            valuationSubscription = null;
+        }
         loadView("/com/tradingdemo/view/dashboard.fxml");
     }
 
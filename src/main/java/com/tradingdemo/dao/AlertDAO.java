@@ -4,10 +4,27 @@ import com.tradingdemo.config.DatabaseConnection;
 import com.tradingdemo.model.AlertRule;
 
 import java.sql.*;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 public class AlertDAO {
+
+    // Crossing state changes on every trigger/re-arm; batched so evaluation never waits on the database.
+    // updated_at only moves when enabled flips, so arming alone does not wake the reconcilers.
+    private static final WriteBehindQueue<StateRow> STATE_WRITER = new WriteBehindQueue<>(
+        "alert_state",
+        "UPDATE alerts SET updated_at = IF(enabled <=> ?, updated_at, CURRENT_TIMESTAMP(3)), " +
+        "armed = ?, last_triggered_at = ?, enabled = ? WHERE id = ?",
+        (ps, row) -> {
+            ps.setBoolean(1, row.enabled);
+            ps.setBoolean(2, row.armed);
+            ps.setTimestamp(3, row.lastTriggeredAt);
+            ps.setBoolean(4, row.enabled);
+            ps.setInt(5, row.id);
+        },
+        10_000, 200, 500);
+
     private final Connection connection;
 
     public AlertDAO() {
@@ -15,7 +32,7 @@ public class AlertDAO {
     }
 
     public boolean createAlert(AlertRule a) {
-        String sql = "INSERT INTO alerts (user_id, symbol, target_price, notify_when_above, enabled, notify_email, notify_sms, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO alerts (user_id, symbol, target_price, notify_when_above, enabled, notify_email, notify_sms, mode, hysteresis_pct, cooldown_seconds, armed, alert_type, window_minutes, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, a.getUserId());
             stmt.setString(2, a.getSymbol());
@@ -24,7 +41,13 @@ public class AlertDAO {
             stmt.setBoolean(5, a.isEnabled());
             stmt.setBoolean(6, a.isNotifyEmail());
             stmt.setBoolean(7, a.isNotifySms());
-            stmt.setTimestamp(8, Timestamp.valueOf(a.getCreatedAt()));
+            stmt.setString(8, a.getMode());
+            stmt.setDouble(9, a.getHysteresisPct());
+            stmt.setInt(10, a.getCooldownSeconds());
+            stmt.setBoolean(11, a.isArmed());
+            stmt.setString(12, a.getType());
+            stmt.setInt(13, a.getWindowMinutes());
+            stmt.setTimestamp(14, Timestamp.valueOf(a.getCreatedAt()));
             int r = stmt.executeUpdate();
             if (r > 0) {
                 try (ResultSet rs = stmt.getGeneratedKeys()) { if (rs.next()) a.setId(rs.getInt(1)); }
@@ -49,9 +72,15 @@ public class AlertDAO {
         return out;
     }
 
-    public List<AlertRule> getActiveAlerts() {
+    /**
+     * Enabled alerts of the users in some partitions (user_id % partitionCount)
+     * @param partitions Partition numbers to load (none = no alerts)
+     * @param partitionCount Total number of partitions
+     */
+    public List<AlertRule> getActiveAlerts(int[] partitions, int partitionCount) {
         List<AlertRule> out = new ArrayList<>();
-        String sql = "SELECT * FROM alerts WHERE enabled = TRUE";
+        if (partitions.length == 0) return out;
+        String sql = "SELECT * FROM alerts WHERE enabled = TRUE" + partitionFilter(partitions, partitionCount);
         try (Statement stmt = connection.createStatement()) {
             ResultSet rs = stmt.executeQuery(sql);
             while (rs.next()) out.add(map(rs));
@@ -59,8 +88,58 @@ public class AlertDAO {
         return out;
     }
 
+    /**
+     * Alerts changed (created, edited, enabled or disabled) after a point in time, oldest change first
+     * Uses the updated_at index, so an idle table costs one index probe.
+     */
+    public List<AlertRule> getAlertsChangedSince(Timestamp since) {
+        List<AlertRule> out = new ArrayList<>();
+        String sql = "SELECT * FROM alerts WHERE updated_at > ? ORDER BY updated_at";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setTimestamp(1, since);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) out.add(map(rs));
+        } catch (SQLException e) { System.err.println("Error reading changed alerts: " + e.getMessage()); return null; }
+        return out;
+    }
+
+    /**
+     * Number of enabled alerts in some partitions, or -1 on error
+     */
+    public int countActiveAlerts(int[] partitions, int partitionCount) {
+        if (partitions.length == 0) return 0;
+        String sql = "SELECT COUNT(*) FROM alerts WHERE enabled = TRUE" + partitionFilter(partitions, partitionCount);
+        try (Statement stmt = connection.createStatement()) {
+            ResultSet rs = stmt.executeQuery(sql);
+            if (rs.next()) return rs.getInt(1);
+        } catch (SQLException e) { System.err.println("Error counting active alerts: " + e.getMessage()); }
+        return -1;
+    }
+
+    // Built from ints only, so it is safe to inline; omitted when every partition is requested
+    private static String partitionFilter(int[] partitions, int partitionCount) {
+        if (partitions.length >= partitionCount) return "";
+        StringBuilder sb = new StringBuilder(" AND MOD(user_id, ").append(partitionCount).append(") IN (");
+        for (int i = 0; i < partitions.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(partitions[i]);
+        }
+        return sb.append(')').toString();
+    }
+
+    /**
+     * Current database time, used as the high-water mark before a full load (null on error)
+     */
+    public Timestamp getDatabaseTime() {
+        try (Statement stmt = connection.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT NOW(3)");
+            if (rs.next()) return rs.getTimestamp(1);
+        } catch (SQLException e) { System.err.println("Error reading database time: " + e.getMessage()); }
+        return null;
+    }
+
     public boolean updateAlert(AlertRule a) {
-        String sql = "UPDATE alerts SET symbol=?, target_price=?, notify_when_above=?, enabled=?, notify_email=?, notify_sms=? WHERE id = ?";
+        String sql = "UPDATE alerts SET symbol=?, target_price=?, notify_when_above=?, enabled=?, notify_email=?, notify_sms=?, mode=?, hysteresis_pct=?, cooldown_seconds=?, alert_type=?, window_minutes=? WHERE id = ?";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, a.getSymbol());
             stmt.setDouble(2, a.getTargetPrice());
@@ -68,12 +147,24 @@ public class AlertDAO {
             stmt.setBoolean(4, a.isEnabled());
             stmt.setBoolean(5, a.isNotifyEmail());
             stmt.setBoolean(6, a.isNotifySms());
-            stmt.setInt(7, a.getId());
+            stmt.setString(7, a.getMode());
+            stmt.setDouble(8, a.getHysteresisPct());
+            stmt.setInt(9, a.getCooldownSeconds());
+            stmt.setString(10, a.getType());
+            stmt.setInt(11, a.getWindowMinutes());
+            stmt.setInt(12, a.getId());
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) { System.err.println("Error updating alert: " + e.getMessage()); }
         return false;
     }
 
+    /**
+     * Queues the crossing state of an alert (armed flag, last trigger, one-shot disable)
+     */
+    public void saveState(int id, boolean armed, LocalDateTime lastTriggeredAt, boolean enabled) {
+        STATE_WRITER.enqueue(new StateRow(id, armed, lastTriggeredAt != null ? Timestamp.valueOf(lastTriggeredAt) : null, enabled));
+    }
+
     public boolean deleteAlert(int id) {
         String sql = "DELETE FROM alerts WHERE id = ?";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -92,10 +183,32 @@ public class AlertDAO {
         a.setSymbol(rs.getString("symbol"));
         a.setTargetPrice(rs.getDouble("target_price"));
         a.setNotifyWhenAbove(rs.getBoolean("notify_when_above"));
+        a.setType(rs.getString("alert_type"));
+        a.setWindowMinutes(rs.getInt("window_minutes"));
         a.setEnabled(rs.getBoolean("enabled"));
         a.setNotifyEmail(rs.getBoolean("notify_email"));
         a.setNotifySms(rs.getBoolean("notify_sms"));
+        a.setMode(rs.getString("mode"));
+        a.setHysteresisPct(rs.getDouble("hysteresis_pct"));
+        a.setCooldownSeconds(rs.getInt("cooldown_seconds"));
+        a.setArmed(rs.getBoolean("armed"));
+        Timestamp lt = rs.getTimestamp("last_triggered_at"); if (lt != null) a.setLastTriggeredAt(lt.toLocalDateTime());
         Timestamp t = rs.getTimestamp("created_at"); if (t != null) a.setCreatedAt(t.toLocalDateTime());
+        Timestamp u = rs.getTimestamp("updated_at"); if (u != null) a.setUpdatedAt(u.toLocalDateTime());
         return a;
     }
+
+    private static class StateRow {
+        final int id;
+        final boolean armed;
+        final Timestamp lastTriggeredAt;
+        final boolean enabled;
+
+        StateRow(int id, boolean armed, Timestamp lastTriggeredAt, boolean enabled) {
+            this.id = id;
+            this.armed = armed;
+            this.lastTriggeredAt = lastTriggeredAt;
+            this.enabled = enabled;
+        }
+    }
 }
@@ -0,0 +1,137 @@
+package com.tradingdemo.dao;
+
+import com.tradingdemo.config.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AlertLeaseDAO - Lease rows that decide which instance evaluates which alert partition
+ * All expiry checks use the database clock (NOW(3)), so instance clocks do not need to agree.
+ */
+public class AlertLeaseDAO {
+    private final Connection connection;
+
+    public AlertLeaseDAO() {
+        this.connection = DatabaseConnection.getInstance().getConnection();
+    }
+
+    /**
+     * Creates the lease rows 0..partitionCount-1 that do not exist yet
+     * @return true if successful, false otherwise
+     */
+    public boolean ensurePartitions(int partitionCount) {
+        String sql = "INSERT IGNORE INTO alert_leases (partition_no) VALUES (?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int p = 0; p < partitionCount; p++) {
+                stmt.setInt(1, p);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error creating alert lease rows: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Records that an instance is alive and counts the instances seen within the lease period
+     * @return Number of live instances (at least 1 including this one), or -1 on error
+     */
+    public int heartbeat(String instanceId, int leaseSeconds) {
+        String upsert = "INSERT INTO alert_instances (instance_id, heartbeat_at) VALUES (?, NOW(3)) " +
+                        "ON DUPLICATE KEY UPDATE heartbeat_at = NOW(3)";
+        String purge = "DELETE FROM alert_instances WHERE heartbeat_at < NOW(3) - INTERVAL ? SECOND";
+        String count = "SELECT COUNT(*) FROM alert_instances WHERE heartbeat_at >= NOW(3) - INTERVAL ? SECOND";
+        try (PreparedStatement up = connection.prepareStatement(upsert);
+             PreparedStatement del = connection.prepareStatement(purge);
+             PreparedStatement cnt = connection.prepareStatement(count)) {
+            up.setString(1, instanceId);
+            up.executeUpdate();
+            del.setInt(1, leaseSeconds * 10);
+            del.executeUpdate();
+            cnt.setInt(1, leaseSeconds);
+            ResultSet rs = cnt.executeQuery();
+            if (rs.next()) return Math.max(1, rs.getInt(1));
+        } catch (SQLException e) {
+            System.err.println("Error recording alert instance heartbeat: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Extends every lease held by an instance
+     * @return The partitions still held after renewal, or null on error
+     */
+    public List<Integer> renew(String instanceId, int leaseSeconds) {
+        String renew = "UPDATE alert_leases SET expires_at = NOW(3) + INTERVAL ? SECOND " +
+                       "WHERE owner = ? AND expires_at >= NOW(3)";
+        String owned = "SELECT partition_no FROM alert_leases WHERE owner = ? AND expires_at >= NOW(3) ORDER BY partition_no";
+        try (PreparedStatement up = connection.prepareStatement(renew);
+             PreparedStatement sel = connection.prepareStatement(owned)) {
+            up.setInt(1, leaseSeconds);
+            up.setString(2, instanceId);
+            up.executeUpdate();
+            sel.setString(1, instanceId);
+            ResultSet rs = sel.executeQuery();
+            List<Integer> out = new ArrayList<>();
+            while (rs.next()) out.add(rs.getInt(1));
+            return out;
+        } catch (SQLException e) {
+            System.err.println("Error renewing alert leases: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Takes up to max free or expired partitions (each row is claimed atomically by its UPDATE)
+     * @return Number of partitions claimed, or -1 on error
+     */
+    public int claim(String instanceId, int leaseSeconds, int max) {
+        String sql = "UPDATE alert_leases SET owner = ?, expires_at = NOW(3) + INTERVAL ? SECOND " +
+                     "WHERE owner IS NULL OR expires_at IS NULL OR expires_at < NOW(3) " +
+                     "ORDER BY partition_no LIMIT ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, instanceId);
+            stmt.setInt(2, leaseSeconds);
+            stmt.setInt(3, max);
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error claiming alert leases: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Gives up one partition (only if still held by this instance)
+     * @return true if released, false otherwise
+     */
+    public boolean release(String instanceId, int partition) {
+        String sql = "UPDATE alert_leases SET owner = NULL, expires_at = NULL WHERE partition_no = ? AND owner = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, partition);
+            stmt.setString(2, instanceId);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error releasing alert lease: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Gives up every partition and the heartbeat of an instance (clean shutdown)
+     */
+    public void releaseAll(String instanceId) {
+        try (PreparedStatement leases = connection.prepareStatement("UPDATE alert_leases SET owner = NULL, expires_at = NULL WHERE owner = ?");
+             PreparedStatement beat = connection.prepareStatement("DELETE FROM alert_instances WHERE instance_id = ?")) {
+            leases.setString(1, instanceId);
+            leases.executeUpdate();
+            beat.setString(1, instanceId);
+            beat.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error releasing alert leases: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.tradingdemo.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.tradingdemo.config.DatabaseConnection;
+
+/**
+ * ArchiveDAO - Moves finished orders and their trades into the archive tables
+ * Each chunk is copied and deleted in its own transaction on a dedicated connection,
+ * so the hot tables are never locked for long and a failure leaves no half-moved rows
+ */
+public class ArchiveDAO {
+
+    private static final String ORDER_COLUMNS =
+        "id, user_id, symbol, type, side, price, quantity, status, stop_loss, take_profit, created_at";
+    private static final String TRADE_COLUMNS =
+        "id, order_id, symbol, side, executed_price, quantity, executed_at";
+
+    /**
+     * Archives one chunk of orders that are finished and older than the cutoff
+     * An order qualifies when it is CANCELLED, or CLOSED with its closing trade already written,
+     * and neither the order nor any of its trades is newer than the cutoff
+     * @param cutoff Rows at or after this time stay in the hot tables
+     * @param chunkSize Maximum number of orders to move
+     * @return Number of orders archived, or -1 on error
+     */
+    public int archiveChunk(LocalDateTime cutoff, int chunkSize) {
+        // Closing trades may still be queued; without them a CLOSED order is not eligible yet
+        TradeDAO.flushPendingTrades();
+        String selectSql = "SELECT o.id FROM orders o " +
+                           "WHERE o.created_at < ? " +
+                           "AND (o.status = 'CANCELLED' OR (o.status = 'CLOSED' AND EXISTS " +
+                           "  (SELECT 1 FROM trades c WHERE c.order_id = o.id AND c.side LIKE 'CLOSE%'))) " +
+                           "AND NOT EXISTS (SELECT 1 FROM trades t WHERE t.order_id = o.id AND t.executed_at >= ?) " +
+                           "ORDER BY o.id LIMIT ? FOR UPDATE";
+
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Integer> ids = new ArrayList<>();
+                try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                    Timestamp ts = Timestamp.valueOf(cutoff);
+                    stmt.setTimestamp(1, ts);
+                    stmt.setTimestamp(2, ts);
+                    stmt.setInt(3, chunkSize);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt(1));
+                        }
+                    }
+                }
+
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return 0;
+                }
+
+                String in = placeholders(ids.size());
+                // Parent rows first for the archive FK, child rows first for the hot FK
+                executeForIds(conn, "INSERT INTO orders_archive (" + ORDER_COLUMNS + ") SELECT " + ORDER_COLUMNS +
+                                    " FROM orders WHERE id IN (" + in + ")", ids);
+                executeForIds(conn, "INSERT INTO trades_archive (" + TRADE_COLUMNS + ") SELECT " + TRADE_COLUMNS +
+                                    " FROM trades WHERE order_id IN (" + in + ")", ids);
+                executeForIds(conn, "DELETE FROM trades WHERE order_id IN (" + in + ")", ids);
+                executeForIds(conn, "DELETE FROM orders WHERE id IN (" + in + ")", ids);
+
+                conn.commit();
+                return ids.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error archiving orders: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Counts rows in the archive tables (for admin statistics)
+     * @return {archived orders, archived trades}, or zeros if the tables do not exist
+     */
+    public long[] getArchiveCounts() {
+        String sql = "SELECT (SELECT COUNT(*) FROM orders_archive), (SELECT COUNT(*) FROM trades_archive)";
+        Connection connection = DatabaseConnection.getInstance().getConnection();
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return new long[] { rs.getLong(1), rs.getLong(2) };
+            }
+        } catch (SQLException e) {
+            System.err.println("Error counting archived rows: " + e.getMessage());
+        }
+        return new long[] { 0, 0 };
+    }
+
+    private void executeForIds(Connection conn, String sql, List<Integer> ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setInt(i + 1, ids.get(i));
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,343 @@
+package com.tradingdemo.dao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * EntityCache - Size-bounded second-level cache that DAOs can opt into
+ * Eviction follows W-TinyLFU: new entries land in a small LRU window, and an entry leaving
+ * the window is only admitted to the main segmented-LRU area if it has been requested more
+ * often (per a count-min frequency sketch) than the entry it would push out.
+ * Every entry expires after the cache's TTL. DAOs must invalidate keys in their write methods.
+ * Callers get their own copy of mutable values, so changing a returned entity never changes
+ * what other threads see. A load that overlaps an invalidation of its key is returned but not
+ * cached, so a row read before a write cannot be cached after it.
+ */
+public class EntityCache<K, V> {
+
+    private static final List<EntityCache<?, ?>> CACHES = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final long ttlMillis;
+    private final int windowMax;
+    private final int protectedMax;
+    private final int mainMax;
+    private final UnaryOperator<V> copier;
+
+    private final Map<K, Node<K, V>> nodes = new HashMap<>();
+    // Insertion-ordered: first entry is the least recently used
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<>();
+    private final FrequencySketch sketch;
+
+    // Invalidation tracking for loads running outside the lock
+    private long generation = 0;
+    private long allInvalidatedAt = 0;
+    private final Map<K, Integer> loadsInFlight = new HashMap<>();
+    private final Map<K, Long> invalidatedAt = new HashMap<>();
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long expirations = 0;
+
+    /**
+     * Creates a cache of immutable values and registers it for the admin statistics
+     * @param name Entity type name shown in stats (e.g. "User")
+     * @param maximumSize Maximum number of entries
+     * @param ttlMillis Time after which an entry is reloaded from the database
+     */
+    public EntityCache(String name, int maximumSize, long ttlMillis) {
+        this(name, maximumSize, ttlMillis, UnaryOperator.identity());
+    }
+
+    /**
+     * Creates a cache of mutable values and registers it for the admin statistics
+     * @param name Entity type name shown in stats (e.g. "User")
+     * @param maximumSize Maximum number of entries
+     * @param ttlMillis Time after which an entry is reloaded from the database
+     * @param copier Copies a value; the cache keeps its own copy and hands out copies
+     */
+    public EntityCache(String name, int maximumSize, long ttlMillis, UnaryOperator<V> copier) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        this.copier = copier;
+        int max = Math.max(2, maximumSize);
+        this.windowMax = Math.max(1, max / 100);
+        this.mainMax = max - windowMax;
+        this.protectedMax = Math.max(1, (int) (mainMax * 0.8));
+        this.sketch = new FrequencySketch(max);
+        CACHES.add(this);
+    }
+
+    /**
+     * Gets a cached value, loading and caching it on a miss
+     * Null results are returned but not cached, so missing rows are re-queried next time
+     * @param key The entity key
+     * @param loader Database lookup used on a miss
+     * @return A copy of the cached or freshly loaded value, or null
+     */
+    public V get(K key, Function<K, V> loader) {
+        long startGeneration;
+        synchronized (this) {
+            sketch.increment(key);
+            Node<K, V> node = nodes.get(key);
+            if (node != null) {
+                if (node.expiresAt > System.currentTimeMillis()) {
+                    hits++;
+                    onHit(node);
+                    return copier.apply(node.value);
+                }
+                remove(node);
+                expirations++;
+            }
+            misses++;
+            startGeneration = generation;
+            loadsInFlight.merge(key, 1, Integer::sum);
+        }
+
+        // Load outside the lock so slow queries do not block other lookups
+        V value = null;
+        try {
+            value = loader.apply(key);
+        } finally {
+            synchronized (this) {
+                boolean stale = allInvalidatedAt > startGeneration
+                        || invalidatedAt.getOrDefault(key, 0L) > startGeneration;
+                if (loadsInFlight.merge(key, -1, Integer::sum) == 0) {
+                    loadsInFlight.remove(key);
+                    invalidatedAt.remove(key);
+                }
+                if (value != null && !stale) {
+                    put(key, copier.apply(value));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes one entry (call after the entity is updated or deleted)
+     * @param key The entity key
+     */
+    public synchronized void invalidate(K key) {
+        generation++;
+        if (loadsInFlight.containsKey(key)) {
+            invalidatedAt.put(key, generation);
+        }
+        Node<K, V> node = nodes.get(key);
+        if (node != null) {
+            remove(node);
+        }
+    }
+
+    /**
+     * Removes every entry
+     */
+    public synchronized void invalidateAll() {
+        allInvalidatedAt = ++generation;
+        nodes.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    private synchronized void put(K key, V value) {
+        Node<K, V> existing = nodes.get(key);
+        if (existing != null) {
+            existing.value = value;
+            existing.expiresAt = System.currentTimeMillis() + ttlMillis;
+            return;
+        }
+
+        Node<K, V> node = new Node<>(key, value, System.currentTimeMillis() + ttlMillis);
+        nodes.put(key, node);
+        node.segment = window;
+        window.put(key, node);
+
+        if (window.size() > windowMax) {
+            // Move the window's LRU entry to probation and let it compete for admission
+            Node<K, V> candidate = removeEldest(window);
+            candidate.segment = probation;
+            probation.put(candidate.key, candidate);
+            evictIfNeeded(candidate);
+        }
+    }
+
+    private void evictIfNeeded(Node<K, V> candidate) {
+        while (probation.size() + protectedSegment.size() > mainMax) {
+            // The candidate was just added to probation, so probation is never empty here
+            Node<K, V> victim = probation.values().iterator().next();
+            if (victim == candidate) {
+                remove(candidate);
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                remove(victim);
+            } else {
+                remove(candidate);
+            }
+            evictions++;
+        }
+    }
+
+    private void onHit(Node<K, V> node) {
+        if (node.segment == probation) {
+            // Second hit: promote to the protected segment
+            probation.remove(node.key);
+            node.segment = protectedSegment;
+            protectedSegment.put(node.key, node);
+            if (protectedSegment.size() > protectedMax) {
+                Node<K, V> demoted = removeEldest(protectedSegment);
+                demoted.segment = probation;
+                probation.put(demoted.key, demoted);
+            }
+        } else {
+            // Move to the most-recently-used end of its segment
+            node.segment.remove(node.key);
+            node.segment.put(node.key, node);
+        }
+    }
+
+    private void remove(Node<K, V> node) {
+        nodes.remove(node.key);
+        node.segment.remove(node.key);
+    }
+
+    private Node<K, V> removeEldest(LinkedHashMap<K, Node<K, V>> segment) {
+        Iterator<Node<K, V>> it = segment.values().iterator();
+        Node<K, V> eldest = it.next();
+        it.remove();
+        return eldest;
+    }
+
+    public String getName() { return name; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized long getExpirations() { return expirations; }
+    public synchronized int size() { return nodes.size(); }
+
+    /**
+     * Gets the hit ratio since startup
+     * @return Hits divided by lookups (0 if there were none)
+     */
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Gets a one-line summary of this cache's counters
+     * @return Formatted statistics
+     */
+    public synchronized String summary() {
+        return String.format("%-12s size: %d | hits: %d | misses: %d | hit ratio: %.1f%% | evictions: %d | expired: %d",
+            name, nodes.size(), hits, misses, getHitRatio() * 100, evictions, expirations);
+    }
+
+    /**
+     * Builds a copier for cached lists that copies the list and each element
+     * @param elementCopier Copies one element
+     * @return The list copier
+     */
+    public static <E> UnaryOperator<List<E>> listCopier(UnaryOperator<E> elementCopier) {
+        return list -> {
+            List<E> copy = new ArrayList<>(list.size());
+            for (E element : list) {
+                copy.add(elementCopier.apply(element));
+            }
+            return copy;
+        };
+    }
+
+    /**
+     * Gets every registered cache (for the admin statistics)
+     * @return All caches created so far
+     */
+    public static List<EntityCache<?, ?>> getAll() {
+        return new ArrayList<>(CACHES);
+    }
+
+    private static class Node<K, V> {
+        final K key;
+        V value;
+        long expiresAt;
+        LinkedHashMap<K, Node<K, V>> segment;
+
+        Node(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters used to estimate how often a key was requested.
+     * Counters are halved periodically so old popularity fades out.
+     */
+    private static class FrequencySketch {
+        private static final int[] SEEDS = { 0x97cb3127, 0xb4b82e39, 0x5c4b4d15, 0x9e3779b9 };
+
+        private final byte[] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions = 0;
+
+        FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, maximumSize * 4) - 1) << 1;
+            this.counters = new byte[width];
+            this.mask = width - 1;
+            this.sampleSize = Math.max(10, maximumSize * 10);
+        }
+
+        void increment(Object key) {
+            int h = spread(key.hashCode());
+            boolean added = false;
+            for (int seed : SEEDS) {
+                int i = index(h, seed);
+                if (counters[i] < 15) {
+                    counters[i]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(Object key) {
+            int h = spread(key.hashCode());
+            int min = 15;
+            for (int seed : SEEDS) {
+                min = Math.min(min, counters[index(h, seed)]);
+            }
+            return min;
+        }
+
+        private void reset() {
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] = (byte) (counters[i] >>> 1);
+            }
+            additions /= 2;
+        }
+
+        private int index(int hash, int seed) {
+            int h = hash * seed;
+            h ^= h >>> 17;
+            return h & mask;
+        }
+
+        private static int spread(int h) {
+            h ^= h >>> 16;
+            h *= 0x45d9f3b;
+            return h ^ (h >>> 16);
+        }
+    }
+}
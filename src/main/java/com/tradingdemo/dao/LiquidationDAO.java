@@ -0,0 +1,211 @@
+package com.tradingdemo.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.tradingdemo.config.DatabaseConnection;
+import com.tradingdemo.model.Order;
+
+/**
+ * LiquidationDAO - Bulk reads and closes of open (EXECUTED) orders for the liquidation engine
+ * A whole tick's worth of liquidations is closed in one transaction with batched statements
+ * instead of the per-order round trips of TradingService.closePosition.
+ */
+public class LiquidationDAO {
+
+    private static final double EPSILON = 1e-9;
+    private static final double WALLET_DUST = 0.0001;
+    private static final int SELECT_CHUNK = 1_000;  // IDs per IN list (MySQL allows at most 65,535 placeholders)
+
+    private final TaxLotDAO taxLotDAO = new TaxLotDAO();
+
+    /**
+     * Receives one open order
+     */
+    @FunctionalInterface
+    public interface OpenOrderVisitor {
+        void visit(int orderId, int userId, String symbol, String side, double price, double quantity);
+    }
+
+    /**
+     * Streams every EXECUTED order
+     * @param visitor Called once per order
+     * @return true if the whole result was visited, false on error
+     */
+    public boolean forEachOpenOrder(OpenOrderVisitor visitor) {
+        String sql = "SELECT id, user_id, symbol, side, price, quantity FROM orders WHERE status = 'EXECUTED'";
+
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE); // MySQL Connector/J: stream rows instead of buffering
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    visitor.visit(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4),
+                                  rs.getDouble(5), rs.getDouble(6));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error streaming open orders: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Closes a batch of open orders at the given prices in one transaction
+     * Each order is marked CLOSED, its owner is credited margin + P&L (never below zero),
+     * the position and wallet rows are reduced and the owner's tax lots are consumed.
+     * Orders that are no longer EXECUTED (closed by the user in the meantime) are skipped.
+     * @param orderIds Orders to close
+     * @param closePrices Close price of each order
+     * @param count Number of entries used in the arrays
+     * @return The orders actually closed (price = entry price), or null on error
+     */
+    public List<Order> closeOrders(int[] orderIds, double[] closePrices, int count) {
+        List<Order> closed = new ArrayList<>();
+        if (count == 0) return closed;
+
+        String orderSql = "UPDATE orders SET status = 'CLOSED' WHERE id = ?";
+        String balanceSql = "UPDATE users SET balance = balance + ?, updated_at = ? WHERE id = ?";
+        String positionSql = "UPDATE positions SET " +
+                             "quantity = GREATEST(quantity - ?, 0), " +
+                             "margin = GREATEST(margin - ?, 0), " +
+                             "average_entry_price = IF(quantity > ?, margin / quantity, 0), " +
+                             "updated_at = NOW() " +
+                             "WHERE user_id = ? AND symbol = ? AND side = ?";
+        String flatPositionSql = "DELETE FROM positions WHERE user_id = ? AND symbol = ? AND side = ? AND quantity <= ?";
+        String walletSql = "UPDATE wallet_items SET quantity = quantity - ? WHERE user_id = ? AND symbol = ? AND quantity >= ?";
+        String emptyWalletSql = "DELETE FROM wallet_items WHERE user_id = ? AND symbol = ? AND quantity < ?";
+
+        Map<Integer, Double> closePriceById = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            closePriceById.put(orderIds[i], closePrices[i]);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement orderStmt = conn.prepareStatement(orderSql);
+                 PreparedStatement balanceStmt = conn.prepareStatement(balanceSql);
+                 PreparedStatement positionStmt = conn.prepareStatement(positionSql);
+                 PreparedStatement flatPositionStmt = conn.prepareStatement(flatPositionSql);
+                 PreparedStatement walletStmt = conn.prepareStatement(walletSql);
+                 PreparedStatement emptyWalletStmt = conn.prepareStatement(emptyWalletSql)) {
+                for (int from = 0; from < count; from += SELECT_CHUNK) {
+                    lockOpenOrders(conn, orderIds, from, Math.min(count, from + SELECT_CHUNK), closed);
+                }
+
+                for (Order order : closed) {
+                    double closePrice = closePriceById.get(order.getId());
+                    double margin = order.getPrice() * order.getQuantity();
+                    double profitLoss = "BUY".equals(order.getSide())
+                            ? (closePrice - order.getPrice()) * order.getQuantity()
+                            : (order.getPrice() - closePrice) * order.getQuantity();
+
+                    orderStmt.setInt(1, order.getId());
+                    orderStmt.addBatch();
+
+                    balanceStmt.setDouble(1, Math.max(0, margin + profitLoss));
+                    balanceStmt.setTimestamp(2, now);
+                    balanceStmt.setInt(3, order.getUserId());
+                    balanceStmt.addBatch();
+
+                    positionStmt.setDouble(1, order.getQuantity());
+                    positionStmt.setDouble(2, margin);
+                    positionStmt.setDouble(3, EPSILON);
+                    positionStmt.setInt(4, order.getUserId());
+                    positionStmt.setString(5, order.getSymbol());
+                    positionStmt.setString(6, order.getSide());
+                    positionStmt.addBatch();
+
+                    flatPositionStmt.setInt(1, order.getUserId());
+                    flatPositionStmt.setString(2, order.getSymbol());
+                    flatPositionStmt.setString(3, order.getSide());
+                    flatPositionStmt.setDouble(4, EPSILON);
+                    flatPositionStmt.addBatch();
+
+                    walletStmt.setDouble(1, order.getQuantity());
+                    walletStmt.setInt(2, order.getUserId());
+                    walletStmt.setString(3, order.getSymbol());
+                    walletStmt.setDouble(4, order.getQuantity());
+                    walletStmt.addBatch();
+
+                    emptyWalletStmt.setInt(1, order.getUserId());
+                    emptyWalletStmt.setString(2, order.getSymbol());
+                    emptyWalletStmt.setDouble(3, WALLET_DUST);
+                    emptyWalletStmt.addBatch();
+                }
+
+                orderStmt.executeBatch();
+                balanceStmt.executeBatch();
+                positionStmt.executeBatch();
+                flatPositionStmt.executeBatch();
+                walletStmt.executeBatch();
+                emptyWalletStmt.executeBatch();
+
+                Map<Integer, String> lotMethods = new HashMap<>();
+                for (Order order : closed) {
+                    String method = lotMethods.get(order.getUserId());
+                    if (method == null) {
+                        method = taxLotDAO.getLotMethod(conn, order.getUserId());
+                        lotMethods.put(order.getUserId(), method);
+                    }
+                    taxLotDAO.closeLots(conn, order.getUserId(), order.getSymbol(), order.getSide(), order.getQuantity(),
+                                        closePriceById.get(order.getId()), order.getId(), order.getPrice(), method);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing orders in bulk: " + e.getMessage());
+            return null;
+        } finally {
+            for (Order order : closed) {
+                UserDAO.evict(order.getUserId());
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Locks the still EXECUTED orders among orderIds[from, to) and adds them to closed
+     */
+    private void lockOpenOrders(Connection conn, int[] orderIds, int from, int to, List<Order> closed) throws SQLException {
+        StringBuilder in = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            in.append(i == from ? "?" : ",?");
+        }
+        String sql = "SELECT id, user_id, symbol, side, price, quantity FROM orders " +
+                     "WHERE id IN (" + in + ") AND status = 'EXECUTED' FOR UPDATE";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = from; i < to; i++) {
+                stmt.setInt(i - from + 1, orderIds[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Order order = new Order();
+                    order.setId(rs.getInt(1));
+                    order.setUserId(rs.getInt(2));
+                    order.setSymbol(rs.getString(3));
+                    order.setSide(rs.getString(4));
+                    order.setPrice(rs.getDouble(5));
+                    order.setQuantity(rs.getDouble(6));
+                    order.setStatus("CLOSED");
+                    closed.add(order);
+                }
+            }
+        }
+    }
+}
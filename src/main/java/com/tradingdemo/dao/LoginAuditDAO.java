@@ -12,36 +12,36 @@ import java.util.List;
  */
 public class LoginAuditDAO {
 
-    /**
-     * Record a login attempt with IP information
-     * @param userId The user ID
-     * @param ipInfo The IP information from IPInfoService
-     * @return true if insertion was successful
-     */
-    public boolean recordLogin(int userId, IPInfoService.IPInfo ipInfo) {
-        String sql = "INSERT INTO login_audit (user_id, ip_address, country, city, region, isp, timezone, login_time) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, NOW())";
-        
-        try (Connection conn = DatabaseConnection.getInstance().getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            
-            ps.setInt(1, userId);
+    // Login audit rows are batched by a background writer; login_time is captured at call time
+    private static final WriteBehindQueue<AuditRow> AUDIT_WRITER = new WriteBehindQueue<>(
+        "login_audit",
+        "INSERT INTO login_audit (user_id, ip_address, country, city, region, isp, timezone, login_time) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+        (ps, row) -> {
+            IPInfoService.IPInfo ipInfo = row.ipInfo;
+            ps.setInt(1, row.userId);
             ps.setString(2, ipInfo != null ? ipInfo.ip : "N/A");
             ps.setString(3, ipInfo != null ? ipInfo.country : "N/A");
             ps.setString(4, ipInfo != null ? ipInfo.city : "N/A");
             ps.setString(5, ipInfo != null ? ipInfo.region : "N/A");
             ps.setString(6, ipInfo != null ? ipInfo.isp : "N/A");
             ps.setString(7, ipInfo != null ? ipInfo.timezone : "N/A");
-            
-            int rowsInserted = ps.executeUpdate();
-            System.out.println("Login audit recorded for user " + userId + " from " + 
-                              (ipInfo != null ? ipInfo.city + ", " + ipInfo.country : "Unknown"));
-            return rowsInserted > 0;
-        } catch (Exception e) {
-            System.err.println("Failed to record login audit: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+            ps.setTimestamp(8, row.loginTime);
+        },
+        10_000, 200, 10);
+
+    /**
+     * Record a login attempt with IP information
+     * The row is queued for a batched insert and this returns immediately
+     * @param userId The user ID
+     * @param ipInfo The IP information from IPInfoService
+     * @return true if the record was accepted for writing
+     */
+    public boolean recordLogin(int userId, IPInfoService.IPInfo ipInfo) {
+        AUDIT_WRITER.enqueue(new AuditRow(userId, ipInfo, new Timestamp(System.currentTimeMillis())));
+        System.out.println("Login audit queued for user " + userId + " from " +
+                          (ipInfo != null ? ipInfo.city + ", " + ipInfo.country : "Unknown"));
+        return true;
     }
 
     /**
@@ -110,4 +110,16 @@ public class LoginAuditDAO {
         }
         return null;
     }
+
+    private static class AuditRow {
+        final int userId;
+        final IPInfoService.IPInfo ipInfo;
+        final Timestamp loginTime;
+
+        AuditRow(int userId, IPInfoService.IPInfo ipInfo, Timestamp loginTime) {
+            this.userId = userId;
+            this.ipInfo = ipInfo;
+            this.loginTime = loginTime;
+        }
+    }
 }
@@ -0,0 +1,191 @@
+package com.tradingdemo.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import com.tradingdemo.config.DatabaseConnection;
+import com.tradingdemo.model.EquityCurve;
+
+/**
+ * NavSnapshotDAO - Net asset value snapshots and their hourly/daily rollups
+ * A snapshot run writes the raw rows and folds them into the rollups in one transaction,
+ * so the rollups never need to rescan nav_snapshots
+ */
+public class NavSnapshotDAO {
+
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * Series resolutions, each backed by its own table
+     */
+    public enum Resolution {
+        RAW("nav_snapshots", "nav"),
+        HOURLY("nav_hourly", "nav_close"),
+        DAILY("nav_daily", "nav_close");
+
+        final String table;
+        final String valueColumn;
+
+        Resolution(String table, String valueColumn) {
+            this.table = table;
+            this.valueColumn = valueColumn;
+        }
+    }
+
+    /**
+     * Receives each user's cash together with one open position (position columns are null when flat)
+     */
+    @FunctionalInterface
+    public interface HoldingVisitor {
+        void visit(int userId, double balance, String symbol, String side, double quantity,
+                   double averageEntryPrice, double margin);
+    }
+
+    /**
+     * Streams every user with their open positions, grouped by user
+     * @param visitor Called once per position, or once with a null symbol for users without positions
+     * @return true if the whole result was visited, false on error
+     */
+    public boolean forEachUserHolding(HoldingVisitor visitor) {
+        String sql = "SELECT u.id, u.balance, p.symbol, p.side, p.quantity, p.average_entry_price, p.margin " +
+                     "FROM users u LEFT JOIN positions p ON p.user_id = u.id ORDER BY u.id";
+
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    visitor.visit(rs.getInt(1), rs.getDouble(2), rs.getString(3), rs.getString(4),
+                                  rs.getDouble(5), rs.getDouble(6), rs.getDouble(7));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error streaming user holdings: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Saves one snapshot per user and folds it into the hourly and daily rollups
+     * Writing the same timestamp again overwrites the raw row (the rollups keep their open value)
+     * @param ts Snapshot time
+     * @param userIds User IDs
+     * @param navs Net asset value of each user
+     * @param count Number of entries used in the arrays
+     * @return true if saved, false on error
+     */
+    public boolean saveSnapshots(LocalDateTime ts, int[] userIds, double[] navs, int count) {
+        String rawSql = "INSERT INTO nav_snapshots (user_id, ts, nav) VALUES (?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE nav = VALUES(nav)";
+        String rollupSql = "INSERT INTO %s (user_id, ts, nav_open, nav_high, nav_low, nav_close) VALUES (?, ?, ?, ?, ?, ?) " +
+                           "ON DUPLICATE KEY UPDATE nav_high = GREATEST(nav_high, VALUES(nav_high)), " +
+                           "nav_low = LEAST(nav_low, VALUES(nav_low)), nav_close = VALUES(nav_close)";
+
+        Timestamp rawTs = Timestamp.valueOf(ts);
+        Timestamp hourTs = Timestamp.valueOf(ts.truncatedTo(ChronoUnit.HOURS));
+        Timestamp dayTs = Timestamp.valueOf(ts.truncatedTo(ChronoUnit.DAYS));
+
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement raw = conn.prepareStatement(rawSql);
+                 PreparedStatement hourly = conn.prepareStatement(String.format(rollupSql, Resolution.HOURLY.table));
+                 PreparedStatement daily = conn.prepareStatement(String.format(rollupSql, Resolution.DAILY.table))) {
+                for (int i = 0; i < count; i++) {
+                    raw.setInt(1, userIds[i]);
+                    raw.setTimestamp(2, rawTs);
+                    raw.setDouble(3, navs[i]);
+                    raw.addBatch();
+                    bindRollup(hourly, userIds[i], hourTs, navs[i]);
+                    bindRollup(daily, userIds[i], dayTs, navs[i]);
+
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        raw.executeBatch();
+                        hourly.executeBatch();
+                        daily.executeBatch();
+                    }
+                }
+                raw.executeBatch();
+                hourly.executeBatch();
+                daily.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving NAV snapshots: " + e.getMessage());
+        }
+        return false;
+    }
+
+    private void bindRollup(PreparedStatement stmt, int userId, Timestamp bucket, double nav) throws SQLException {
+        stmt.setInt(1, userId);
+        stmt.setTimestamp(2, bucket);
+        stmt.setDouble(3, nav);
+        stmt.setDouble(4, nav);
+        stmt.setDouble(5, nav);
+        stmt.setDouble(6, nav);
+        stmt.addBatch();
+    }
+
+    /**
+     * Deletes rows older than the cutoff from one resolution, a chunk at a time
+     * @param resolution Table to purge
+     * @param cutoff Rows before this time are deleted
+     * @param chunkSize Rows deleted per statement
+     * @return Number of rows deleted, or -1 on error
+     */
+    public int purgeOlderThan(Resolution resolution, LocalDateTime cutoff, int chunkSize) {
+        String sql = "DELETE FROM " + resolution.table + " WHERE ts < ? LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+            stmt.setInt(2, chunkSize);
+            int total = 0;
+            int deleted;
+            do {
+                deleted = stmt.executeUpdate();
+                total += deleted;
+            } while (deleted == chunkSize);
+            return total;
+        } catch (SQLException e) {
+            System.err.println("Error purging " + resolution.table + ": " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Gets a user's NAV series (the close of each bucket for the rollups)
+     * @param userId The user ID
+     * @param resolution Raw snapshots, hourly or daily
+     * @param from Start time (inclusive)
+     * @param to End time (exclusive)
+     * @return The series, oldest first (empty on error)
+     */
+    public EquityCurve getNavSeries(int userId, Resolution resolution, LocalDateTime from, LocalDateTime to) {
+        EquityCurve series = new EquityCurve();
+        String sql = "SELECT ts, " + resolution.valueColumn + " FROM " + resolution.table +
+                     " WHERE user_id = ? AND ts >= ? AND ts < ? ORDER BY ts";
+
+        try (PreparedStatement stmt = DatabaseConnection.getInstance().getConnection().prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setTimestamp(2, Timestamp.valueOf(from));
+            stmt.setTimestamp(3, Timestamp.valueOf(to));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                series.add(rs.getTimestamp(1).getTime(), rs.getDouble(2));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving NAV series: " + e.getMessage());
+        }
+        return series;
+    }
+}
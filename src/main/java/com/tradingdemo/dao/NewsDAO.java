@@ -7,6 +7,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.tradingdemo.config.DatabaseConnection;
@@ -18,6 +19,11 @@ import com.tradingdemo.model.News;
  */
 public class NewsDAO {
 
+    private static final EntityCache<Integer, News> NEWS_CACHE = new EntityCache<>("News", 500, 300_000, News::new);
+    // Single-entry cache for the latest-50 feed, keyed by a constant
+    private static final EntityCache<String, List<News>> FEED_CACHE = new EntityCache<>("News feed", 4, 60_000, EntityCache.listCopier(News::new));
+    private static final String FEED_KEY = "latest";
+
     private final Connection connection;
 
     public NewsDAO() {
@@ -44,11 +50,17 @@ public class NewsDAO {
             }
         } catch (SQLException e) {
             System.err.println("Error creating news: " + e.getMessage());
+        } finally {
+            FEED_CACHE.invalidateAll();
         }
         return false;
     }
 
     public News getNewsById(int newsId) {
+        return NEWS_CACHE.get(newsId, this::loadNewsById);
+    }
+
+    private News loadNewsById(int newsId) {
         String sql = "SELECT * FROM news WHERE id = ?";
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -65,6 +77,14 @@ public class NewsDAO {
     }
 
     public List<News> getAllNews() {
+        List<News> cached = FEED_CACHE.get(FEED_KEY, key -> {
+            List<News> loaded = loadAllNews();
+            return loaded.isEmpty() ? null : Collections.unmodifiableList(loaded);
+        });
+        return cached != null ? new ArrayList<>(cached) : new ArrayList<>();
+    }
+
+    private List<News> loadAllNews() {
         List<News> newsList = new ArrayList<>();
         String sql = "SELECT * FROM news ORDER BY published_at DESC LIMIT 50";
 
@@ -105,6 +125,9 @@ public class NewsDAO {
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting news: " + e.getMessage());
+        } finally {
+            NEWS_CACHE.invalidate(newsId);
+            FEED_CACHE.invalidateAll();
         }
         return false;
     }
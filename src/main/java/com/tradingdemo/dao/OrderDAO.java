@@ -6,6 +6,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,7 +19,12 @@ import com.tradingdemo.model.Order;
  */
 public class OrderDAO {
 
+    private static final double POSITION_EPSILON = 1e-9;
+    private static final double WALLET_DUST = 0.0001;
+
     private final Connection connection;
+    private final PositionDAO positionDAO = new PositionDAO();
+    private final TaxLotDAO taxLotDAO = new TaxLotDAO();
 
     public OrderDAO() {
         this.connection = DatabaseConnection.getInstance().getConnection();
@@ -105,6 +111,34 @@ public class OrderDAO {
         return orders;
     }
 
+    /**
+     * Get all orders for a user, including orders moved to orders_archive
+     * Falls back to the hot table if the archive tables are missing
+     * @param userId The user ID
+     * @return List of orders, newest first
+     */
+    public List<Order> getOrdersByUserIdWithArchive(int userId) {
+        List<Order> orders = new ArrayList<>();
+        String sql = "SELECT * FROM orders WHERE user_id = ? " +
+                     "UNION ALL " +
+                     "SELECT * FROM orders_archive WHERE user_id = ? " +
+                     "ORDER BY created_at DESC";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, userId);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                orders.add(mapResultSetToOrder(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving archived orders by user: " + e.getMessage());
+            return getOrdersByUserId(userId);
+        }
+        return orders;
+    }
+
     /**
      * Get all pending orders for a user
      * @param userId The user ID
@@ -127,6 +161,53 @@ public class OrderDAO {
         return orders;
     }
 
+    /**
+     * Get open orders (PENDING and EXECUTED) for a user
+     * Uses the (user_id, status) index instead of loading the whole order history
+     * @param userId The user ID
+     * @return List of open orders
+     */
+    public List<Order> getOpenOrdersByUserId(int userId) {
+        List<Order> orders = new ArrayList<>();
+        String sql = "SELECT * FROM orders WHERE user_id = ? AND status IN ('PENDING', 'EXECUTED') ORDER BY created_at DESC";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                orders.add(mapResultSetToOrder(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving open orders: " + e.getMessage());
+        }
+        return orders;
+    }
+
+    /**
+     * Get executed (open position) orders for a user on one symbol
+     * @param userId The user ID
+     * @param symbol The cryptocurrency symbol
+     * @return List of executed orders
+     */
+    public List<Order> getExecutedOrdersByUserAndSymbol(int userId, String symbol) {
+        List<Order> orders = new ArrayList<>();
+        String sql = "SELECT * FROM orders WHERE user_id = ? AND status = 'EXECUTED' AND symbol = ?";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, symbol);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                orders.add(mapResultSetToOrder(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving executed orders: " + e.getMessage());
+        }
+        return orders;
+    }
+
     /**
      * Update an order
      * @param order The order to update
@@ -153,6 +234,182 @@ public class OrderDAO {
         return false;
     }
 
+    /**
+     * Executes a pending order and opens its exposure in one transaction
+     * The order is claimed with a conditional UPDATE (status PENDING -> EXECUTED); only the caller
+     * whose UPDATE changed the row deducts the margin (if the balance covers it), adds to the
+     * position and wallet rows and opens the tax lot, so a failure leaves the order PENDING and
+     * nothing else changed. Mirrors closeExecutedOrder.
+     * @param order The order to execute
+     * @param executionPrice The execution price
+     * @return true if executed, false if the order was not PENDING, the balance was too low, or on error
+     */
+    public boolean executeOrder(Order order, double executionPrice) {
+        String claimSql = "UPDATE orders SET status = 'EXECUTED' WHERE id = ? AND status = 'PENDING'";
+        String balanceSql = "UPDATE users SET balance = balance - ?, updated_at = ? WHERE id = ? AND balance >= ?";
+        // MySQL evaluates ON DUPLICATE KEY assignments left to right, so the average uses the old quantity
+        String walletSql = "INSERT INTO wallet_items (user_id, symbol, quantity, average_price) VALUES (?, ?, ?, ?) " +
+                           "ON DUPLICATE KEY UPDATE " +
+                           "average_price = (average_price * quantity + VALUES(average_price) * VALUES(quantity)) / (quantity + VALUES(quantity)), " +
+                           "quantity = quantity + VALUES(quantity)";
+
+        double marginCost = executionPrice * order.getQuantity();
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement claim = conn.prepareStatement(claimSql);
+                 PreparedStatement balanceStmt = conn.prepareStatement(balanceSql);
+                 PreparedStatement walletStmt = conn.prepareStatement(walletSql)) {
+                claim.setInt(1, order.getId());
+                if (claim.executeUpdate() != 1) {
+                    conn.rollback();
+                    return false;
+                }
+
+                // Margin is locked for BOTH BUY (long) and SELL (short)
+                balanceStmt.setDouble(1, marginCost);
+                balanceStmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                balanceStmt.setInt(3, order.getUserId());
+                balanceStmt.setDouble(4, marginCost);
+                if (balanceStmt.executeUpdate() != 1) {
+                    conn.rollback();
+                    System.err.println("Insufficient balance for order " + order.getId() + ": " + marginCost);
+                    return false;
+                }
+
+                positionDAO.increasePosition(conn, order.getUserId(), order.getSymbol(), order.getSide(),
+                                             order.getQuantity(), executionPrice);
+
+                walletStmt.setInt(1, order.getUserId());
+                walletStmt.setString(2, order.getSymbol());
+                walletStmt.setDouble(3, order.getQuantity());
+                walletStmt.setDouble(4, executionPrice);
+                walletStmt.executeUpdate();
+
+                taxLotDAO.openLot(conn, order.getUserId(), order.getSymbol(), order.getSide(), order.getId(),
+                                  order.getQuantity(), executionPrice, taxLotDAO.getLotMethod(conn, order.getUserId()));
+
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error executing order: " + e.getMessage());
+            return false;
+        } finally {
+            UserDAO.evict(order.getUserId());
+        }
+        order.setStatus("EXECUTED");
+        return true;
+    }
+
+    /**
+     * Closes an executed order and settles it in one transaction
+     * The order is claimed with a conditional UPDATE (status EXECUTED -> CLOSED); only the caller
+     * whose UPDATE changed the row credits margin + P&L to the balance and reduces the position
+     * and wallet rows, so concurrent closes (user, SL/TP check, liquidation) settle an order once.
+     * The user's tax lots are consumed in the same transaction.
+     * @param orderId The order ID to close
+     * @param closePrice The closing price
+     * @return The closed order, or null if it was not EXECUTED (already closed) or on error
+     */
+    public Order closeExecutedOrder(int orderId, double closePrice) {
+        String claimSql = "UPDATE orders SET status = 'CLOSED' WHERE id = ? AND status = 'EXECUTED'";
+        String selectSql = "SELECT * FROM orders WHERE id = ?";
+        String balanceSql = "UPDATE users SET balance = balance + ?, updated_at = ? WHERE id = ?";
+        String positionSql = "UPDATE positions SET " +
+                             "quantity = GREATEST(quantity - ?, 0), " +
+                             "margin = GREATEST(margin - ?, 0), " +
+                             "average_entry_price = IF(quantity > ?, margin / quantity, 0), " +
+                             "updated_at = NOW() " +
+                             "WHERE user_id = ? AND symbol = ? AND side = ?";
+        String flatPositionSql = "DELETE FROM positions WHERE user_id = ? AND symbol = ? AND side = ? AND quantity <= ?";
+        String walletSql = "UPDATE wallet_items SET quantity = quantity - ? WHERE user_id = ? AND symbol = ? AND quantity >= ?";
+        String emptyWalletSql = "DELETE FROM wallet_items WHERE user_id = ? AND symbol = ? AND quantity < ?";
+
+        Order order = null;
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement claim = conn.prepareStatement(claimSql);
+                 PreparedStatement select = conn.prepareStatement(selectSql);
+                 PreparedStatement balanceStmt = conn.prepareStatement(balanceSql);
+                 PreparedStatement positionStmt = conn.prepareStatement(positionSql);
+                 PreparedStatement flatPositionStmt = conn.prepareStatement(flatPositionSql);
+                 PreparedStatement walletStmt = conn.prepareStatement(walletSql);
+                 PreparedStatement emptyWalletStmt = conn.prepareStatement(emptyWalletSql)) {
+                claim.setInt(1, orderId);
+                if (claim.executeUpdate() != 1) {
+                    conn.rollback();
+                    return null;
+                }
+
+                // The claimed row stays locked until commit
+                select.setInt(1, orderId);
+                try (ResultSet rs = select.executeQuery()) {
+                    if (rs.next()) {
+                        order = mapResultSetToOrder(rs);
+                    }
+                }
+                if (order == null) {
+                    conn.rollback();
+                    return null;
+                }
+
+                double margin = order.getPrice() * order.getQuantity();
+                double profitLoss = "BUY".equals(order.getSide())
+                        ? (closePrice - order.getPrice()) * order.getQuantity()
+                        : (order.getPrice() - closePrice) * order.getQuantity();
+
+                balanceStmt.setDouble(1, margin + profitLoss);
+                balanceStmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                balanceStmt.setInt(3, order.getUserId());
+                balanceStmt.executeUpdate();
+
+                positionStmt.setDouble(1, order.getQuantity());
+                positionStmt.setDouble(2, margin);
+                positionStmt.setDouble(3, POSITION_EPSILON);
+                positionStmt.setInt(4, order.getUserId());
+                positionStmt.setString(5, order.getSymbol());
+                positionStmt.setString(6, order.getSide());
+                positionStmt.executeUpdate();
+
+                flatPositionStmt.setInt(1, order.getUserId());
+                flatPositionStmt.setString(2, order.getSymbol());
+                flatPositionStmt.setString(3, order.getSide());
+                flatPositionStmt.setDouble(4, POSITION_EPSILON);
+                flatPositionStmt.executeUpdate();
+
+                walletStmt.setDouble(1, order.getQuantity());
+                walletStmt.setInt(2, order.getUserId());
+                walletStmt.setString(3, order.getSymbol());
+                walletStmt.setDouble(4, order.getQuantity());
+                walletStmt.executeUpdate();
+
+                emptyWalletStmt.setInt(1, order.getUserId());
+                emptyWalletStmt.setString(2, order.getSymbol());
+                emptyWalletStmt.setDouble(3, WALLET_DUST);
+                emptyWalletStmt.executeUpdate();
+
+                taxLotDAO.closeLots(conn, order.getUserId(), order.getSymbol(), order.getSide(), order.getQuantity(),
+                                    closePrice, order.getId(), order.getPrice(),
+                                    taxLotDAO.getLotMethod(conn, order.getUserId()));
+
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing order: " + e.getMessage());
+            return null;
+        } finally {
+            if (order != null) {
+                UserDAO.evict(order.getUserId());
+            }
+        }
+        return order;
+    }
+
     /**
      * Delete an order
      * @param orderId The order ID to delete
@@ -0,0 +1,339 @@
+package com.tradingdemo.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.tradingdemo.config.DatabaseConnection;
+import com.tradingdemo.model.EquityCurve;
+import com.tradingdemo.model.PerformanceMetrics;
+import com.tradingdemo.model.PerformanceState;
+
+/**
+ * PerformanceStateDAO - Persists the incremental performance state of each user
+ * performance_state holds the running accumulators, performance_lots the open positions,
+ * performance_symbols the per-symbol breakdown and performance_equity the equity curve (append-only)
+ */
+public class PerformanceStateDAO {
+
+    private static final String[] STATE_COLUMNS = {
+        "state_version", "last_trade_id", "recent_trade_ids", "total_trades", "total_buys", "total_sells", "closed_trades",
+        "winning_trades", "losing_trades", "realized_pnl", "gross_profit", "gross_loss",
+        "return_count", "return_mean", "return_m2", "downside_squares", "peak_equity", "max_drawdown",
+        "hold_millis_sum", "first_trade_at", "last_trade_at", "open_since", "in_market_millis", "updated_at"
+    };
+
+    private final Connection connection;
+
+    public PerformanceStateDAO() {
+        this.connection = DatabaseConnection.getInstance().getConnection();
+    }
+
+    /**
+     * Load a user's saved state including open lots and per-symbol totals
+     * @param userId The user ID
+     * @return The state, or null if none was saved yet (or the tables are missing)
+     */
+    public PerformanceState getState(int userId) {
+        String stateSql = "SELECT * FROM performance_state WHERE user_id = ?";
+        String lotsSql = "SELECT * FROM performance_lots WHERE user_id = ?";
+        String symbolsSql = "SELECT * FROM performance_symbols WHERE user_id = ?";
+
+        try (PreparedStatement stmt = connection.prepareStatement(stateSql)) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+
+            PerformanceState state = new PerformanceState(userId);
+            state.version = rs.getInt("state_version");
+            state.lastTradeId = rs.getInt("last_trade_id");
+            String recent = rs.getString("recent_trade_ids");
+            if (recent != null && !recent.isEmpty()) {
+                for (String id : recent.split(",")) {
+                    state.recentTradeIds.add(Integer.parseInt(id));
+                }
+            }
+            state.totalTrades = rs.getInt("total_trades");
+            state.totalBuys = rs.getInt("total_buys");
+            state.totalSells = rs.getInt("total_sells");
+            state.closedTrades = rs.getInt("closed_trades");
+            state.winningTrades = rs.getInt("winning_trades");
+            state.losingTrades = rs.getInt("losing_trades");
+            state.realizedPnl = rs.getDouble("realized_pnl");
+            state.grossProfit = rs.getDouble("gross_profit");
+            state.grossLoss = rs.getDouble("gross_loss");
+            state.returnCount = rs.getInt("return_count");
+            state.returnMean = rs.getDouble("return_mean");
+            state.returnM2 = rs.getDouble("return_m2");
+            state.downsideSquares = rs.getDouble("downside_squares");
+            state.peakEquity = rs.getDouble("peak_equity");
+            state.maxDrawdown = rs.getDouble("max_drawdown");
+            state.holdMillisSum = rs.getLong("hold_millis_sum");
+            state.firstTradeAt = rs.getLong("first_trade_at");
+            state.lastTradeAt = rs.getLong("last_trade_at");
+            state.openSince = rs.getLong("open_since");
+            state.inMarketMillis = rs.getLong("in_market_millis");
+
+            try (PreparedStatement lots = connection.prepareStatement(lotsSql)) {
+                lots.setInt(1, userId);
+                ResultSet lrs = lots.executeQuery();
+                while (lrs.next()) {
+                    state.openLots.put(lrs.getInt("order_id"), new PerformanceState.OpenLot(
+                        lrs.getString("symbol"), lrs.getBoolean("is_long"), lrs.getDouble("quantity"),
+                        lrs.getDouble("price"), lrs.getLong("opened_at")));
+                }
+            }
+
+            try (PreparedStatement symbols = connection.prepareStatement(symbolsSql)) {
+                symbols.setInt(1, userId);
+                ResultSet srs = symbols.executeQuery();
+                while (srs.next()) {
+                    PerformanceMetrics.SymbolMetrics sm = new PerformanceMetrics.SymbolMetrics();
+                    sm.closedTrades = srs.getInt("closed_trades");
+                    sm.winningTrades = srs.getInt("winning_trades");
+                    sm.losingTrades = srs.getInt("losing_trades");
+                    sm.realizedPnl = srs.getDouble("realized_pnl");
+                    sm.grossProfit = srs.getDouble("gross_profit");
+                    sm.grossLoss = srs.getDouble("gross_loss");
+                    sm.holdMillis = srs.getLong("hold_millis");
+                    state.bySymbol.put(srs.getString("symbol"), sm);
+                }
+            }
+            return state;
+        } catch (SQLException e) {
+            System.err.println("Error retrieving performance state: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Load a user's equity curve
+     * @param userId The user ID
+     * @param curve Receives the points, oldest first
+     * @return true if successful, false otherwise
+     */
+    public boolean getEquityCurve(int userId, EquityCurve curve) {
+        String sql = "SELECT ts, value FROM performance_equity WHERE user_id = ? ORDER BY seq";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Timestamp ts = rs.getTimestamp("ts");
+                curve.add(ts != null ? ts.getTime() : 0L, rs.getDouble("value"));
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error retrieving equity curve: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Save a state that was advanced from a previously loaded one
+     * Uses the previous lastTradeId and totalTrades as an optimistic lock, so if another
+     * caller already applied the same trades nothing is written twice
+     * @param state The advanced state
+     * @param previousLastTradeId lastTradeId of the state as it was loaded
+     * @param previousTotalTrades totalTrades of the state as it was loaded
+     * @param newPoints Equity points added since the state was loaded
+     * @param firstSeq Sequence number of the first added equity point
+     * @return true if saved, false if another caller got there first or on error
+     */
+    public boolean saveState(PerformanceState state, int previousLastTradeId, int previousTotalTrades,
+                             EquityCurve newPoints, int firstSeq) {
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                if (!updateState(conn, state, previousLastTradeId, previousTotalTrades)) {
+                    conn.rollback();
+                    return false;
+                }
+                writeLots(conn, state);
+                writeSymbols(conn, state);
+                appendEquity(conn, state.userId, newPoints, firstSeq);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error saving performance state: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Replace a user's state and equity curve entirely (rebuild from full history)
+     * @param state The rebuilt state
+     * @param curve The full equity curve
+     * @return true if successful, false otherwise
+     */
+    public boolean replaceState(PerformanceState state, EquityCurve curve) {
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (String table : new String[] { "performance_equity", "performance_lots", "performance_symbols", "performance_state" }) {
+                    try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + table + " WHERE user_id = ?")) {
+                        stmt.setInt(1, state.userId);
+                        stmt.executeUpdate();
+                    }
+                }
+                insertState(conn, state);
+                writeLots(conn, state);
+                writeSymbols(conn, state);
+                appendEquity(conn, state.userId, curve, 0);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error replacing performance state: " + e.getMessage());
+        }
+        return false;
+    }
+
+    private void insertState(Connection conn, PerformanceState state) throws SQLException {
+        StringBuilder sql = new StringBuilder("INSERT INTO performance_state (");
+        for (String column : STATE_COLUMNS) {
+            sql.append(column).append(", ");
+        }
+        sql.append("user_id) VALUES (");
+        for (int i = 0; i < STATE_COLUMNS.length; i++) {
+            sql.append("?, ");
+        }
+        sql.append("?)");
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int next = bindState(stmt, state);
+            stmt.setInt(next, state.userId);
+            stmt.executeUpdate();
+        }
+    }
+
+    private boolean updateState(Connection conn, PerformanceState state, int previousLastTradeId,
+                                int previousTotalTrades) throws SQLException {
+        StringBuilder sql = new StringBuilder("UPDATE performance_state SET ");
+        for (int i = 0; i < STATE_COLUMNS.length; i++) {
+            sql.append(i == 0 ? "" : ", ").append(STATE_COLUMNS[i]).append(" = ?");
+        }
+        sql.append(" WHERE user_id = ? AND last_trade_id = ? AND total_trades = ?");
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int next = bindState(stmt, state);
+            stmt.setInt(next, state.userId);
+            stmt.setInt(next + 1, previousLastTradeId);
+            stmt.setInt(next + 2, previousTotalTrades);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Binds the state fields in STATE_COLUMNS order
+     * @return Index of the next free parameter
+     */
+    private int bindState(PreparedStatement stmt, PerformanceState state) throws SQLException {
+        int i = 1;
+        stmt.setInt(i++, state.version);
+        stmt.setInt(i++, state.lastTradeId);
+        StringBuilder recent = new StringBuilder();
+        for (int id : state.recentTradeIds) {
+            if (recent.length() > 0) recent.append(',');
+            recent.append(id);
+        }
+        stmt.setString(i++, recent.toString());
+        stmt.setInt(i++, state.totalTrades);
+        stmt.setInt(i++, state.totalBuys);
+        stmt.setInt(i++, state.totalSells);
+        stmt.setInt(i++, state.closedTrades);
+        stmt.setInt(i++, state.winningTrades);
+        stmt.setInt(i++, state.losingTrades);
+        stmt.setDouble(i++, state.realizedPnl);
+        stmt.setDouble(i++, state.grossProfit);
+        stmt.setDouble(i++, state.grossLoss);
+        stmt.setInt(i++, state.returnCount);
+        stmt.setDouble(i++, state.returnMean);
+        stmt.setDouble(i++, state.returnM2);
+        stmt.setDouble(i++, state.downsideSquares);
+        stmt.setDouble(i++, state.peakEquity);
+        stmt.setDouble(i++, state.maxDrawdown);
+        stmt.setLong(i++, state.holdMillisSum);
+        stmt.setLong(i++, state.firstTradeAt);
+        stmt.setLong(i++, state.lastTradeAt);
+        stmt.setLong(i++, state.openSince);
+        stmt.setLong(i++, state.inMarketMillis);
+        stmt.setTimestamp(i++, Timestamp.valueOf(LocalDateTime.now()));
+        return i;
+    }
+
+    private void writeLots(Connection conn, PerformanceState state) throws SQLException {
+        try (PreparedStatement delete = conn.prepareStatement("DELETE FROM performance_lots WHERE user_id = ?")) {
+            delete.setInt(1, state.userId);
+            delete.executeUpdate();
+        }
+
+        String sql = "INSERT INTO performance_lots (user_id, order_id, symbol, is_long, quantity, price, opened_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, PerformanceState.OpenLot> entry : state.openLots.entrySet()) {
+                PerformanceState.OpenLot lot = entry.getValue();
+                stmt.setInt(1, state.userId);
+                stmt.setInt(2, entry.getKey());
+                stmt.setString(3, lot.symbol);
+                stmt.setBoolean(4, lot.isLong);
+                stmt.setDouble(5, lot.quantity);
+                stmt.setDouble(6, lot.price);
+                stmt.setLong(7, lot.openedAt);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void writeSymbols(Connection conn, PerformanceState state) throws SQLException {
+        String sql = "REPLACE INTO performance_symbols (user_id, symbol, closed_trades, winning_trades, losing_trades, " +
+                     "realized_pnl, gross_profit, gross_loss, hold_millis) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<String, PerformanceMetrics.SymbolMetrics> entry : state.bySymbol.entrySet()) {
+                PerformanceMetrics.SymbolMetrics sm = entry.getValue();
+                stmt.setInt(1, state.userId);
+                stmt.setString(2, entry.getKey());
+                stmt.setInt(3, sm.closedTrades);
+                stmt.setInt(4, sm.winningTrades);
+                stmt.setInt(5, sm.losingTrades);
+                stmt.setDouble(6, sm.realizedPnl);
+                stmt.setDouble(7, sm.grossProfit);
+                stmt.setDouble(8, sm.grossLoss);
+                stmt.setLong(9, sm.holdMillis);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private void appendEquity(Connection conn, int userId, EquityCurve points, int firstSeq) throws SQLException {
+        String sql = "INSERT INTO performance_equity (user_id, seq, ts, value) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < points.size(); i++) {
+                stmt.setInt(1, userId);
+                stmt.setInt(2, firstSeq + i);
+                stmt.setTimestamp(3, new Timestamp(points.getTime(i)));
+                stmt.setDouble(4, points.getValue(i));
+                stmt.addBatch();
+                if ((i + 1) % 1000 == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+}
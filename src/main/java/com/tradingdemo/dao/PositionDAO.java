@@ -0,0 +1,196 @@
+package com.tradingdemo.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.tradingdemo.config.DatabaseConnection;
+import com.tradingdemo.model.Position;
+
+/**
+ * PositionDAO - Data Access Object for the positions read model
+ * One row per (user_id, symbol, side) holding the aggregated open quantity,
+ * weighted average entry price and locked margin
+ */
+public class PositionDAO {
+
+    private static final double EPSILON = 1e-9;
+
+    private final Connection connection;
+
+    public PositionDAO() {
+        this.connection = DatabaseConnection.getInstance().getConnection();
+    }
+
+    /**
+     * Adds an executed fill to the position, creating it if needed
+     * The average entry is re-weighted with the previous quantity before the quantity changes.
+     * Runs inside the caller's transaction (see OrderDAO.executeOrder).
+     * @param conn Connection of the executing transaction (auto-commit off)
+     * @param userId The user ID
+     * @param symbol Cryptocurrency symbol
+     * @param side BUY (long) or SELL (short)
+     * @param quantity Executed quantity
+     * @param price Execution price
+     */
+    public void increasePosition(Connection conn, int userId, String symbol, String side, double quantity,
+                                 double price) throws SQLException {
+        // MySQL evaluates ON DUPLICATE KEY assignments left to right, so the average uses the old quantity
+        String sql = "INSERT INTO positions (user_id, symbol, side, quantity, average_entry_price, margin, updated_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, NOW()) " +
+                     "ON DUPLICATE KEY UPDATE " +
+                     "average_entry_price = (average_entry_price * quantity + VALUES(margin)) / (quantity + VALUES(quantity)), " +
+                     "margin = margin + VALUES(margin), " +
+                     "quantity = quantity + VALUES(quantity), " +
+                     "updated_at = NOW()";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, symbol);
+            stmt.setString(3, side);
+            stmt.setDouble(4, quantity);
+            stmt.setDouble(5, price);
+            stmt.setDouble(6, price * quantity);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Removes a closed quantity and its margin from the position, deleting it when flat
+     * @param userId The user ID
+     * @param symbol Cryptocurrency symbol
+     * @param side BUY (long) or SELL (short)
+     * @param quantity Closed quantity
+     * @param releasedMargin Margin that was locked by the closed order
+     * @return true if successful, false otherwise
+     */
+    public boolean reducePosition(int userId, String symbol, String side, double quantity, double releasedMargin) {
+        String updateSql = "UPDATE positions SET " +
+                           "quantity = GREATEST(quantity - ?, 0), " +
+                           "margin = GREATEST(margin - ?, 0), " +
+                           "average_entry_price = IF(quantity > ?, margin / quantity, 0), " +
+                           "updated_at = NOW() " +
+                           "WHERE user_id = ? AND symbol = ? AND side = ?";
+        String deleteSql = "DELETE FROM positions WHERE user_id = ? AND symbol = ? AND side = ? AND quantity <= ?";
+
+        try (PreparedStatement update = connection.prepareStatement(updateSql);
+             PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+            update.setDouble(1, quantity);
+            update.setDouble(2, releasedMargin);
+            update.setDouble(3, EPSILON);
+            update.setInt(4, userId);
+            update.setString(5, symbol);
+            update.setString(6, side);
+            boolean updated = update.executeUpdate() > 0;
+
+            delete.setInt(1, userId);
+            delete.setString(2, symbol);
+            delete.setString(3, side);
+            delete.setDouble(4, EPSILON);
+            delete.executeUpdate();
+            return updated;
+        } catch (SQLException e) {
+            System.err.println("Error reducing position: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Get all open positions of a user
+     * @param userId The user ID
+     * @return List of positions
+     */
+    public List<Position> getPositionsByUserId(int userId) {
+        List<Position> positions = new ArrayList<>();
+        String sql = "SELECT * FROM positions WHERE user_id = ? ORDER BY symbol, side";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                positions.add(mapResultSetToPosition(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving positions by user: " + e.getMessage());
+        }
+        return positions;
+    }
+
+    /**
+     * Get one position
+     * @param userId The user ID
+     * @param symbol Cryptocurrency symbol
+     * @param side BUY (long) or SELL (short)
+     * @return Position object or null if flat
+     */
+    public Position getPosition(int userId, String symbol, String side) {
+        String sql = "SELECT * FROM positions WHERE user_id = ? AND symbol = ? AND side = ?";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, symbol);
+            stmt.setString(3, side);
+            ResultSet rs = stmt.executeQuery();
+
+            if (rs.next()) {
+                return mapResultSetToPosition(rs);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving position: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Fills the positions table from EXECUTED orders if it is empty
+     * (one-time migration for databases created before the table existed)
+     * @return Number of positions created
+     */
+    public int rebuildIfEmpty() {
+        String countSql = "SELECT COUNT(*) FROM positions";
+        String rebuildSql = "INSERT INTO positions (user_id, symbol, side, quantity, average_entry_price, margin, updated_at) " +
+                            "SELECT user_id, symbol, side, SUM(quantity), SUM(price * quantity) / SUM(quantity), " +
+                            "SUM(price * quantity), NOW() " +
+                            "FROM orders WHERE status = 'EXECUTED' GROUP BY user_id, symbol, side";
+
+        try (Statement stmt = connection.createStatement()) {
+            ResultSet rs = stmt.executeQuery(countSql);
+            if (rs.next() && rs.getLong(1) > 0) {
+                return 0;
+            }
+            return stmt.executeUpdate(rebuildSql);
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding positions: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Helper method to map ResultSet row to Position object
+     * @param rs The ResultSet
+     * @return Position object
+     * @throws SQLException
+     */
+    private Position mapResultSetToPosition(ResultSet rs) throws SQLException {
+        Position position = new Position();
+        position.setUserId(rs.getInt("user_id"));
+        position.setSymbol(rs.getString("symbol"));
+        position.setSide(rs.getString("side"));
+        position.setQuantity(rs.getDouble("quantity"));
+        position.setAverageEntryPrice(rs.getDouble("average_entry_price"));
+        position.setMargin(rs.getDouble("margin"));
+
+        Timestamp updatedTs = rs.getTimestamp("updated_at");
+        if (updatedTs != null) {
+            position.setUpdatedAt(updatedTs.toLocalDateTime());
+        }
+
+        return position;
+    }
+}
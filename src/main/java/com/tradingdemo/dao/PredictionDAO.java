@@ -17,6 +17,9 @@ import com.tradingdemo.model.Prediction;
  */
 public class PredictionDAO {
 
+    // Latest prediction per symbol; replaced whenever a new prediction is created for it
+    private static final EntityCache<String, Prediction> LATEST_CACHE = new EntityCache<>("Prediction", 100, 60_000, Prediction::new);
+
     private final Connection connection;
 
     public PredictionDAO() {
@@ -44,6 +47,8 @@ public class PredictionDAO {
             }
         } catch (SQLException e) {
             System.err.println("Error creating prediction: " + e.getMessage());
+        } finally {
+            LATEST_CACHE.invalidate(prediction.getSymbol());
         }
         return false;
     }
@@ -65,6 +70,10 @@ public class PredictionDAO {
     }
 
     public Prediction getLatestPredictionBySymbol(String symbol) {
+        return LATEST_CACHE.get(symbol, this::loadLatestPredictionBySymbol);
+    }
+
+    private Prediction loadLatestPredictionBySymbol(String symbol) {
         String sql = "SELECT * FROM predictions WHERE symbol = ? ORDER BY id DESC LIMIT 1";
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -8,6 +8,7 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.tradingdemo.config.DatabaseConnection;
@@ -19,6 +20,9 @@ import com.tradingdemo.model.Reclamation;
  */
 public class ReclamationDAO {
 
+    private static final EntityCache<Integer, Reclamation> RECLAMATION_CACHE = new EntityCache<>("Reclamation", 500, 120_000, Reclamation::new);
+    private static final EntityCache<Integer, List<Reclamation>> BY_USER_CACHE = new EntityCache<>("Reclam./user", 500, 120_000, EntityCache.listCopier(Reclamation::new));
+
     private final Connection connection;
 
     public ReclamationDAO() {
@@ -48,11 +52,17 @@ public class ReclamationDAO {
             }
         } catch (SQLException e) {
             System.err.println("Error creating reclamation: " + e.getMessage());
+        } finally {
+            BY_USER_CACHE.invalidate(reclamation.getUserId());
         }
         return false;
     }
 
     public Reclamation getReclamationById(int reclamationId) {
+        return RECLAMATION_CACHE.get(reclamationId, this::loadReclamationById);
+    }
+
+    private Reclamation loadReclamationById(int reclamationId) {
         String sql = "SELECT * FROM reclamations WHERE id = ?";
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -69,6 +79,12 @@ public class ReclamationDAO {
     }
 
     public List<Reclamation> getReclamationsByUserId(int userId) {
+        List<Reclamation> cached = BY_USER_CACHE.get(userId,
+            key -> Collections.unmodifiableList(loadReclamationsByUserId(key)));
+        return new ArrayList<>(cached);
+    }
+
+    private List<Reclamation> loadReclamationsByUserId(int userId) {
         List<Reclamation> reclamations = new ArrayList<>();
         String sql = "SELECT * FROM reclamations WHERE user_id = ? ORDER BY created_at DESC";
 
@@ -115,6 +131,9 @@ public class ReclamationDAO {
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error updating reclamation: " + e.getMessage());
+        } finally {
+            RECLAMATION_CACHE.invalidate(reclamation.getId());
+            BY_USER_CACHE.invalidate(reclamation.getUserId());
         }
         return false;
     }
@@ -127,6 +146,10 @@ public class ReclamationDAO {
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting reclamation: " + e.getMessage());
+        } finally {
+            // The owning user is unknown here, so drop every per-user list
+            RECLAMATION_CACHE.invalidate(reclamationId);
+            BY_USER_CACHE.invalidateAll();
         }
         return false;
     }
@@ -0,0 +1,268 @@
+package com.tradingdemo.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import com.tradingdemo.config.DatabaseConnection;
+
+/**
+ * TaxLotDAO - Persistent tax lots per user, symbol and side
+ * FIFO/LIFO keep one lot per executed order; AVERAGE keeps a single merged lot (order_id 0)
+ * per symbol and side. Closing consumes lots from the front of the queue a few rows at a
+ * time, and every fully consumed lot is deleted, so matching is amortized O(1) per lot.
+ */
+public class TaxLotDAO {
+
+    public static final String FIFO = "FIFO";
+    public static final String LIFO = "LIFO";
+    public static final String AVERAGE = "AVERAGE";
+
+    private static final int AVERAGE_LOT_ORDER_ID = 0;
+    private static final int MATCH_BATCH = 16;
+    private static final double EPSILON = 1e-9;
+
+    private final Connection connection;
+
+    public TaxLotDAO() {
+        this.connection = DatabaseConnection.getInstance().getConnection();
+    }
+
+    /**
+     * Records the lot opened by an executed order
+     * Under AVERAGE the quantity is merged into the symbol's single lot at a weighted cost.
+     * Runs inside the caller's transaction, so the lot opens together with the order or not at all.
+     * @param conn Connection of the executing transaction (auto-commit off)
+     * @param userId The user ID
+     * @param symbol Cryptocurrency symbol
+     * @param side BUY (long) or SELL (short)
+     * @param orderId The executed order
+     * @param quantity Executed quantity
+     * @param price Execution price
+     * @param method FIFO, LIFO or AVERAGE
+     */
+    public void openLot(Connection conn, int userId, String symbol, String side, int orderId, double quantity,
+                        double price, String method) throws SQLException {
+        // cost_price is assigned first so it still sees the old quantity
+        String sql = "INSERT INTO lots (user_id, symbol, side, order_id, quantity, cost_price, opened_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                     "ON DUPLICATE KEY UPDATE " +
+                     "cost_price = (cost_price * quantity + VALUES(cost_price) * VALUES(quantity)) / (quantity + VALUES(quantity)), " +
+                     "quantity = quantity + VALUES(quantity)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, symbol);
+            stmt.setString(3, side);
+            stmt.setInt(4, AVERAGE.equals(method) ? AVERAGE_LOT_ORDER_ID : orderId);
+            stmt.setDouble(5, quantity);
+            stmt.setDouble(6, price);
+            stmt.setTimestamp(7, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Consumes lots for a closed quantity and records the realized P&L of each
+     * Runs inside the caller's transaction, so the lots close together with the order or not at all.
+     * Quantity not covered by any lot (positions opened before lots existed) is matched at the fallback cost
+     * @param conn Connection of the closing transaction (auto-commit off)
+     * @param userId The user ID
+     * @param symbol Cryptocurrency symbol
+     * @param side Side of the position being closed (BUY or SELL)
+     * @param quantity Closed quantity
+     * @param closePrice Closing price
+     * @param closeOrderId The order being closed
+     * @param fallbackCost Cost used for quantity without a lot
+     * @param method FIFO, LIFO or AVERAGE
+     * @return Realized P&L against the lots' cost
+     * @throws SQLException so the caller rolls the close back
+     */
+    public double closeLots(Connection conn, int userId, String symbol, String side, double quantity, double closePrice,
+                            int closeOrderId, double fallbackCost, String method) throws SQLException {
+        String order = LIFO.equals(method) ? "DESC" : "ASC";
+        String selectSql = "SELECT id, order_id, quantity, cost_price FROM lots " +
+                           "WHERE user_id = ? AND symbol = ? AND side = ? " +
+                           "ORDER BY opened_at " + order + ", id " + order + " LIMIT " + MATCH_BATCH + " FOR UPDATE";
+        String deleteSql = "DELETE FROM lots WHERE id = ?";
+        String reduceSql = "UPDATE lots SET quantity = ? WHERE id = ?";
+        String realizeSql = "INSERT INTO lot_realizations (user_id, symbol, side, lot_order_id, close_order_id, method, " +
+                            "quantity, cost_price, close_price, realized_pnl, closed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        boolean isLong = "BUY".equals(side);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+             PreparedStatement delete = conn.prepareStatement(deleteSql);
+             PreparedStatement reduce = conn.prepareStatement(reduceSql);
+             PreparedStatement realize = conn.prepareStatement(realizeSql)) {
+            select.setInt(1, userId);
+            select.setString(2, symbol);
+            select.setString(3, side);
+
+            double remaining = quantity;
+            double realized = 0;
+            boolean more = true;
+            while (remaining > EPSILON && more) {
+                int rows = 0;
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next() && remaining > EPSILON) {
+                        rows++;
+                        int lotId = rs.getInt("id");
+                        double lotQty = rs.getDouble("quantity");
+                        double cost = rs.getDouble("cost_price");
+                        double take = Math.min(remaining, lotQty);
+                        double pnl = isLong ? (closePrice - cost) * take : (cost - closePrice) * take;
+
+                        if (lotQty - take <= EPSILON) {
+                            delete.setInt(1, lotId);
+                            delete.executeUpdate();
+                        } else {
+                            reduce.setDouble(1, lotQty - take);
+                            reduce.setInt(2, lotId);
+                            reduce.executeUpdate();
+                        }
+                        bindRealization(realize, userId, symbol, side, rs.getInt("order_id"), closeOrderId, method,
+                                        take, cost, closePrice, pnl, now);
+                        remaining -= take;
+                        realized += pnl;
+                    }
+                }
+                more = rows == MATCH_BATCH;
+            }
+            if (remaining > EPSILON) {
+                double pnl = isLong ? (closePrice - fallbackCost) * remaining : (fallbackCost - closePrice) * remaining;
+                bindRealization(realize, userId, symbol, side, closeOrderId, closeOrderId, method,
+                                remaining, fallbackCost, closePrice, pnl, now);
+                realized += pnl;
+            }
+            realize.executeBatch();
+            return realized;
+        }
+    }
+
+    /**
+     * Reads a user's lot method inside a transaction
+     * @param conn Connection of the transaction
+     * @param userId The user ID
+     * @return FIFO, LIFO or AVERAGE (FIFO if the user is missing)
+     */
+    public String getLotMethod(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT lot_method FROM users WHERE id = ?")) {
+            stmt.setInt(1, userId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                String method = rs.next() ? rs.getString(1) : null;
+                return method != null ? method : FIFO;
+            }
+        }
+    }
+
+    private void bindRealization(PreparedStatement stmt, int userId, String symbol, String side, int lotOrderId,
+                                 int closeOrderId, String method, double quantity, double cost, double closePrice,
+                                 double pnl, Timestamp closedAt) throws SQLException {
+        stmt.setInt(1, userId);
+        stmt.setString(2, symbol);
+        stmt.setString(3, side);
+        stmt.setInt(4, lotOrderId);
+        stmt.setInt(5, closeOrderId);
+        stmt.setString(6, method);
+        stmt.setDouble(7, quantity);
+        stmt.setDouble(8, cost);
+        stmt.setDouble(9, closePrice);
+        stmt.setDouble(10, pnl);
+        stmt.setTimestamp(11, closedAt);
+        stmt.addBatch();
+    }
+
+    /**
+     * Merges every lot of a user into one average-cost lot per symbol and side
+     * (used when the user switches to AVERAGE)
+     * @param userId The user ID
+     * @return true if successful, false otherwise
+     */
+    public boolean mergeLots(int userId) {
+        String selectSql = "SELECT symbol, side, SUM(quantity), SUM(quantity * cost_price) / SUM(quantity), MIN(opened_at) " +
+                           "FROM lots WHERE user_id = ? GROUP BY symbol, side FOR UPDATE";
+        String deleteSql = "DELETE FROM lots WHERE user_id = ?";
+        String insertSql = "INSERT INTO lots (user_id, symbol, side, order_id, quantity, cost_price, opened_at) " +
+                           "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement select = conn.prepareStatement(selectSql);
+                 PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement insert = conn.prepareStatement(insertSql)) {
+                select.setInt(1, userId);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        insert.setInt(1, userId);
+                        insert.setString(2, rs.getString(1));
+                        insert.setString(3, rs.getString(2));
+                        insert.setInt(4, AVERAGE_LOT_ORDER_ID);
+                        insert.setDouble(5, rs.getDouble(3));
+                        insert.setDouble(6, rs.getDouble(4));
+                        insert.setTimestamp(7, rs.getTimestamp(5));
+                        insert.addBatch();
+                    }
+                }
+                delete.setInt(1, userId);
+                delete.executeUpdate();
+                insert.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error merging tax lots: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Get the total realized P&L of a user's closed lots
+     * @param userId The user ID
+     * @return Sum of realized P&L (0 on error)
+     */
+    public double getRealizedPnl(int userId) {
+        String sql = "SELECT COALESCE(SUM(realized_pnl), 0) FROM lot_realizations WHERE user_id = ?";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getDouble(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving realized lot P&L: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Fills the lots table from EXECUTED orders if it is empty
+     * (one-time migration for databases created before the table existed)
+     * @return Number of lots created
+     */
+    public int rebuildIfEmpty() {
+        String countSql = "SELECT COUNT(*) FROM lots";
+        String rebuildSql = "INSERT INTO lots (user_id, symbol, side, order_id, quantity, cost_price, opened_at) " +
+                            "SELECT user_id, symbol, side, id, quantity, price, created_at " +
+                            "FROM orders WHERE status = 'EXECUTED'";
+
+        try (Statement stmt = connection.createStatement()) {
+            ResultSet rs = stmt.executeQuery(countSql);
+            if (rs.next() && rs.getLong(1) > 0) {
+                return 0;
+            }
+            return stmt.executeUpdate(rebuildSql);
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding tax lots: " + e.getMessage());
+        }
+        return 0;
+    }
+}
@@ -8,6 +8,10 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.tradingdemo.config.DatabaseConnection;
 import com.tradingdemo.model.Trade;
@@ -24,38 +28,62 @@ public class TradeDAO {
         this.connection = DatabaseConnection.getInstance().getConnection();
     }
 
-    /**
-     * Create a new trade (executed order)
-     * @param trade The trade to create
-     * @return true if successful, false otherwise
-     */
-    public boolean createTrade(Trade trade) {
-        String sql = "INSERT INTO trades (order_id, symbol, side, executed_price, quantity, executed_at) " +
-                     "VALUES (?, ?, ?, ?, ?, ?)";
-
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    // Trade inserts are batched by a single background writer shared by all TradeDAO instances
+    private static final WriteBehindQueue<Trade> TRADE_WRITER = new WriteBehindQueue<>(
+        "trades",
+        "INSERT INTO trades (order_id, symbol, side, executed_price, quantity, executed_at) VALUES (?, ?, ?, ?, ?, ?)",
+        (stmt, trade) -> {
             stmt.setInt(1, trade.getOrderId());
             stmt.setString(2, trade.getSymbol());
             stmt.setString(3, trade.getSide());
             stmt.setDouble(4, trade.getExecutedPrice());
             stmt.setDouble(5, trade.getQuantity());
             stmt.setTimestamp(6, Timestamp.valueOf(trade.getExecutedAt()));
+        },
+        10_000, 200, 10);
 
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        trade.setId(rs.getInt(1));
-                    }
-                }
-                return true;
-            }
-        } catch (SQLException e) {
+    private static final long WRITE_TIMEOUT_MS = 30_000;
+
+    /**
+     * Create a new trade (executed order)
+     * The row goes through the batched writer; this waits until its batch is committed,
+     * so concurrent callers still share one batch but each learns whether its row was written
+     * @param trade The trade to create
+     * @return true if the trade was written, false otherwise
+     */
+    public boolean createTrade(Trade trade) {
+        try {
+            return createTradeAsync(trade).get(WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS) != null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
             System.err.println("Error creating trade: " + e.getMessage());
         }
         return false;
     }
 
+    /**
+     * Waits until queued trades are written, so a following read sees them
+     * @return true if the queue drained in time
+     */
+    public static boolean flushPendingTrades() {
+        return TRADE_WRITER.flush(WRITE_TIMEOUT_MS);
+    }
+
+    /**
+     * Create a new trade for callers that need its generated ID
+     * @param trade The trade to create
+     * @return Future completed with the new trade ID once the batch is committed
+     */
+    public CompletableFuture<Integer> createTradeAsync(Trade trade) {
+        return TRADE_WRITER.enqueueWithKey(trade).thenApply(id -> {
+            if (id != null) {
+                trade.setId(id);
+            }
+            return id;
+        });
+    }
+
     /**
      * Get a trade by ID
      * @param tradeId The trade ID
@@ -83,6 +111,7 @@ public class TradeDAO {
      * @return List of trades
      */
     public List<Trade> getTradesByOrderId(int orderId) {
+        flushPendingTrades(); // include trades still queued in the batched writer
         List<Trade> trades = new ArrayList<>();
         String sql = "SELECT * FROM trades WHERE order_id = ? ORDER BY executed_at DESC";
 
@@ -105,6 +134,7 @@ public class TradeDAO {
      * @return List of trades
      */
     public List<Trade> getTradesByUserId(int userId) {
+        flushPendingTrades();
         List<Trade> trades = new ArrayList<>();
         String sql = "SELECT t.* FROM trades t " +
                      "JOIN orders o ON t.order_id = o.id " +
@@ -123,11 +153,137 @@ public class TradeDAO {
         return trades;
     }
 
+    /**
+     * Get all trades for a user, including trades moved to trades_archive
+     * Falls back to the hot table if the archive tables are missing
+     * @param userId The user ID
+     * @return List of trades, newest first
+     */
+    public List<Trade> getTradesByUserIdWithArchive(int userId) {
+        flushPendingTrades();
+        List<Trade> trades = new ArrayList<>();
+        String sql = "SELECT t.* FROM trades t JOIN orders o ON t.order_id = o.id WHERE o.user_id = ? " +
+                     "UNION ALL " +
+                     "SELECT ta.* FROM trades_archive ta JOIN orders_archive oa ON ta.order_id = oa.id WHERE oa.user_id = ? " +
+                     "ORDER BY executed_at DESC";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setInt(2, userId);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                trades.add(mapResultSetToTrade(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving archived trades by user: " + e.getMessage());
+            return getTradesByUserId(userId);
+        }
+        return trades;
+    }
+
+    /**
+     * Receives trade rows one at a time without creating Trade objects
+     */
+    @FunctionalInterface
+    public interface TradeVisitor {
+        void visit(int id, int orderId, String symbol, String side, double executedPrice, double quantity,
+                   long executedAtMillis);
+    }
+
+    /**
+     * Streams a user's trades with an ID greater than the given one (hot and archive tables),
+     * oldest first. Rows are fetched one by one on a dedicated connection, so even very long
+     * histories are never held in memory.
+     * @param userId The user ID
+     * @param afterTradeId Only trades with a larger ID are visited (0 for all)
+     * @param visitor Called once per trade
+     * @return true if the whole result was visited, false on error
+     */
+    public boolean forEachTradeByUserId(int userId, int afterTradeId, TradeVisitor visitor) {
+        flushPendingTrades();
+        String sql = "SELECT t.id, t.order_id, t.symbol, t.side, t.executed_price, t.quantity, t.executed_at " +
+                     "FROM trades t JOIN orders o ON t.order_id = o.id WHERE o.user_id = ? AND t.id > ? " +
+                     "UNION ALL " +
+                     "SELECT ta.id, ta.order_id, ta.symbol, ta.side, ta.executed_price, ta.quantity, ta.executed_at " +
+                     "FROM trades_archive ta JOIN orders_archive oa ON ta.order_id = oa.id " +
+                     "WHERE oa.user_id = ? AND ta.id > ? " +
+                     "ORDER BY executed_at, id";
+
+        // A streaming result set blocks its connection until fully read, so never use the shared one
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE); // MySQL Connector/J: stream rows instead of buffering
+            stmt.setInt(1, userId);
+            stmt.setInt(2, afterTradeId);
+            stmt.setInt(3, userId);
+            stmt.setInt(4, afterTradeId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp executedTs = rs.getTimestamp(7);
+                    visitor.visit(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getString(4),
+                                  rs.getDouble(5), rs.getDouble(6), executedTs != null ? executedTs.getTime() : 0L);
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error streaming trades by user: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Receives platform-wide trade rows together with the owning user
+     */
+    @FunctionalInterface
+    public interface UserTradeVisitor {
+        void visit(int userId, int id, int orderId, String symbol, String side, double executedPrice,
+                   double quantity, long executedAtMillis);
+    }
+
+    /**
+     * Streams every user's trades with an ID greater than the given one (hot and archive tables)
+     * in one query, grouped by user and oldest first within each user
+     * @param afterTradeId Only trades with a larger ID are visited (0 for all)
+     * @param visitor Called once per trade
+     * @return true if the whole result was visited, false on error
+     */
+    public boolean forEachTradeOrderedByUser(int afterTradeId, UserTradeVisitor visitor) {
+        flushPendingTrades();
+        String sql = "SELECT o.user_id, t.id, t.order_id, t.symbol, t.side, t.executed_price, t.quantity, t.executed_at " +
+                     "FROM trades t JOIN orders o ON t.order_id = o.id WHERE t.id > ? " +
+                     "UNION ALL " +
+                     "SELECT oa.user_id, ta.id, ta.order_id, ta.symbol, ta.side, ta.executed_price, ta.quantity, ta.executed_at " +
+                     "FROM trades_archive ta JOIN orders_archive oa ON ta.order_id = oa.id WHERE ta.id > ? " +
+                     "ORDER BY user_id, executed_at, id";
+
+        try (Connection conn = DatabaseConnection.getInstance().openDedicatedConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            stmt.setInt(1, afterTradeId);
+            stmt.setInt(2, afterTradeId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Timestamp executedTs = rs.getTimestamp(8);
+                    visitor.visit(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getString(4), rs.getString(5),
+                                  rs.getDouble(6), rs.getDouble(7), executedTs != null ? executedTs.getTime() : 0L);
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error streaming trades by user: " + e.getMessage());
+        }
+        return false;
+    }
+
     /**
      * Get all trades from the system (for admin)
      * @return List of all trades
      */
     public List<Trade> getAllTrades() {
+        flushPendingTrades();
         List<Trade> trades = new ArrayList<>();
         String sql = "SELECT * FROM trades ORDER BY executed_at DESC LIMIT 100";
 
@@ -149,6 +305,7 @@ public class TradeDAO {
      * @return List of trades
      */
     public List<Trade> getTradesBySymbol(String symbol) {
+        flushPendingTrades();
         List<Trade> trades = new ArrayList<>();
         String sql = "SELECT * FROM trades WHERE symbol = ? ORDER BY executed_at DESC";
 
@@ -19,6 +19,9 @@ import com.tradingdemo.model.User;
  */
 public class UserDAO {
 
+    // Shared by all UserDAO instances; getUserById runs several times per order
+    private static final EntityCache<Integer, User> USER_CACHE = new EntityCache<>("User", 1_000, 30_000, User::new);
+
     private final Connection connection;
 
     public UserDAO() {
@@ -68,6 +71,10 @@ public class UserDAO {
      * @return The User object or null if not found
      */
     public User getUserById(int userId) {
+        return USER_CACHE.get(userId, this::loadUserById);
+    }
+
+    private User loadUserById(int userId) {
         String sql = "SELECT * FROM users WHERE id = ?";
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
@@ -125,28 +132,30 @@ public class UserDAO {
     }
 
     /**
-     * Update a user
+     * Update a user's profile fields
+     * The balance is not written here (the object may hold a stale copy); use the balance methods
      * @param user The user to update
      * @return true if successful, false otherwise
      */
     public boolean updateUser(User user) {
-        String sql = "UPDATE users SET first_name = ?, last_name = ?, email = ?, phone = ?, balance = ?, is_admin = ?, two_factor_enabled = ?, two_factor_secret = ?, updated_at = ? WHERE id = ?";
+        String sql = "UPDATE users SET first_name = ?, last_name = ?, email = ?, phone = ?, is_admin = ?, two_factor_enabled = ?, two_factor_secret = ?, updated_at = ? WHERE id = ?";
 
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, user.getFirstName());
             stmt.setString(2, user.getLastName());
             stmt.setString(3, user.getEmail());
             stmt.setString(4, user.getPhone());
-            stmt.setDouble(5, user.getBalance());
-            stmt.setBoolean(6, user.isAdmin());
-            stmt.setBoolean(7, user.isTwoFactorEnabled());
-            stmt.setString(8, user.getTwoFactorSecret());
-            stmt.setTimestamp(9, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.setInt(10, user.getId());
+            stmt.setBoolean(5, user.isAdmin());
+            stmt.setBoolean(6, user.isTwoFactorEnabled());
+            stmt.setString(7, user.getTwoFactorSecret());
+            stmt.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setInt(9, user.getId());
 
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error updating user: " + e.getMessage());
+        } finally {
+            USER_CACHE.invalidate(user.getId());
         }
         return false;
     }
@@ -163,6 +172,8 @@ public class UserDAO {
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error updating password: " + e.getMessage());
+        } finally {
+            USER_CACHE.invalidate(userId);
         }
         return false;
     }
@@ -180,6 +191,8 @@ public class UserDAO {
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error deleting user: " + e.getMessage());
+        } finally {
+            USER_CACHE.invalidate(userId);
         }
         return false;
     }
@@ -200,6 +213,103 @@ public class UserDAO {
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error updating user balance: " + e.getMessage());
+        } finally {
+            USER_CACHE.invalidate(userId);
+        }
+        return false;
+    }
+
+    /**
+     * Reads a user's balance from the database (never from the cache)
+     * @param userId The user ID
+     * @return The balance, or null if the user is missing or on error
+     */
+    public Double getBalance(int userId) {
+        String sql = "SELECT balance FROM users WHERE id = ?";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getDouble(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving user balance: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Adds an amount to a user's balance in one statement
+     * @param userId The user ID
+     * @param amount The amount to add
+     * @return true if successful, false otherwise
+     */
+    public boolean addToBalance(int userId, double amount) {
+        String sql = "UPDATE users SET balance = balance + ?, updated_at = ? WHERE id = ?";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setDouble(1, amount);
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setInt(3, userId);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error adding to user balance: " + e.getMessage());
+        } finally {
+            USER_CACHE.invalidate(userId);
+        }
+        return false;
+    }
+
+    /**
+     * Deducts an amount from a user's balance only if the balance covers it, in one statement
+     * @param userId The user ID
+     * @param amount The amount to deduct
+     * @return true if deducted, false if the balance was insufficient or on error
+     */
+    public boolean deductFromBalance(int userId, double amount) {
+        String sql = "UPDATE users SET balance = balance - ?, updated_at = ? WHERE id = ? AND balance >= ?";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setDouble(1, amount);
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setInt(3, userId);
+            stmt.setDouble(4, amount);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error deducting from user balance: " + e.getMessage());
+        } finally {
+            USER_CACHE.invalidate(userId);
+        }
+        return false;
+    }
+
+    /**
+     * Drops a cached user after another DAO changed its row (e.g. a bulk balance update)
+     * @param userId The user ID
+     */
+    public static void evict(int userId) {
+        USER_CACHE.invalidate(userId);
+    }
+
+    /**
+     * Update the tax lot matching method of a user
+     * @param userId The user ID
+     * @param lotMethod FIFO, LIFO or AVERAGE
+     * @return true if successful, false otherwise
+     */
+    public boolean updateLotMethod(int userId, String lotMethod) {
+        String sql = "UPDATE users SET lot_method = ?, updated_at = ? WHERE id = ?";
+
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, lotMethod);
+            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setInt(3, userId);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error updating lot method: " + e.getMessage());
+        } finally {
+            USER_CACHE.invalidate(userId);
         }
         return false;
     }
@@ -238,6 +348,11 @@ public class UserDAO {
             user.setTwoFactorSecret(rs.getString("two_factor_secret"));
         } catch (SQLException ignore) {
         }
+        try {
+            String lotMethod = rs.getString("lot_method");
+            if (lotMethod != null) user.setLotMethod(lotMethod);
+        } catch (SQLException ignore) {
+        }
         
         Timestamp createdTs = rs.getTimestamp("created_at");
         if (createdTs != null) {
@@ -0,0 +1,328 @@
+package com.tradingdemo.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.tradingdemo.config.DatabaseConnection;
+
+/**
+ * WriteBehindQueue - Groups single-row INSERTs into JDBC batches
+ * Rows are queued by the caller and written by one background thread, either when a batch
+ * is full or when the oldest queued row has waited for the flush interval.
+ * The queue is bounded: when it is full, callers wait briefly (backpressure) and then
+ * write their row inline. A failed batch is retried once and then written row by row, so one
+ * bad row does not take the rest of its batch with it; a row whose own insert fails is reported
+ * through its future (and counted in getFailedCount) rather than silently lost.
+ */
+public class WriteBehindQueue<T> {
+
+    /**
+     * Binds one queued row to the INSERT statement parameters
+     */
+    @FunctionalInterface
+    public interface Binder<T> {
+        void bind(PreparedStatement stmt, T row) throws SQLException;
+    }
+
+    private static final List<WriteBehindQueue<?>> QUEUES = new CopyOnWriteArrayList<>();
+    private static final long OFFER_TIMEOUT_MS = 2000;
+    private static final int BATCH_ATTEMPTS = 2;
+
+    private final String name;
+    private final String sql;
+    private final Binder<T> binder;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final BlockingQueue<Entry<T>> queue;
+    private final Thread flusher;
+    private volatile boolean closed = false;
+    private volatile List<Entry<T>> writing = List.of();   // batch taken off the queue, not yet committed
+    private final AtomicLong failedRows = new AtomicLong();
+    private Connection connection;
+
+    /**
+     * Creates and starts a write-behind queue
+     * @param name Name used for the flusher thread and log messages
+     * @param sql Single-row INSERT statement
+     * @param binder Sets the statement parameters for one row
+     * @param capacity Maximum number of queued rows
+     * @param batchSize Maximum rows per JDBC batch
+     * @param flushIntervalMs Maximum time a row waits before being written
+     */
+    public WriteBehindQueue(String name, String sql, Binder<T> binder, int capacity, int batchSize, long flushIntervalMs) {
+        this.name = name;
+        this.sql = sql;
+        this.binder = binder;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flusher = new Thread(this::runFlusher, "write-behind-" + name);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+        QUEUES.add(this);
+    }
+
+    /**
+     * Queues a row and returns immediately
+     * @param row The row to insert
+     */
+    public void enqueue(T row) {
+        submit(new Entry<>(row, new CompletableFuture<>()));
+    }
+
+    /**
+     * Queues a row for callers that need its generated key
+     * @param row The row to insert
+     * @return Future completed with the generated ID once the batch is committed
+     */
+    public CompletableFuture<Integer> enqueueWithKey(T row) {
+        CompletableFuture<Integer> key = new CompletableFuture<>();
+        submit(new Entry<>(row, key));
+        return key;
+    }
+
+    /**
+     * Gets the number of rows waiting to be written
+     * @return Queued row count
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Gets the number of rows that could not be written, even one at a time
+     * @return Failed row count since startup
+     */
+    public long getFailedCount() {
+        return failedRows.get();
+    }
+
+    /**
+     * Waits until every row queued before this call has been written (or has failed)
+     * Readers call this before querying the table so they see rows still in the queue.
+     * @param timeoutMs Maximum time to wait
+     * @return true if everything was written in time, false on timeout or if a row failed
+     */
+    public boolean flush(long timeoutMs) {
+        List<CompletableFuture<Integer>> pending = new ArrayList<>();
+        for (Entry<T> entry : writing) {
+            pending.add(entry.key);
+        }
+        for (Entry<T> entry : queue) {
+            pending.add(entry.key);
+        }
+        if (pending.isEmpty()) {
+            return true;
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("Write-behind queue '" + name + "' flush incomplete: " + e.getMessage());
+        }
+        return false;
+    }
+
+    private void submit(Entry<T> entry) {
+        if (!closed) {
+            try {
+                if (queue.offer(entry, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                System.err.println("Write-behind queue '" + name + "' is full, writing row inline");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Closed, saturated or interrupted: write this row ourselves
+        List<Entry<T>> single = new ArrayList<>(1);
+        single.add(entry);
+        synchronized (this) {
+            writeBatch(single);
+        }
+    }
+
+    private void runFlusher() {
+        List<Entry<T>> batch = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Entry<T> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill the batch until it is full or the first row has waited long enough
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || closed) {
+                        break;
+                    }
+                    Entry<T> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // close() interrupts us to stop waiting; keep draining until empty
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+
+            if (!batch.isEmpty()) {
+                synchronized (this) {
+                    writeBatch(batch);
+                }
+                batch.clear();
+            }
+        }
+        closeConnection();
+    }
+
+    /**
+     * Writes rows as one JDBC batch in one transaction on the queue's own connection
+     * A failed batch is retried, then written one row per transaction
+     */
+    private void writeBatch(List<Entry<T>> batch) {
+        writing = batch;
+        try {
+            SQLException error = null;
+            for (int attempt = 1; attempt <= BATCH_ATTEMPTS; attempt++) {
+                try {
+                    insert(batch);
+                    return;
+                } catch (SQLException e) {
+                    error = e;
+                    rollbackQuietly();
+                    closeConnection(); // the retry starts on a fresh connection in case this one broke
+                    System.err.println("Error writing " + batch.size() + " row(s) to '" + name + "' (attempt "
+                                       + attempt + "/" + BATCH_ATTEMPTS + "): " + e.getMessage());
+                }
+            }
+            if (batch.size() == 1) {
+                fail(batch.get(0), error);
+                return;
+            }
+
+            // Isolate the failing row(s) so the rest of the batch is still written
+            List<Entry<T>> single = new ArrayList<>(1);
+            for (Entry<T> entry : batch) {
+                single.clear();
+                single.add(entry);
+                try {
+                    insert(single);
+                } catch (SQLException e) {
+                    rollbackQuietly();
+                    fail(entry, e);
+                }
+            }
+        } finally {
+            writing = List.of();
+        }
+    }
+
+    private void insert(List<Entry<T>> rows) throws SQLException {
+        Connection conn = getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Entry<T> entry : rows) {
+                binder.bind(stmt, entry.row);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            conn.commit();
+
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                for (Entry<T> entry : rows) {
+                    entry.key.complete(rs.next() ? rs.getInt(1) : null);
+                }
+            }
+        }
+    }
+
+    private void fail(Entry<T> entry, SQLException e) {
+        failedRows.incrementAndGet();
+        System.err.println("Row could not be written to '" + name + "': " + e.getMessage());
+        entry.key.completeExceptionally(e);
+    }
+
+    private Connection getConnection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            connection = DatabaseConnection.getInstance().openDedicatedConnection();
+            connection.setAutoCommit(false);
+        }
+        return connection;
+    }
+
+    private void rollbackQuietly() {
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error rolling back '" + name + "' batch: " + e.getMessage());
+        }
+    }
+
+    private synchronized void closeConnection() {
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing '" + name + "' writer connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops accepting queued rows and writes everything still pending
+     */
+    public void close() {
+        closed = true;
+        flusher.interrupt();
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            System.err.println("Write-behind queue '" + name + "' did not drain in time (" + queue.size() + " rows left)");
+        }
+        QUEUES.remove(this);
+    }
+
+    /**
+     * Flushes and closes every write-behind queue (called on application shutdown)
+     */
+    public static void closeAll() {
+        for (WriteBehindQueue<?> q : QUEUES) {
+            q.close();
+        }
+    }
+
+    private static class Entry<T> {
+        final T row;
+        final CompletableFuture<Integer> key;
+
+        Entry(T row, CompletableFuture<Integer> key) {
+            this.row = row;
+            this.key = key;
+        }
+    }
+}
@@ -3,15 +3,34 @@ package com.tradingdemo.model;
 import java.time.LocalDateTime;
 
 public class AlertRule {
+    public static final String MODE_REPEAT = "REPEAT";     // disarm after firing, re-arm past the hysteresis band
+    public static final String MODE_ONE_SHOT = "ONE_SHOT"; // disable after firing
+
+    // What targetPrice is compared with (see SymbolSeries for the windowed types)
+    public static final String TYPE_PRICE = "PRICE";               // last price
+    public static final String TYPE_PCT_CHANGE = "PCT_CHANGE";     // % change over the window
+    public static final String TYPE_VOLUME_SPIKE = "VOLUME_SPIKE"; // 24h volume / its window average
+    public static final String TYPE_SMA_CROSS = "SMA_CROSS";       // % distance from the window SMA (0 = cross)
+    public static final String TYPE_EMA_CROSS = "EMA_CROSS";       // % distance from the window EMA (0 = cross)
+    public static final String TYPE_RSI = "RSI";                   // RSI over window one-minute bars
+
     private int id;
     private int userId;
     private String symbol;
     private double targetPrice;
     private boolean notifyWhenAbove; // true = notify when price >= target, false = when <= target
+    private String type = TYPE_PRICE;
+    private int windowMinutes = 0;   // unused for TYPE_PRICE
     private boolean enabled = true;
     private boolean notifyEmail = true;
     private boolean notifySms = false;
+    private String mode = MODE_REPEAT;
+    private double hysteresisPct = 0.5;   // re-arm distance from the target, in percent
+    private int cooldownSeconds = 300;    // minimum time between two notifications
+    private boolean armed = true;
+    private LocalDateTime lastTriggeredAt;
     private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime updatedAt;
 
     public AlertRule() {}
 
@@ -33,12 +52,28 @@ public class AlertRule {
     public void setTargetPrice(double targetPrice) { this.targetPrice = targetPrice; }
     public boolean isNotifyWhenAbove() { return notifyWhenAbove; }
     public void setNotifyWhenAbove(boolean notifyWhenAbove) { this.notifyWhenAbove = notifyWhenAbove; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public int getWindowMinutes() { return windowMinutes; }
+    public void setWindowMinutes(int windowMinutes) { this.windowMinutes = windowMinutes; }
     public boolean isEnabled() { return enabled; }
     public void setEnabled(boolean enabled) { this.enabled = enabled; }
     public boolean isNotifyEmail() { return notifyEmail; }
     public void setNotifyEmail(boolean notifyEmail) { this.notifyEmail = notifyEmail; }
     public boolean isNotifySms() { return notifySms; }
     public void setNotifySms(boolean notifySms) { this.notifySms = notifySms; }
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+    public double getHysteresisPct() { return hysteresisPct; }
+    public void setHysteresisPct(double hysteresisPct) { this.hysteresisPct = hysteresisPct; }
+    public int getCooldownSeconds() { return cooldownSeconds; }
+    public void setCooldownSeconds(int cooldownSeconds) { this.cooldownSeconds = cooldownSeconds; }
+    public boolean isArmed() { return armed; }
+    public void setArmed(boolean armed) { this.armed = armed; }
+    public LocalDateTime getLastTriggeredAt() { return lastTriggeredAt; }
+    public void setLastTriggeredAt(LocalDateTime lastTriggeredAt) { this.lastTriggeredAt = lastTriggeredAt; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 }
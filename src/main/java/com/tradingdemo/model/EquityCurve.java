@@ -0,0 +1,124 @@
+package com.tradingdemo.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Growable equity curve backed by primitive arrays (epoch millis + cumulative P&L)
+ * Avoids boxing one Double and one LocalDateTime per point on large histories
+ */
+public class EquityCurve {
+    private long[] times;
+    private double[] values;
+    private int size = 0;
+
+    public EquityCurve() {
+        this(16);
+    }
+
+    public EquityCurve(int initialCapacity) {
+        this.times = new long[Math.max(1, initialCapacity)];
+        this.values = new double[Math.max(1, initialCapacity)];
+    }
+
+    public void add(long epochMillis, double value) {
+        if (size == values.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        times[size] = epochMillis;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    public LocalDateTime getDateTime(int index) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(times[index]), ZoneId.systemDefault());
+    }
+
+    /**
+     * Picks the points to draw for a range using Largest-Triangle-Three-Buckets (x = point index)
+     * The first and last points are always kept; every bucket in between keeps the point that forms
+     * the largest triangle with the previously kept point and the average of the next bucket.
+     * @param from First index of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @param maxPoints Maximum number of points to return (e.g. the chart width in pixels)
+     * @return Ascending indices of the kept points
+     */
+    public int[] downsample(int from, int to, int maxPoints) {
+        from = Math.max(0, from);
+        to = Math.min(size, to);
+        int count = to - from;
+        if (count <= 0) return new int[0];
+        if (count <= maxPoints) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) all[i] = from + i;
+            return all;
+        }
+        if (maxPoints < 3) {
+            return new int[] { from, to - 1 };
+        }
+
+        int[] kept = new int[maxPoints];
+        int k = 0;
+        kept[k++] = from;
+        double bucketSize = (double) (count - 2) / (maxPoints - 2);
+        int a = from;
+
+        for (int b = 0; b < maxPoints - 2; b++) {
+            int start = from + 1 + (int) (b * bucketSize);
+            int end = from + 1 + (int) ((b + 1) * bucketSize);
+
+            // Average of the next bucket (the last point for the final bucket)
+            int nextStart = end;
+            int nextEnd = Math.min(from + 1 + (int) ((b + 2) * bucketSize), to - 1);
+            if (b == maxPoints - 3) {
+                nextStart = to - 1;
+                nextEnd = to;
+            }
+            double avgX = 0;
+            double avgY = 0;
+            int nextCount = Math.max(1, nextEnd - nextStart);
+            for (int i = nextStart; i < nextStart + nextCount; i++) {
+                avgX += i;
+                avgY += values[i];
+            }
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            double ax = a;
+            double ay = values[a];
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((ax - avgX) * (values[i] - ay) - (ax - i) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            kept[k++] = chosen;
+            a = chosen;
+        }
+        kept[k++] = to - 1;
+        return kept;
+    }
+}
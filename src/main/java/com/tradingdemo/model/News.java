@@ -27,6 +27,21 @@ public class News {
         this.publishedAt = LocalDateTime.now();
     }
 
+    /**
+     * Copy constructor (used by the entity cache to hand out private copies)
+     */
+    public News(News other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.content = other.content;
+        this.source = other.source;
+        this.publishedAt = other.publishedAt;
+        this.imageUrl = other.imageUrl;
+        this.url = other.url;
+        this.tags = other.tags;
+        this.categories = other.categories;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
@@ -1,21 +1,57 @@
 package com.tradingdemo.model;
 
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class PerformanceMetrics {
     public int totalTrades = 0;
-    public int totalBuys = 0;
-    public int totalSells = 0;
-    public int closedTrades = 0; // sell trades matched
+    public int totalBuys = 0;    // long positions opened
+    public int totalSells = 0;   // short positions opened
+    public int closedTrades = 0; // CLOSE_LONG / CLOSE_SHORT trades matched to an open position
     public int winningTrades = 0;
     public int losingTrades = 0;
     public double realizedPnl = 0.0;
     public double avgProfitPerTrade = 0.0;
     public double winRate = 0.0;
 
-    // Simple equity curve: pairs of timestamp + cumulative PnL
-    public List<LocalDateTime> equityTimestamps = new ArrayList<>();
-    public List<Double> equityValues = new ArrayList<>();
+    // Realized P&L matched against the tax lots (lot_realizations), under the user's lot method
+    public String lotMethod = "FIFO";
+    public double lotRealizedPnl = 0.0;
+
+    // Risk metrics (per closed trade; returns are P&L divided by the margin of the position)
+    public double grossProfit = 0.0;
+    public double grossLoss = 0.0;       // positive amount
+    public double profitFactor = 0.0;    // grossProfit / grossLoss (infinite if no losses)
+    public double maxDrawdown = 0.0;     // largest peak-to-trough drop of the equity curve, in $
+    public double sharpeRatio = 0.0;     // mean return / std deviation of returns (not annualized)
+    public double sortinoRatio = 0.0;    // mean return / downside deviation
+    public double avgHoldMillis = 0.0;   // average time between opening and closing a position
+    public double exposure = 0.0;        // share of the trading period with at least one open position (0..1)
+
+    public Map<String, SymbolMetrics> bySymbol = new TreeMap<>();
+
+    // Equity curve: cumulative realized P&L after each closed trade
+    public EquityCurve equity = new EquityCurve();
+
+    /**
+     * Per-symbol breakdown of closed trades
+     */
+    public static class SymbolMetrics {
+        public int closedTrades = 0;
+        public int winningTrades = 0;
+        public int losingTrades = 0;
+        public double realizedPnl = 0.0;
+        public double grossProfit = 0.0;
+        public double grossLoss = 0.0;
+        public long holdMillis = 0;
+
+        public double getWinRate() {
+            return closedTrades > 0 ? (double) winningTrades / closedTrades : 0.0;
+        }
+
+        public double getProfitFactor() {
+            if (grossLoss > 0) return grossProfit / grossLoss;
+            return grossProfit > 0 ? Double.POSITIVE_INFINITY : 0.0;
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package com.tradingdemo.model;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Persisted running state behind a user's PerformanceMetrics
+ * Trades are applied one at a time in execution order; lastTradeId marks how far it has got.
+ * Trade IDs are assigned at insert, not at commit, so a trade can become visible after a higher ID
+ * was already applied. Incremental passes therefore re-read RESCAN_WINDOW IDs below lastTradeId and
+ * skip the ones listed in recentTradeIds.
+ * Every metric is kept as primitive running accumulators so one pass over the trades is enough.
+ */
+public class PerformanceState {
+    // Bumped whenever the meaning of the accumulators changes; older saved states are rebuilt
+    public static final int VERSION = 3;
+
+    // How far below lastTradeId an incremental pass starts reading again
+    public static final int RESCAN_WINDOW = 10_000;
+
+    public int userId;
+    public int version = VERSION;
+    public int lastTradeId = 0;
+
+    // IDs of applied trades above lastTradeId - RESCAN_WINDOW
+    public Set<Integer> recentTradeIds = new HashSet<>();
+
+    public int totalTrades = 0;
+    public int totalBuys = 0;
+    public int totalSells = 0;
+    public int closedTrades = 0;
+    public int winningTrades = 0;
+    public int losingTrades = 0;
+    public double realizedPnl = 0.0;
+    public double grossProfit = 0.0;
+    public double grossLoss = 0.0;
+
+    // Welford running mean/variance of per-trade returns, plus downside sum of squares
+    public int returnCount = 0;
+    public double returnMean = 0.0;
+    public double returnM2 = 0.0;
+    public double downsideSquares = 0.0;
+
+    // Drawdown of the realized equity curve (which starts at 0)
+    public double peakEquity = 0.0;
+    public double maxDrawdown = 0.0;
+
+    // Time accumulators (epoch millis; 0 = not set)
+    public long holdMillisSum = 0;
+    public long firstTradeAt = 0;
+    public long lastTradeAt = 0;
+    public long openSince = 0;
+    public long inMarketMillis = 0;
+
+    // Open positions by order ID (each order is opened by one BUY/SELL trade and closed by one CLOSE_* trade)
+    public Map<Integer, OpenLot> openLots = new HashMap<>();
+
+    public Map<String, PerformanceMetrics.SymbolMetrics> bySymbol = new TreeMap<>();
+
+    public PerformanceState() {
+    }
+
+    public PerformanceState(int userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Lowest trade ID an incremental pass has to read again (exclusive)
+     */
+    public int rescanFrom() {
+        return Math.max(0, lastTradeId - RESCAN_WINDOW);
+    }
+
+    /**
+     * Drops recent IDs that have fallen out of the rescan window
+     */
+    public void pruneRecentTradeIds() {
+        int from = rescanFrom();
+        recentTradeIds.removeIf(id -> id <= from);
+    }
+
+    public static class OpenLot {
+        public String symbol;
+        public boolean isLong;
+        public double quantity;
+        public double price;
+        public long openedAt;
+
+        public OpenLot(String symbol, boolean isLong, double quantity, double price, long openedAt) {
+            this.symbol = symbol;
+            this.isLong = isLong;
+            this.quantity = quantity;
+            this.price = price;
+            this.openedAt = openedAt;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.tradingdemo.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position entity - aggregated open exposure of a user on one symbol and side
+ * Maintained by TradingService whenever an order is executed or closed
+ */
+public class Position {
+    private int userId;
+    private String symbol;
+    private String side;              // BUY (long) or SELL (short)
+    private double quantity;
+    private double averageEntryPrice;
+    private double margin;            // Margin currently locked in this position
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public Position() {
+    }
+
+    public Position(int userId, String symbol, String side, double quantity, double averageEntryPrice, double margin) {
+        this.userId = userId;
+        this.symbol = symbol;
+        this.side = side;
+        this.quantity = quantity;
+        this.averageEntryPrice = averageEntryPrice;
+        this.margin = margin;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Calculates unrealized profit/loss at a given market price
+     * @param currentPrice Current market price
+     * @return Profit (positive) or loss (negative)
+     */
+    public double getUnrealizedPnl(double currentPrice) {
+        if ("BUY".equals(side)) {
+            return (currentPrice - averageEntryPrice) * quantity;
+        }
+        return (averageEntryPrice - currentPrice) * quantity;
+    }
+
+    // Getters and Setters
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSide() {
+        return side;
+    }
+
+    public void setSide(String side) {
+        this.side = side;
+    }
+
+    public double getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(double quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getAverageEntryPrice() {
+        return averageEntryPrice;
+    }
+
+    public void setAverageEntryPrice(double averageEntryPrice) {
+        this.averageEntryPrice = averageEntryPrice;
+    }
+
+    public double getMargin() {
+        return margin;
+    }
+
+    public void setMargin(double margin) {
+        this.margin = margin;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Position{" +
+                "symbol='" + symbol + '\'' +
+                ", side='" + side + '\'' +
+                ", quantity=" + quantity +
+                ", averageEntryPrice=" + averageEntryPrice +
+                ", margin=" + margin +
+                '}';
+    }
+}
@@ -0,0 +1,292 @@
+package com.tradingdemo.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * In-memory position ledger stored as parallel primitive arrays
+ * Users get a dense slot and symbols a dense ID (SymbolRegistry); every holding column is a
+ * double[] per symbol indexed by slot, so a price tick is one contiguous scan over that symbol's
+ * column and per-user totals are kept up to date by deltas.
+ * Not thread-safe: owned by a single thread (PortfolioValuationService's engine thread).
+ */
+public class PositionLedger {
+
+    private final IntToDoubleFunction initialPrice;
+    private final Map<Integer, Integer> slotsByUser = new HashMap<>();
+
+    // Per slot
+    private int capacity = 64;
+    private int slotCount = 0;
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+    private int[] userIds = new int[capacity];
+    private double[] cash = new double[capacity];
+    private double[] marginTotal = new double[capacity];
+    private double[] unrealizedPnl = new double[capacity];
+    private double[] walletValue = new double[capacity];
+    private boolean[] dirty = new boolean[capacity];
+    private int[] dirtySlots = new int[capacity];
+    private int dirtyCount = 0;
+
+    // Per symbol ID, then per slot
+    private double[] prices = new double[0];
+    private double[][] longQty = new double[0][];
+    private double[][] longEntry = new double[0][];
+    private double[][] shortQty = new double[0][];
+    private double[][] shortEntry = new double[0][];
+    private double[][] margin = new double[0][];
+    private double[][] spotQty = new double[0][];
+
+    /**
+     * @param initialPrice Price used for a symbol until its first tick (by symbol ID)
+     */
+    public PositionLedger(IntToDoubleFunction initialPrice) {
+        this.initialPrice = initialPrice;
+    }
+
+    /**
+     * Gets the slot of a user, allocating an empty one on first use
+     * @param userId The user ID
+     * @return The user's slot
+     */
+    public int slotOf(int userId) {
+        Integer slot = slotsByUser.get(userId);
+        if (slot != null) return slot;
+
+        int s;
+        if (freeCount > 0) {
+            s = freeSlots[--freeCount];
+        } else {
+            if (slotCount == capacity) growSlots(capacity * 2);
+            s = slotCount++;
+        }
+        userIds[s] = userId;
+        slotsByUser.put(userId, s);
+        return s;
+    }
+
+    /**
+     * Clears a user's holdings and frees the slot for reuse
+     * @param userId The user ID
+     */
+    public void removeUser(int userId) {
+        Integer slot = slotsByUser.remove(userId);
+        if (slot == null) return;
+        clear(slot);
+        cash[slot] = 0;
+        userIds[slot] = -1;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Zeroes every holding of a slot (before loading fresh holdings)
+     * @param slot The user's slot
+     */
+    public void clear(int slot) {
+        for (int sym = 0; sym < prices.length; sym++) {
+            longQty[sym][slot] = 0;
+            longEntry[sym][slot] = 0;
+            shortQty[sym][slot] = 0;
+            shortEntry[sym][slot] = 0;
+            margin[sym][slot] = 0;
+            spotQty[sym][slot] = 0;
+        }
+        marginTotal[slot] = 0;
+        unrealizedPnl[slot] = 0;
+        walletValue[slot] = 0;
+    }
+
+    public void setCash(int slot, double value) {
+        cash[slot] = value;
+    }
+
+    /**
+     * Adds an open position (merged at a weighted average entry with any existing one on that side)
+     * @param slot The user's slot
+     * @param symbolId Symbol ID
+     * @param isLong true for BUY (long), false for SELL (short)
+     * @param quantity Position size
+     * @param entryPrice Average entry price
+     * @param lockedMargin Margin locked in the position
+     */
+    public void addPosition(int slot, int symbolId, boolean isLong, double quantity, double entryPrice, double lockedMargin) {
+        ensureSymbol(symbolId);
+        double[] qty = isLong ? longQty[symbolId] : shortQty[symbolId];
+        double[] entry = isLong ? longEntry[symbolId] : shortEntry[symbolId];
+        double total = qty[slot] + quantity;
+        if (total > 0) {
+            entry[slot] = (entry[slot] * qty[slot] + entryPrice * quantity) / total;
+        }
+        qty[slot] = total;
+        margin[symbolId][slot] += lockedMargin;
+
+        double price = prices[symbolId];
+        marginTotal[slot] += lockedMargin;
+        unrealizedPnl[slot] += isLong ? (price - entryPrice) * quantity : (entryPrice - price) * quantity;
+    }
+
+    /**
+     * Adds a wallet holding valued at market
+     * @param slot The user's slot
+     * @param symbolId Symbol ID
+     * @param quantity Quantity held
+     */
+    public void addSpot(int slot, int symbolId, double quantity) {
+        ensureSymbol(symbolId);
+        spotQty[symbolId][slot] += quantity;
+        walletValue[slot] += quantity * prices[symbolId];
+    }
+
+    /**
+     * Moves a symbol to a new price and revalues every slot holding it
+     * Unrealized P&L and wallet value are linear in price, so each slot changes by
+     * priceDelta * (long - short) and priceDelta * spot; touched slots are marked dirty.
+     * @param symbolId Symbol ID
+     * @param price New price
+     * @return Number of slots whose value changed
+     */
+    public int applyPrice(int symbolId, double price) {
+        ensureSymbol(symbolId);
+        double delta = price - prices[symbolId];
+        prices[symbolId] = price;
+        if (delta == 0) return 0;
+
+        double[] lq = longQty[symbolId];
+        double[] sq = shortQty[symbolId];
+        double[] spot = spotQty[symbolId];
+        int changed = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            double net = lq[slot] - sq[slot];
+            double held = spot[slot];
+            if (net == 0 && held == 0) continue;
+            unrealizedPnl[slot] += delta * net;
+            walletValue[slot] += delta * held;
+            markDirty(slot);
+            changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the slots changed since the last call and resets the dirty set
+     * @return Dirty slots
+     */
+    public int[] takeDirtySlots() {
+        int[] result = Arrays.copyOf(dirtySlots, dirtyCount);
+        for (int i = 0; i < dirtyCount; i++) {
+            dirty[dirtySlots[i]] = false;
+        }
+        dirtyCount = 0;
+        return result;
+    }
+
+    public int getUserId(int slot) {
+        return userIds[slot];
+    }
+
+    public double getCash(int slot) {
+        return cash[slot];
+    }
+
+    public double getMargin(int slot) {
+        return marginTotal[slot];
+    }
+
+    public double getUnrealizedPnl(int slot) {
+        return unrealizedPnl[slot];
+    }
+
+    public double getWalletValue(int slot) {
+        return walletValue[slot];
+    }
+
+    /**
+     * Net asset value: cash + locked margin + unrealized P&L
+     */
+    public double getNav(int slot) {
+        return cash[slot] + marginTotal[slot] + unrealizedPnl[slot];
+    }
+
+    public int getSymbolCount() {
+        return prices.length;
+    }
+
+    public double getPrice(int symbolId) {
+        return symbolId < prices.length ? prices[symbolId] : initialPrice.applyAsDouble(symbolId);
+    }
+
+    public double getLongQuantity(int slot, int symbolId) {
+        return longQty[symbolId][slot];
+    }
+
+    public double getLongEntry(int slot, int symbolId) {
+        return longEntry[symbolId][slot];
+    }
+
+    public double getShortQuantity(int slot, int symbolId) {
+        return shortQty[symbolId][slot];
+    }
+
+    public double getShortEntry(int slot, int symbolId) {
+        return shortEntry[symbolId][slot];
+    }
+
+    public double getSpotQuantity(int slot, int symbolId) {
+        return spotQty[symbolId][slot];
+    }
+
+    public double getPositionMargin(int slot, int symbolId) {
+        return margin[symbolId][slot];
+    }
+
+    private void markDirty(int slot) {
+        if (dirty[slot]) return;
+        dirty[slot] = true;
+        dirtySlots[dirtyCount++] = slot;
+    }
+
+    private void ensureSymbol(int symbolId) {
+        if (symbolId < prices.length) return;
+        int oldCount = prices.length;
+        int count = symbolId + 1;
+        prices = Arrays.copyOf(prices, count);
+        longQty = Arrays.copyOf(longQty, count);
+        longEntry = Arrays.copyOf(longEntry, count);
+        shortQty = Arrays.copyOf(shortQty, count);
+        shortEntry = Arrays.copyOf(shortEntry, count);
+        margin = Arrays.copyOf(margin, count);
+        spotQty = Arrays.copyOf(spotQty, count);
+        for (int sym = oldCount; sym < count; sym++) {
+            prices[sym] = initialPrice.applyAsDouble(sym);
+            longQty[sym] = new double[capacity];
+            longEntry[sym] = new double[capacity];
+            shortQty[sym] = new double[capacity];
+            shortEntry[sym] = new double[capacity];
+            margin[sym] = new double[capacity];
+            spotQty[sym] = new double[capacity];
+        }
+    }
+
+    private void growSlots(int newCapacity) {
+        userIds = Arrays.copyOf(userIds, newCapacity);
+        cash = Arrays.copyOf(cash, newCapacity);
+        marginTotal = Arrays.copyOf(marginTotal, newCapacity);
+        unrealizedPnl = Arrays.copyOf(unrealizedPnl, newCapacity);
+        walletValue = Arrays.copyOf(walletValue, newCapacity);
+        dirty = Arrays.copyOf(dirty, newCapacity);
+        dirtySlots = Arrays.copyOf(dirtySlots, newCapacity);
+        for (int sym = 0; sym < prices.length; sym++) {
+            longQty[sym] = Arrays.copyOf(longQty[sym], newCapacity);
+            longEntry[sym] = Arrays.copyOf(longEntry[sym], newCapacity);
+            shortQty[sym] = Arrays.copyOf(shortQty[sym], newCapacity);
+            shortEntry[sym] = Arrays.copyOf(shortEntry[sym], newCapacity);
+            margin[sym] = Arrays.copyOf(margin[sym], newCapacity);
+            spotQty[sym] = Arrays.copyOf(spotQty[sym], newCapacity);
+        }
+        capacity = newCapacity;
+    }
+}
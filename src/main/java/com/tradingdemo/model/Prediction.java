@@ -23,6 +23,18 @@ public class Prediction {
         this.analysis = analysis;
     }
 
+    /**
+     * Copy constructor (used by the entity cache to hand out private copies)
+     */
+    public Prediction(Prediction other) {
+        this.id = other.id;
+        this.symbol = other.symbol;
+        this.signal = other.signal;
+        this.confidence = other.confidence;
+        this.targetPrice = other.targetPrice;
+        this.analysis = other.analysis;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
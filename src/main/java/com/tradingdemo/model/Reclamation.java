@@ -27,6 +27,19 @@ public class Reclamation {
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Copy constructor (used by the entity cache to hand out private copies)
+     */
+    public Reclamation(Reclamation other) {
+        this.id = other.id;
+        this.userId = other.userId;
+        this.title = other.title;
+        this.content = other.content;
+        this.status = other.status;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
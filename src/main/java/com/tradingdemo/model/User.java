@@ -16,6 +16,7 @@ public class User {
     private boolean twoFactorEnabled;
     private String twoFactorSecret;
     private boolean isAdmin;  // Admin flag
+    private String lotMethod = "FIFO";  // Tax lot matching: FIFO, LIFO or AVERAGE
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
@@ -47,6 +48,25 @@ public class User {
         this.updatedAt = updatedAt;
     }
 
+    /**
+     * Copy constructor (used by the entity cache to hand out private copies)
+     */
+    public User(User other) {
+        this.id = other.id;
+        this.firstName = other.firstName;
+        this.lastName = other.lastName;
+        this.email = other.email;
+        this.phone = other.phone;
+        this.passwordHash = other.passwordHash;
+        this.balance = other.balance;
+        this.twoFactorEnabled = other.twoFactorEnabled;
+        this.twoFactorSecret = other.twoFactorSecret;
+        this.isAdmin = other.isAdmin;
+        this.lotMethod = other.lotMethod;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
@@ -136,6 +156,14 @@ public class User {
         this.updatedAt = updatedAt;
     }
 
+    public String getLotMethod() {
+        return lotMethod;
+    }
+
+    public void setLotMethod(String lotMethod) {
+        this.lotMethod = lotMethod;
+    }
+
     public boolean isAdmin() {
         return isAdmin;
     }
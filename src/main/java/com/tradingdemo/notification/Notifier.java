@@ -2,4 +2,26 @@ package com.tradingdemo.notification;
 
 public interface Notifier {
     void sendEmail(String to, String subject, String body) throws Exception;
+
+    /**
+     * Opens a sender for one thread that may keep its connection open between messages
+     * The default sender just calls sendEmail.
+     */
+    default Sender openSender() {
+        return this::sendEmail;
+    }
+
+    /**
+     * Sends messages over a (possibly) reused connection; not thread-safe
+     */
+    @FunctionalInterface
+    interface Sender extends AutoCloseable {
+        void send(String to, String subject, String body) throws Exception;
+
+        /**
+         * Releases the connection (the next send reconnects)
+         */
+        @Override
+        default void close() {}
+    }
 }
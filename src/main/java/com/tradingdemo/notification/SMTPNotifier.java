@@ -42,13 +42,73 @@ public class SMTPNotifier implements Notifier {
         }
     }
 
+    /**
+     * Connects to an SMTP server without authentication (e.g. a local relay)
+     * @param host Server host
+     * @param port Server port
+     * @param from Sender address
+     */
+    public SMTPNotifier(String host, int port, String from) {
+        Properties props = new Properties();
+        props.put("mail.smtp.host", host);
+        props.put("mail.smtp.port", String.valueOf(port));
+        props.put("mail.smtp.auth", "false");
+        this.session = Session.getInstance(props);
+        this.from = from;
+    }
+
     @Override
     public void sendEmail(String to, String subject, String body) throws Exception {
+        Transport.send(buildMessage(to, subject, body));
+    }
+
+    @Override
+    public Sender openSender() {
+        return new PooledSender();
+    }
+
+    private Message buildMessage(String to, String subject, String body) throws MessagingException {
         Message message = new MimeMessage(session);
         message.setFrom(new InternetAddress(from));
         message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
         message.setSubject(subject);
         message.setText(body);
-        Transport.send(message);
+        return message;
+    }
+
+    /**
+     * Keeps one SMTP connection open across messages instead of Transport.send's
+     * connect/EHLO/STARTTLS/AUTH/QUIT per message. A failed send drops the connection
+     * so the next one reconnects.
+     */
+    private class PooledSender implements Sender {
+        private Transport transport;
+
+        @Override
+        public void send(String to, String subject, String body) throws Exception {
+            Message message = buildMessage(to, subject, body);
+            message.saveChanges();
+            try {
+                if (transport == null || !transport.isConnected()) {
+                    close();
+                    transport = session.getTransport("smtp");
+                    transport.connect();
+                }
+                transport.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (transport == null) return;
+            try {
+                transport.close();
+            } catch (MessagingException ignored) {
+            }
+            transport = null;
+        }
     }
 }
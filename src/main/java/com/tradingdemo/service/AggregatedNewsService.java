@@ -1,11 +1,16 @@
 package com.tradingdemo.service;
 
 import com.tradingdemo.model.News;
+import com.tradingdemo.util.AsyncExecutor;
+import com.tradingdemo.util.NearDuplicateFilter;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -14,12 +19,22 @@ import java.util.stream.Collectors;
  */
 public class AggregatedNewsService {
 
+    private static final int MAX_ARTICLES = 500;     // kept in the merged list, newest first
+    private static final int MAX_SEEN = 5000;        // remembered keys before the index is rebuilt
+    private static final Comparator<News> NEWEST_FIRST =
+            Comparator.comparing(News::getPublishedAt, Comparator.nullsLast(Comparator.reverseOrder()));
+
     private final CryptoCompareNewsService cryptoCompareService;
     private final CryptoPanicNewsService cryptoPanicService;
     private final CoinDeskNewsService coinDeskService;
     private final CoinTelegraphNewsService coinTelegraphService;
     private final NewsService localNewsService;
 
+    // Articles merged so far (deduplicated, sorted) and the keys/titles already considered
+    private final List<News> merged = new ArrayList<>();
+    private final Set<String> seen = new HashSet<>();
+    private NearDuplicateFilter<News> titles = newTitleFilter();
+
     public AggregatedNewsService() {
         this.cryptoCompareService = new CryptoCompareNewsService();
         this.cryptoPanicService = new CryptoPanicNewsService();
@@ -30,138 +45,128 @@ public class AggregatedNewsService {
 
     /**
      * Fetches news from all available sources simultaneously
+     * Sources that answer 304 are skipped; articles of changed sources that were not seen before
+     * are deduplicated against the current list and inserted in date order, so a refresh costs
+     * work only for what is new.
      * @param limitPerSource Number of articles to fetch from each source
      * @return Combined and sorted list of news articles
      */
-    public List<News> getAggregatedNews(int limitPerSource) {
-        List<News> allNews = new ArrayList<>();
-
+    public synchronized List<News> getAggregatedNews(int limitPerSource) {
         // Create futures for parallel fetching from all sources
-        CompletableFuture<List<News>> cryptoCompareFuture = CompletableFuture.supplyAsync(() -> {
-            try {
-                System.out.println("Fetching from CryptoCompare...");
-                return cryptoCompareService.getLatestNews(limitPerSource);
-            } catch (Exception e) {
-                System.err.println("CryptoCompare fetch failed: " + e.getMessage());
-                return new ArrayList<>();
-            }
-        });
-
-        CompletableFuture<List<News>> cryptoPanicFuture = CompletableFuture.supplyAsync(() -> {
-            try {
-                System.out.println("Fetching from CryptoPanic...");
-                return cryptoPanicService.getLatestNews(limitPerSource);
-            } catch (Exception e) {
-                System.err.println("CryptoPanic fetch failed: " + e.getMessage());
-                return new ArrayList<>();
-            }
-        });
-
-        CompletableFuture<List<News>> coinDeskFuture = CompletableFuture.supplyAsync(() -> {
-            try {
-                System.out.println("Fetching from CoinDesk...");
-                return coinDeskService.getLatestNews(limitPerSource);
-            } catch (Exception e) {
-                System.err.println("CoinDesk fetch failed: " + e.getMessage());
-                return new ArrayList<>();
-            }
-        });
-
-        CompletableFuture<List<News>> coinTelegraphFuture = CompletableFuture.supplyAsync(() -> {
-            try {
-                System.out.println("Fetching from Cointelegraph...");
-                return coinTelegraphService.getLatestNews(limitPerSource);
-            } catch (Exception e) {
-                System.err.println("Cointelegraph fetch failed: " + e.getMessage());
-                return new ArrayList<>();
-            }
-        });
-
-        // Wait for all futures to complete
+        CompletableFuture<CachedHttpSource.Result<List<News>>> cryptoCompareFuture =
+                fetchAsync("CryptoCompare", () -> cryptoCompareService.getLatestNewsIfChanged(limitPerSource));
+        CompletableFuture<CachedHttpSource.Result<List<News>>> cryptoPanicFuture =
+                fetchAsync("CryptoPanic", () -> cryptoPanicService.getLatestNewsIfChanged(limitPerSource));
+        CompletableFuture<CachedHttpSource.Result<List<News>>> coinDeskFuture =
+                fetchAsync("CoinDesk", () -> coinDeskService.getLatestNewsIfChanged(limitPerSource));
+        CompletableFuture<CachedHttpSource.Result<List<News>>> coinTelegraphFuture =
+                fetchAsync("Cointelegraph", () -> coinTelegraphService.getLatestNewsIfChanged(limitPerSource));
+
+        // Wait for all futures to complete; merge in source order so earlier sources win ties
+        int added = 0;
         try {
-            List<News> cryptoCompareNews = cryptoCompareFuture.get();
-            List<News> cryptoPanicNews = cryptoPanicFuture.get();
-            List<News> coinDeskNews = coinDeskFuture.get();
-            List<News> coinTelegraphNews = coinTelegraphFuture.get();
-
-            System.out.println("CryptoCompare returned: " + cryptoCompareNews.size() + " articles");
-            System.out.println("CryptoPanic returned: " + cryptoPanicNews.size() + " articles");
-            System.out.println("CoinDesk returned: " + coinDeskNews.size() + " articles");
-            System.out.println("Cointelegraph returned: " + coinTelegraphNews.size() + " articles");
-
-            allNews.addAll(cryptoCompareNews);
-            allNews.addAll(cryptoPanicNews);
-            allNews.addAll(coinDeskNews);
-            allNews.addAll(coinTelegraphNews);
-
+            added += merge("CryptoCompare", cryptoCompareFuture.get(), limitPerSource);
+            added += merge("CryptoPanic", cryptoPanicFuture.get(), limitPerSource);
+            added += merge("CoinDesk", coinDeskFuture.get(), limitPerSource);
+            added += merge("Cointelegraph", coinTelegraphFuture.get(), limitPerSource);
         } catch (InterruptedException | ExecutionException e) {
             System.err.println("Error waiting for news fetch: " + e.getMessage());
             e.printStackTrace();
         }
 
         // Fallback to local demo news if no API news available
-        if (allNews.isEmpty()) {
+        if (merged.isEmpty()) {
             System.out.println("No API news available, using local demo news");
             localNewsService.initializeDemoNews();
-            allNews.addAll(localNewsService.getAllNews());
+            List<News> demoNews = removeDuplicates(localNewsService.getAllNews());
+            demoNews.sort(NEWEST_FIRST);
+            return demoNews;
         }
 
-        // Remove duplicates based on title similarity
-        allNews = removeDuplicates(allNews);
-
-        // Sort by date (most recent first)
-        allNews.sort(Comparator.comparing(News::getPublishedAt).reversed());
+        System.out.println("New articles: " + added + ", total unique news articles: " + merged.size());
+        return new ArrayList<>(merged);
+    }
 
-        System.out.println("Total unique news articles: " + allNews.size());
-        return allNews;
+    private CompletableFuture<CachedHttpSource.Result<List<News>>> fetchAsync(String name,
+            Supplier<CachedHttpSource.Result<List<News>>> fetch) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                System.out.println("Fetching from " + name + "...");
+                return fetch.get();
+            } catch (Exception e) {
+                System.err.println(name + " fetch failed: " + e.getMessage());
+                return null;
+            }
+        }, AsyncExecutor.executor());
     }
 
     /**
-     * Removes duplicate news articles based on title similarity
+     * Merges the articles of one source that were not seen before
+     * @return Number of articles added
      */
-    private List<News> removeDuplicates(List<News> newsList) {
-        List<News> uniqueNews = new ArrayList<>();
-        
-        for (News news : newsList) {
-            boolean isDuplicate = false;
-            String currentTitle = news.getTitle().toLowerCase();
-            
-            for (News existing : uniqueNews) {
-                String existingTitle = existing.getTitle().toLowerCase();
-                
-                // Check if titles are very similar (simple duplicate check)
-                if (currentTitle.equals(existingTitle) || 
-                    calculateSimilarity(currentTitle, existingTitle) > 0.8) {
-                    isDuplicate = true;
-                    break;
-                }
-            }
-            
-            if (!isDuplicate) {
-                uniqueNews.add(news);
-            }
+    private int merge(String name, CachedHttpSource.Result<List<News>> result, int limit) {
+        if (result == null || result.value == null) {
+            System.out.println(name + " returned: 0 articles");
+            return 0;
+        }
+        if (!result.modified) {
+            System.out.println(name + " unchanged");
+            return 0;
+        }
+        List<News> articles = result.value.subList(0, Math.min(Math.max(limit, 0), result.value.size()));
+        int added = 0;
+        for (News news : articles) {
+            if (!seen.add(keyOf(news)) || !titles.add(news)) continue;
+            merged.add(insertionPoint(news), news);
+            added++;
+        }
+        if (merged.size() > MAX_ARTICLES) {
+            // Oldest articles drop off; their keys stay so they are not merged back in
+            merged.subList(MAX_ARTICLES, merged.size()).clear();
+        }
+        if (seen.size() > MAX_SEEN) {
+            rebuildIndex();
+        }
+        System.out.println(name + " returned: " + result.value.size() + " articles, " + added + " new");
+        return added;
+    }
+
+    // Index after the last article at least as new as this one (keeps arrival order among equals)
+    private int insertionPoint(News news) {
+        int lo = 0;
+        int hi = merged.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (NEWEST_FIRST.compare(merged.get(mid), news) <= 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Forgets articles that have dropped off the merged list
+    private void rebuildIndex() {
+        seen.clear();
+        titles = newTitleFilter();
+        for (News news : merged) {
+            seen.add(keyOf(news));
+            titles.add(news);
         }
-        
-        return uniqueNews;
+    }
+
+    private static String keyOf(News news) {
+        if (news.getUrl() != null && !news.getUrl().isEmpty()) return news.getUrl();
+        return news.getSource() + "|" + news.getTitle();
+    }
+
+    private static NearDuplicateFilter<News> newTitleFilter() {
+        return new NearDuplicateFilter<>(News::getTitle, 0.8);
     }
 
     /**
-     * Calculates similarity between two strings (simple Jaccard similarity)
+     * Removes duplicate news articles based on title similarity (word-set Jaccard above 0.8)
      */
-    private double calculateSimilarity(String s1, String s2) {
-        String[] words1 = s1.split("\\s+");
-        String[] words2 = s2.split("\\s+");
-        
-        java.util.Set<String> set1 = new java.util.HashSet<>(java.util.Arrays.asList(words1));
-        java.util.Set<String> set2 = new java.util.HashSet<>(java.util.Arrays.asList(words2));
-        
-        java.util.Set<String> intersection = new java.util.HashSet<>(set1);
-        intersection.retainAll(set2);
-        
-        java.util.Set<String> union = new java.util.HashSet<>(set1);
-        union.addAll(set2);
-        
-        return union.isEmpty() ? 0 : (double) intersection.size() / union.size();
+    private List<News> removeDuplicates(List<News> newsList) {
+        return NearDuplicateFilter.filter(newsList, News::getTitle, 0.8);
     }
 
     /**
@@ -0,0 +1,125 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.dao.AlertLeaseDAO;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * AlertOwnership - Decides which alerts this instance evaluates when several copies of the app run
+ * Alerts are split into PARTITIONS buckets by user_id (so one user's alerts, and their email
+ * digests, stay on one instance). Each instance heartbeats, renews its partition leases and then
+ * claims or releases partitions to converge on ceil(PARTITIONS / live instances). Leases expire
+ * after LEASE_SECONDS on the database clock, so a crashed instance's partitions are taken over by
+ * the survivors at their first refresh after expiry (at most LEASE_SECONDS + REFRESH_SECONDS).
+ * If this instance cannot renew before its leases could have expired, it stops evaluating.
+ * refresh() runs on its own lease thread so slow alert loads cannot delay renewals; the owned set
+ * is published as an immutable snapshot that the alert engine thread reads.
+ */
+public class AlertOwnership {
+    public static final int PARTITIONS = 64;
+    public static final long REFRESH_SECONDS = 5;
+    private static final int LEASE_SECONDS = 15;
+
+    private final AlertLeaseDAO leaseDAO = new AlertLeaseDAO();
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    private volatile boolean[] owned = new boolean[PARTITIONS];    // replaced, never modified
+    private volatile int ownedCount = 0;
+    private volatile long validUntil = 0;   // local time after which leases may have been lost
+    private boolean partitionsCreated = false;  // lease thread only
+
+    /**
+     * Heartbeats, renews and rebalances the leases (lease thread)
+     * @return true if the set of owned partitions changed
+     */
+    public synchronized boolean refresh() {
+        long started = System.currentTimeMillis();
+        if (!partitionsCreated) partitionsCreated = leaseDAO.ensurePartitions(PARTITIONS);
+
+        int live = leaseDAO.heartbeat(instanceId, LEASE_SECONDS);
+        List<Integer> held = live > 0 ? leaseDAO.renew(instanceId, LEASE_SECONDS) : null;
+        if (held == null) {
+            // Database unreachable: keep evaluating only while our last leases are certainly valid
+            return System.currentTimeMillis() > validUntil && setOwned(List.of());
+        }
+
+        int fairShare = (PARTITIONS + live - 1) / live;
+        if (held.size() > fairShare) {
+            // Hand the surplus back so newly joined instances can pick it up
+            for (int i = fairShare; i < held.size(); i++) {
+                leaseDAO.release(instanceId, held.get(i));
+            }
+            held = held.subList(0, fairShare);
+        } else if (held.size() < fairShare) {
+            int claimed = leaseDAO.claim(instanceId, LEASE_SECONDS, fairShare - held.size());
+            if (claimed > 0) {
+                List<Integer> after = leaseDAO.renew(instanceId, LEASE_SECONDS);
+                if (after != null) held = after;
+            }
+        }
+        // Leases were extended by the database no earlier than `started`
+        validUntil = started + LEASE_SECONDS * 1000L - REFRESH_SECONDS * 1000L;
+        return setOwned(held);
+    }
+
+    private boolean setOwned(List<Integer> partitions) {
+        boolean[] next = new boolean[PARTITIONS];
+        for (int p : partitions) next[p] = true;
+        if (Arrays.equals(owned, next)) return false;
+        ownedCount = partitions.size();
+        owned = next;
+        System.out.println("Alert partitions owned by " + instanceId + ": " + partitions.size() + "/" + PARTITIONS);
+        return true;
+    }
+
+    /**
+     * Checks whether the leases are certainly still held (checked before every evaluation)
+     * @return false once the last successful renewal is too old
+     */
+    public boolean isValid() {
+        return System.currentTimeMillis() < validUntil;
+    }
+
+    /**
+     * Checks whether this instance evaluates the alerts of a user
+     */
+    public boolean owns(int userId) {
+        return owned[partitionOf(userId)];
+    }
+
+    public static int partitionOf(int userId) {
+        return Math.floorMod(userId, PARTITIONS);
+    }
+
+    /**
+     * Gets the partitions currently owned
+     * @return Partition numbers in ascending order
+     */
+    public int[] ownedPartitions() {
+        boolean[] snapshot = owned;
+        int n = 0;
+        for (int p = 0; p < PARTITIONS; p++) {
+            if (snapshot[p]) n++;
+        }
+        int[] out = new int[n];
+        n = 0;
+        for (int p = 0; p < PARTITIONS; p++) {
+            if (snapshot[p]) out[n++] = p;
+        }
+        return out;
+    }
+
+    public int getOwnedCount() { return ownedCount; }
+    public String getInstanceId() { return instanceId; }
+
+    /**
+     * Releases every lease so other instances take over immediately (clean shutdown)
+     */
+    public synchronized void releaseAll() {
+        validUntil = 0;
+        leaseDAO.releaseAll(instanceId);
+        setOwned(List.of());
+    }
+}
@@ -2,27 +2,81 @@ package com.tradingdemo.service;
 
 import com.tradingdemo.dao.AlertDAO;
 import com.tradingdemo.model.AlertRule;
+import com.tradingdemo.util.AsyncExecutor;
 import com.tradingdemo.util.NotificationUtil;
-import com.tradingdemo.notification.Notifier;
-import com.tradingdemo.dao.UserDAO;
-import com.tradingdemo.model.User;
+import com.tradingdemo.util.SymbolRegistry;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * AlertService - Evaluates price alerts against live prices
+ * Alerts are edge-triggered: an armed alert fires when the price crosses its target, then
+ * disarms (REPEAT) or disables itself (ONE_SHOT). A disarmed alert re-arms once the price moves
+ * back past the target by its hysteresis band, and fires at most once per cooldown.
+ * Every alert reads one value stream ("channel"): the last price of its symbol, or a windowed
+ * indicator (percent change, SMA/EMA distance, RSI, volume multiple) computed once per symbol and
+ * window by SymbolSeries and shared by all alerts on it.
+ * Each channel has two sorted books keyed by the value that changes an alert's state: the rising
+ * book holds armed notify-above alerts (key = target) and disarmed notify-below alerts (key = re-arm
+ * value), the falling book the opposite. A move from last to next only visits the entries between
+ * the two values (O(log n + k) for k entries crossed, see ThresholdBook), however many alerts exist.
+ * Crossing state (armed, last trigger) is written back to the alert row through a write-behind queue.
+ * The active set is loaded once and then kept up to date by createAlert/updateAlert/deleteAlert;
+ * every 15 seconds only rows whose updated_at passed the high-water mark are fetched (changes made
+ * by other instances), and an indexed count every 5 minutes catches rows deleted elsewhere.
+ * Prices arrive from the portfolio valuation feed and a 5 second Binance poll; 24h volumes are
+ * polled every minute while volume alerts exist.
+ * When several instances run against one database, each only loads and evaluates the alert
+ * partitions it leases (see AlertOwnership), so every alert fires from exactly one instance.
+ */
 public class AlertService {
+    private static final long RECONCILE_SECONDS = 15;
+    private static final int COUNT_CHECK_EVERY = 20;        // reconciliations between count checks (5 min)
+    private static final long HIGH_WATER_OVERLAP_MS = 2000; // re-read recent rows in case of clock/commit skew
+    private static final long POLL_SECONDS = 5;
+    private static final long VOLUME_POLL_SECONDS = 60;
+
     private final AlertDAO alertDAO = new AlertDAO();
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    private final PriceProvider priceProvider = new PriceProvider();
-    private final Notifier emailNotifier;
+    private final AlertOwnership ownership = new AlertOwnership();
+    private final BinanceApiService binanceApiService = new BinanceApiService();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "alert-checker");
+        t.setDaemon(true);
+        return t;
+    });
+    // Lease renewals get their own thread so a slow full load or reconcile cannot delay them
+    private final ScheduledExecutorService leaseScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "alert-lease");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    // Scheduler thread only
+    private SymbolSeries[] series = new SymbolSeries[0];    // indexed by symbol ID (see SymbolRegistry), null without alerts
+    private int channelCount = 0;
+    private ThresholdBook[] rising = new ThresholdBook[0];  // indexed by channel: entries that change state when the value rises to their key
+    private ThresholdBook[] falling = new ThresholdBook[0]; // entries that change state when the value falls to their key
+    private double[] lastValues = new double[0];            // NaN until the first value of a channel
+    private volatile boolean volumeAlerts = false;
+    private final Map<Integer, AlertRule> active = new HashMap<>();
+    private Timestamp highWater;                    // null until the first full load
+    private int reconciliations = 0;
 
     private static AlertService instance;
 
-    private AlertService() {
-        this.emailNotifier = com.tradingdemo.notification.NotifierFactory.getNotifier();
-    }
+    private AlertService() {}
 
     public static synchronized AlertService getInstance() {
         if (instance == null) instance = new AlertService();
@@ -30,62 +84,384 @@ public class AlertService {
     }
 
     public void start() {
-        scheduler.scheduleAtFixedRate(this::checkAlerts, 5, 15, TimeUnit.SECONDS);
+        // The dashboard calls this on every visit; schedule the work only once
+        if (!started.compareAndSet(false, true)) return;
+        leaseScheduler.scheduleWithFixedDelay(this::refreshOwnership, 0, AlertOwnership.REFRESH_SECONDS, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::reconcile, 0, RECONCILE_SECONDS, TimeUnit.SECONDS);
+        // The HTTP call runs off the scheduler thread
+        scheduler.scheduleWithFixedDelay(() -> AsyncExecutor.run(() -> {
+            Map<String, Double> prices = binanceApiService.getAllPrices();
+            if (!prices.isEmpty()) onTicks(prices);
+        }), POLL_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(() -> {
+            if (!volumeAlerts) return;
+            AsyncExecutor.run(() -> {
+                Map<String, Double> volumes = binanceApiService.getAll24hQuoteVolumes();
+                if (!volumes.isEmpty()) scheduler.execute(() -> onVolumes(volumes));
+            });
+        }, VOLUME_POLL_SECONDS, VOLUME_POLL_SECONDS, TimeUnit.SECONDS);
     }
 
-    public void stop() { scheduler.shutdownNow(); }
+    public void stop() {
+        if (!started.get()) return;
+        scheduler.shutdownNow();
+        leaseScheduler.shutdownNow();
+        try {
+            // Let a running DB call finish before releasing, so other instances take over at once
+            scheduler.awaitTermination(2, TimeUnit.SECONDS);
+            leaseScheduler.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ownership.releaseAll();
+    }
 
-    private void checkAlerts() {
+    private void refreshOwnership() {
         try {
-            List<AlertRule> active = alertDAO.getActiveAlerts();
-            for (AlertRule a : active) {
-                double price = priceProvider.getPrice(a.getSymbol());
-                boolean triggered = a.isNotifyWhenAbove() ? price >= a.getTargetPrice() : price <= a.getTargetPrice();
-                if (triggered) {
-                    String title = "Price Alert: " + a.getSymbol();
-                    String msg = String.format("%s reached %.4f (target %.4f)", a.getSymbol(), price, a.getTargetPrice());
-                    NotificationUtil.showPopup(title, msg);
-
-                    // send email if requested and notifier configured
-                    if (a.isNotifyEmail() && emailNotifier != null) {
-                        try {
-                            UserDAO userDAO = new UserDAO();
-                            User u = userDAO.getUserById(a.getUserId());
-                            if (u != null && u.getEmail() != null && !u.getEmail().isEmpty()) {
-                                String subject = "Price Alert: " + a.getSymbol();
-                                String body = msg + "\n\nThis alert was generated by Trading_wolfers.";
-                                emailNotifier.sendEmail(u.getEmail(), subject, body);
-                                System.out.println("Email alert sent to " + u.getEmail());
-                            } else {
-                                System.err.println("No email configured for user " + a.getUserId());
-                            }
-                        } catch (Exception ex) {
-                            System.err.println("Failed to send email alert: " + ex.getMessage());
-                        }
-                    }
-
-                    System.out.println("ALERT TRIGGERED: " + msg);
-                    // Optionally disable alert after trigger
-                    // a.setEnabled(false); alertDAO.updateAlert(a);
+            if (ownership.refresh()) {
+                // Reload the active set for the new partitions on the alert thread
+                scheduler.execute(() -> {
+                    if (highWater != null) fullLoad();
+                });
+            }
+        } catch (Exception e) {
+            System.err.println("Error refreshing alert ownership: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluates new prices against the threshold books
+     * @param prices Map of symbol to last traded price
+     */
+    public void onTicks(Map<String, Double> prices) {
+        if (!started.get()) return;
+        scheduler.execute(() -> {
+            long now = System.currentTimeMillis();
+            // Bars keep advancing, but nothing fires unless the leases are certainly still ours
+            boolean leased = ownership.isValid();
+            for (Map.Entry<String, Double> tick : prices.entrySet()) {
+                double price = tick.getValue();
+                int symbolId = SymbolRegistry.lookup(tick.getKey());
+                if (price > 0 && symbolId >= 0 && symbolId < series.length && series[symbolId] != null) {
+                    onPrice(series[symbolId], now, price, leased);
+                }
+            }
+        });
+    }
+
+    private void onPrice(SymbolSeries s, long now, double price, boolean leased) {
+        s.onPrice(now, price);
+        if (!leased) return;
+        evaluate(s.getPriceChannel(), price);
+        // One evaluation per indicator, however many alerts read it
+        for (SymbolSeries.Indicator ind : s.getIndicators()) {
+            double value = ind.value(s, price);
+            if (!Double.isNaN(value)) evaluate(ind.getChannel(), value);
+        }
+    }
+
+    private void onVolumes(Map<String, Double> volumes) {
+        for (Map.Entry<String, Double> v : volumes.entrySet()) {
+            int symbolId = SymbolRegistry.lookup(v.getKey());
+            if (symbolId >= 0 && symbolId < series.length && series[symbolId] != null) {
+                series[symbolId].onVolume(v.getValue());
+            }
+        }
+    }
+
+    private void evaluate(int channel, double value) {
+        double last = lastValues[channel];
+        lastValues[channel] = value;
+
+        // Collect first: handling a crossing moves the alert to the other book
+        List<AlertRule> crossed = new ArrayList<>();
+        ThresholdBook.collectCrossed(rising[channel], falling[channel], last, value, crossed);
+        for (AlertRule a : crossed) {
+            onCrossed(a, value);
+        }
+    }
+
+    /**
+     * Handles an alert whose key was crossed: fire and disarm if armed, re-arm if not
+     */
+    private void onCrossed(AlertRule a, double value) {
+        unindex(a);
+        if (!a.isArmed()) {
+            a.setArmed(true);
+        } else {
+            LocalDateTime now = LocalDateTime.now();
+            boolean coolingDown = a.getLastTriggeredAt() != null
+                && a.getLastTriggeredAt().plusSeconds(a.getCooldownSeconds()).isAfter(now);
+            if (!coolingDown) {
+                fire(a, value);
+                a.setLastTriggeredAt(now);
+            }
+            if (!coolingDown && AlertRule.MODE_ONE_SHOT.equals(a.getMode())) {
+                a.setEnabled(false);
+            } else {
+                a.setArmed(false);
+            }
+        }
+        if (a.isEnabled()) {
+            index(a);
+        } else {
+            active.remove(a.getId());
+        }
+        alertDAO.saveState(a.getId(), a.isArmed(), a.getLastTriggeredAt(), a.isEnabled());
+    }
+
+    /**
+     * Creates an alert and adds it to the active set
+     * @param a The alert to create
+     * @return true if successful, false otherwise
+     */
+    public boolean createAlert(AlertRule a) {
+        if (!alertDAO.createAlert(a)) return false;
+        AlertRule copy = copyOf(a);
+        scheduler.execute(() -> apply(copy));
+        return true;
+    }
+
+    /**
+     * Saves an edited alert (type, window, threshold, direction, mode, hysteresis, cooldown, enabled) and updates the active set
+     * An alert whose threshold changed or that was re-enabled starts armed.
+     * @param a The alert to save
+     * @return true if successful, false otherwise
+     */
+    public boolean updateAlert(AlertRule a) {
+        if (!alertDAO.updateAlert(a)) return false;
+        AlertRule copy = copyOf(a);
+        scheduler.execute(() -> apply(copy));
+        return true;
+    }
+
+    /**
+     * Deletes an alert and removes it from the active set
+     * @param id The alert ID
+     * @return true if successful, false otherwise
+     */
+    public boolean deleteAlert(int id) {
+        if (!alertDAO.deleteAlert(id)) return false;
+        scheduler.execute(() -> remove(id));
+        return true;
+    }
+
+    /**
+     * Fetches rows changed since the high-water mark (full load the first time, or when the
+     * enabled count no longer matches the active set)
+     */
+    private void reconcile() {
+        try {
+            if (highWater == null) {
+                fullLoad();
+                return;
+            }
+            Timestamp since = new Timestamp(highWater.getTime() - HIGH_WATER_OVERLAP_MS);
+            List<AlertRule> changed = alertDAO.getAlertsChangedSince(since);
+            if (changed == null) return;
+            for (AlertRule a : changed) {
+                apply(a);
+                Timestamp updated = Timestamp.valueOf(a.getUpdatedAt());
+                if (updated.after(highWater)) highWater = updated;
+            }
+
+            if (++reconciliations % COUNT_CHECK_EVERY == 0) {
+                int count = alertDAO.countActiveAlerts(ownership.ownedPartitions(), AlertOwnership.PARTITIONS);
+                if (count >= 0 && count != active.size()) {
+                    System.out.println("Active alert count drifted (" + active.size() + " in memory, " + count + " in database), reloading");
+                    fullLoad();
                 }
             }
         } catch (Exception e) {
-            System.err.println("Error checking alerts: " + e.getMessage());
+            System.err.println("Error reconciling alerts: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    // Simple provider for demo - can be replaced with live API
-    private static class PriceProvider {
-        public double getPrice(String symbol) {
-            switch (symbol.toUpperCase()) {
-                case "BTC": return 69034.61;
-                case "ETH": return 3542.88;
-                case "BNB": return 421.35;
-                case "ADA": return 0.58;
-                case "SOL": return 125.43;
-                default: return 1.0;
+    /**
+     * Rebuilds the active set and threshold books from every enabled alert of the owned partitions,
+     * keeping the persisted crossing state. Alerts not active before are checked against the last value once.
+     */
+    private void fullLoad() {
+        Timestamp loadStart = alertDAO.getDatabaseTime();
+        if (loadStart == null) return;
+        List<AlertRule> loaded = alertDAO.getActiveAlerts(ownership.ownedPartitions(), AlertOwnership.PARTITIONS);
+
+        // Channels (and their indicator state) survive reloads; only the books are rebuilt
+        Map<Integer, AlertRule> previous = new HashMap<>(active);
+        active.clear();
+        for (int ch = 0; ch < channelCount; ch++) {
+            rising[ch] = new ThresholdBook();
+            falling[ch] = new ThresholdBook();
+        }
+        for (AlertRule a : loaded) {
+            index(a); // creates the channel on first use
+            active.put(a.getId(), a);
+        }
+        for (AlertRule a : loaded) {
+            if (!previous.containsKey(a.getId())) checkCrossed(a);
+        }
+        highWater = loadStart;
+    }
+
+    /**
+     * Applies one created/changed row to the active set (idempotent)
+     */
+    private void apply(AlertRule a) {
+        if (!ownership.owns(a.getUserId())) {
+            // Evaluated by another instance
+            remove(a.getId());
+            return;
+        }
+        AlertRule current = active.get(a.getId());
+        if (current != null && a.isEnabled() && sameThreshold(current, a)) {
+            // Settings-only change (or a row already applied): keep the live crossing state
+            current.setMode(a.getMode());
+            current.setCooldownSeconds(a.getCooldownSeconds());
+            current.setNotifyEmail(a.isNotifyEmail());
+            current.setNotifySms(a.isNotifySms());
+            current.setUpdatedAt(a.getUpdatedAt());
+            return;
+        }
+        if (current != null) {
+            remove(a.getId());
+        }
+        if (a.isEnabled()) {
+            // New, re-enabled or moved threshold: start armed
+            if (!a.isArmed()) {
+                a.setArmed(true);
+                alertDAO.saveState(a.getId(), true, a.getLastTriggeredAt(), true);
             }
+            index(a);
+            active.put(a.getId(), a);
+            checkCrossed(a);
+        }
+    }
+
+    private void remove(int id) {
+        AlertRule current = active.remove(id);
+        if (current != null) unindex(current);
+    }
+
+    // A newly active alert already past its key is handled as if the value had just crossed it
+    private void checkCrossed(AlertRule a) {
+        double value = lastValues[channelOf(a)];
+        if (Double.isNaN(value) || !ownership.isValid()) return;
+        boolean crossed = isRising(a) ? value >= keyOf(a) : value <= keyOf(a);
+        if (crossed) onCrossed(a, value);
+    }
+
+    private void index(AlertRule a) {
+        int channel = channelOf(a);
+        (isRising(a) ? rising : falling)[channel].insert(keyOf(a), a);
+    }
+
+    private void unindex(AlertRule a) {
+        int channel = channelOf(a);
+        (isRising(a) ? rising : falling)[channel].remove(keyOf(a), a);
+    }
+
+    /**
+     * Gets the channel an alert reads, creating the symbol series / indicator on first use
+     */
+    private int channelOf(AlertRule a) {
+        int symbolId = SymbolRegistry.idOf(a.getSymbol());
+        if (symbolId >= series.length) series = Arrays.copyOf(series, symbolId + 1);
+        if (series[symbolId] == null) series[symbolId] = new SymbolSeries(newChannel());
+        SymbolSeries s = series[symbolId];
+        if (a.getType() == null || AlertRule.TYPE_PRICE.equals(a.getType())) return s.getPriceChannel();
+
+        SymbolSeries.Indicator ind = s.findIndicator(a.getType(), a.getWindowMinutes());
+        if (ind == null) {
+            ind = s.indicator(a.getType(), a.getWindowMinutes(), newChannel());
+            if (AlertRule.TYPE_VOLUME_SPIKE.equals(a.getType())) volumeAlerts = true;
+        }
+        return ind.getChannel();
+    }
+
+    private int newChannel() {
+        int channel = channelCount++;
+        if (channel >= rising.length) {
+            int capacity = Math.max(16, rising.length * 2);
+            rising = Arrays.copyOf(rising, capacity);
+            falling = Arrays.copyOf(falling, capacity);
+            lastValues = Arrays.copyOf(lastValues, capacity);
+        }
+        rising[channel] = new ThresholdBook();
+        falling[channel] = new ThresholdBook();
+        lastValues[channel] = Double.NaN;
+        return channel;
+    }
+
+    // Armed notify-above and disarmed notify-below alerts wait for the price to rise
+    static boolean isRising(AlertRule a) {
+        return a.isNotifyWhenAbove() == a.isArmed();
+    }
+
+    // Armed alerts wait for the target; disarmed ones for the far edge of the hysteresis band
+    static double keyOf(AlertRule a) {
+        if (a.isArmed()) return a.getTargetPrice();
+        double band = Math.abs(a.getTargetPrice()) * a.getHysteresisPct() / 100;
+        return a.isNotifyWhenAbove() ? a.getTargetPrice() - band : a.getTargetPrice() + band;
+    }
+
+    private static boolean sameThreshold(AlertRule x, AlertRule y) {
+        return x.getSymbol().equalsIgnoreCase(y.getSymbol())
+            && Objects.equals(x.getType(), y.getType())
+            && x.getWindowMinutes() == y.getWindowMinutes()
+            && x.getTargetPrice() == y.getTargetPrice()
+            && x.isNotifyWhenAbove() == y.isNotifyWhenAbove()
+            && x.getHysteresisPct() == y.getHysteresisPct();
+    }
+
+    // The engine keeps its own copy; views keep editing theirs
+    private static AlertRule copyOf(AlertRule a) {
+        AlertRule copy = new AlertRule(a.getUserId(), a.getSymbol(), a.getTargetPrice(), a.isNotifyWhenAbove());
+        copy.setId(a.getId());
+        copy.setType(a.getType());
+        copy.setWindowMinutes(a.getWindowMinutes());
+        copy.setEnabled(a.isEnabled());
+        copy.setNotifyEmail(a.isNotifyEmail());
+        copy.setNotifySms(a.isNotifySms());
+        copy.setMode(a.getMode());
+        copy.setHysteresisPct(a.getHysteresisPct());
+        copy.setCooldownSeconds(a.getCooldownSeconds());
+        copy.setArmed(a.isArmed());
+        copy.setLastTriggeredAt(a.getLastTriggeredAt());
+        copy.setCreatedAt(a.getCreatedAt());
+        copy.setUpdatedAt(a.getUpdatedAt());
+        return copy;
+    }
+
+    private void fire(AlertRule a, double value) {
+        String title = "Price Alert: " + a.getSymbol();
+        String msg = describe(a, value);
+        NotificationUtil.showPopup(title, msg);
+
+        // Email is sent (and merged with other alerts of the same burst) by the dispatcher workers
+        if (a.isNotifyEmail()) {
+            NotificationDispatcher.getInstance().submit(a.getUserId(), title, msg);
+        }
+
+        System.out.println("ALERT TRIGGERED: " + msg);
+    }
+
+    private static String describe(AlertRule a, double value) {
+        String sym = a.getSymbol();
+        int w = a.getWindowMinutes();
+        switch (a.getType() == null ? AlertRule.TYPE_PRICE : a.getType()) {
+            case AlertRule.TYPE_PCT_CHANGE:
+                return String.format("%s moved %+.2f%% in %d min (threshold %+.2f%%)", sym, value, w, a.getTargetPrice());
+            case AlertRule.TYPE_VOLUME_SPIKE:
+                return String.format("%s 24h volume at %.2fx its %d min average (threshold %.2fx)", sym, value, w, a.getTargetPrice());
+            case AlertRule.TYPE_SMA_CROSS:
+                return String.format("%s is %+.2f%% from its SMA(%d) (threshold %+.2f%%)", sym, value, w, a.getTargetPrice());
+            case AlertRule.TYPE_EMA_CROSS:
+                return String.format("%s is %+.2f%% from its EMA(%d) (threshold %+.2f%%)", sym, value, w, a.getTargetPrice());
+            case AlertRule.TYPE_RSI:
+                return String.format("%s RSI(%d) at %.1f (threshold %.1f)", sym, w, value, a.getTargetPrice());
+            default:
+                return String.format("%s reached %.4f (target %.4f)", sym, value, a.getTargetPrice());
         }
     }
 }
@@ -0,0 +1,74 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.dao.ArchiveDAO;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ArchiveService - Periodically moves old CLOSED/CANCELLED orders and their trades
+ * from the hot tables into orders_archive/trades_archive.
+ * The age threshold can be changed with -Dtrading.archive.days=N (default 90).
+ */
+public class ArchiveService {
+
+    private static final int DEFAULT_MAX_AGE_DAYS = 90;
+    private static final int CHUNK_SIZE = 500;
+    private static final long PAUSE_BETWEEN_CHUNKS_MS = 200;
+
+    private final ArchiveDAO archiveDAO = new ArchiveDAO();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "order-archiver");
+        t.setDaemon(true);
+        return t;
+    });
+    private final int maxAgeDays;
+
+    private static ArchiveService instance;
+
+    private ArchiveService() {
+        this.maxAgeDays = Math.max(1, Integer.getInteger("trading.archive.days", DEFAULT_MAX_AGE_DAYS));
+    }
+
+    public static synchronized ArchiveService getInstance() {
+        if (instance == null) instance = new ArchiveService();
+        return instance;
+    }
+
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::archiveOldOrders, 1, 6 * 60, TimeUnit.MINUTES);
+    }
+
+    public void stop() { scheduler.shutdownNow(); }
+
+    public int getMaxAgeDays() {
+        return maxAgeDays;
+    }
+
+    /**
+     * Archives every eligible order, one chunk per transaction
+     * @return Total number of orders archived
+     */
+    public int archiveOldOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+        int total = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int moved = archiveDAO.archiveChunk(cutoff, CHUNK_SIZE);
+                if (moved <= 0) break;
+                total += moved;
+                if (moved < CHUNK_SIZE) break;
+                // Give interactive queries a turn between chunks
+                Thread.sleep(PAUSE_BETWEEN_CHUNKS_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (total > 0) {
+            System.out.println("Archived " + total + " orders older than " + maxAgeDays + " days");
+        }
+        return total;
+    }
+}
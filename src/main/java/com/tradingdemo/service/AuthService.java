@@ -2,9 +2,11 @@ package com.tradingdemo.service;
 
 import com.tradingdemo.dao.UserDAO;
 import com.tradingdemo.model.User;
+import com.tradingdemo.util.AsyncExecutor;
 import com.tradingdemo.util.PasswordUtils;
 
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import javax.mail.*;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
@@ -260,6 +262,7 @@ public class AuthService {
      */
     public boolean updateProfile(User user) {
         boolean success = userDAO.updateUser(user);
+        NotificationDispatcher.evictRecipient(user.getId());
         if (success && currentUser != null && currentUser.getId() == user.getId()) {
             currentUser = user;
         }
@@ -284,7 +287,58 @@ public class AuthService {
         currentUser.setPhone(phone);
 
         boolean updated = userDAO.updateUser(currentUser);
+        NotificationDispatcher.evictRecipient(currentUser.getId());
 
         return updated ? currentUser : null;
     }
+
+    // ---- Async variants (run on virtual threads, safe to call from the FX thread) ----
+
+    /**
+     * Authenticates a user without blocking the caller (BCrypt + JDBC)
+     * @see #login(String, String)
+     */
+    public CompletableFuture<User> loginAsync(String email, String password) {
+        return AsyncExecutor.supply(() -> login(email, password));
+    }
+
+    /**
+     * Registers a new user without blocking the caller
+     * @see #register(String, String, String, String, String)
+     */
+    public CompletableFuture<User> registerAsync(String firstName, String lastName, String email, String phone, String password) {
+        return AsyncExecutor.supply(() -> register(firstName, lastName, email, phone, password));
+    }
+
+    /**
+     * Changes a password without blocking the caller
+     * @see #changePassword(int, String, String)
+     */
+    public CompletableFuture<Boolean> changePasswordAsync(int userId, String oldPassword, String newPassword) {
+        return AsyncExecutor.supply(() -> changePassword(userId, oldPassword, newPassword));
+    }
+
+    /**
+     * Starts a password reset without blocking the caller (JDBC + SMTP)
+     * @see #initiatePasswordReset(String)
+     */
+    public CompletableFuture<Boolean> initiatePasswordResetAsync(String email) {
+        return AsyncExecutor.supply(() -> initiatePasswordReset(email));
+    }
+
+    /**
+     * Resets a password with a code without blocking the caller
+     * @see #resetPasswordWithCode(String, String, String)
+     */
+    public CompletableFuture<Boolean> resetPasswordWithCodeAsync(String email, String code, String newPassword) {
+        return AsyncExecutor.supply(() -> resetPasswordWithCode(email, code, newPassword));
+    }
+
+    /**
+     * Updates a user profile without blocking the caller
+     * @see #updateProfile(User)
+     */
+    public CompletableFuture<Boolean> updateProfileAsync(User user) {
+        return AsyncExecutor.supply(() -> updateProfile(user));
+    }
 }
@@ -8,6 +8,8 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -124,6 +126,42 @@ public class BinanceApiService {
         return prices;
     }
 
+    /**
+     * Fetches the 24-hour quote volume (USD) of every mapped symbol in a single request
+     * @return Map of symbol to 24h quote volume (empty on failure)
+     */
+    public Map<String, Double> getAll24hQuoteVolumes() {
+        Map<String, Double> volumes = new HashMap<>();
+        try {
+            StringBuilder symbols = new StringBuilder("[");
+            for (String pair : SYMBOL_MAPPING.values()) {
+                if (symbols.length() > 1) symbols.append(',');
+                symbols.append('"').append(pair).append('"');
+            }
+            symbols.append(']');
+            String urlString = BINANCE_API_BASE + TICKER_24HR_ENDPOINT + "?type=MINI&symbols="
+                    + URLEncoder.encode(symbols.toString(), StandardCharsets.UTF_8);
+            String response = makeApiRequest(urlString);
+
+            if (response != null) {
+                JsonArray jsonArray = JsonParser.parseString(response).getAsJsonArray();
+                for (int i = 0; i < jsonArray.size(); i++) {
+                    JsonObject ticker = jsonArray.get(i).getAsJsonObject();
+                    String symbol = ticker.get("symbol").getAsString();
+                    for (Map.Entry<String, String> entry : SYMBOL_MAPPING.entrySet()) {
+                        if (entry.getValue().equals(symbol)) {
+                            volumes.put(entry.getKey(), ticker.get("quoteVolume").getAsDouble());
+                            break;
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error fetching 24h volumes: " + e.getMessage());
+        }
+        return volumes;
+    }
+
     /**
      * Asynchronously fetches 24-hour ticker data
      * @param symbol Cryptocurrency symbol
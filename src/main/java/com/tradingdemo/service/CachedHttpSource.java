@@ -0,0 +1,256 @@
+package com.tradingdemo.service;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * CachedHttpSource - Conditional GET with an on-disk copy of the last response, one per news source
+ * The ETag and Last-Modified of the last 200 are sent back as If-None-Match / If-Modified-Since.
+ * On 304 the previously parsed value is returned as is (nothing is downloaded or parsed), and the
+ * caller is told the feed did not change. The body is written to disk while the parser reads it,
+ * so after a restart a 304 is answered from the disk copy, and the disk copy is also served when
+ * the source is unreachable. If the parser stops early (RSS limit) only the bytes it read are kept,
+ * so such callers pass the limit as a variant: the value and the disk copy are kept per URL and variant.
+ * Cache directory: -Dtrading.feedcache.dir (default ~/.trading_wolfers/feed-cache).
+ */
+public class CachedHttpSource {
+
+    private static final Path CACHE_DIR = Paths.get(System.getProperty("trading.feedcache.dir",
+            System.getProperty("user.home") + File.separator + ".trading_wolfers" + File.separator + "feed-cache"));
+
+    /**
+     * Turns a response body into a value; returns null to reject the body (e.g. an API error)
+     */
+    public interface BodyParser<T> {
+        T parse(InputStream in) throws Exception;
+    }
+
+    /**
+     * Outcome of a fetch
+     */
+    public static class Result<T> {
+        public final T value;           // null if no copy could be fetched or loaded
+        public final boolean modified;  // false when value is the same one returned last time
+
+        Result(T value, boolean modified) {
+            this.value = value;
+            this.modified = modified;
+        }
+    }
+
+    private final String name;
+    private final String accept;
+    private String url;             // URL the fields below belong to
+    private String variant;         // parser setting the cached value depends on ("" if none)
+    private String etag;
+    private String lastModified;
+    private Object value;
+
+    /**
+     * @param name Source name used in log messages
+     * @param accept Accept header sent with every request
+     */
+    public CachedHttpSource(String name, String accept) {
+        this.name = name;
+        this.accept = accept;
+    }
+
+    /**
+     * Fetches a URL unless it is unchanged since the last fetch
+     * @param urlString The URL
+     * @param parser Parser for the response body (reads the whole body)
+     * @return The current value and whether it changed since the last call
+     */
+    public <T> Result<T> fetch(String urlString, BodyParser<T> parser) {
+        return fetch(urlString, "", parser);
+    }
+
+    /**
+     * Fetches a URL unless it is unchanged since the last fetch with the same variant
+     * @param urlString The URL
+     * @param variant Parser setting the value depends on (e.g. "limit=20")
+     * @param parser Parser for the response body
+     * @return The current value and whether it changed since the last call
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> Result<T> fetch(String urlString, String variant, BodyParser<T> parser) {
+        if (!urlString.equals(url) || !variant.equals(this.variant)) {
+            url = urlString;
+            this.variant = variant;
+            value = null;
+            loadValidators();
+        }
+
+        HttpURLConnection connection = null;
+        Path part = null;
+        try {
+            connection = (HttpURLConnection) new URL(urlString).openConnection();
+            connection.setRequestMethod("GET");
+            connection.setConnectTimeout(10000);
+            connection.setReadTimeout(10000);
+            connection.setRequestProperty("Accept", accept);
+            connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
+            if (etag != null) connection.setRequestProperty("If-None-Match", etag);
+            if (lastModified != null) connection.setRequestProperty("If-Modified-Since", lastModified);
+
+            int responseCode = connection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                if (value != null) return new Result<>((T) value, false);
+                T cached = loadBody(parser);   // first fetch since start-up
+                if (cached != null) {
+                    value = cached;
+                    return new Result<>(cached, true);
+                }
+                // Disk copy lost: ask for the full body next time
+                etag = null;
+                lastModified = null;
+                return new Result<>(null, false);
+            } else if (responseCode == HttpURLConnection.HTTP_OK) {
+                Files.createDirectories(CACHE_DIR);
+                part = Files.createTempFile(CACHE_DIR, key(), ".part");
+                T parsed;
+                try (OutputStream copy = Files.newOutputStream(part);
+                     InputStream in = new TeeInputStream(connection.getInputStream(), copy)) {
+                    parsed = parser.parse(in);
+                }
+                if (parsed != null) {
+                    Files.move(part, bodyFile(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    part = null;
+                    etag = connection.getHeaderField("ETag");
+                    lastModified = connection.getHeaderField("Last-Modified");
+                    saveValidators();
+                    value = parsed;
+                    return new Result<>(parsed, true);
+                }
+            } else {
+                System.err.println(name + " request failed with code: " + responseCode);
+            }
+        } catch (Exception e) {
+            System.err.println("Error fetching " + name + ": " + e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            if (part != null) {
+                try {
+                    Files.deleteIfExists(part);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        // Source unreachable or body rejected: keep serving the last copy
+        if (value != null) return new Result<>((T) value, false);
+        T cached = loadBody(parser);
+        value = cached;
+        return new Result<>(cached, cached != null);
+    }
+
+    private <T> T loadBody(BodyParser<T> parser) {
+        Path body = bodyFile();
+        if (!Files.isRegularFile(body)) return null;
+        try (InputStream in = Files.newInputStream(body)) {
+            return parser.parse(in);
+        } catch (Exception e) {
+            System.err.println("Error reading cached " + name + " response: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void loadValidators() {
+        etag = null;
+        lastModified = null;
+        Path meta = CACHE_DIR.resolve(key() + ".meta");
+        if (!Files.isRegularFile(meta) || !Files.isRegularFile(bodyFile())) return;
+        Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+            props.load(in);
+            if (url.equals(props.getProperty("url")) && variant.equals(props.getProperty("variant", ""))) {
+                etag = props.getProperty("etag");
+                lastModified = props.getProperty("lastModified");
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading " + name + " cache metadata: " + e.getMessage());
+        }
+    }
+
+    private void saveValidators() {
+        Properties props = new Properties();
+        props.setProperty("url", url);
+        props.setProperty("variant", variant);
+        if (etag != null) props.setProperty("etag", etag);
+        if (lastModified != null) props.setProperty("lastModified", lastModified);
+        try (Writer out = Files.newBufferedWriter(CACHE_DIR.resolve(key() + ".meta"), StandardCharsets.UTF_8)) {
+            props.store(out, name);
+        } catch (IOException e) {
+            System.err.println("Error writing " + name + " cache metadata: " + e.getMessage());
+        }
+    }
+
+    private Path bodyFile() {
+        return CACHE_DIR.resolve(key() + ".body");
+    }
+
+    // File name for the current URL and variant
+    private String key() {
+        String id = variant.isEmpty() ? url : url + "#" + variant;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(id.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (Exception e) {
+            return Integer.toHexString(id.hashCode());
+        }
+    }
+
+    // Copies every byte read from the response into the cache file
+    private static class TeeInputStream extends FilterInputStream {
+        private final OutputStream copy;
+
+        TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) copy.write(buf, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes must still reach the copy
+            byte[] buf = new byte[(int) Math.min(n, 8192)];
+            int read = read(buf, 0, buf.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -5,10 +5,9 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.tradingdemo.model.News;
 
-import java.io.BufferedReader;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -25,110 +24,76 @@ public class CryptoPanicNewsService {
     private static final String API_BASE = "https://cryptopanic.com/api/v1/posts/";
     private static final String API_KEY = ""; // Optional: Add your free API key for higher limits
     
+    private final CachedHttpSource http = new CachedHttpSource("CryptoPanic API", "application/json");
+
     /**
      * Fetches latest cryptocurrency news from CryptoPanic
      * @param limit Number of news articles to fetch
      * @return List of News objects
      */
     public List<News> getLatestNews(int limit) {
-        List<News> newsList = new ArrayList<>();
-        
-        try {
-            String urlString = API_BASE + "?kind=news&public=true";
-            if (!API_KEY.isEmpty()) {
-                urlString += "&auth_token=" + API_KEY;
-            }
-            
-            String response = makeApiRequest(urlString);
-            if (response != null) {
-                JsonObject jsonObject = JsonParser.parseString(response).getAsJsonObject();
-                JsonArray resultsArray = jsonObject.getAsJsonArray("results");
-                
-                int count = 0;
-                for (int i = 0; i < resultsArray.size() && count < limit; i++) {
-                    JsonObject article = resultsArray.get(i).getAsJsonObject();
-                    
-                    News news = new News();
-                    news.setTitle(article.get("title").getAsString());
-                    
-                    // CryptoPanic doesn't provide full content, use title as preview
-                    String url = article.get("url").getAsString();
-                    news.setContent("Read full article at: " + url);
-                    news.setUrl(url);
-                    
-                    // Get source
-                    if (article.has("source") && !article.get("source").isJsonNull()) {
-                        JsonObject source = article.getAsJsonObject("source");
-                        news.setSource(source.get("title").getAsString());
-                    } else {
-                        news.setSource("CryptoPanic");
-                    }
-                    
-                    // Convert timestamp
-                    String createdAt = article.get("created_at").getAsString();
-                    LocalDateTime publishedAt = LocalDateTime.parse(createdAt.substring(0, 19));
-                    news.setPublishedAt(publishedAt);
-                    
-                    // Get currencies (tags)
-                    if (article.has("currencies") && !article.get("currencies").isJsonNull()) {
-                        JsonArray currencies = article.getAsJsonArray("currencies");
-                        StringBuilder tags = new StringBuilder();
-                        for (int j = 0; j < currencies.size(); j++) {
-                            JsonObject currency = currencies.get(j).getAsJsonObject();
-                            if (j > 0) tags.append(", ");
-                            tags.append(currency.get("code").getAsString());
-                        }
-                        news.setTags(tags.toString());
-                    }
-                    
-                    newsList.add(news);
-                    count++;
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error fetching CryptoPanic news: " + e.getMessage());
-            e.printStackTrace();
-        }
-        
-        return newsList;
+        CachedHttpSource.Result<List<News>> result = getLatestNewsIfChanged(limit);
+        if (result.value == null) return new ArrayList<>();
+        return new ArrayList<>(result.value.subList(0, Math.min(Math.max(limit, 0), result.value.size())));
     }
 
     /**
-     * Makes an HTTP GET request
+     * Fetches latest news with a conditional GET; an unchanged response is not parsed again
+     * @param limit Number of news articles to fetch (the endpoint has no limit, so every post is parsed)
+     * @return The articles (shared, do not modify) and whether they changed since the last call
      */
-    private String makeApiRequest(String urlString) {
-        HttpURLConnection connection = null;
-        try {
-            URL url = new URL(urlString);
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.setConnectTimeout(10000);
-            connection.setReadTimeout(10000);
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0");
+    public CachedHttpSource.Result<List<News>> getLatestNewsIfChanged(int limit) {
+        String urlString = API_BASE + "?kind=news&public=true";
+        if (!API_KEY.isEmpty()) {
+            urlString += "&auth_token=" + API_KEY;
+        }
+        return http.fetch(urlString, this::parseResponse);
+    }
 
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpURLConnection.HTTP_OK) {
-                BufferedReader in = new BufferedReader(
-                    new InputStreamReader(connection.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String inputLine;
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
-                }
-                in.close();
-                return response.toString();
+    private List<News> parseResponse(InputStream in) {
+        List<News> newsList = new ArrayList<>();
+        JsonObject jsonObject = JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8)).getAsJsonObject();
+        JsonArray resultsArray = jsonObject.getAsJsonArray("results");
+
+        for (int i = 0; i < resultsArray.size(); i++) {
+            JsonObject article = resultsArray.get(i).getAsJsonObject();
+
+            News news = new News();
+            news.setTitle(article.get("title").getAsString());
+
+            // CryptoPanic doesn't provide full content, use title as preview
+            String url = article.get("url").getAsString();
+            news.setContent("Read full article at: " + url);
+            news.setUrl(url);
+
+            // Get source
+            if (article.has("source") && !article.get("source").isJsonNull()) {
+                JsonObject source = article.getAsJsonObject("source");
+                news.setSource(source.get("title").getAsString());
             } else {
-                System.err.println("CryptoPanic API request failed with code: " + responseCode);
+                news.setSource("CryptoPanic");
             }
-        } catch (Exception e) {
-            System.err.println("Error making CryptoPanic API request: " + e.getMessage());
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
+
+            // Convert timestamp
+            String createdAt = article.get("created_at").getAsString();
+            LocalDateTime publishedAt = LocalDateTime.parse(createdAt.substring(0, 19));
+            news.setPublishedAt(publishedAt);
+
+            // Get currencies (tags)
+            if (article.has("currencies") && !article.get("currencies").isJsonNull()) {
+                JsonArray currencies = article.getAsJsonArray("currencies");
+                StringBuilder tags = new StringBuilder();
+                for (int j = 0; j < currencies.size(); j++) {
+                    JsonObject currency = currencies.get(j).getAsJsonObject();
+                    if (j > 0) tags.append(", ");
+                    tags.append(currency.get("code").getAsString());
+                }
+                news.setTags(tags.toString());
             }
+
+            newsList.add(news);
         }
-        return null;
+        return newsList;
     }
 
     /**
@@ -0,0 +1,300 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.dao.TradeDAO;
+import com.tradingdemo.model.PerformanceMetrics;
+import com.tradingdemo.model.PerformanceState;
+import com.tradingdemo.util.AsyncExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * LeaderboardService - Platform-wide performance ranking
+ * One streaming query returns every trade grouped by user; rows are packed into batches that
+ * always end on a user boundary and are applied in parallel on a fork/join pool.
+ * Per-user states are cached, so a refresh only streams trades from a safety window below the
+ * last one seen (trades can commit out of ID order); rows already applied are skipped by ID.
+ */
+public class LeaderboardService {
+
+    private static final int BATCH_ROWS = 16_384;       // rows per batch handed to the pool
+    private static final int SEQUENTIAL_ROWS = 2_048;   // below this a batch is applied sequentially
+    private static final long FULL_REBUILD_MS = 60 * 60 * 1000L;
+    public static final int MIN_CLOSED_FOR_RATES = 5;  // users ranked by win rate need a few closed trades
+
+    private static LeaderboardService instance;
+
+    private final TradeSource trades;
+    private final ForkJoinPool pool;
+
+    // Guarded by "this"; states are only mutated by the refresh holding the lock
+    private Map<Integer, PerformanceState> states = new ConcurrentHashMap<>();
+    private int lastTradeId = 0;
+    private long lastFullRebuild = 0;
+    private Leaderboard cached;
+
+    private LeaderboardService() {
+        this(new TradeDAO()::forEachTradeOrderedByUser, new ForkJoinPool(Runtime.getRuntime().availableProcessors()));
+    }
+
+    // Reads trades from the given source (benchmarks and tests) and applies them on the given pool
+    LeaderboardService(TradeSource trades, ForkJoinPool pool) {
+        this.trades = trades;
+        this.pool = pool;
+    }
+
+    public static synchronized LeaderboardService getInstance() {
+        if (instance == null) instance = new LeaderboardService();
+        return instance;
+    }
+
+    /**
+     * Gets the leaderboard, applying trades written since the previous refresh
+     * A full rebuild runs on first use and then at most once an hour (to pick up deletions)
+     * @param topN Number of users per ranking
+     * @return The leaderboard
+     */
+    public synchronized Leaderboard getLeaderboard(int topN) {
+        long start = System.currentTimeMillis();
+        boolean full = cached == null || start - lastFullRebuild > FULL_REBUILD_MS;
+
+        Map<Integer, PerformanceState> target = full ? new ConcurrentHashMap<>() : states;
+        int[] maxTradeId = { full ? 0 : lastTradeId };
+        long[] rows = { 0 };
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        TradeBatch[] batch = { new TradeBatch(BATCH_ROWS) };
+
+        int from = full ? 0 : Math.max(0, lastTradeId - PerformanceState.RESCAN_WINDOW);
+        boolean complete = trades.forEachTradeOrderedByUser(from,
+            (userId, id, orderId, symbol, side, price, quantity, executedAt) -> {
+                TradeBatch b = batch[0];
+                // Only cut between users, so each user's trades stay in order within one batch
+                if (b.size >= BATCH_ROWS && b.userIds[b.size - 1] != userId) {
+                    tasks.add(pool.submit(new ApplyTask(b, 0, b.size, target)));
+                    b = new TradeBatch(BATCH_ROWS);
+                    batch[0] = b;
+                }
+                b.add(userId, id, orderId, symbol, side, price, quantity, executedAt);
+                if (id > maxTradeId[0]) maxTradeId[0] = id;
+                rows[0]++;
+            });
+        if (batch[0].size > 0) {
+            tasks.add(pool.submit(new ApplyTask(batch[0], 0, batch[0].size, target)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        for (PerformanceState state : target.values()) {
+            state.pruneRecentTradeIds();
+        }
+
+        if (!complete) {
+            // Incremental state may now be half-applied: force a full rebuild next time
+            System.err.println("Leaderboard refresh incomplete, keeping previous result");
+            lastFullRebuild = 0;
+            if (!full) {
+                states = new ConcurrentHashMap<>();
+                cached = null;
+            }
+            return cached != null ? cached : new Leaderboard();
+        }
+
+        states = target;
+        lastTradeId = maxTradeId[0];
+        if (full) lastFullRebuild = start;
+        cached = rank(topN, rows[0], System.currentTimeMillis() - start, full);
+        return cached;
+    }
+
+    /**
+     * Gets the leaderboard without blocking the caller
+     * @see #getLeaderboard(int)
+     */
+    public CompletableFuture<Leaderboard> getLeaderboardAsync(int topN) {
+        return AsyncExecutor.supply(() -> getLeaderboard(topN));
+    }
+
+    private Leaderboard rank(int topN, long rowsRead, long elapsedMs, boolean full) {
+        Leaderboard lb = new Leaderboard();
+        lb.rankedUsers = states.size();
+        lb.rowsRead = rowsRead;
+        lb.elapsedMs = elapsedMs;
+        lb.fullRebuild = full;
+
+        PriorityQueue<Entry> byPnl = new PriorityQueue<>(Comparator.comparingDouble(e -> e.metrics.realizedPnl));
+        PriorityQueue<Entry> byWinRate = new PriorityQueue<>(Comparator.comparingDouble(e -> e.metrics.winRate));
+        PriorityQueue<Entry> byDrawdown = new PriorityQueue<>(Comparator.comparingDouble(e -> e.metrics.maxDrawdown));
+
+        for (Map.Entry<Integer, PerformanceState> e : states.entrySet()) {
+            PerformanceMetrics m = PerformanceService.toMetrics(e.getValue());
+            Entry entry = new Entry(e.getKey(), m);
+            offer(byPnl, entry, topN);
+            offer(byDrawdown, entry, topN);
+            if (m.closedTrades >= MIN_CLOSED_FOR_RATES) {
+                offer(byWinRate, entry, topN);
+            }
+        }
+
+        lb.topByPnl = drainDescending(byPnl, e -> e.metrics.realizedPnl);
+        lb.topByWinRate = drainDescending(byWinRate, e -> e.metrics.winRate);
+        lb.topByDrawdown = drainDescending(byDrawdown, e -> e.metrics.maxDrawdown);
+        return lb;
+    }
+
+    // Bounded min-heap: keeps the N largest entries seen so far
+    private static void offer(PriorityQueue<Entry> heap, Entry entry, int n) {
+        heap.add(entry);
+        if (heap.size() > n) heap.poll();
+    }
+
+    private static List<Entry> drainDescending(PriorityQueue<Entry> heap, ToDoubleFunction<Entry> key) {
+        List<Entry> list = new ArrayList<>(heap);
+        list.sort(Comparator.comparingDouble(key).reversed());
+        return list;
+    }
+
+    /**
+     * Streams trades with an ID above the given one, grouped by user and oldest first within each user
+     * (TradeDAO.forEachTradeOrderedByUser)
+     */
+    @FunctionalInterface
+    interface TradeSource {
+        boolean forEachTradeOrderedByUser(int afterTradeId, TradeDAO.UserTradeVisitor visitor);
+    }
+
+    /**
+     * Applies a range of a batch, splitting at user boundaries while it is large
+     */
+    private static class ApplyTask extends RecursiveAction {
+        private final TradeBatch batch;
+        private final int from;
+        private final int to;
+        private final Map<Integer, PerformanceState> states;
+
+        ApplyTask(TradeBatch batch, int from, int to, Map<Integer, PerformanceState> states) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.states = states;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SEQUENTIAL_ROWS) {
+                int mid = batch.userBoundaryNear((from + to) >>> 1, from, to);
+                if (mid > from && mid < to) {
+                    invokeAll(new ApplyTask(batch, from, mid, states), new ApplyTask(batch, mid, to, states));
+                    return;
+                }
+            }
+            PerformanceState state = null;
+            for (int i = from; i < to; i++) {
+                int userId = batch.userIds[i];
+                if (state == null || state.userId != userId) {
+                    state = states.computeIfAbsent(userId, PerformanceState::new);
+                }
+                PerformanceService.apply(state, batch.ids[i], batch.orderIds[i], batch.symbols[i], batch.sides[i],
+                                         batch.prices[i], batch.quantities[i], batch.times[i], null);
+            }
+        }
+    }
+
+    /**
+     * Column-oriented buffer of streamed trade rows
+     */
+    private static class TradeBatch {
+        int size = 0;
+        int[] userIds;
+        int[] ids;
+        int[] orderIds;
+        String[] symbols;
+        String[] sides;
+        double[] prices;
+        double[] quantities;
+        long[] times;
+
+        TradeBatch(int capacity) {
+            userIds = new int[capacity];
+            ids = new int[capacity];
+            orderIds = new int[capacity];
+            symbols = new String[capacity];
+            sides = new String[capacity];
+            prices = new double[capacity];
+            quantities = new double[capacity];
+            times = new long[capacity];
+        }
+
+        void add(int userId, int id, int orderId, String symbol, String side, double price, double quantity, long time) {
+            if (size == ids.length) {
+                // One user with more rows than a batch: grow instead of splitting the user
+                int capacity = size * 2;
+                userIds = Arrays.copyOf(userIds, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+                orderIds = Arrays.copyOf(orderIds, capacity);
+                symbols = Arrays.copyOf(symbols, capacity);
+                sides = Arrays.copyOf(sides, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                times = Arrays.copyOf(times, capacity);
+            }
+            userIds[size] = userId;
+            ids[size] = id;
+            orderIds[size] = orderId;
+            symbols[size] = symbol;
+            sides[size] = side;
+            prices[size] = price;
+            quantities[size] = quantity;
+            times[size] = time;
+            size++;
+        }
+
+        /**
+         * Finds the first index at or after pos where a new user starts (or before pos if none)
+         */
+        int userBoundaryNear(int pos, int from, int to) {
+            for (int i = pos; i < to; i++) {
+                if (userIds[i] != userIds[i - 1]) return i;
+            }
+            for (int i = pos - 1; i > from; i--) {
+                if (userIds[i] != userIds[i - 1]) return i;
+            }
+            return from;
+        }
+    }
+
+    /**
+     * One ranked user
+     */
+    public static class Entry {
+        public final int userId;
+        public final PerformanceMetrics metrics;
+
+        Entry(int userId, PerformanceMetrics metrics) {
+            this.userId = userId;
+            this.metrics = metrics;
+        }
+    }
+
+    /**
+     * Result of a leaderboard refresh
+     */
+    public static class Leaderboard {
+        public int rankedUsers = 0;
+        public long rowsRead = 0;
+        public long elapsedMs = 0;
+        public boolean fullRebuild = false;
+        public List<Entry> topByPnl = new ArrayList<>();
+        public List<Entry> topByWinRate = new ArrayList<>();
+        public List<Entry> topByDrawdown = new ArrayList<>();
+    }
+}
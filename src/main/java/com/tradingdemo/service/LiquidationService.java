@@ -0,0 +1,371 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.dao.LiquidationDAO;
+import com.tradingdemo.model.Order;
+import com.tradingdemo.util.AsyncExecutor;
+import com.tradingdemo.util.SymbolRegistry;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LiquidationService - Watches every open position and liquidates the ones whose losses
+ * eat through the margin
+ * Positions are opened with full margin, so a position is liquidated once its loss reaches
+ * (1 - maintenance) of that margin: a long at entry * maintenance, a short at entry * (2 - maintenance).
+ * Liquidation prices are kept per symbol and side in sorted primitive arrays ordered so the
+ * positions crossed by a tick are always at the tail; a tick costs O(crossed), not O(positions).
+ * Everything crossed by one tick is closed in one batched transaction.
+ * The maintenance ratio can be changed with -Dtrading.liquidation.maintenance=R (default 0.05).
+ */
+public class LiquidationService {
+
+    private static final double DEFAULT_MAINTENANCE = 0.05;
+    private static final long POLL_SECONDS = 5;
+    private static final long RESYNC_MINUTES = 10;
+
+    private final LiquidationDAO liquidationDAO = new LiquidationDAO();
+    private final BinanceApiService binanceApiService = new BinanceApiService();
+    private final ScheduledExecutorService engine = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "liquidation");
+        t.setDaemon(true);
+        return t;
+    });
+    private final double maintenance;
+
+    // Engine thread only
+    private final Map<Integer, Tracked> tracked = new HashMap<>();
+    private SideBook[] longs = new SideBook[0];
+    private SideBook[] shorts = new SideBook[0];
+
+    // Written only on the engine thread, read from anywhere
+    private volatile long ticks = 0;
+    private volatile long lastEvalNanos = 0;
+    private volatile long maxEvalNanos = 0;
+    private volatile long totalEvalNanos = 0;
+    private volatile int trackedCount = 0;
+
+    // Written by the batch closes, which may overlap
+    private final AtomicLong liquidations = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile int lastBatchSize = 0;
+
+    private static LiquidationService instance;
+
+    private LiquidationService() {
+        double configured = Double.parseDouble(System.getProperty("trading.liquidation.maintenance",
+                                                                  String.valueOf(DEFAULT_MAINTENANCE)));
+        this.maintenance = Math.min(0.99, Math.max(0, configured));
+    }
+
+    public static synchronized LiquidationService getInstance() {
+        if (instance == null) instance = new LiquidationService();
+        return instance;
+    }
+
+    public void start() {
+        engine.scheduleWithFixedDelay(() -> AsyncExecutor.run(this::resync), 0, RESYNC_MINUTES, TimeUnit.MINUTES);
+        // The HTTP call runs off the engine thread
+        engine.scheduleWithFixedDelay(() -> AsyncExecutor.run(() -> {
+            Map<String, Double> prices = binanceApiService.getAllPrices();
+            if (!prices.isEmpty()) onTicks(prices);
+        }), POLL_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void stop() { engine.shutdownNow(); }
+
+    /**
+     * Starts watching a newly executed order
+     * @param orderId The order ID
+     * @param symbol Cryptocurrency symbol
+     * @param side BUY (long) or SELL (short)
+     * @param entryPrice Entry price of the order
+     */
+    public void track(int orderId, String symbol, String side, double entryPrice) {
+        int symbolId = SymbolRegistry.idOf(symbol);
+        boolean isLong = "BUY".equals(side);
+        double liquidationPrice = liquidationPrice(isLong, entryPrice);
+        engine.execute(() -> add(orderId, symbolId, isLong, liquidationPrice));
+    }
+
+    /**
+     * Stops watching an order (closed by the user)
+     * @param orderId The order ID
+     */
+    public void untrack(int orderId) {
+        engine.execute(() -> {
+            Tracked t = tracked.remove(orderId);
+            if (t != null) {
+                book(t.symbolId, t.isLong).remove(key(t.isLong, t.liquidationPrice), orderId);
+                trackedCount = tracked.size();
+            }
+        });
+    }
+
+    /**
+     * Evaluates price ticks and liquidates every crossed position in one batch
+     * @param prices Map of symbol to last traded price
+     */
+    public void onTicks(Map<String, Double> prices) {
+        engine.execute(() -> evaluate(prices));
+    }
+
+    /**
+     * Gets the liquidation price of a position
+     * @param isLong true for BUY (long), false for SELL (short)
+     * @param entryPrice Entry price
+     * @return Price at which the position is liquidated
+     */
+    public double liquidationPrice(boolean isLong, double entryPrice) {
+        return isLong ? entryPrice * maintenance : entryPrice * (2 - maintenance);
+    }
+
+    private void evaluate(Map<String, Double> prices) {
+        long start = System.nanoTime();
+        Batch batch = new Batch();
+        for (Map.Entry<String, Double> tick : prices.entrySet()) {
+            double price = tick.getValue();
+            int symbolId = SymbolRegistry.lookup(tick.getKey());
+            if (price <= 0 || symbolId < 0 || symbolId >= longs.length) continue;
+            longs[symbolId].popCrossed(key(true, price), price, batch);
+            shorts[symbolId].popCrossed(key(false, price), price, batch);
+        }
+        for (int i = 0; i < batch.count; i++) {
+            tracked.remove(batch.orderIds[i]);
+        }
+        trackedCount = tracked.size();
+
+        long elapsed = System.nanoTime() - start;
+        ticks++;
+        lastEvalNanos = elapsed;
+        totalEvalNanos += elapsed;
+        if (elapsed > maxEvalNanos) maxEvalNanos = elapsed;
+
+        if (batch.count > 0) {
+            AsyncExecutor.run(() -> close(batch));
+        }
+    }
+
+    private void close(Batch batch) {
+        List<Order> closed = new TradingService().liquidatePositions(batch.orderIds, batch.prices, batch.count);
+        lastBatchSize = batch.count;
+        if (closed == null) {
+            // The orders are still EXECUTED in the database; the next resync picks them up again
+            failedBatches.incrementAndGet();
+            return;
+        }
+        liquidations.addAndGet(closed.size());
+        if (!closed.isEmpty()) {
+            System.out.println("Liquidated " + closed.size() + " positions");
+        }
+    }
+
+    /**
+     * Adds every open order that is not tracked yet (first load, orders executed by other instances,
+     * and orders of a failed liquidation batch)
+     */
+    private void resync() {
+        Batch loaded = new Batch();
+        boolean complete = liquidationDAO.forEachOpenOrder((orderId, userId, symbol, side, price, quantity) -> {
+            boolean isLong = "BUY".equals(side);
+            loaded.add(orderId, SymbolRegistry.idOf(symbol), key(isLong, liquidationPrice(isLong, price)));
+        });
+        if (!complete) return;
+
+        engine.execute(() -> {
+            for (int i = 0; i < loaded.count; i++) {
+                int orderId = loaded.orderIds[i];
+                if (tracked.containsKey(orderId)) continue;
+                // Long keys are >= 0 and short keys < 0 (see key())
+                double key = loaded.prices[i];
+                boolean isLong = key >= 0;
+                Tracked t = new Tracked(loaded.symbolIds[i], isLong, Math.abs(key));
+                tracked.put(orderId, t);
+                book(t.symbolId, isLong).append(key, orderId);
+            }
+            for (int sym = 0; sym < longs.length; sym++) {
+                longs[sym].sort();
+                shorts[sym].sort();
+            }
+            trackedCount = tracked.size();
+        });
+    }
+
+    private void add(int orderId, int symbolId, boolean isLong, double liquidationPrice) {
+        if (tracked.containsKey(orderId)) return;
+        tracked.put(orderId, new Tracked(symbolId, isLong, liquidationPrice));
+        book(symbolId, isLong).insert(key(isLong, liquidationPrice), orderId);
+        trackedCount = tracked.size();
+    }
+
+    private SideBook book(int symbolId, boolean isLong) {
+        if (symbolId >= longs.length) {
+            int oldCount = longs.length;
+            longs = Arrays.copyOf(longs, symbolId + 1);
+            shorts = Arrays.copyOf(shorts, symbolId + 1);
+            for (int sym = oldCount; sym <= symbolId; sym++) {
+                longs[sym] = new SideBook();
+                shorts[sym] = new SideBook();
+            }
+        }
+        return isLong ? longs[symbolId] : shorts[symbolId];
+    }
+
+    // Longs are crossed when price <= liquidation price, shorts when price >= it; negating the
+    // short side makes both "crossed when key >= key(price)", so crossed entries sort to the tail
+    static double key(boolean isLong, double price) {
+        return isLong ? price : -price;
+    }
+
+    public double getMaintenance() { return maintenance; }
+    public long getTicks() { return ticks; }
+    public double getLastEvalMillis() { return lastEvalNanos / 1_000_000.0; }
+    public double getMaxEvalMillis() { return maxEvalNanos / 1_000_000.0; }
+    public double getAvgEvalMillis() { return ticks == 0 ? 0 : totalEvalNanos / 1_000_000.0 / ticks; }
+    public int getTrackedCount() { return trackedCount; }
+    public long getLiquidations() { return liquidations.get(); }
+    public long getFailedBatches() { return failedBatches.get(); }
+    public int getLastBatchSize() { return lastBatchSize; }
+
+    /**
+     * Gets a one-line summary of the liquidation counters
+     * @return Formatted metrics
+     */
+    public String summary() {
+        return String.format("Liquidation: %d positions watched | %d ticks | eval last %.3f ms, avg %.3f ms, max %.3f ms | " +
+                             "liquidated %d (last batch %d, failed batches %d)",
+            trackedCount, ticks, getLastEvalMillis(), getAvgEvalMillis(), getMaxEvalMillis(),
+            liquidations.get(), lastBatchSize, failedBatches.get());
+    }
+
+    /**
+     * A watched order
+     */
+    private static class Tracked {
+        final int symbolId;
+        final boolean isLong;
+        final double liquidationPrice;
+
+        Tracked(int symbolId, boolean isLong, double liquidationPrice) {
+            this.symbolId = symbolId;
+            this.isLong = isLong;
+            this.liquidationPrice = liquidationPrice;
+        }
+    }
+
+    /**
+     * Liquidation keys of one symbol and side, sorted ascending in parallel arrays
+     */
+    static class SideBook {
+        double[] keys = new double[16];
+        int[] orderIds = new int[16];
+        int size = 0;
+        boolean unsorted = false;
+
+        void insert(double key, int orderId) {
+            grow();
+            int pos = upperBound(key);
+            System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+            System.arraycopy(orderIds, pos, orderIds, pos + 1, size - pos);
+            keys[pos] = key;
+            orderIds[pos] = orderId;
+            size++;
+        }
+
+        // Bulk loading appends unsorted and calls sort() once at the end
+        void append(double key, int orderId) {
+            grow();
+            keys[size] = key;
+            orderIds[size] = orderId;
+            size++;
+            unsorted = true;
+        }
+
+        void sort() {
+            if (!unsorted) return;
+            unsorted = false;
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(keys[a], keys[b]));
+            double[] sortedKeys = new double[keys.length];
+            int[] sortedIds = new int[orderIds.length];
+            for (int i = 0; i < size; i++) {
+                sortedKeys[i] = keys[order[i]];
+                sortedIds[i] = orderIds[order[i]];
+            }
+            keys = sortedKeys;
+            orderIds = sortedIds;
+        }
+
+        void remove(double key, int orderId) {
+            for (int i = lowerBound(key); i < size && keys[i] == key; i++) {
+                if (orderIds[i] == orderId) {
+                    System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                    System.arraycopy(orderIds, i + 1, orderIds, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        void popCrossed(double threshold, double price, Batch out) {
+            while (size > 0 && keys[size - 1] >= threshold) {
+                size--;
+                out.add(orderIds[size], 0, price);
+            }
+        }
+
+        private void grow() {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                orderIds = Arrays.copyOf(orderIds, size * 2);
+            }
+        }
+
+        private int lowerBound(double key) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        private int upperBound(double key) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] <= key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    /**
+     * Growable (orderId, symbolId, price) columns
+     */
+    static class Batch {
+        int count = 0;
+        int[] orderIds = new int[64];
+        int[] symbolIds = new int[64];
+        double[] prices = new double[64];
+
+        void add(int orderId, int symbolId, double price) {
+            if (count == orderIds.length) {
+                orderIds = Arrays.copyOf(orderIds, count * 2);
+                symbolIds = Arrays.copyOf(symbolIds, count * 2);
+                prices = Arrays.copyOf(prices, count * 2);
+            }
+            orderIds[count] = orderId;
+            symbolIds[count] = symbolId;
+            prices[count] = price;
+            count++;
+        }
+    }
+}
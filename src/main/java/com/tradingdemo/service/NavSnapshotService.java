@@ -0,0 +1,135 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.dao.NavSnapshotDAO;
+import com.tradingdemo.model.EquityCurve;
+import com.tradingdemo.util.AsyncExecutor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NavSnapshotService - Periodically snapshots every user's net asset value
+ * NAV is cash + locked margin + unrealized P&L of open positions at the current mark price.
+ * Raw snapshots are kept for a week; hourly rollups for 180 days; daily rollups forever.
+ * The interval can be changed with -Dtrading.nav.interval.minutes=N (default 15).
+ */
+public class NavSnapshotService {
+
+    private static final int DEFAULT_INTERVAL_MINUTES = 15;
+    private static final int RAW_RETENTION_DAYS = 7;
+    private static final int HOURLY_RETENTION_DAYS = 180;
+    private static final int PURGE_CHUNK_SIZE = 5000;
+
+    private final NavSnapshotDAO navSnapshotDAO = new NavSnapshotDAO();
+    private final BinanceApiService binanceApiService = new BinanceApiService();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "nav-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+    private final int intervalMinutes;
+
+    private static NavSnapshotService instance;
+
+    private NavSnapshotService() {
+        this.intervalMinutes = Math.max(1, Integer.getInteger("trading.nav.interval.minutes", DEFAULT_INTERVAL_MINUTES));
+    }
+
+    public static synchronized NavSnapshotService getInstance() {
+        if (instance == null) instance = new NavSnapshotService();
+        return instance;
+    }
+
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::snapshotAll, 1, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    public void stop() { scheduler.shutdownNow(); }
+
+    /**
+     * Snapshots the NAV of every user and purges expired rows
+     * @return Number of users snapshotted, or -1 on error
+     */
+    public int snapshotAll() {
+        // Align to the interval so a retried run overwrites instead of adding a row
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime ts = now.minusMinutes(now.getMinute() % intervalMinutes);
+
+        // Mark prices: one request for all symbols, falling back to the last known tick
+        PortfolioValuationService valuation = PortfolioValuationService.getInstance();
+        Map<String, Double> marks = binanceApiService.getAllPrices();
+        if (!marks.isEmpty()) {
+            valuation.onTicks(marks);
+        }
+
+        NavBuffer buffer = new NavBuffer();
+        boolean complete = navSnapshotDAO.forEachUserHolding((userId, balance, symbol, side, quantity, entry, margin) -> {
+            if (buffer.count == 0 || buffer.userIds[buffer.count - 1] != userId) {
+                buffer.add(userId, balance);
+            }
+            if (symbol == null) return;
+            double mark = marks.getOrDefault(symbol.toUpperCase(), valuation.getPrice(symbol));
+            double unrealized = "BUY".equals(side) ? (mark - entry) * quantity : (entry - mark) * quantity;
+            buffer.navs[buffer.count - 1] += margin + unrealized;
+        });
+        if (!complete) {
+            return -1;
+        }
+        if (buffer.count > 0 && !navSnapshotDAO.saveSnapshots(ts, buffer.userIds, buffer.navs, buffer.count)) {
+            return -1;
+        }
+
+        navSnapshotDAO.purgeOlderThan(NavSnapshotDAO.Resolution.RAW, now.minusDays(RAW_RETENTION_DAYS), PURGE_CHUNK_SIZE);
+        navSnapshotDAO.purgeOlderThan(NavSnapshotDAO.Resolution.HOURLY, now.minusDays(HOURLY_RETENTION_DAYS), PURGE_CHUNK_SIZE);
+        return buffer.count;
+    }
+
+    /**
+     * Gets a user's NAV history at the coarsest resolution that still covers the range with detail
+     * (raw up to 2 days, hourly up to 60 days, daily beyond)
+     * @param userId The user ID
+     * @param from Start time
+     * @param to End time
+     * @return The series, oldest first
+     */
+    public EquityCurve getNavHistory(int userId, LocalDateTime from, LocalDateTime to) {
+        long days = ChronoUnit.DAYS.between(from, to);
+        NavSnapshotDAO.Resolution resolution = days <= 2 ? NavSnapshotDAO.Resolution.RAW
+                                             : days <= 60 ? NavSnapshotDAO.Resolution.HOURLY
+                                             : NavSnapshotDAO.Resolution.DAILY;
+        return navSnapshotDAO.getNavSeries(userId, resolution, from, to);
+    }
+
+    /**
+     * Gets a user's NAV history without blocking the caller
+     * @see #getNavHistory(int, LocalDateTime, LocalDateTime)
+     */
+    public CompletableFuture<EquityCurve> getNavHistoryAsync(int userId, LocalDateTime from, LocalDateTime to) {
+        return AsyncExecutor.supply(() -> getNavHistory(userId, from, to));
+    }
+
+    /**
+     * Growable (userId, nav) columns for one snapshot run
+     */
+    private static class NavBuffer {
+        int count = 0;
+        int[] userIds = new int[1024];
+        double[] navs = new double[1024];
+
+        void add(int userId, double cash) {
+            if (count == userIds.length) {
+                userIds = Arrays.copyOf(userIds, count * 2);
+                navs = Arrays.copyOf(navs, count * 2);
+            }
+            userIds[count] = userId;
+            navs[count] = cash;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.dao.EntityCache;
+import com.tradingdemo.dao.UserDAO;
+import com.tradingdemo.model.User;
+import com.tradingdemo.notification.Notifier;
+import com.tradingdemo.notification.NotifierFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * NotificationDispatcher - Sends alert emails off the alert engine thread
+ * Notifications go into a bounded queue drained by a small worker pool. Each worker keeps its own
+ * SMTP connection open (closed after a minute idle), waits a short digest window and merges
+ * everything queued for the same user into one email. Failed sends are re-queued with
+ * exponential backoff; recipient addresses are cached so a burst of alerts costs no user lookups.
+ * Worker count: -Dtrading.notify.workers (default 2).
+ */
+public class NotificationDispatcher {
+
+    private static final int CAPACITY = 10_000;
+    private static final long DIGEST_WINDOW_MS = 500;       // wait for more alerts of the same burst
+    private static final int MAX_BATCH = 500;               // notifications taken per worker pass
+    private static final long IDLE_CLOSE_MS = 60_000;       // SMTP servers drop idle sessions after a few minutes
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_BASE_MS = 2_000;        // 2s, 4s, 8s, 16s
+
+    private static final EntityCache<Integer, String> RECIPIENTS = new EntityCache<>("Recipient", 10_000, 600_000);
+    private static NotificationDispatcher instance;
+
+    private final Notifier notifier;
+    private final IntFunction<String> emailLookup;
+    private final BlockingQueue<Notification> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "notify-retry");
+        t.setDaemon(true);
+        return t;
+    });
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong emailsSent = new AtomicLong();
+    private final AtomicLong digests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private NotificationDispatcher() {
+        this(NotifierFactory.getNotifier(), emailsOf(new UserDAO()),
+             Math.max(1, Integer.getInteger("trading.notify.workers", 2)));
+    }
+
+    /**
+     * Creates a dispatcher with its own notifier and address lookup (used by tests)
+     * @param notifier Notifier the workers send through
+     * @param emailLookup Email address of a user ID, or null if none
+     * @param workerCount Number of worker threads
+     */
+    NotificationDispatcher(Notifier notifier, IntFunction<String> emailLookup, int workerCount) {
+        this.notifier = notifier;
+        this.emailLookup = emailLookup;
+        for (int i = 0; i < workerCount; i++) {
+            Thread t = new Thread(this::runWorker, "notify-worker-" + i);
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+    }
+
+    public static synchronized NotificationDispatcher getInstance() {
+        if (instance == null) instance = new NotificationDispatcher();
+        return instance;
+    }
+
+    /**
+     * Queues an email notification for a user and returns immediately
+     * Dropped (and counted) when the queue is full, so a flood of alerts never blocks the caller.
+     * @param userId Recipient user
+     * @param subject Subject used when the email holds only this notification
+     * @param text Notification text
+     * @return true if queued
+     */
+    public boolean submit(int userId, String subject, String text) {
+        submitted.incrementAndGet();
+        return offer(new Notification(userId, subject, text, 1));
+    }
+
+    private boolean offer(Notification n) {
+        if (running && queue.offer(n)) return true;
+        dropped.incrementAndGet();
+        System.err.println("Notification queue full or stopped, dropping email for user " + n.userId);
+        return false;
+    }
+
+    /**
+     * Stops the workers after they have sent what is already queued (waits up to 5 seconds)
+     */
+    public void stop() {
+        running = false;
+        retryScheduler.shutdownNow();
+        for (Thread t : workers) {
+            t.interrupt();
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        for (Thread t : workers) {
+            try {
+                t.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void runWorker() {
+        Notifier.Sender sender = notifier.openSender();
+        List<Notification> batch = new ArrayList<>();
+        try {
+            while (running || !queue.isEmpty()) {
+                Notification first;
+                try {
+                    first = running ? queue.poll(IDLE_CLOSE_MS, TimeUnit.MILLISECONDS) : queue.poll();
+                } catch (InterruptedException e) {
+                    continue; // stop() interrupts; the loop condition drains what is left
+                }
+                if (first == null) {
+                    sender.close(); // idle: release the SMTP session
+                    continue;
+                }
+                batch.add(first);
+                if (running) {
+                    try {
+                        Thread.sleep(DIGEST_WINDOW_MS);
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+                queue.drainTo(batch, MAX_BATCH - 1);
+                sendDigests(sender, batch);
+                batch.clear();
+            }
+        } finally {
+            sender.close();
+        }
+    }
+
+    private void sendDigests(Notifier.Sender sender, List<Notification> batch) {
+        Map<Integer, List<Notification>> byUser = new LinkedHashMap<>();
+        for (Notification n : batch) {
+            byUser.computeIfAbsent(n.userId, k -> new ArrayList<>()).add(n);
+        }
+
+        for (Map.Entry<Integer, List<Notification>> entry : byUser.entrySet()) {
+            List<Notification> items = entry.getValue();
+            String to = RECIPIENTS.get(entry.getKey(), this::loadEmail);
+            if (to == null) {
+                System.err.println("No email configured for user " + entry.getKey());
+                continue;
+            }
+
+            String subject;
+            StringBuilder body = new StringBuilder();
+            int attempts = 1;
+            if (items.size() == 1) {
+                subject = items.get(0).subject;
+                body.append(items.get(0).text);
+            } else {
+                subject = "Price Alerts: " + items.size() + " triggered";
+                for (Notification n : items) {
+                    body.append(n.text).append('\n');
+                }
+                digests.incrementAndGet();
+            }
+            for (Notification n : items) {
+                attempts = Math.max(attempts, n.attempts);
+            }
+
+            try {
+                sender.send(to, subject, body + "\n\nThis alert was generated by Trading_wolfers.");
+                emailsSent.incrementAndGet();
+            } catch (Exception ex) {
+                scheduleRetry(new Notification(entry.getKey(), subject, body.toString(), attempts), ex);
+            }
+        }
+    }
+
+    private void scheduleRetry(Notification n, Exception cause) {
+        if (n.attempts >= MAX_ATTEMPTS || !running) {
+            failed.incrementAndGet();
+            System.err.println("Failed to send email alert to user " + n.userId + " after " + n.attempts + " attempt(s): " + cause.getMessage());
+            return;
+        }
+        retries.incrementAndGet();
+        long delay = RETRY_BASE_MS << (n.attempts - 1);
+        System.err.println("Email alert to user " + n.userId + " failed (" + cause.getMessage() + "), retrying in " + delay + " ms");
+        Notification retry = new Notification(n.userId, n.subject, n.text, n.attempts + 1);
+        try {
+            retryScheduler.schedule(() -> offer(retry), delay, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+        }
+    }
+
+    private String loadEmail(int userId) {
+        return emailLookup.apply(userId);
+    }
+
+    private static IntFunction<String> emailsOf(UserDAO userDAO) {
+        return userId -> {
+            User u = userDAO.getUserById(userId);
+            if (u == null || u.getEmail() == null || u.getEmail().isEmpty()) return null;
+            return u.getEmail();
+        };
+    }
+
+    /**
+     * Drops a cached recipient address (call after a user changes their email)
+     * @param userId The user ID
+     */
+    public static void evictRecipient(int userId) {
+        RECIPIENTS.invalidate(userId);
+    }
+
+    public long getSubmitted() { return submitted.get(); }
+    public long getEmailsSent() { return emailsSent.get(); }
+    public long getDigests() { return digests.get(); }
+    public long getRetries() { return retries.get(); }
+    public long getDropped() { return dropped.get(); }
+    public long getFailed() { return failed.get(); }
+    public int getPendingCount() { return queue.size(); }
+
+    /**
+     * Gets a one-line summary of the dispatch counters
+     * @return Human-readable summary
+     */
+    public String summary() {
+        return String.format("Notifications: %d submitted, %d emails sent (%d digests), %d retries, %d failed, %d dropped, %d pending",
+                submitted.get(), emailsSent.get(), digests.get(), retries.get(), failed.get(), dropped.get(), queue.size());
+    }
+
+    private static class Notification {
+        final int userId;
+        final String subject;
+        final String text;
+        final int attempts;
+
+        Notification(int userId, String subject, String text, int attempts) {
+            this.userId = userId;
+            this.subject = subject;
+            this.text = text;
+            this.attempts = attempts;
+        }
+    }
+}
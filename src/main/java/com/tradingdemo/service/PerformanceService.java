@@ -1,80 +1,279 @@
 package com.tradingdemo.service;
 
+import com.tradingdemo.dao.PerformanceStateDAO;
+import com.tradingdemo.dao.TaxLotDAO;
 import com.tradingdemo.dao.TradeDAO;
+import com.tradingdemo.dao.UserDAO;
+import com.tradingdemo.model.EquityCurve;
 import com.tradingdemo.model.PerformanceMetrics;
-import com.tradingdemo.model.Trade;
+import com.tradingdemo.model.PerformanceMetrics.SymbolMetrics;
+import com.tradingdemo.model.PerformanceState;
+import com.tradingdemo.model.PerformanceState.OpenLot;
+import com.tradingdemo.model.User;
+import com.tradingdemo.util.AsyncExecutor;
 
-import java.time.LocalDateTime;
-import java.util.*;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * PerformanceService - Trading performance and risk metrics per user
+ * Positions follow TradingService: BUY opens a long, SELL opens a short, and the
+ * CLOSE_LONG / CLOSE_SHORT trade with the same order ID closes it.
+ * All metrics are primitive running accumulators updated in one pass over the trades.
+ */
 public class PerformanceService {
 
+    private static final double EPSILON = 1e-9;
+
     private final TradeDAO tradeDAO = new TradeDAO();
+    private final PerformanceStateDAO stateDAO = new PerformanceStateDAO();
+    private final TaxLotDAO taxLotDAO = new TaxLotDAO();
+    private final UserDAO userDAO = new UserDAO();
 
+    /**
+     * Gets a user's metrics from the persisted state, first applying any trades
+     * written since the state was last saved. The first call for a user (or a state
+     * saved by an older version) rebuilds the state from the full trade history.
+     * A trade that commits late is applied when it becomes visible, after trades that
+     * executed later, so until the next rebuild its drawdown and equity point may differ
+     * from those of a full replay.
+     */
     public PerformanceMetrics computeForUser(int userId) {
-        PerformanceMetrics m = new PerformanceMetrics();
+        PerformanceState state = stateDAO.getState(userId);
+        if (state == null || state.version != PerformanceState.VERSION) {
+            return rebuildForUser(userId);
+        }
+
+        int previousLastTradeId = state.lastTradeId;
+        int previousTotalTrades = state.totalTrades;
+        int firstSeq = state.closedTrades;
+        EquityCurve newPoints = new EquityCurve();
+        final PerformanceState advancing = state;
+        boolean complete = tradeDAO.forEachTradeByUserId(userId, state.rescanFrom(),
+            (id, orderId, symbol, side, price, quantity, executedAt) ->
+                apply(advancing, id, orderId, symbol, side, price, quantity, executedAt, newPoints));
+        state.pruneRecentTradeIds();
+
+        if (!complete) {
+            // Partially applied state must not be saved; fall back to the last saved one
+            state = stateDAO.getState(userId);
+        } else if (state.totalTrades != previousTotalTrades
+                && !stateDAO.saveState(state, previousLastTradeId, previousTotalTrades, newPoints, firstSeq)) {
+            // Another caller applied the same trades first (or the write failed): reload
+            PerformanceState saved = stateDAO.getState(userId);
+            if (saved != null && saved.totalTrades >= state.totalTrades) {
+                state = saved;
+            }
+        }
+        if (state == null) {
+            return computeFullReplay(userId);
+        }
+
+        PerformanceMetrics m = toMetrics(state);
+        if (!stateDAO.getEquityCurve(userId, m.equity)) {
+            return computeFullReplay(userId);
+        }
+        return m;
+    }
+
+    /**
+     * Rebuilds a user's persisted state by replaying the full trade history
+     * (the same pass as {@link #computeFullReplay(int)}, whose result it saves)
+     */
+    public PerformanceMetrics rebuildForUser(int userId) {
+        PerformanceState state = new PerformanceState(userId);
+        PerformanceMetrics m = replay(state);
+        stateDAO.replaceState(state, m.equity);
+        return m;
+    }
+
+    /**
+     * Computes metrics from scratch in one streaming pass without touching the persisted state
+     * (also the fallback when the state tables are unavailable)
+     */
+    public PerformanceMetrics computeFullReplay(int userId) {
+        return replay(new PerformanceState(userId));
+    }
+
+    private PerformanceMetrics replay(PerformanceState state) {
+        EquityCurve curve = new EquityCurve();
+        tradeDAO.forEachTradeByUserId(state.userId, 0,
+            (id, orderId, symbol, side, price, quantity, executedAt) ->
+                apply(state, id, orderId, symbol, side, price, quantity, executedAt, curve));
+        state.pruneRecentTradeIds();
+
+        PerformanceMetrics m = toMetrics(state);
+        m.equity = curve;
+        return m;
+    }
+
+    /**
+     * Applies one trade to the running state (shared with LeaderboardService)
+     * Trades must arrive in execution order; the equity curve, if given, gets a point per closed position.
+     * Trades inside the rescan window that were already applied are skipped.
+     */
+    static void apply(PerformanceState s, int id, int orderId, String symbol, String side,
+                      double price, double quantity, long executedAt, EquityCurve equity) {
+        if (id > s.rescanFrom() && !s.recentTradeIds.add(id)) {
+            return;
+        }
+        s.totalTrades++;
+        if (id > s.lastTradeId) s.lastTradeId = id;
+        if (s.firstTradeAt == 0) s.firstTradeAt = executedAt;
+        s.lastTradeAt = executedAt;
+
+        boolean isLong = "BUY".equalsIgnoreCase(side);
+        if (isLong || "SELL".equalsIgnoreCase(side)) {
+            if (isLong) s.totalBuys++; else s.totalSells++;
+            OpenLot lot = s.openLots.get(orderId);
+            if (lot == null) {
+                if (s.openLots.isEmpty()) s.openSince = executedAt;
+                s.openLots.put(orderId, new OpenLot(symbol, isLong, quantity, price, executedAt));
+            } else {
+                // Same order filled again: merge into a weighted average entry
+                double total = lot.quantity + quantity;
+                lot.price = (lot.price * lot.quantity + price * quantity) / total;
+                lot.quantity = total;
+            }
+            return;
+        }
+
+        if (!"CLOSE_LONG".equalsIgnoreCase(side) && !"CLOSE_SHORT".equalsIgnoreCase(side)) {
+            return;
+        }
+        OpenLot lot = s.openLots.get(orderId);
+        if (lot == null) {
+            // Opening trade unknown (e.g. deleted): nothing to measure against
+            return;
+        }
 
-        List<Trade> trades = tradeDAO.getTradesByUserId(userId);
-        // sort ascending by executedAt
-        trades.sort(Comparator.comparing(Trade::getExecutedAt));
-
-        m.totalTrades = trades.size();
-
-        // FIFO buy lots per symbol
-        Map<String, Deque<Lot>> buyLots = new HashMap<>();
-        double cumulative = 0.0;
-
-        for (Trade t : trades) {
-            if ("BUY".equalsIgnoreCase(t.getSide())) {
-                m.totalBuys++;
-                buyLots.computeIfAbsent(t.getSymbol(), s -> new ArrayDeque<>())
-                        .addLast(new Lot(t.getQuantity(), t.getExecutedPrice()));
-            } else if ("SELL".equalsIgnoreCase(t.getSide())) {
-                m.totalSells++;
-                double remaining = t.getQuantity();
-                double tradeProfit = 0.0;
-                Deque<Lot> deque = buyLots.getOrDefault(t.getSymbol(), new ArrayDeque<>());
-                while (remaining > 1e-9 && !deque.isEmpty()) {
-                    Lot lot = deque.peekFirst();
-                    double used = Math.min(remaining, lot.quantity);
-                    double profit = (t.getExecutedPrice() - lot.price) * used;
-                    tradeProfit += profit;
-                    lot.quantity -= used;
-                    remaining -= used;
-                    if (lot.quantity <= 1e-9) deque.pollFirst();
-                }
-                // If there were no buys to match, assume entire sell is closed with cost 0 (conservative)
-                if (remaining > 1e-9) {
-                    // treat remaining as sold without buy -> count as realized at full price
-                    tradeProfit += t.getExecutedPrice() * remaining;
-                    remaining = 0;
-                }
-
-                m.realizedPnl += tradeProfit;
-                m.closedTrades++;
-                if (tradeProfit > 0) m.winningTrades++; else if (tradeProfit < 0) m.losingTrades++;
-
-                cumulative += tradeProfit;
-                m.equityTimestamps.add(t.getExecutedAt());
-                m.equityValues.add(cumulative);
+        double closedQty = Math.min(quantity, lot.quantity);
+        double pnl = lot.isLong ? (price - lot.price) * closedQty : (lot.price - price) * closedQty;
+        double margin = lot.price * closedQty;
+        long held = Math.max(0, executedAt - lot.openedAt);
+
+        lot.quantity -= closedQty;
+        if (lot.quantity <= EPSILON) {
+            s.openLots.remove(orderId);
+            if (s.openLots.isEmpty() && s.openSince != 0) {
+                s.inMarketMillis += Math.max(0, executedAt - s.openSince);
+                s.openSince = 0;
             }
         }
 
+        // Trade outcome counters
+        s.closedTrades++;
+        s.realizedPnl += pnl;
+        if (pnl > 0) {
+            s.winningTrades++;
+            s.grossProfit += pnl;
+        } else if (pnl < 0) {
+            s.losingTrades++;
+            s.grossLoss -= pnl;
+        }
+        s.holdMillisSum += held;
+
+        // Return on margin: Welford mean/variance and downside deviation
+        double r = margin > EPSILON ? pnl / margin : 0.0;
+        s.returnCount++;
+        double delta = r - s.returnMean;
+        s.returnMean += delta / s.returnCount;
+        s.returnM2 += delta * (r - s.returnMean);
+        if (r < 0) s.downsideSquares += r * r;
+
+        // Drawdown of the realized equity curve
+        if (s.realizedPnl > s.peakEquity) s.peakEquity = s.realizedPnl;
+        double drawdown = s.peakEquity - s.realizedPnl;
+        if (drawdown > s.maxDrawdown) s.maxDrawdown = drawdown;
+
+        SymbolMetrics sm = s.bySymbol.get(lot.symbol);
+        if (sm == null) {
+            sm = new SymbolMetrics();
+            s.bySymbol.put(lot.symbol, sm);
+        }
+        sm.closedTrades++;
+        sm.realizedPnl += pnl;
+        sm.holdMillis += held;
+        if (pnl > 0) {
+            sm.winningTrades++;
+            sm.grossProfit += pnl;
+        } else if (pnl < 0) {
+            sm.losingTrades++;
+            sm.grossLoss -= pnl;
+        }
+
+        if (equity != null) {
+            equity.add(executedAt, s.realizedPnl);
+        }
+    }
+
+    static PerformanceMetrics toMetrics(PerformanceState s) {
+        PerformanceMetrics m = new PerformanceMetrics();
+        m.totalTrades = s.totalTrades;
+        m.totalBuys = s.totalBuys;
+        m.totalSells = s.totalSells;
+        m.closedTrades = s.closedTrades;
+        m.winningTrades = s.winningTrades;
+        m.losingTrades = s.losingTrades;
+        m.realizedPnl = s.realizedPnl;
+        m.grossProfit = s.grossProfit;
+        m.grossLoss = s.grossLoss;
+        m.maxDrawdown = s.maxDrawdown;
+
         if (m.closedTrades > 0) {
             m.avgProfitPerTrade = m.realizedPnl / m.closedTrades;
             m.winRate = (double) m.winningTrades / (double) m.closedTrades;
+            m.avgHoldMillis = (double) s.holdMillisSum / m.closedTrades;
+        }
+        if (s.grossLoss > 0) {
+            m.profitFactor = s.grossProfit / s.grossLoss;
+        } else if (s.grossProfit > 0) {
+            m.profitFactor = Double.POSITIVE_INFINITY;
+        }
+        if (s.returnCount > 1) {
+            double std = Math.sqrt(s.returnM2 / (s.returnCount - 1));
+            m.sharpeRatio = std > 0 ? s.returnMean / std : 0.0;
+        }
+        if (s.returnCount > 0 && s.downsideSquares > 0) {
+            double downside = Math.sqrt(s.downsideSquares / s.returnCount);
+            m.sortinoRatio = s.returnMean / downside;
+        }
+
+        // Exposure: time with at least one open position over the whole trading period
+        long span = s.lastTradeAt - s.firstTradeAt;
+        long inMarket = s.inMarketMillis + (s.openSince != 0 ? Math.max(0, s.lastTradeAt - s.openSince) : 0);
+        if (span > 0) {
+            m.exposure = Math.min(1.0, (double) inMarket / span);
         }
 
+        Map<String, SymbolMetrics> bySymbol = new TreeMap<>(s.bySymbol);
+        m.bySymbol = bySymbol;
         return m;
     }
 
-    private static class Lot {
-        double quantity;
-        double price;
-
-        Lot(double quantity, double price) {
-            this.quantity = quantity;
-            this.price = price;
+    /**
+     * Adds the realized P&L of the user's closed tax lots and the lot method in use
+     * @param m Metrics of the user
+     * @param userId The user ID
+     */
+    public void addLotPnl(PerformanceMetrics m, int userId) {
+        User user = userDAO.getUserById(userId);
+        if (user != null && user.getLotMethod() != null) {
+            m.lotMethod = user.getLotMethod();
         }
+        m.lotRealizedPnl = taxLotDAO.getRealizedPnl(userId);
+    }
+
+    /**
+     * Computes metrics (with the tax lot P&L) on a virtual thread so the caller (FX thread) never blocks on JDBC
+     * @see #computeForUser(int)
+     */
+    public CompletableFuture<PerformanceMetrics> computeForUserAsync(int userId) {
+        return AsyncExecutor.supply(() -> {
+            PerformanceMetrics m = computeForUser(userId);
+            addLotPnl(m, userId);
+            return m;
+        });
     }
 }
@@ -0,0 +1,301 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.dao.PositionDAO;
+import com.tradingdemo.dao.UserDAO;
+import com.tradingdemo.dao.WalletDAO;
+import com.tradingdemo.model.Position;
+import com.tradingdemo.model.PositionLedger;
+import com.tradingdemo.model.WalletItem;
+import com.tradingdemo.util.AsyncExecutor;
+import com.tradingdemo.util.SymbolRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * PortfolioValuationService - Live portfolio valuation driven by price ticks
+ * Holdings of every user with an open view are kept in a PositionLedger (primitive arrays indexed
+ * by user slot and symbol ID), so a tick is one array scan over the symbol that moved and never
+ * reads the database.
+ * All state is owned by one engine thread; listeners are called on it (wrap UI work in Platform.runLater).
+ * Holdings are reloaded from the database only when TradingService reports a change.
+ */
+public class PortfolioValuationService {
+
+    private static final long POLL_SECONDS = 5;
+
+    // Used until the first tick for a symbol arrives
+    private static final Map<String, Double> DEFAULT_PRICES = Map.of(
+        "BTC", 69034.61, "ETH", 3542.88, "BNB", 421.35, "ADA", 0.58,
+        "SOL", 125.43, "XRP", 0.62, "DOGE", 0.087, "USDC", 1.0);
+
+    private final UserDAO userDAO = new UserDAO();
+    private final PositionDAO positionDAO = new PositionDAO();
+    private final WalletDAO walletDAO = new WalletDAO();
+    private final BinanceApiService binanceApiService = new BinanceApiService();
+    private final ScheduledExecutorService engine = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "portfolio-valuation");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Map<String, Double> prices = new ConcurrentHashMap<>(DEFAULT_PRICES);
+    private final Map<Integer, Valuation> latest = new ConcurrentHashMap<>();
+
+    // Engine thread only
+    private final Map<Integer, Book> books = new HashMap<>();
+    private final PositionLedger ledger = new PositionLedger(id -> getPrice(SymbolRegistry.nameOf(id)));
+    private ScheduledFuture<?> poller;
+
+    private static PortfolioValuationService instance;
+
+    private PortfolioValuationService() {
+    }
+
+    public static synchronized PortfolioValuationService getInstance() {
+        if (instance == null) instance = new PortfolioValuationService();
+        return instance;
+    }
+
+    public void stop() { engine.shutdownNow(); }
+
+    /**
+     * Starts pushing a user's valuation to a listener (first push once the holdings are loaded)
+     * @param userId The user ID
+     * @param listener Called on the engine thread after every change to the user's valuation
+     * @return Action that removes the listener again
+     */
+    public Runnable subscribe(int userId, Consumer<Valuation> listener) {
+        engine.execute(() -> {
+            Book book = books.get(userId);
+            if (book == null) {
+                book = new Book(userId);
+                books.put(userId, book);
+                book.listeners.add(listener);
+                reload(book);
+                startPolling();
+            } else {
+                book.listeners.add(listener);
+                if (book.loaded) listener.accept(book.snapshot());
+            }
+        });
+        return () -> engine.execute(() -> unsubscribe(userId, listener));
+    }
+
+    /**
+     * Applies one price tick
+     * @param symbol Cryptocurrency symbol
+     * @param price Last traded price
+     */
+    public void onTick(String symbol, double price) {
+        onTicks(Map.of(symbol, price));
+    }
+
+    /**
+     * Applies several price ticks, then pushes one update per affected user
+     * @param ticks Map of symbol to last traded price
+     */
+    public void onTicks(Map<String, Double> ticks) {
+        LiquidationService.getInstance().onTicks(ticks);
+        AlertService.getInstance().onTicks(ticks);
+        engine.execute(() -> {
+            for (Map.Entry<String, Double> tick : ticks.entrySet()) {
+                double price = tick.getValue();
+                if (price <= 0) continue;
+                String symbol = tick.getKey().toUpperCase();
+                prices.put(symbol, price);
+                ledger.applyPrice(SymbolRegistry.idOf(symbol), price);
+            }
+            for (int slot : ledger.takeDirtySlots()) {
+                Book book = books.get(ledger.getUserId(slot));
+                if (book != null && book.loaded) publish(book);
+            }
+        });
+    }
+
+    /**
+     * Reloads a user's holdings and cash after an order was executed or closed
+     * @param userId The user ID
+     */
+    public void onHoldingsChanged(int userId) {
+        engine.execute(() -> {
+            Book book = books.get(userId);
+            if (book != null) reload(book);
+        });
+    }
+
+    /**
+     * Gets the last known price of a symbol
+     * @param symbol Cryptocurrency symbol
+     * @return Last tick, or a default price if none arrived yet
+     */
+    public double getPrice(String symbol) {
+        return prices.getOrDefault(symbol.toUpperCase(), 1.0);
+    }
+
+    /**
+     * Gets the last valuation pushed for a user
+     * @param userId The user ID
+     * @return The valuation, or null if the user has no open view
+     */
+    public Valuation getValuation(int userId) {
+        return latest.get(userId);
+    }
+
+    private void reload(Book book) {
+        int seq = ++book.loadSeq;
+        int userId = book.userId;
+        AsyncExecutor.run(() -> {
+            Double balance = userDAO.getBalance(userId); // not the cached user: it may be stale
+            List<Position> positions = positionDAO.getPositionsByUserId(userId);
+            List<WalletItem> items = walletDAO.getWalletByUserId(userId);
+            double cash = balance != null ? balance : 0;
+            engine.execute(() -> install(book, seq, cash, positions, items));
+        });
+    }
+
+    private void install(Book book, int seq, double cash, List<Position> positions, List<WalletItem> items) {
+        // Ignore a stale load (a newer reload was requested) or a user whose views are all closed
+        if (seq != book.loadSeq || books.get(book.userId) != book) return;
+
+        int slot = ledger.slotOf(book.userId);
+        ledger.clear(slot);
+        ledger.setCash(slot, cash);
+        for (Position p : positions) {
+            ledger.addPosition(slot, SymbolRegistry.idOf(p.getSymbol()), "BUY".equals(p.getSide()),
+                               p.getQuantity(), p.getAverageEntryPrice(), p.getMargin());
+        }
+        for (WalletItem item : items) {
+            ledger.addSpot(slot, SymbolRegistry.idOf(item.getSymbol()), item.getQuantity());
+        }
+        book.loaded = true;
+        publish(book);
+    }
+
+    private void unsubscribe(int userId, Consumer<Valuation> listener) {
+        Book book = books.get(userId);
+        if (book == null) return;
+        book.listeners.remove(listener);
+        if (book.listeners.isEmpty()) {
+            ledger.removeUser(userId);
+            books.remove(userId);
+            latest.remove(userId);
+            if (books.isEmpty() && poller != null) {
+                poller.cancel(false);
+                poller = null;
+            }
+        }
+    }
+
+    private void publish(Book book) {
+        Valuation v = book.snapshot();
+        latest.put(book.userId, v);
+        for (Consumer<Valuation> listener : book.listeners) {
+            try {
+                listener.accept(v);
+            } catch (Exception e) {
+                System.err.println("Portfolio listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void startPolling() {
+        if (poller != null) return;
+        // One request for every symbol; the HTTP call runs off the engine thread
+        poller = engine.scheduleWithFixedDelay(() -> AsyncExecutor.run(() -> {
+            Map<String, Double> ticks = binanceApiService.getAllPrices();
+            if (!ticks.isEmpty()) onTicks(ticks);
+        }), 0, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * One user with an open view (holdings live in the ledger)
+     */
+    private class Book {
+        final int userId;
+        final List<Consumer<Valuation>> listeners = new CopyOnWriteArrayList<>();
+        int loadSeq = 0;
+        boolean loaded = false;
+
+        Book(int userId) {
+            this.userId = userId;
+        }
+
+        Valuation snapshot() {
+            int slot = ledger.slotOf(userId);
+            List<Valuation.Line> lines = new ArrayList<>();
+            for (int sym = 0; sym < ledger.getSymbolCount(); sym++) {
+                String symbol = SymbolRegistry.nameOf(sym);
+                double price = ledger.getPrice(sym);
+                double longQty = ledger.getLongQuantity(slot, sym);
+                double shortQty = ledger.getShortQuantity(slot, sym);
+                double spotQty = ledger.getSpotQuantity(slot, sym);
+                if (longQty > 0) {
+                    lines.add(new Valuation.Line(symbol, "BUY", longQty, price,
+                                                 (price - ledger.getLongEntry(slot, sym)) * longQty));
+                }
+                if (shortQty > 0) {
+                    lines.add(new Valuation.Line(symbol, "SELL", shortQty, price,
+                                                 (ledger.getShortEntry(slot, sym) - price) * shortQty));
+                }
+                if (spotQty > 0) {
+                    lines.add(new Valuation.Line(symbol, null, spotQty, price, spotQty * price));
+                }
+            }
+            return new Valuation(userId, ledger.getCash(slot), ledger.getMargin(slot),
+                                 ledger.getUnrealizedPnl(slot), ledger.getWalletValue(slot), lines);
+        }
+    }
+
+    /**
+     * Immutable valuation pushed to views
+     */
+    public static class Valuation {
+        public final int userId;
+        public final double cash;
+        public final double margin;          // margin locked in open positions
+        public final double unrealizedPnl;   // of open positions at the last ticks
+        public final double walletValue;     // wallet items at market value
+        public final double nav;             // cash + margin + unrealized P&L
+        public final List<Line> lines;
+
+        Valuation(int userId, double cash, double margin, double unrealizedPnl, double walletValue, List<Line> lines) {
+            this.userId = userId;
+            this.cash = cash;
+            this.margin = margin;
+            this.unrealizedPnl = unrealizedPnl;
+            this.walletValue = walletValue;
+            this.nav = cash + margin + unrealizedPnl;
+            this.lines = Collections.unmodifiableList(lines);
+        }
+
+        /**
+         * One holding; side is BUY/SELL for positions and null for wallet items
+         */
+        public static class Line {
+            public final String symbol;
+            public final String side;
+            public final double quantity;
+            public final double price;
+            public final double value;
+
+            Line(String symbol, String side, double quantity, double price, double value) {
+                this.symbol = symbol;
+                this.side = side;
+                this.quantity = quantity;
+                this.price = price;
+                this.value = value;
+            }
+        }
+    }
+}
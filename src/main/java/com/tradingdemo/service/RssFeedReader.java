@@ -0,0 +1,178 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.model.News;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * RssFeedReader - Streams news items out of an RSS 2.0 feed
+ * The feed is parsed with StAX straight from the HTTP input stream, so nothing is buffered and
+ * the download stops as soon as `limit` items have been read. Requests are conditional (see
+ * CachedHttpSource), so an unchanged feed costs a 304 and no parsing. CDATA sections and entities are
+ * decoded by the parser; the charset comes from the XML declaration.
+ * Shared by CoinDeskNewsService and CoinTelegraphNewsService.
+ */
+public class RssFeedReader {
+
+    private static final XMLInputFactory XML_FACTORY = XMLInputFactory.newInstance();
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]+>");
+
+    static {
+        // Feeds are untrusted input: no DTDs, no external entities
+        XML_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    private final String source;
+    private final String feedUrl;
+    private final CachedHttpSource http;
+
+    /**
+     * @param source Source name set on every article (e.g. "CoinDesk")
+     * @param feedUrl RSS feed URL
+     */
+    public RssFeedReader(String source, String feedUrl) {
+        this.source = source;
+        this.feedUrl = feedUrl;
+        this.http = new CachedHttpSource(source + " RSS", "application/rss+xml, application/xml, text/xml");
+    }
+
+    /**
+     * Downloads and parses the first items of the feed
+     * @param limit Maximum number of articles
+     * @return List of News objects (empty on error)
+     */
+    public List<News> fetch(int limit) {
+        CachedHttpSource.Result<List<News>> result = fetchIfChanged(limit);
+        if (result.value == null) return new ArrayList<>();
+        return new ArrayList<>(result.value.subList(0, Math.min(limit, result.value.size())));
+    }
+
+    /**
+     * Fetches the feed with a conditional GET; an unchanged feed is neither downloaded nor parsed
+     * @param limit Maximum number of articles parsed from a changed feed
+     * @return The articles (shared, do not modify) and whether they changed since the last call
+     */
+    public CachedHttpSource.Result<List<News>> fetchIfChanged(int limit) {
+        // The parser stops after `limit` items, so the cached copy is only valid for that limit
+        return http.fetch(feedUrl, "limit=" + limit, in -> {
+            List<News> items = parse(in, source, limit);
+            return items.isEmpty() ? null : items; // do not cache an error page
+        });
+    }
+
+    /**
+     * Parses RSS items from a stream, stopping after `limit` items with a title
+     * @param in Feed bytes
+     * @param source Source name set on every article
+     * @param limit Maximum number of articles
+     * @return The parsed articles (those read before a parse error are kept)
+     */
+    public static List<News> parse(InputStream in, String source, int limit) {
+        List<News> newsList = new ArrayList<>();
+        if (limit <= 0) return newsList;
+        XMLStreamReader reader = null;
+        try {
+            reader = XML_FACTORY.createXMLStreamReader(in);
+            News news = null;
+            StringBuilder tags = new StringBuilder();
+            int itemDepth = -1;
+            int depth = 0;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = reader.getLocalName();
+                    boolean plain = reader.getNamespaceURI() == null || reader.getNamespaceURI().isEmpty();
+                    if (news == null) {
+                        if (plain && "item".equals(name)) {
+                            news = new News();
+                            news.setSource(source);
+                            tags.setLength(0);
+                            itemDepth = depth;
+                        }
+                    } else if (plain && depth == itemDepth + 1) {
+                        // readText consumes the element up to and including its end tag
+                        switch (name) {
+                            case "title": news.setTitle(readText(reader).trim()); depth--; break;
+                            case "link": news.setUrl(readText(reader).trim()); depth--; break;
+                            case "description": news.setContent(cleanHtml(readText(reader))); depth--; break;
+                            case "pubDate": news.setPublishedAt(parseDate(readText(reader))); depth--; break;
+                            case "category":
+                                if (tags.length() > 0) tags.append(", ");
+                                tags.append(readText(reader).trim());
+                                depth--;
+                                break;
+                            default: break;
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (news != null && depth == itemDepth) {
+                        if (tags.length() > 0) news.setTags(tags.toString());
+                        if (news.getTitle() != null && !news.getTitle().isEmpty()) {
+                            newsList.add(news);
+                            if (newsList.size() >= limit) break; // leave the rest of the feed unread
+                        }
+                        news = null;
+                    }
+                    depth--;
+                }
+            }
+        } catch (XMLStreamException e) {
+            System.err.println("Error parsing " + source + " RSS: " + e.getMessage());
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+        return newsList;
+    }
+
+    // Text of the current element, skipping any nested markup; ends on the element's end tag
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int nested = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE) {
+                text.append(reader.getText());
+            } else if (event == XMLStreamConstants.START_ELEMENT) {
+                nested++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (nested-- == 0) break;
+            }
+        }
+        return text.toString();
+    }
+
+    private static LocalDateTime parseDate(String pubDate) {
+        try {
+            // RSS date format: "Wed, 13 Feb 2026 10:30:00 +0000"
+            return LocalDateTime.parse(pubDate.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+        } catch (Exception e) {
+            return LocalDateTime.now();
+        }
+    }
+
+    // Descriptions are HTML (usually in CDATA, so HTML entities are still encoded)
+    private static String cleanHtml(String text) {
+        return HTML_TAG.matcher(text).replaceAll("").replace("&nbsp;", " ")
+                   .replace("&amp;", "&").replace("&lt;", "<")
+                   .replace("&gt;", ">").replace("&quot;", "\"").trim();
+    }
+}
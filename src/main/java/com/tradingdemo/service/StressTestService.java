@@ -0,0 +1,351 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.dao.NavSnapshotDAO;
+import com.tradingdemo.util.AsyncExecutor;
+import com.tradingdemo.util.SymbolRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * StressTestService - Applies price shock scenarios to every user's open positions at once
+ * Holdings are loaded once into columns: per user cash, locked margin and cost basis, and per
+ * symbol a net-exposure column (long minus short quantity) indexed by user. Post-shock NAV is
+ * linear in price (cash + margin - cost + sum of exposure * shocked price), so a scenario is a
+ * few multiply-adds per user and symbol, run over user chunks in a parallel stream.
+ * Margin shortfall uses the liquidation maintenance ratio (see LiquidationService).
+ */
+public class StressTestService {
+
+    public static final String ALL_SYMBOLS = "*";   // shock applied to symbols not listed in a scenario
+
+    private static final long SNAPSHOT_MAX_AGE_MS = 60_000;
+    private static final int CHUNK_SIZE = 4096;
+    private static final int WORST_USERS = 5;
+
+    // Approximate peak-to-trough moves of past crashes, as fractions
+    private static final List<Scenario> PRESETS = List.of(
+        new Scenario("BTC -20% / ETH -30%", Map.of("BTC", -0.20, "ETH", -0.30)),
+        new Scenario("Market -50%", Map.of(ALL_SYMBOLS, -0.50)),
+        new Scenario("Market +30% (short squeeze)", Map.of(ALL_SYMBOLS, 0.30)),
+        new Scenario("Mar 2020 COVID crash", Map.of("BTC", -0.50, "ETH", -0.60, "BNB", -0.55, "XRP", -0.45,
+                                                    "ADA", -0.50, "DOGE", -0.45, ALL_SYMBOLS, -0.50)),
+        new Scenario("May 2021 sell-off", Map.of("BTC", -0.50, "ETH", -0.55, "BNB", -0.65, "ADA", -0.55,
+                                                 "DOGE", -0.70, "SOL", -0.60, ALL_SYMBOLS, -0.55)),
+        new Scenario("Nov 2022 FTX collapse", Map.of("BTC", -0.25, "ETH", -0.25, "BNB", -0.20, "SOL", -0.60,
+                                                     ALL_SYMBOLS, -0.25)),
+        new Scenario("Mar 2023 USDC depeg", Map.of("USDC", -0.12)));
+
+    private final NavSnapshotDAO navSnapshotDAO = new NavSnapshotDAO();
+    private final BinanceApiService binanceApiService = new BinanceApiService();
+
+    private Holdings holdings;
+
+    private static StressTestService instance;
+
+    private StressTestService() {
+    }
+
+    public static synchronized StressTestService getInstance() {
+        if (instance == null) instance = new StressTestService();
+        return instance;
+    }
+
+    /**
+     * Gets the built-in scenarios (fixed shocks and historical crash replays)
+     * @return List of scenarios
+     */
+    public List<Scenario> getPresets() {
+        return PRESETS;
+    }
+
+    /**
+     * Runs scenarios against every user's open positions
+     * Holdings and mark prices are reloaded when older than a minute, so a batch of
+     * scenarios run interactively shares one load.
+     * @param scenarios Scenarios to run
+     * @param reload true to reload holdings and prices first
+     * @return One result per scenario, in order, or null if the holdings could not be loaded
+     */
+    public synchronized List<Result> runScenarios(List<Scenario> scenarios, boolean reload) {
+        if (reload || holdings == null || System.currentTimeMillis() - holdings.loadedAt > SNAPSHOT_MAX_AGE_MS) {
+            Holdings loaded = load();
+            if (loaded == null) {
+                return null;
+            }
+            holdings = loaded;
+        }
+        return run(holdings, scenarios, LiquidationService.getInstance().getMaintenance());
+    }
+
+    /**
+     * Runs scenarios against loaded holdings
+     * @param h Holdings with mark prices set
+     * @param scenarios Scenarios to run
+     * @param maintenance Liquidation maintenance ratio
+     * @return One result per scenario, in order
+     */
+    static List<Result> run(Holdings h, List<Scenario> scenarios, double maintenance) {
+        List<Result> results = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            long start = System.nanoTime();
+            double[] shocked = new double[h.symbolCount];
+            for (int sym = 0; sym < h.symbolCount; sym++) {
+                shocked[sym] = h.prices[sym] * (1 + scenario.shockFor(SymbolRegistry.nameOf(sym)));
+            }
+
+            int chunks = (h.userCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            Result result = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> runChunk(h, shocked, maintenance, c * CHUNK_SIZE,
+                                        Math.min(h.userCount, (c + 1) * CHUNK_SIZE)))
+                .reduce(Result::merge)
+                .orElseGet(Result::new);
+            result.scenario = scenario;
+            result.users = h.userCount;
+            result.worst.sort(Comparator.comparingDouble(Entry::change));
+            result.elapsedMicros = (System.nanoTime() - start) / 1_000;
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Runs scenarios without blocking the caller
+     * @see #runScenarios(List, boolean)
+     */
+    public CompletableFuture<List<Result>> runScenariosAsync(List<Scenario> scenarios, boolean reload) {
+        return AsyncExecutor.supply(() -> runScenarios(scenarios, reload));
+    }
+
+    /**
+     * Parses a scenario typed as "BTC -20, ETH -30, * -10" (percent moves per symbol; * = every other symbol)
+     * @param text Scenario text
+     * @return The scenario, or null if the text is not valid
+     */
+    public static Scenario parseScenario(String text) {
+        Map<String, Double> shocks = new LinkedHashMap<>();
+        for (String part : text.split(",")) {
+            String[] tokens = part.trim().split("\\s+");
+            if (tokens.length != 2) {
+                return null;
+            }
+            try {
+                double percent = Double.parseDouble(tokens[1].replace("%", ""));
+                if (percent < -100) {
+                    return null;
+                }
+                shocks.put(tokens[0].toUpperCase(), percent / 100);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return shocks.isEmpty() ? null : new Scenario(text.trim(), shocks);
+    }
+
+    private static Result runChunk(Holdings h, double[] shocked, double maintenance, int from, int to) {
+        Result r = new Result();
+        int n = to - from;
+        double[] exposureValue = new double[n];
+        // Symbol-major so each pass is a contiguous scan of one exposure column
+        for (int sym = 0; sym < h.symbolCount; sym++) {
+            double[] exposure = h.exposure[sym];
+            double price = shocked[sym];
+            for (int i = 0; i < n; i++) {
+                exposureValue[i] += exposure[from + i] * price;
+            }
+        }
+
+        PriorityQueue<Entry> worst = new PriorityQueue<>(Comparator.comparingDouble(Entry::change).reversed());
+        for (int i = 0; i < n; i++) {
+            int u = from + i;
+            double positionEquity = h.margin[u] - h.cost[u] + exposureValue[i];
+            double navAfter = h.cash[u] + positionEquity;
+            double shortfall = maintenance * h.margin[u] - positionEquity;
+
+            r.navBefore += h.navBefore[u];
+            r.navAfter += navAfter;
+            if (h.margin[u] > 0 && shortfall > 0) {
+                r.shortfall += shortfall;
+                r.usersBelowMaintenance++;
+            }
+            if (navAfter < 0) {
+                r.badDebt -= navAfter;
+                r.usersNegative++;
+            }
+
+            double change = navAfter - h.navBefore[u];
+            if (change < 0 && (worst.size() < WORST_USERS || change < worst.peek().change())) {
+                worst.add(new Entry(h.userIds[u], h.navBefore[u], navAfter));
+                if (worst.size() > WORST_USERS) worst.poll();
+            }
+        }
+        r.worst.addAll(worst);
+        return r;
+    }
+
+    private Holdings load() {
+        Map<String, Double> marks = binanceApiService.getAllPrices();
+        PortfolioValuationService valuation = PortfolioValuationService.getInstance();
+        Holdings h = new Holdings();
+
+        boolean complete = navSnapshotDAO.forEachUserHolding((userId, balance, symbol, side, quantity, entry, margin) -> {
+            if (h.userCount == 0 || h.userIds[h.userCount - 1] != userId) {
+                h.addUser(userId, balance);
+            }
+            if (symbol == null) return;
+            int u = h.userCount - 1;
+            double signed = "BUY".equals(side) ? quantity : -quantity;
+            double[] exposure = h.exposureColumn(SymbolRegistry.idOf(symbol));
+            exposure[u] += signed;
+            h.margin[u] += margin;
+            h.cost[u] += signed * entry;
+        });
+        if (!complete) {
+            return null;
+        }
+
+        double[] prices = new double[h.symbolCount];
+        for (int sym = 0; sym < h.symbolCount; sym++) {
+            String symbol = SymbolRegistry.nameOf(sym);
+            prices[sym] = marks.getOrDefault(symbol, valuation.getPrice(symbol));
+        }
+        h.mark(prices);
+        h.loadedAt = System.currentTimeMillis();
+        return h;
+    }
+
+    /**
+     * Columnar holdings of every user at load time
+     */
+    static class Holdings {
+        int userCount = 0;
+        int symbolCount = 0;
+        int[] userIds = new int[1024];
+        double[] cash = new double[1024];
+        double[] margin = new double[1024];
+        double[] cost = new double[1024];           // sum of signed quantity * entry price
+        double[][] exposure = new double[0][];      // [symbol][user] signed quantity
+        double[] prices;                            // mark price per symbol
+        double[] navBefore;
+        long loadedAt;
+
+        void addUser(int userId, double balance) {
+            if (userCount == userIds.length) {
+                int capacity = userCount * 2;
+                userIds = Arrays.copyOf(userIds, capacity);
+                cash = Arrays.copyOf(cash, capacity);
+                margin = Arrays.copyOf(margin, capacity);
+                cost = Arrays.copyOf(cost, capacity);
+                for (int sym = 0; sym < symbolCount; sym++) {
+                    exposure[sym] = Arrays.copyOf(exposure[sym], capacity);
+                }
+            }
+            userIds[userCount] = userId;
+            cash[userCount] = balance;
+            userCount++;
+        }
+
+        double[] exposureColumn(int symbolId) {
+            if (symbolId >= symbolCount) {
+                exposure = Arrays.copyOf(exposure, symbolId + 1);
+                for (int sym = symbolCount; sym <= symbolId; sym++) {
+                    exposure[sym] = new double[userIds.length];
+                }
+                symbolCount = symbolId + 1;
+            }
+            return exposure[symbolId];
+        }
+
+        /**
+         * Sets the mark price per symbol and every user's NAV at those prices
+         * @param prices Mark price per symbol ID
+         */
+        void mark(double[] prices) {
+            this.prices = prices;
+            navBefore = new double[userCount];
+            for (int u = 0; u < userCount; u++) {
+                double value = 0;
+                for (int sym = 0; sym < symbolCount; sym++) {
+                    value += exposure[sym][u] * prices[sym];
+                }
+                navBefore[u] = cash[u] + margin[u] - cost[u] + value;
+            }
+        }
+    }
+
+    /**
+     * A set of simultaneous price shocks (fractional moves, e.g. -0.2 for -20%)
+     */
+    public static class Scenario {
+        public final String name;
+        public final Map<String, Double> shocks;
+
+        public Scenario(String name, Map<String, Double> shocks) {
+            this.name = name;
+            this.shocks = Collections.unmodifiableMap(new LinkedHashMap<>(shocks));
+        }
+
+        public double shockFor(String symbol) {
+            Double shock = shocks.get(symbol);
+            return shock != null ? shock : shocks.getOrDefault(ALL_SYMBOLS, 0.0);
+        }
+    }
+
+    /**
+     * One user's NAV before and after a scenario
+     */
+    public static class Entry {
+        public final int userId;
+        public final double navBefore;
+        public final double navAfter;
+
+        Entry(int userId, double navBefore, double navAfter) {
+            this.userId = userId;
+            this.navBefore = navBefore;
+            this.navAfter = navAfter;
+        }
+
+        public double change() {
+            return navAfter - navBefore;
+        }
+    }
+
+    /**
+     * Platform-wide outcome of one scenario
+     */
+    public static class Result {
+        public Scenario scenario;
+        public int users = 0;
+        public double navBefore = 0;
+        public double navAfter = 0;
+        public double shortfall = 0;             // margin needed to bring every position back to maintenance
+        public int usersBelowMaintenance = 0;    // users whose positions would be liquidated
+        public double badDebt = 0;               // negative NAV the platform would absorb
+        public int usersNegative = 0;
+        public long elapsedMicros = 0;
+        public List<Entry> worst = new ArrayList<>();
+
+        Result merge(Result other) {
+            navBefore += other.navBefore;
+            navAfter += other.navAfter;
+            shortfall += other.shortfall;
+            usersBelowMaintenance += other.usersBelowMaintenance;
+            badDebt += other.badDebt;
+            usersNegative += other.usersNegative;
+            worst.addAll(other.worst);
+            worst.sort(Comparator.comparingDouble(Entry::change));
+            if (worst.size() > WORST_USERS) {
+                worst = new ArrayList<>(worst.subList(0, WORST_USERS));
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.model.AlertRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SymbolSeries - Streaming one-minute bars and windowed indicators of one symbol
+ * Ticks update the open bar; when a minute rolls over the bar is closed into a ring of the last
+ * 24 hours of closes and every indicator updates its running state in O(1). An indicator exists
+ * once per (type, window), whatever the number of alerts reading it, and its value at the live
+ * price is also O(1). Used by the alert engine thread only (not thread-safe).
+ * Indicator values:
+ *  - PCT_CHANGE: percent change of the live price vs. the close window minutes ago
+ *  - SMA_CROSS / EMA_CROSS: percent distance of the live price from the window-minute average
+ *  - RSI: Wilder RSI over window one-minute bars, the open bar counted at the live price
+ *  - VOLUME_SPIKE: 24h quote volume as a multiple of its average over the last window minutes
+ */
+public class SymbolSeries {
+
+    public static final int MAX_WINDOW_MINUTES = 1440;
+    private static final long BAR_MILLIS = 60_000;
+
+    private final int priceChannel;
+    private final double[] closes = new double[MAX_WINDOW_MINUTES + 1];
+    private int closedBars = 0;          // total bars closed (ring holds the last closes.length)
+    private long currentBar = -1;        // minute number of the open bar
+    private double lastPrice = Double.NaN;
+    private double volume24h = Double.NaN;
+    private final List<Indicator> indicators = new ArrayList<>();
+
+    /**
+     * @param priceChannel Channel of the plain price alerts of this symbol
+     */
+    public SymbolSeries(int priceChannel) {
+        this.priceChannel = priceChannel;
+    }
+
+    public int getPriceChannel() { return priceChannel; }
+    public List<Indicator> getIndicators() { return indicators; }
+
+    /**
+     * Gets the indicator for a type and window, creating it on first use
+     * @param type One of the AlertRule TYPE_ constants except TYPE_PRICE
+     * @param window Window in minutes (1 to MAX_WINDOW_MINUTES)
+     * @param newChannel Channel to give the indicator if it is created
+     * @return The shared indicator
+     */
+    public Indicator indicator(String type, int window, int newChannel) {
+        Indicator existing = findIndicator(type, window);
+        if (existing != null) return existing;
+        Indicator created;
+        switch (type) {
+            case AlertRule.TYPE_PCT_CHANGE: created = new PctChange(newChannel, window); break;
+            case AlertRule.TYPE_SMA_CROSS: created = new Sma(this, newChannel, window); break;
+            case AlertRule.TYPE_EMA_CROSS: created = new Ema(newChannel, window); break;
+            case AlertRule.TYPE_RSI: created = new Rsi(newChannel, window); break;
+            case AlertRule.TYPE_VOLUME_SPIKE: created = new VolumeSpike(newChannel, window); break;
+            default: throw new IllegalArgumentException("Unknown alert type: " + type);
+        }
+        indicators.add(created);
+        return created;
+    }
+
+    /**
+     * Gets an existing indicator
+     * @return The indicator or null if no alert created it yet
+     */
+    public Indicator findIndicator(String type, int window) {
+        for (Indicator ind : indicators) {
+            if (ind.type.equals(type) && ind.window == window) return ind;
+        }
+        return null;
+    }
+
+    public boolean hasVolumeIndicator() {
+        for (Indicator ind : indicators) {
+            if (ind instanceof VolumeSpike) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records a trade price; closes the open bar (and any skipped minutes) when the minute changed
+     * @param timeMillis Tick time
+     * @param price Last price
+     */
+    public void onPrice(long timeMillis, double price) {
+        long bar = timeMillis / BAR_MILLIS;
+        if (currentBar >= 0 && bar > currentBar) {
+            // Minutes without ticks repeat the last close
+            long missed = Math.min(bar - currentBar, closes.length);
+            for (long i = 0; i < missed; i++) {
+                closeBar(lastPrice);
+            }
+        }
+        if (bar > currentBar) currentBar = bar;
+        lastPrice = price;
+    }
+
+    /**
+     * Records the latest 24h quote volume (sampled by the indicator once per bar)
+     */
+    public void onVolume(double quoteVolume24h) {
+        this.volume24h = quoteVolume24h;
+    }
+
+    private void closeBar(double close) {
+        closes[closedBars % closes.length] = close;
+        closedBars++;
+        for (Indicator ind : indicators) {
+            ind.onBar(this, close);
+        }
+    }
+
+    // Close of the bar `back` bars before the open one (1 = most recent closed bar)
+    double closeAt(int back) {
+        return closes[(closedBars - back) % closes.length];
+    }
+
+    /**
+     * One windowed aggregate of the series, evaluated against the alerts of its channel
+     */
+    public abstract static class Indicator {
+        final int channel;
+        final String type;
+        final int window;
+
+        Indicator(int channel, String type, int window) {
+            this.channel = channel;
+            this.type = type;
+            this.window = window;
+        }
+
+        public int getChannel() { return channel; }
+
+        abstract void onBar(SymbolSeries s, double close);
+
+        /**
+         * Gets the indicator value at the live price
+         * @return The value or NaN while the window is still filling
+         */
+        public abstract double value(SymbolSeries s, double price);
+    }
+
+    private static class PctChange extends Indicator {
+        PctChange(int channel, int window) { super(channel, AlertRule.TYPE_PCT_CHANGE, window); }
+
+        @Override void onBar(SymbolSeries s, double close) {}
+
+        @Override
+        public double value(SymbolSeries s, double price) {
+            if (s.closedBars < window) return Double.NaN;
+            return (price / s.closeAt(window) - 1) * 100;
+        }
+    }
+
+    private static class Sma extends Indicator {
+        private double sum;
+
+        // Seeded from the bars already in the ring, since value() reads the series' bar count
+        Sma(SymbolSeries s, int channel, int window) {
+            super(channel, AlertRule.TYPE_SMA_CROSS, window);
+            resum(s);
+        }
+
+        @Override
+        void onBar(SymbolSeries s, double close) {
+            if (s.closedBars % (window * 64) == 0) {
+                // Re-sum now and then so floating-point drift cannot build up
+                resum(s);
+                return;
+            }
+            sum += close;
+            if (s.closedBars > window) sum -= s.closeAt(window + 1);
+        }
+
+        private void resum(SymbolSeries s) {
+            sum = 0;
+            for (int back = 1; back <= Math.min(window, s.closedBars); back++) sum += s.closeAt(back);
+        }
+
+        @Override
+        public double value(SymbolSeries s, double price) {
+            if (s.closedBars < window) return Double.NaN;
+            return (price / (sum / window) - 1) * 100;
+        }
+    }
+
+    private static class Ema extends Indicator {
+        private final double alpha;
+        private double ema = 0;   // seeded with the SMA of the first window bars
+        private int bars = 0;
+
+        Ema(int channel, int window) {
+            super(channel, AlertRule.TYPE_EMA_CROSS, window);
+            this.alpha = 2.0 / (window + 1);
+        }
+
+        @Override
+        void onBar(SymbolSeries s, double close) {
+            bars++;
+            if (bars < window) {
+                ema += close;
+            } else if (bars == window) {
+                ema = (ema + close) / window;
+            } else {
+                ema += alpha * (close - ema);
+            }
+        }
+
+        @Override
+        public double value(SymbolSeries s, double price) {
+            if (bars < window) return Double.NaN;
+            return (price / ema - 1) * 100;
+        }
+    }
+
+    private static class Rsi extends Indicator {
+        private double avgGain = 0;
+        private double avgLoss = 0;
+        private double prevClose = Double.NaN;
+        private int changes = 0;
+
+        Rsi(int channel, int window) { super(channel, AlertRule.TYPE_RSI, window); }
+
+        @Override
+        void onBar(SymbolSeries s, double close) {
+            if (!Double.isNaN(prevClose)) {
+                double change = close - prevClose;
+                double gain = Math.max(change, 0);
+                double loss = Math.max(-change, 0);
+                changes++;
+                if (changes <= window) {
+                    // Simple average of the first window changes, then Wilder smoothing
+                    avgGain += (gain - avgGain) / changes;
+                    avgLoss += (loss - avgLoss) / changes;
+                } else {
+                    avgGain = (avgGain * (window - 1) + gain) / window;
+                    avgLoss = (avgLoss * (window - 1) + loss) / window;
+                }
+            }
+            prevClose = close;
+        }
+
+        @Override
+        public double value(SymbolSeries s, double price) {
+            if (changes < window) return Double.NaN;
+            double change = price - prevClose;
+            double gain = (avgGain * (window - 1) + Math.max(change, 0)) / window;
+            double loss = (avgLoss * (window - 1) + Math.max(-change, 0)) / window;
+            if (loss == 0) return gain == 0 ? 50 : 100;
+            return 100 - 100 / (1 + gain / loss);
+        }
+    }
+
+    private static class VolumeSpike extends Indicator {
+        private final double[] samples;
+        private int count = 0;
+        private double sum = 0;
+
+        VolumeSpike(int channel, int window) {
+            super(channel, AlertRule.TYPE_VOLUME_SPIKE, window);
+            this.samples = new double[window];
+        }
+
+        @Override
+        void onBar(SymbolSeries s, double close) {
+            if (Double.isNaN(s.volume24h)) return;
+            int slot = count % window;
+            if (count >= window) sum -= samples[slot];
+            samples[slot] = s.volume24h;
+            sum += s.volume24h;
+            count++;
+        }
+
+        @Override
+        public double value(SymbolSeries s, double price) {
+            if (count < window || sum <= 0 || Double.isNaN(s.volume24h)) return Double.NaN;
+            return s.volume24h / (sum / window);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.tradingdemo.service;
+
+import com.tradingdemo.model.AlertRule;
+
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * ThresholdBook - Alerts of one channel and direction ordered by the value that changes their state
+ * Entries are kept in a red-black tree keyed by (key, alert ID), so inserting or removing one alert
+ * is O(log n) and a move of the value visits only the entries it crosses (O(log n + k)). Alerts move
+ * between a channel's two books every time they fire or re-arm, so no operation may shift the book.
+ * Used by the alert engine thread only (not thread-safe).
+ */
+public class ThresholdBook {
+
+    private final TreeMap<Slot, AlertRule> entries = new TreeMap<>();
+
+    /**
+     * Adds an alert under a key
+     * @param key Value at which the alert changes state
+     * @param a The alert
+     */
+    public void insert(double key, AlertRule a) {
+        entries.put(new Slot(key, a.getId()), a);
+    }
+
+    /**
+     * Removes an alert added under a key
+     * @param key The key it was inserted with
+     * @param a The alert
+     */
+    public void remove(double key, AlertRule a) {
+        entries.remove(new Slot(key, a.getId()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Collects the entries a rise from last to value passes: keys in (last, value]
+     */
+    public void collectRising(double last, double value, List<AlertRule> out) {
+        if (value <= last) return;
+        out.addAll(entries.subMap(new Slot(last, Integer.MAX_VALUE), false, new Slot(value, Integer.MAX_VALUE), true).values());
+    }
+
+    /**
+     * Collects the entries a fall from last to value passes: keys in [value, last)
+     */
+    public void collectFalling(double last, double value, List<AlertRule> out) {
+        if (value >= last) return;
+        out.addAll(entries.subMap(new Slot(value, Integer.MIN_VALUE), true, new Slot(last, Integer.MIN_VALUE), false).values());
+    }
+
+    /**
+     * Collects the entries of a channel's rising and falling books that a move from last to value crosses
+     * With no last value (NaN) every entry already on its crossed side counts.
+     * @param rising Book of entries that change state when the value rises to their key
+     * @param falling Book of entries that change state when the value falls to their key
+     * @param last Previous value, or NaN
+     * @param value New value
+     * @param out Receives the crossed alerts in key order
+     */
+    public static void collectCrossed(ThresholdBook rising, ThresholdBook falling, double last, double value, List<AlertRule> out) {
+        if (Double.isNaN(last)) {
+            rising.collectRising(Double.NEGATIVE_INFINITY, value, out);
+            falling.collectFalling(Double.POSITIVE_INFINITY, value, out);
+        } else if (value > last) {
+            rising.collectRising(last, value, out);
+        } else if (value < last) {
+            falling.collectFalling(last, value, out);
+        }
+    }
+
+    // Tree key; the alert ID orders alerts with equal keys
+    private static final class Slot implements Comparable<Slot> {
+        final double key;
+        final int id;
+
+        Slot(double key, int id) {
+            this.key = key + 0.0; // -0.0 sorts below 0.0 in Double.compare
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Slot o) {
+            int c = Double.compare(key, o.key);
+            return c != 0 ? c : Integer.compare(id, o.id);
+        }
+    }
+}
@@ -1,12 +1,24 @@
 package com.tradingdemo.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import com.tradingdemo.dao.LiquidationDAO;
 import com.tradingdemo.dao.OrderDAO;
+import com.tradingdemo.dao.PositionDAO;
+import com.tradingdemo.dao.TaxLotDAO;
 import com.tradingdemo.dao.TradeDAO;
+import com.tradingdemo.dao.UserDAO;
 import com.tradingdemo.model.Order;
+import com.tradingdemo.model.Position;
 import com.tradingdemo.model.Trade;
+import com.tradingdemo.util.AsyncExecutor;
 
 /**
  * TradingService - Business logic for trading operations
@@ -15,14 +27,20 @@ import com.tradingdemo.model.Trade;
 public class TradingService {
 
     private final OrderDAO orderDAO;
+    private final LiquidationDAO liquidationDAO;
     private final TradeDAO tradeDAO;
-    private final WalletService walletService;
+    private final PositionDAO positionDAO;
+    private final TaxLotDAO taxLotDAO;
+    private final UserDAO userDAO;
     private final Random random = new Random();
 
     public TradingService() {
         this.orderDAO = new OrderDAO();
+        this.liquidationDAO = new LiquidationDAO();
         this.tradeDAO = new TradeDAO();
-        this.walletService = new WalletService();
+        this.positionDAO = new PositionDAO();
+        this.taxLotDAO = new TaxLotDAO();
+        this.userDAO = new UserDAO();
     }
 
     /**
@@ -62,35 +80,22 @@ public class TradingService {
      * @return true if successful, false otherwise
      */
     public boolean executeOrder(Order order, double executionPrice) {
-        // Calculate margin cost (position value)
-        double marginCost = executionPrice * order.getQuantity();
-        
-        // Check if user has enough balance
-        double balance = walletService.getUserBalance(order.getUserId());
-        if (balance < marginCost) {
-            System.err.println("Insufficient balance for order: " + marginCost + " > " + balance);
+        // Claims the order and locks margin, position, wallet and tax lot atomically; false leaves it PENDING
+        if (!orderDAO.executeOrder(order, executionPrice)) {
             return false;
         }
-        
-        // Deduct margin from balance for BOTH BUY (long) and SELL (short)
-        walletService.deductBalance(order.getUserId(), marginCost);
-        
-        // Update order status
-        order.setStatus("EXECUTED");
-        orderDAO.updateOrder(order);
 
         // Create trade record
-        Trade trade = new Trade(order.getId(), order.getSymbol(), order.getSide(), 
+        Trade trade = new Trade(order.getId(), order.getSymbol(), order.getSide(),
                                executionPrice, order.getQuantity());
-        
-        if (tradeDAO.createTrade(trade)) {
-            // Add position to wallet (for tracking, not actual crypto)
-            walletService.addToWallet(order.getUserId(), order.getSymbol(), 
-                                    order.getQuantity(), executionPrice);
-            return true;
+        if (!tradeDAO.createTrade(trade)) {
+            // The execution itself is committed; only the history row is missing
+            System.err.println("Trade for order " + order.getId() + " could not be written");
         }
-        
-        return false;
+        // Closing settles against the order price, so that is what the liquidation price is based on
+        LiquidationService.getInstance().track(order.getId(), order.getSymbol(), order.getSide(), order.getPrice());
+        PortfolioValuationService.getInstance().onHoldingsChanged(order.getUserId());
+        return true;
     }
 
     /**
@@ -111,21 +116,22 @@ public class TradingService {
      * Closes an executed order and calculates profit/loss
      * For LONG (BUY): profit = (currentPrice - entryPrice) * quantity
      * For SHORT (SELL): profit = (entryPrice - currentPrice) * quantity
+     * Safe to call concurrently for the same order: only one call settles it
      * @param orderId The order ID to close
      * @param currentPrice The current market price
      * @return The profit/loss amount, or null if failed
      */
     public Double closePosition(int orderId, double currentPrice) {
-        Order order = orderDAO.getOrderById(orderId);
-        if (order == null || !"EXECUTED".equals(order.getStatus())) {
+        // Claims the order and settles balance, position and wallet atomically; null if already closed
+        Order order = orderDAO.closeExecutedOrder(orderId, currentPrice);
+        if (order == null) {
             return null;
         }
-        
+
         double entryPrice = order.getPrice();
         double quantity = order.getQuantity();
-        double margin = entryPrice * quantity;
         double profitLoss;
-        
+
         if ("BUY".equals(order.getSide())) {
             // LONG position: profit when price goes UP
             profitLoss = (currentPrice - entryPrice) * quantity;
@@ -133,43 +139,98 @@ public class TradingService {
             // SHORT position: profit when price goes DOWN
             profitLoss = (entryPrice - currentPrice) * quantity;
         }
-        
-        // Return margin + profit (or margin - loss)
-        double totalReturn = margin + profitLoss;
-        walletService.addBalance(order.getUserId(), totalReturn);
-        
-        // Remove position from wallet
-        walletService.removeFromWallet(order.getUserId(), order.getSymbol(), quantity);
-        
-        // Update order status
-        order.setStatus("CLOSED");
-        orderDAO.updateOrder(order);
-        
+
         // Create closing trade record
         Trade closeTrade = new Trade(order.getId(), order.getSymbol(), 
                                      "BUY".equals(order.getSide()) ? "CLOSE_LONG" : "CLOSE_SHORT",
                                      currentPrice, quantity);
-        tradeDAO.createTrade(closeTrade);
+        if (!tradeDAO.createTrade(closeTrade)) {
+            // The close itself is committed; only the history row is missing
+            System.err.println("Closing trade for order " + order.getId() + " could not be written");
+        }
+        LiquidationService.getInstance().untrack(order.getId());
+        PortfolioValuationService.getInstance().onHoldingsChanged(order.getUserId());
         
         return profitLoss;
     }
 
     /**
-     * Gets order history for a user
+     * Force-closes a batch of positions at their liquidation prices
+     * Orders, balances, positions, wallets and tax lots are updated in one transaction; closing
+     * trades follow the same path as closePosition. Orders already closed are skipped.
+     * @param orderIds Orders to close
+     * @param closePrices Close price of each order
+     * @param count Number of entries used in the arrays
+     * @return The orders that were closed, or null if the batch failed
+     */
+    public List<Order> liquidatePositions(int[] orderIds, double[] closePrices, int count) {
+        List<Order> closed = liquidationDAO.closeOrders(orderIds, closePrices, count);
+        if (closed == null) {
+            return null;
+        }
+
+        Map<Integer, Double> closePriceById = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            closePriceById.put(orderIds[i], closePrices[i]);
+        }
+        Set<Integer> users = new HashSet<>();
+        List<CompletableFuture<Integer>> trades = new ArrayList<>(closed.size());
+        for (Order order : closed) {
+            double closePrice = closePriceById.get(order.getId());
+            // Queued together so the writer batches them; checked below
+            trades.add(tradeDAO.createTradeAsync(new Trade(order.getId(), order.getSymbol(),
+                                                           "BUY".equals(order.getSide()) ? "CLOSE_LONG" : "CLOSE_SHORT",
+                                                           closePrice, order.getQuantity())));
+            users.add(order.getUserId());
+        }
+        for (int userId : users) {
+            PortfolioValuationService.getInstance().onHoldingsChanged(userId);
+        }
+        int missingTrades = 0;
+        for (CompletableFuture<Integer> trade : trades) {
+            if (trade.handle((id, e) -> id == null).join()) missingTrades++;
+        }
+        if (missingTrades > 0) {
+            System.err.println("Liquidation: " + missingTrades + " closing trade(s) could not be written");
+        }
+        return closed;
+    }
+
+    /**
+     * Changes the cost-basis method used to match a user's closes against open lots
+     * Switching to AVERAGE merges the existing lots; switching away keeps the merged lot as one lot.
+     * @param userId The user ID
+     * @param lotMethod FIFO, LIFO or AVERAGE
+     * @return true if successful, false otherwise
+     */
+    public boolean setLotMethod(int userId, String lotMethod) {
+        if (!TaxLotDAO.FIFO.equals(lotMethod) && !TaxLotDAO.LIFO.equals(lotMethod)
+                && !TaxLotDAO.AVERAGE.equals(lotMethod)) {
+            System.err.println("Unknown lot method: " + lotMethod);
+            return false;
+        }
+        if (TaxLotDAO.AVERAGE.equals(lotMethod) && !taxLotDAO.mergeLots(userId)) {
+            return false;
+        }
+        return userDAO.updateLotMethod(userId, lotMethod);
+    }
+
+    /**
+     * Gets order history for a user (including archived orders)
      * @param userId The user ID
      * @return List of user's orders
      */
     public List<Order> getOrderHistory(int userId) {
-        return orderDAO.getOrdersByUserId(userId);
+        return orderDAO.getOrdersByUserIdWithArchive(userId);
     }
 
     /**
-     * Gets trade history for a user
+     * Gets trade history for a user (including archived trades)
      * @param userId The user ID
      * @return List of user's trades
      */
     public List<Trade> getTradeHistory(int userId) {
-        return tradeDAO.getTradesByUserId(userId);
+        return tradeDAO.getTradesByUserIdWithArchive(userId);
     }
 
     /**
@@ -190,6 +251,34 @@ public class TradingService {
         return orderDAO.getOrdersByUserId(userId);
     }
 
+    /**
+     * Gets open orders (PENDING and EXECUTED) for a user
+     * @param userId The user ID
+     * @return List of open orders
+     */
+    public List<Order> getOpenOrders(int userId) {
+        return orderDAO.getOpenOrdersByUserId(userId);
+    }
+
+    /**
+     * Gets executed orders (open positions) for a user on one symbol, for SL/TP checks
+     * @param userId The user ID
+     * @param symbol Cryptocurrency symbol
+     * @return List of executed orders
+     */
+    public List<Order> getOpenPositionOrders(int userId, String symbol) {
+        return orderDAO.getExecutedOrdersByUserAndSymbol(userId, symbol);
+    }
+
+    /**
+     * Gets aggregated open positions for a user (one per symbol and side)
+     * @param userId The user ID
+     * @return List of positions
+     */
+    public List<Position> getOpenPositions(int userId) {
+        return positionDAO.getPositionsByUserId(userId);
+    }
+
     /**
      * Simulates price movement and checks stop-loss/take-profit triggers
      * @param currentPrice Current market price
@@ -228,6 +317,83 @@ public class TradingService {
         return orderDAO.getOrderById(orderId);
     }
 
+    // ---- Async variants (run on virtual threads, safe to call from the FX thread) ----
+
+    /**
+     * Places a new trading order without blocking the caller
+     * @return Future completed with the created Order or null if failed
+     * @see #placeOrder(int, String, String, String, double, double, double, double)
+     */
+    public CompletableFuture<Order> placeOrderAsync(int userId, String symbol, String type, String side,
+                                                    double price, double quantity, double stopLoss, double takeProfit) {
+        return AsyncExecutor.supply(() -> placeOrder(userId, symbol, type, side, price, quantity, stopLoss, takeProfit));
+    }
+
+    /**
+     * Closes an executed position without blocking the caller
+     * @return Future completed with the profit/loss, or null if failed
+     * @see #closePosition(int, double)
+     */
+    public CompletableFuture<Double> closePositionAsync(int orderId, double currentPrice) {
+        return AsyncExecutor.supply(() -> closePosition(orderId, currentPrice));
+    }
+
+    /**
+     * Changes a user's lot method without blocking the caller
+     * @see #setLotMethod(int, String)
+     */
+    public CompletableFuture<Boolean> setLotMethodAsync(int userId, String lotMethod) {
+        return AsyncExecutor.supply(() -> setLotMethod(userId, lotMethod));
+    }
+
+    /**
+     * Cancels a pending order without blocking the caller
+     * @see #cancelOrder(int)
+     */
+    public CompletableFuture<Boolean> cancelOrderAsync(int orderId) {
+        return AsyncExecutor.supply(() -> cancelOrder(orderId));
+    }
+
+    /**
+     * Gets all orders for a user without blocking the caller
+     * @see #getAllOrdersForUser(int)
+     */
+    public CompletableFuture<List<Order>> getAllOrdersForUserAsync(int userId) {
+        return AsyncExecutor.supply(() -> getAllOrdersForUser(userId));
+    }
+
+    /**
+     * Gets open orders for a user without blocking the caller
+     * @see #getOpenOrders(int)
+     */
+    public CompletableFuture<List<Order>> getOpenOrdersAsync(int userId) {
+        return AsyncExecutor.supply(() -> getOpenOrders(userId));
+    }
+
+    /**
+     * Gets aggregated open positions for a user without blocking the caller
+     * @see #getOpenPositions(int)
+     */
+    public CompletableFuture<List<Position>> getOpenPositionsAsync(int userId) {
+        return AsyncExecutor.supply(() -> getOpenPositions(userId));
+    }
+
+    /**
+     * Gets pending orders for a user without blocking the caller
+     * @see #getPendingOrders(int)
+     */
+    public CompletableFuture<List<Order>> getPendingOrdersAsync(int userId) {
+        return AsyncExecutor.supply(() -> getPendingOrders(userId));
+    }
+
+    /**
+     * Gets trade history for a user without blocking the caller
+     * @see #getTradeHistory(int)
+     */
+    public CompletableFuture<List<Trade>> getTradeHistoryAsync(int userId) {
+        return AsyncExecutor.supply(() -> getTradeHistory(userId));
+    }
+
     /**
      * Simulates a random market price for a cryptocurrency
      * @param basePrice Base price to simulate around
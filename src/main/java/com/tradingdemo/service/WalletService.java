@@ -1,11 +1,13 @@
 package com.tradingdemo.service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.tradingdemo.dao.UserDAO;
 import com.tradingdemo.dao.WalletDAO;
-import com.tradingdemo.model.User;
 import com.tradingdemo.model.WalletItem;
+import com.tradingdemo.util.AsyncExecutor;
 
 /**
  * WalletService - Business logic for wallet management
@@ -32,11 +34,17 @@ public class WalletService {
 
     /**
      * Gets total portfolio value for a user
+     * Uses the live in-memory valuation when the user has an open view, else reads the wallet
      * @param userId The user ID
      * @param currentPrices Map of current cryptocurrency prices
      * @return Total portfolio value
      */
     public double getPortfolioValue(int userId, java.util.Map<String, Double> currentPrices) {
+        PortfolioValuationService.Valuation live = PortfolioValuationService.getInstance().getValuation(userId);
+        if (live != null) {
+            return live.walletValue;
+        }
+
         List<WalletItem> items = getUserWallet(userId);
         double totalValue = 0;
         
@@ -99,12 +107,13 @@ public class WalletService {
 
     /**
      * Gets user's current balance
+     * Always read from the database: cached users may be up to the cache TTL old
      * @param userId The user ID
      * @return The user's balance
      */
     public double getUserBalance(int userId) {
-        User user = userDAO.getUserById(userId);
-        return user != null ? user.getBalance() : 0;
+        Double balance = userDAO.getBalance(userId);
+        return balance != null ? balance : 0;
     }
 
     /**
@@ -114,26 +123,18 @@ public class WalletService {
      * @return true if successful, false otherwise
      */
     public boolean updateUserBalance(int userId, double newBalance) {
-        User user = userDAO.getUserById(userId);
-        if (user != null) {
-            user.setBalance(newBalance);
-            return userDAO.updateUser(user);
-        }
-        return false;
+        return userDAO.updateBalance(userId, newBalance);
     }
 
     /**
      * Deducts amount from user's balance
+     * The check and the deduction are one conditional UPDATE, so concurrent deductions cannot overdraw
      * @param userId The user ID
      * @param amount The amount to deduct
      * @return true if successful, false otherwise
      */
     public boolean deductBalance(int userId, double amount) {
-        double currentBalance = getUserBalance(userId);
-        if (currentBalance >= amount) {
-            return updateUserBalance(userId, currentBalance - amount);
-        }
-        return false;
+        return userDAO.deductFromBalance(userId, amount);
     }
 
     /**
@@ -143,8 +144,7 @@ public class WalletService {
      * @return true if successful, false otherwise
      */
     public boolean addBalance(int userId, double amount) {
-        double currentBalance = getUserBalance(userId);
-        return updateUserBalance(userId, currentBalance + amount);
+        return userDAO.addToBalance(userId, amount);
     }
 
     /**
@@ -157,4 +157,30 @@ public class WalletService {
         WalletItem item = walletDAO.getWalletItemByUserAndSymbol(userId, symbol);
         return item != null ? item.getQuantity() : 0;
     }
+
+    // ---- Async variants (run on virtual threads, safe to call from the FX thread) ----
+
+    /**
+     * Gets the wallet for a user without blocking the caller
+     * @see #getUserWallet(int)
+     */
+    public CompletableFuture<List<WalletItem>> getUserWalletAsync(int userId) {
+        return AsyncExecutor.supply(() -> getUserWallet(userId));
+    }
+
+    /**
+     * Gets the user's balance without blocking the caller
+     * @see #getUserBalance(int)
+     */
+    public CompletableFuture<Double> getUserBalanceAsync(int userId) {
+        return AsyncExecutor.supply(() -> getUserBalance(userId));
+    }
+
+    /**
+     * Gets total portfolio value without blocking the caller
+     * @see #getPortfolioValue(int, Map)
+     */
+    public CompletableFuture<Double> getPortfolioValueAsync(int userId, Map<String, Double> currentPrices) {
+        return AsyncExecutor.supply(() -> getPortfolioValue(userId, currentPrices));
+    }
 }
@@ -0,0 +1,60 @@
+package com.tradingdemo.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * AsyncExecutor - Shared executor for blocking work (JDBC, HTTP)
+ * Runs every task on its own virtual thread so controllers never block the JavaFX thread
+ */
+public class AsyncExecutor {
+
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private AsyncExecutor() {
+    }
+
+    /**
+     * Runs a blocking call on a virtual thread
+     * @param task The call to run
+     * @return Future completed with the call's result
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, EXECUTOR);
+    }
+
+    /**
+     * Runs a blocking action on a virtual thread
+     * @param task The action to run
+     * @return Future completed when the action finishes
+     */
+    public static CompletableFuture<Void> run(Runnable task) {
+        return CompletableFuture.runAsync(task, EXECUTOR);
+    }
+
+    /**
+     * Gets the underlying executor (for CompletableFuture *Async chaining)
+     * @return The virtual-thread-per-task executor
+     */
+    public static ExecutorService executor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Stops accepting tasks and waits briefly for in-flight ones
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdown();
+        try {
+            if (!EXECUTOR.awaitTermination(5, TimeUnit.SECONDS)) {
+                EXECUTOR.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            EXECUTOR.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
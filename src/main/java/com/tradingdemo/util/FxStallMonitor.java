@@ -0,0 +1,94 @@
+package com.tradingdemo.util;
+
+import javafx.animation.AnimationTimer;
+
+/**
+ * FxStallMonitor - Measures how long the JavaFX thread goes without rendering a pulse
+ * A pulse is scheduled every ~16ms; any larger gap means the FX thread was busy (e.g. blocking I/O)
+ */
+public class FxStallMonitor {
+
+    private static final long STALL_THRESHOLD_NANOS = 50_000_000L;   // 50ms = 3 missed frames
+    private static final long SEVERE_THRESHOLD_NANOS = 250_000_000L; // 250ms = visible freeze
+
+    private static final FxStallMonitor INSTANCE = new FxStallMonitor();
+
+    private final AnimationTimer timer;
+    private long lastPulse = 0;
+
+    // Written only on the FX thread, read from anywhere
+    private volatile long frames = 0;
+    private volatile long stalls = 0;
+    private volatile long severeStalls = 0;
+    private volatile long maxGapNanos = 0;
+    private volatile long totalStallNanos = 0;
+
+    private FxStallMonitor() {
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse(now);
+            }
+        };
+    }
+
+    public static FxStallMonitor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts sampling pulses (must be called on the FX thread)
+     */
+    public void start() {
+        lastPulse = 0;
+        timer.start();
+    }
+
+    /**
+     * Stops sampling pulses
+     */
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * Clears the counters (must be called on the FX thread)
+     */
+    public void reset() {
+        frames = 0;
+        stalls = 0;
+        severeStalls = 0;
+        maxGapNanos = 0;
+        totalStallNanos = 0;
+        lastPulse = 0;
+    }
+
+    private void onPulse(long now) {
+        if (lastPulse != 0) {
+            long gap = now - lastPulse;
+            frames++;
+            if (gap > maxGapNanos) maxGapNanos = gap;
+            if (gap >= STALL_THRESHOLD_NANOS) {
+                stalls++;
+                totalStallNanos += gap;
+                if (gap >= SEVERE_THRESHOLD_NANOS) severeStalls++;
+            }
+        }
+        lastPulse = now;
+    }
+
+    public long getFrames() { return frames; }
+    public long getStalls() { return stalls; }
+    public long getSevereStalls() { return severeStalls; }
+    public double getMaxGapMillis() { return maxGapNanos / 1_000_000.0; }
+    public double getTotalStallMillis() { return totalStallNanos / 1_000_000.0; }
+
+    /**
+     * Gets a one-line summary of the stall counters
+     * @return Formatted metrics
+     */
+    public String summary() {
+        return String.format("FX frames: %d | stalls >=50ms: %d | stalls >=250ms: %d | max gap: %.1f ms | total stalled: %.1f ms",
+            frames, stalls, severeStalls, getMaxGapMillis(), getTotalStallMillis());
+    }
+}
@@ -0,0 +1,160 @@
+package com.tradingdemo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * NearDuplicateFilter - Drops items whose text is a near-duplicate of an earlier kept item
+ * Similarity is the Jaccard index of the whitespace-separated, lower-cased word sets. Instead of
+ * comparing every item with every kept item, each item gets a MinHash signature of 64 values
+ * split into 16 bands of 4; only kept items sharing at least one whole band are compared exactly.
+ * A pair at Jaccard 0.8 shares a band with probability 1 - (1 - 0.8^4)^16 (99.98%), and higher
+ * similarities are missed even less often, so results match the pairwise scan in practice while
+ * the cost grows linearly with the number of items. Items can be filtered in one call or added
+ * one at a time to a long-lived filter. Not thread-safe.
+ */
+public class NearDuplicateFilter<T> {
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int HASHES = BANDS * ROWS;
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        long x = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < HASHES; i++) {
+            x += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(x);
+        }
+    }
+
+    private final Function<T, String> text;
+    private final double threshold;
+    private final List<long[]> keptWords = new ArrayList<>();
+    private final Map<Long, List<Integer>> buckets = new HashMap<>();
+    private final long[] signature = new long[HASHES];
+    private final long[] bandKeys = new long[BANDS];
+
+    /**
+     * Creates an empty filter that items can be added to one at a time
+     * @param text Text compared between items (e.g. the title)
+     * @param threshold Items with a Jaccard similarity above this are duplicates
+     */
+    public NearDuplicateFilter(Function<T, String> text, double threshold) {
+        this.text = text;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Keeps the first item of every group of near-duplicates, in the original order
+     * @param items Items to filter
+     * @param text Text compared between items (e.g. the title)
+     * @param threshold Items with a Jaccard similarity above this are duplicates
+     * @return The kept items
+     */
+    public static <T> List<T> filter(List<T> items, Function<T, String> text, double threshold) {
+        NearDuplicateFilter<T> filter = new NearDuplicateFilter<>(text, threshold);
+        List<T> kept = new ArrayList<>();
+        for (T item : items) {
+            if (filter.add(item)) kept.add(item);
+        }
+        return kept;
+    }
+
+    /**
+     * Adds an item unless it is a near-duplicate of an item added before
+     * @param item The item
+     * @return true if the item was kept, false if it is a duplicate
+     */
+    public boolean add(T item) {
+        long[] words = wordSet(text.apply(item));
+        minHash(words, signature);
+        for (int b = 0; b < BANDS; b++) {
+            long key = b;
+            for (int r = 0; r < ROWS; r++) {
+                key = mix(key * 31 + signature[b * ROWS + r]);
+            }
+            bandKeys[b] = key;
+        }
+
+        for (int b = 0; b < BANDS; b++) {
+            List<Integer> candidates = buckets.get(bandKeys[b]);
+            if (candidates == null) continue;
+            for (int idx : candidates) {
+                if (jaccard(words, keptWords.get(idx)) > threshold) return false;
+            }
+        }
+
+        int idx = keptWords.size();
+        keptWords.add(words);
+        for (int b = 0; b < BANDS; b++) {
+            buckets.computeIfAbsent(bandKeys[b], k -> new ArrayList<>(1)).add(idx);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of items kept so far
+     */
+    public int size() {
+        return keptWords.size();
+    }
+
+    // Sorted, distinct 64-bit hashes of the words (same tokens as toLowerCase().split("\\s+"))
+    private static long[] wordSet(String s) {
+        String[] words = (s == null ? "" : s.toLowerCase()).split("\\s+");
+        long[] hashes = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            hashes[i] = hash(words[i]);
+        }
+        Arrays.sort(hashes);
+        int n = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (i == 0 || hashes[i] != hashes[n - 1]) hashes[n++] = hashes[i];
+        }
+        return n == hashes.length ? hashes : Arrays.copyOf(hashes, n);
+    }
+
+    private static void minHash(long[] words, long[] signature) {
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long w : words) {
+            for (int i = 0; i < HASHES; i++) {
+                long h = mix(w ^ SEEDS[i]);
+                if (h < signature[i]) signature[i] = h;
+            }
+        }
+    }
+
+    // Exact Jaccard index of two sorted sets
+    private static double jaccard(long[] a, long[] b) {
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) { common++; i++; j++; }
+            else if (a[i] < b[j]) i++;
+            else j++;
+        }
+        int union = a.length + b.length - common;
+        return union == 0 ? 0 : (double) common / union;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 chars
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,47 +1,156 @@
 package com.tradingdemo.util;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.PauseTransition;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.util.Duration;
 import javafx.application.Platform;
 
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * NotificationUtil - Popup notifications in one reusable overlay window
+ * Callers on any thread only add to a pending map; the FX thread picks it up at most every
+ * 250ms, so a burst of alerts costs a few label updates instead of one Stage per alert.
+ * Notifications with the same key (e.g. one symbol) are merged: the latest message is shown
+ * with a repeat count. The overlay shows the newest rows and hides 4 seconds after the last update.
+ */
 public class NotificationUtil {
+
+    private static final long MIN_RENDER_INTERVAL_MS = 250;
+    private static final int MAX_ROWS = 5;
+    private static final Duration HIDE_AFTER = Duration.seconds(4);
+
+    // Guarded by PENDING; filled by any thread, emptied on the FX thread
+    private static final Map<String, Entry> PENDING = new LinkedHashMap<>();
+    private static boolean renderScheduled = false;
+
+    // FX thread only
+    private static final Map<String, Entry> VISIBLE = new LinkedHashMap<>();
+    private static Stage stage;
+    private static VBox container;
+    private static Label moreLabel;
+    private static PauseTransition hideTimer;
+    private static long lastRender = 0;
+
     public static void showPopup(String title, String message) {
-        Platform.runLater(() -> {
-            Stage stage = new Stage(StageStyle.UNDECORATED);
+        showPopup(title, title, message);
+    }
 
-            Label titleLbl = new Label(title);
-            titleLbl.setStyle("-fx-font-weight: bold; -fx-text-fill: white; -fx-font-size: 13px;");
+    /**
+     * Queues a popup notification
+     * @param key Notifications with the same key are merged into one row
+     * @param title Row title
+     * @param message Row message (the latest one wins when merged)
+     */
+    public static void showPopup(String key, String title, String message) {
+        synchronized (PENDING) {
+            Entry e = PENDING.remove(key);
+            if (e == null) e = new Entry(title);
+            e.message = message;
+            e.count++;
+            PENDING.put(key, e); // re-insert so the latest key is rendered last
+            if (renderScheduled) return;
+            renderScheduled = true;
+        }
+        Platform.runLater(NotificationUtil::render);
+    }
 
-            Label msg = new Label(message);
-            msg.setWrapText(true);
-            msg.setMaxWidth(360);
-            msg.setStyle("-fx-text-fill: white; -fx-font-size: 12px;");
+    private static void render() {
+        long wait = lastRender + MIN_RENDER_INTERVAL_MS - System.currentTimeMillis();
+        if (wait > 0) {
+            // Rate limit: pick up everything that arrives until the next slot in one pass
+            PauseTransition delay = new PauseTransition(Duration.millis(wait));
+            delay.setOnFinished(ev -> render());
+            delay.play();
+            return;
+        }
+        lastRender = System.currentTimeMillis();
 
-            javafx.scene.layout.VBox container = new javafx.scene.layout.VBox(6, titleLbl, msg);
-            container.setStyle("-fx-padding: 12; -fx-background-color: rgba(17,24,39,0.95); -fx-border-radius: 8; -fx-background-radius: 8;");
+        synchronized (PENDING) {
+            for (Map.Entry<String, Entry> p : PENDING.entrySet()) {
+                Entry shown = VISIBLE.remove(p.getKey());
+                Entry e = p.getValue();
+                if (shown != null) e.count += shown.count;
+                VISIBLE.put(p.getKey(), e);
+            }
+            PENDING.clear();
+            renderScheduled = false;
+        }
 
-            StackPane root = new StackPane(container);
-            StackPane.setAlignment(container, Pos.TOP_CENTER);
+        ensureStage();
+        int hidden = Math.max(0, VISIBLE.size() - MAX_ROWS);
+        container.getChildren().clear();
+        Iterator<Entry> it = VISIBLE.values().iterator();
+        for (int i = 0; i < hidden; i++) it.next();
+        while (it.hasNext()) {
+            container.getChildren().add(row(it.next()));
+        }
+        if (hidden > 0) {
+            moreLabel.setText("+" + hidden + " more");
+            container.getChildren().add(moreLabel);
+        }
+        stage.sizeToScene();
+        if (!stage.isShowing()) stage.show();
+        hideTimer.playFromStart();
+    }
 
-            Scene scene = new Scene(root);
-            scene.setFill(null);
+    private static VBox row(Entry e) {
+        Label titleLbl = new Label(e.count > 1 ? e.title + "  (x" + e.count + ")" : e.title);
+        titleLbl.setStyle("-fx-font-weight: bold; -fx-text-fill: white; -fx-font-size: 13px;");
 
-            stage.setScene(scene);
-            stage.setAlwaysOnTop(true);
+        Label msg = new Label(e.message);
+        msg.setWrapText(true);
+        msg.setMaxWidth(360);
+        msg.setStyle("-fx-text-fill: white; -fx-font-size: 12px;");
+        return new VBox(2, titleLbl, msg);
+    }
 
-            root.setOnMouseClicked(ev -> stage.close());
+    private static void ensureStage() {
+        if (stage != null) return;
+        stage = new Stage(StageStyle.TRANSPARENT);
+
+        container = new VBox(8);
+        container.setStyle("-fx-padding: 12; -fx-background-color: rgba(17,24,39,0.95); -fx-border-radius: 8; -fx-background-radius: 8;");
+        moreLabel = new Label();
+        moreLabel.setStyle("-fx-text-fill: #9ca3af; -fx-font-size: 11px;");
+
+        StackPane root = new StackPane(container);
+        StackPane.setAlignment(container, Pos.TOP_CENTER);
+
+        Scene scene = new Scene(root);
+        scene.setFill(Color.TRANSPARENT);
+        root.setStyle("-fx-background-color: transparent;");
+
+        stage.setScene(scene);
+        stage.setAlwaysOnTop(true);
+
+        hideTimer = new PauseTransition(HIDE_AFTER);
+        hideTimer.setOnFinished(ev -> dismiss());
+        root.setOnMouseClicked(ev -> dismiss());
+    }
+
+    private static void dismiss() {
+        hideTimer.stop();
+        stage.hide();
+        VISIBLE.clear();
+    }
 
-            stage.show();
+    private static class Entry {
+        final String title;
+        String message;
+        int count;
 
-            Timeline t = new Timeline(new KeyFrame(Duration.seconds(4), ev -> stage.close()));
-            t.play();
-        });
+        Entry(String title) {
+            this.title = title;
+        }
     }
 }
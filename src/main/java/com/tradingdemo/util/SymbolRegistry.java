@@ -0,0 +1,76 @@
+package com.tradingdemo.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SymbolRegistry - Maps cryptocurrency symbols to dense small ints (0, 1, 2, ...)
+ * IDs never change for the life of the process, so they can index primitive arrays
+ * (see PositionLedger) instead of hashing and comparing Strings in hot loops.
+ */
+public class SymbolRegistry {
+
+    // Registered up front so the common symbols get the lowest IDs in a fixed order
+    private static final String[] KNOWN_SYMBOLS = {"BTC", "ETH", "BNB", "ADA", "SOL", "XRP", "DOGE", "USDC"};
+
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[0];
+
+    static {
+        for (String symbol : KNOWN_SYMBOLS) {
+            idOf(symbol);
+        }
+    }
+
+    private SymbolRegistry() {
+    }
+
+    /**
+     * Gets the ID of a symbol, registering it on first use
+     * @param symbol Cryptocurrency symbol (case-insensitive)
+     * @return Dense symbol ID
+     */
+    public static int idOf(String symbol) {
+        String key = symbol.toUpperCase();
+        Integer id = IDS.get(key);
+        if (id != null) return id;
+        synchronized (SymbolRegistry.class) {
+            id = IDS.get(key);
+            if (id != null) return id;
+            int next = names.length;
+            String[] grown = Arrays.copyOf(names, next + 1);
+            grown[next] = key;
+            names = grown;   // publish the name before the ID becomes visible
+            IDS.put(key, next);
+            return next;
+        }
+    }
+
+    /**
+     * Gets the ID of a symbol without registering it
+     * @param symbol Cryptocurrency symbol (case-insensitive)
+     * @return Symbol ID, or -1 if the symbol was never registered
+     */
+    public static int lookup(String symbol) {
+        Integer id = IDS.get(symbol.toUpperCase());
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Gets the symbol of an ID
+     * @param id Symbol ID
+     * @return Upper-case symbol
+     */
+    public static String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * Gets the number of registered symbols (every ID is below this)
+     * @return Number of symbols
+     */
+    public static int size() {
+        return names.length;
+    }
+}
@@ -0,0 +1,219 @@
+package com.tradingdemo.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.tradingdemo.config.DatabaseConnection;
+import com.tradingdemo.model.Order;
+import com.tradingdemo.model.User;
+
+/**
+ * Checks the positions read model against aggregating EXECUTED orders (the rows rebuildIfEmpty
+ * inserts): after executes and closes through OrderDAO and LiquidationDAO, after a rebuild, and
+ * after more deltas on top of the rebuilt rows
+ * Needs a scratch MySQL database and is skipped without one:
+ *   mvn test -Dtest=PositionDAOTest -Dtrading.db.url=jdbc:mysql://localhost:3306/trading_test
+ * The tables of database.sql are dropped and recreated there.
+ */
+public class PositionDAOTest {
+
+    private static final Pattern CREATE_TABLE = Pattern.compile("^CREATE TABLE `(\\w+)`");
+    private static final String[] SYMBOLS = {"BTC", "ETH", "SOL"};
+    private static final double TOLERANCE = 1e-6;
+
+    private final Random random = new Random(11);
+    private final List<Order> open = new ArrayList<>();
+    private OrderDAO orderDAO;
+    private PositionDAO positionDAO;
+    private LiquidationDAO liquidationDAO;
+    private int[] users;
+
+    @BeforeClass
+    public static void createSchema() throws Exception {
+        Assume.assumeTrue("set -Dtrading.db.url to a scratch database", System.getProperty("trading.db.url") != null);
+        Connection conn = DatabaseConnection.getInstance().getConnection();
+        Assume.assumeTrue("database unavailable", conn != null);
+        assertFalse("refusing to drop the application's tables", "crypto_trading_db".equals(conn.getCatalog()));
+
+        String sql = new String(Files.readAllBytes(Paths.get("database.sql")), StandardCharsets.UTF_8);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET FOREIGN_KEY_CHECKS = 0");
+            for (String statement : statements(sql)) {
+                Matcher table = CREATE_TABLE.matcher(statement);
+                if (!table.find()) continue;
+                stmt.execute("DROP TABLE IF EXISTS `" + table.group(1) + "`");
+                stmt.execute(statement);
+            }
+            stmt.execute("SET FOREIGN_KEY_CHECKS = 1");
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        orderDAO = new OrderDAO();
+        positionDAO = new PositionDAO();
+        liquidationDAO = new LiquidationDAO();
+        try (Statement stmt = connection().createStatement()) {
+            // Cascades to orders, trades, positions, wallet items and lots
+            stmt.execute("DELETE FROM users");
+        }
+        UserDAO userDAO = new UserDAO();
+        users = new int[3];
+        for (int i = 0; i < users.length; i++) {
+            User user = new User("Position", "Test" + i, "positions" + i + "@test.local", null, "-");
+            user.setBalance(1e12);
+            assertTrue(userDAO.createUser(user));
+            users[i] = user.getId();
+        }
+        open.clear();
+    }
+
+    @Test
+    public void deltasMatchAggregatedOrders() throws Exception {
+        trade(400);
+        assertPositions(aggregatedOrders(), positions());
+    }
+
+    @Test
+    public void rebuildMatchesDeltas() throws Exception {
+        trade(400);
+        Map<String, double[]> maintained = positions();
+        assertFalse(maintained.isEmpty());
+        assertEquals(0, positionDAO.rebuildIfEmpty());      // not empty: left alone
+
+        try (Statement stmt = connection().createStatement()) {
+            stmt.execute("DELETE FROM positions");
+        }
+        assertEquals(maintained.size(), positionDAO.rebuildIfEmpty());
+        assertPositions(maintained, positions());
+
+        trade(200);                                          // deltas on top of the rebuilt rows
+        assertPositions(aggregatedOrders(), positions());
+    }
+
+    @Test
+    public void closingEverythingLeavesNoRows() throws Exception {
+        trade(200);
+        while (!open.isEmpty()) {
+            close();
+        }
+        assertTrue(positions().isEmpty());
+        assertTrue(aggregatedOrders().isEmpty());
+    }
+
+    // Opens and closes random positions; closes go through the user path and liquidation batches
+    private void trade(int steps) {
+        for (int i = 0; i < steps; i++) {
+            if (open.isEmpty() || random.nextInt(10) < 6) {
+                execute();
+            } else {
+                close();
+            }
+        }
+    }
+
+    private void execute() {
+        int user = users[random.nextInt(users.length)];
+        String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+        String side = random.nextBoolean() ? "BUY" : "SELL";
+        double price = 100 + random.nextInt(100_000) / 100.0;
+        double quantity = 0.5 * (1 + random.nextInt(8));
+        Order order = new Order(user, symbol, "MARKET", side, price, quantity, 0, 0);
+        assertTrue(orderDAO.createOrder(order));
+        // Market orders execute at the order price (TradingService.placeOrder)
+        assertTrue(orderDAO.executeOrder(order, price));
+        open.add(order);
+    }
+
+    private void close() {
+        double closePrice = 100 + random.nextInt(100_000) / 100.0;
+        if (random.nextBoolean()) {
+            Order order = open.remove(random.nextInt(open.size()));
+            assertNotNull(orderDAO.closeExecutedOrder(order.getId(), closePrice));
+            return;
+        }
+        int count = Math.min(open.size(), 1 + random.nextInt(3));
+        int[] orderIds = new int[count];
+        double[] closePrices = new double[count];
+        for (int i = 0; i < count; i++) {
+            orderIds[i] = open.remove(random.nextInt(open.size())).getId();
+            closePrices[i] = closePrice;
+        }
+        List<Order> closed = liquidationDAO.closeOrders(orderIds, closePrices, count);
+        assertNotNull(closed);
+        assertEquals(count, closed.size());
+    }
+
+    private Map<String, double[]> positions() throws SQLException {
+        return query("SELECT user_id, symbol, side, quantity, margin, average_entry_price FROM positions");
+    }
+
+    // What rebuildIfEmpty inserts
+    private Map<String, double[]> aggregatedOrders() throws SQLException {
+        return query("SELECT user_id, symbol, side, SUM(quantity), SUM(price * quantity), " +
+                     "SUM(price * quantity) / SUM(quantity) FROM orders WHERE status = 'EXECUTED' " +
+                     "GROUP BY user_id, symbol, side");
+    }
+
+    private Map<String, double[]> query(String sql) throws SQLException {
+        Map<String, double[]> rows = new TreeMap<>();
+        try (Statement stmt = connection().createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                rows.put(rs.getInt(1) + "/" + rs.getString(2) + "/" + rs.getString(3),
+                         new double[] { rs.getDouble(4), rs.getDouble(5), rs.getDouble(6) });
+            }
+        }
+        return rows;
+    }
+
+    private static void assertPositions(Map<String, double[]> expected, Map<String, double[]> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        String[] columns = {"quantity", "margin", "average_entry_price"};
+        for (Map.Entry<String, double[]> e : expected.entrySet()) {
+            double[] want = e.getValue();
+            double[] got = actual.get(e.getKey());
+            for (int c = 0; c < columns.length; c++) {
+                assertEquals(e.getKey() + " " + columns[c], want[c], got[c], TOLERANCE * Math.max(1, Math.abs(want[c])));
+            }
+        }
+    }
+
+    private static Connection connection() {
+        return DatabaseConnection.getInstance().getConnection();
+    }
+
+    // database.sql split into statements, comments removed
+    private static List<String> statements(String sql) {
+        StringBuilder stripped = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            stripped.append(line.replaceAll("(^|\\s)--(\\s.*)?$", "")).append('\n');
+        }
+        List<String> statements = new ArrayList<>();
+        for (String statement : stripped.toString().split(";")) {
+            if (!statement.trim().isEmpty()) statements.add(statement.trim());
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,172 @@
+package com.tradingdemo.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tradingdemo.dao.TradeDAO;
+import com.tradingdemo.model.PerformanceMetrics;
+import com.tradingdemo.model.PerformanceState;
+
+/**
+ * Checks that the batched, parallel leaderboard ranks users on the same metrics as replaying
+ * each user's trades on its own, for full rebuilds and for incremental refreshes
+ */
+public class LeaderboardServiceTest {
+
+    private static final int USERS = 2_000;
+    private static final int TOP_N = 10;
+
+    private ForkJoinPool pool;
+    private List<Row> rows;          // grouped by user, oldest first
+    private int visibleUpTo;         // highest trade ID the source returns
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+        rows = history(USERS * 20, 9);
+        visibleUpTo = Integer.MAX_VALUE;
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void fullRebuildMatchesPerUserReplay() {
+        LeaderboardService.Leaderboard lb = new LeaderboardService(this::forEachTrade, pool).getLeaderboard(TOP_N);
+        assertEquals(USERS, lb.rankedUsers);
+        assertEquals(rows.size(), lb.rowsRead);
+        assertRanking(lb);
+    }
+
+    @Test
+    public void incrementalRefreshMatchesPerUserReplay() {
+        LeaderboardService service = new LeaderboardService(this::forEachTrade, pool);
+        for (int upTo = 5_000; upTo < rows.size(); upTo += 7_919) {
+            visibleUpTo = upTo;
+            service.getLeaderboard(TOP_N);
+        }
+        visibleUpTo = Integer.MAX_VALUE;
+        LeaderboardService.Leaderboard lb = service.getLeaderboard(TOP_N);
+        assertFalse(lb.fullRebuild);
+        assertRanking(lb);
+    }
+
+    private void assertRanking(LeaderboardService.Leaderboard lb) {
+        Map<Integer, PerformanceMetrics> expected = replayPerUser();
+        List<Map.Entry<Integer, PerformanceMetrics>> all = new ArrayList<>(expected.entrySet());
+
+        all.sort(Comparator.comparingDouble((Map.Entry<Integer, PerformanceMetrics> e) -> e.getValue().realizedPnl).reversed());
+        for (int i = 0; i < TOP_N; i++) {
+            assertEquals((int) all.get(i).getKey(), lb.topByPnl.get(i).userId);
+            assertEquals(all.get(i).getValue().realizedPnl, lb.topByPnl.get(i).metrics.realizedPnl, 0);
+        }
+
+        // Ties are common in win rate and drawdown, so only the ranked values are compared
+        List<Double> winRates = new ArrayList<>();
+        for (PerformanceMetrics m : expected.values()) {
+            if (m.closedTrades >= LeaderboardService.MIN_CLOSED_FOR_RATES) winRates.add(m.winRate);
+        }
+        winRates.sort(Comparator.reverseOrder());
+        List<Double> drawdowns = new ArrayList<>();
+        for (PerformanceMetrics m : expected.values()) drawdowns.add(m.maxDrawdown);
+        drawdowns.sort(Comparator.reverseOrder());
+        for (int i = 0; i < TOP_N; i++) {
+            assertEquals(winRates.get(i), lb.topByWinRate.get(i).metrics.winRate, 0);
+            assertEquals(drawdowns.get(i), lb.topByDrawdown.get(i).metrics.maxDrawdown, 0);
+        }
+    }
+
+    // PerformanceService's per-user pass: one state per user, that user's trades in order
+    private Map<Integer, PerformanceMetrics> replayPerUser() {
+        Map<Integer, PerformanceState> states = new HashMap<>();
+        for (Row r : rows) {
+            PerformanceState s = states.computeIfAbsent(r.userId, PerformanceState::new);
+            PerformanceService.apply(s, r.id, r.orderId, r.symbol, r.side, r.price, r.quantity, r.executedAt, null);
+        }
+        Map<Integer, PerformanceMetrics> metrics = new HashMap<>();
+        for (Map.Entry<Integer, PerformanceState> e : states.entrySet()) {
+            metrics.put(e.getKey(), PerformanceService.toMetrics(e.getValue()));
+        }
+        return metrics;
+    }
+
+    private boolean forEachTrade(int afterTradeId, TradeDAO.UserTradeVisitor visitor) {
+        for (Row r : rows) {
+            if (r.id > afterTradeId && r.id <= visibleUpTo) {
+                visitor.visit(r.userId, r.id, r.orderId, r.symbol, r.side, r.price, r.quantity, r.executedAt);
+            }
+        }
+        return true;
+    }
+
+    // Users trade in random order, each with up to 3 positions open; rows are then grouped by user
+    private static List<Row> history(int count, long seed) {
+        Random random = new Random(seed);
+        String[] symbols = {"BTC", "ETH", "SOL"};
+        double[] last = {50_000, 2_500, 100};
+        Row[][] open = new Row[USERS][3];
+        List<List<Row>> byUser = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) byUser.add(new ArrayList<>());
+        int orderId = 0;
+        for (int id = 1; id <= count; id++) {
+            // Every user trades at least once
+            int u = id <= USERS ? id - 1 : random.nextInt(USERS);
+            int s = random.nextInt(symbols.length);
+            last[s] *= 1 + (random.nextDouble() - 0.5) * 0.02;
+            int slot = random.nextInt(3);
+            long at = 1_767_225_600_000L + id * 1_000L;
+            Row o = open[u][slot];
+            Row row;
+            if (o != null) {
+                int sym = o.symbol.equals("BTC") ? 0 : o.symbol.equals("ETH") ? 1 : 2;
+                row = new Row(u + 1, id, o.orderId, o.symbol, "BUY".equals(o.side) ? "CLOSE_LONG" : "CLOSE_SHORT",
+                              last[sym], o.quantity, at);
+                open[u][slot] = null;
+            } else {
+                row = new Row(u + 1, id, ++orderId, symbols[s], random.nextBoolean() ? "BUY" : "SELL",
+                              last[s], 0.1 + random.nextInt(50) * 0.1, at);
+                open[u][slot] = row;
+            }
+            byUser.get(u).add(row);
+        }
+        List<Row> rows = new ArrayList<>(count);
+        for (List<Row> userRows : byUser) rows.addAll(userRows);
+        return rows;
+    }
+
+    private static class Row {
+        final int userId;
+        final int id;
+        final int orderId;
+        final String symbol;
+        final String side;
+        final double price;
+        final double quantity;
+        final long executedAt;
+
+        Row(int userId, int id, int orderId, String symbol, String side, double price, double quantity, long executedAt) {
+            this.userId = userId;
+            this.id = id;
+            this.orderId = orderId;
+            this.symbol = symbol;
+            this.side = side;
+            this.price = price;
+            this.quantity = quantity;
+            this.executedAt = executedAt;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.tradingdemo.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tradingdemo.notification.Notifier;
+import com.tradingdemo.notification.SMTPNotifier;
+
+/**
+ * Drives SMTPNotifier's pooled sender and NotificationDispatcher (digests, retries)
+ * against an in-process SMTP server
+ */
+public class NotificationDispatcherTest {
+
+    private SmtpStub smtp;
+    private SMTPNotifier notifier;
+    private NotificationDispatcher dispatcher;
+
+    @Before
+    public void setUp() throws IOException {
+        smtp = new SmtpStub();
+        notifier = new SMTPNotifier("127.0.0.1", smtp.getPort(), "alerts@test.local");
+    }
+
+    @After
+    public void tearDown() {
+        if (dispatcher != null) dispatcher.stop();
+        smtp.close();
+    }
+
+    @Test
+    public void pooledSenderReusesOneConnection() throws Exception {
+        try (Notifier.Sender sender = notifier.openSender()) {
+            sender.send("a@test.local", "one", "first");
+            sender.send("b@test.local", "two", "second");
+            sender.send("a@test.local", "three", "third");
+        }
+        assertEquals(3, smtp.messages.size());
+        assertEquals(1, smtp.connections.get());
+        assertEquals("b@test.local", smtp.messages.get(1).to);
+        assertEquals("three", smtp.messages.get(2).subject);
+    }
+
+    @Test
+    public void pooledSenderReconnectsAfterFailure() throws Exception {
+        try (Notifier.Sender sender = notifier.openSender()) {
+            sender.send("a@test.local", "one", "first");
+            smtp.failNextData(1);
+            try {
+                sender.send("a@test.local", "two", "second");
+                fail("451 should surface as an exception");
+            } catch (Exception expected) {
+            }
+            sender.send("a@test.local", "three", "third");
+        }
+        assertEquals(2, smtp.messages.size());
+        assertEquals(2, smtp.connections.get());
+    }
+
+    @Test
+    public void burstIsSentAsOneDigest() throws Exception {
+        dispatcher = new NotificationDispatcher(notifier, userId -> "user" + userId + "@test.local", 1);
+        dispatcher.submit(1, "BTC alert", "BTC above 70000");
+        dispatcher.submit(1, "ETH alert", "ETH above 4000");
+        dispatcher.submit(1, "SOL alert", "SOL above 200");
+        dispatcher.submit(2, "BTC alert", "BTC above 70000");
+
+        awaitTrue(() -> dispatcher.getEmailsSent() == 2, 5_000);
+        assertEquals(1, dispatcher.getDigests());
+        assertEquals(2, smtp.messages.size());
+        assertEquals(1, smtp.connections.get());
+
+        SmtpStub.Message digest = smtp.messages.get(0);
+        assertEquals("user1@test.local", digest.to);
+        assertEquals("Price Alerts: 3 triggered", digest.subject);
+        assertTrue(digest.body.contains("ETH above 4000"));
+        assertEquals("BTC alert", smtp.messages.get(1).subject);
+    }
+
+    @Test
+    public void failedSendIsRetried() throws Exception {
+        dispatcher = new NotificationDispatcher(notifier, userId -> "user" + userId + "@test.local", 1);
+        smtp.failNextData(1);
+        dispatcher.submit(3, "BTC alert", "BTC below 60000");
+
+        awaitTrue(() -> dispatcher.getEmailsSent() == 1, 10_000); // first retry after 2s
+        assertEquals(1, dispatcher.getRetries());
+        assertEquals(0, dispatcher.getFailed());
+        assertEquals(1, smtp.messages.size());
+        assertEquals("BTC alert", smtp.messages.get(0).subject);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) fail("Timed out after " + timeoutMs + " ms");
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Minimal SMTP server: no TLS or AUTH, one thread per connection
+     * Records accepted messages and can answer DATA with 451 to simulate a failing relay.
+     */
+    static class SmtpStub {
+
+        static class Message {
+            final String to;
+            final String subject;
+            final String body;
+
+            Message(String to, String subject, String body) {
+                this.to = to;
+                this.subject = subject;
+                this.body = body;
+            }
+        }
+
+        final List<Message> messages = new CopyOnWriteArrayList<>();
+        final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger dataFailures = new AtomicInteger();
+        private final ServerSocket server;
+
+        SmtpStub() throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::accept, "smtp-stub");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return server.getLocalPort();
+        }
+
+        void failNextData(int count) {
+            dataFailures.set(count);
+        }
+
+        void close() {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.incrementAndGet();
+                    Thread t = new Thread(() -> serve(socket), "smtp-stub-session");
+                    t.setDaemon(true);
+                    t.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+                reply(out, "220 localhost SMTP stub");
+                String to = null;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                    switch (command) {
+                        case "EHLO", "HELO" -> reply(out, "250 localhost");
+                        case "MAIL", "NOOP" -> reply(out, "250 OK");
+                        case "RSET" -> {
+                            to = null;
+                            reply(out, "250 OK");
+                        }
+                        case "RCPT" -> {
+                            to = line.substring(line.indexOf('<') + 1, line.lastIndexOf('>'));
+                            reply(out, "250 OK");
+                        }
+                        case "DATA" -> {
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            String subject = null;
+                            StringBuilder body = new StringBuilder();
+                            boolean headers = true;
+                            while ((line = in.readLine()) != null && !line.equals(".")) {
+                                if (line.startsWith(".")) line = line.substring(1);
+                                if (headers && line.isEmpty()) {
+                                    headers = false;
+                                } else if (headers && line.startsWith("Subject: ")) {
+                                    subject = line.substring("Subject: ".length());
+                                } else if (!headers) {
+                                    body.append(line).append('\n');
+                                }
+                            }
+                            if (dataFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                                reply(out, "451 Try again later");
+                            } else {
+                                messages.add(new Message(to, subject, body.toString()));
+                                reply(out, "250 OK");
+                            }
+                            to = null;
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 Bye");
+                            return;
+                        }
+                        default -> reply(out, "502 Command not implemented");
+                    }
+                }
+            } catch (IOException ignored) {
+            }
+        }
+
+        private static void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.tradingdemo.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.tradingdemo.model.EquityCurve;
+import com.tradingdemo.model.PerformanceMetrics;
+import com.tradingdemo.model.PerformanceMetrics.SymbolMetrics;
+import com.tradingdemo.model.PerformanceState;
+
+/**
+ * Checks that metrics advanced incrementally (PerformanceService.computeForUser: apply the trades
+ * above rescanFrom() to the saved state) equal a full replay of the same trades, including trades
+ * that become visible late inside the RESCAN_WINDOW
+ */
+public class PerformanceServiceTest {
+
+    private static final long START = 1_767_225_600_000L;   // 2026-01-01T00:00Z
+
+    @Test
+    public void incrementalPassesEqualFullReplay() {
+        List<Trade> trades = history(30_000, 1);
+        PerformanceState state = new PerformanceState(1);
+        EquityCurve equity = new EquityCurve();
+        int[] batches = {1, 37, 5_000, 1, 12_000, 999};
+        int visible = 0;
+        for (int batch : batches) {
+            visible += batch;
+            pass(state, trades.subList(0, visible), equity);
+        }
+        pass(state, trades, equity);
+
+        assertEquals(describe(replay(trades)), describe(metrics(state, equity)));
+    }
+
+    @Test
+    public void rereadingTheWindowAppliesNothingTwice() {
+        List<Trade> trades = history(25_000, 2);
+        PerformanceState state = new PerformanceState(1);
+        EquityCurve equity = new EquityCurve();
+        pass(state, trades, equity);
+        String once = describe(metrics(state, equity));
+
+        pass(state, trades, equity);
+        pass(state, trades, equity);
+        assertEquals(once, describe(metrics(state, equity)));
+        assertEquals(describe(replay(trades)), once);
+    }
+
+    @Test
+    public void recentIdsStayInsideTheWindow() {
+        List<Trade> trades = history(25_000, 3);
+        PerformanceState state = new PerformanceState(1);
+        EquityCurve equity = new EquityCurve();
+        for (int visible = 1_000; visible < trades.size(); visible += 7_000) {
+            pass(state, trades.subList(0, visible), equity);
+        }
+        pass(state, trades, equity);
+        assertEquals(PerformanceState.RESCAN_WINDOW, state.recentTradeIds.size());
+        for (int id : state.recentTradeIds) {
+            assertTrue(id + " <= " + state.rescanFrom(), id > state.rescanFrom());
+        }
+    }
+
+    @Test
+    public void lateTradeInsideWindowIsApplied() {
+        List<Trade> all = history(25_000, 4);
+        PerformanceState state = new PerformanceState(1);
+        EquityCurve equity = new EquityCurve();
+        int lastId = all.get(all.size() - 1).id;
+        int lateId = lastId - PerformanceState.RESCAN_WINDOW + 1;    // first ID still re-read
+        Trade late = lateOpen(all, lateId);
+
+        List<Trade> visible = new ArrayList<>(all);
+        visible.removeIf(t -> t.id == lateId);
+        pass(state, visible, equity);
+        assertEquals(lastId - PerformanceState.RESCAN_WINDOW, state.rescanFrom());
+
+        visible.add(late);
+        pass(state, visible, equity);
+        pass(state, visible, equity);
+        assertEquals(describe(replay(visible)), describe(metrics(state, equity)));
+    }
+
+    @Test
+    public void lateTradeAtWindowBoundaryIsMissed() {
+        List<Trade> all = history(25_000, 5);
+        PerformanceState state = new PerformanceState(1);
+        EquityCurve equity = new EquityCurve();
+        int lastId = all.get(all.size() - 1).id;
+        int lateId = lastId - PerformanceState.RESCAN_WINDOW;        // rescanFrom() is exclusive
+        Trade late = lateOpen(all, lateId);
+
+        List<Trade> visible = new ArrayList<>(all);
+        visible.removeIf(t -> t.id == lateId);
+        pass(state, visible, equity);
+        String before = describe(metrics(state, equity));
+
+        visible.add(late);
+        pass(state, visible, equity);
+        // Known limit of the window: only a rebuild (full replay) picks the trade up
+        assertEquals(before, describe(metrics(state, equity)));
+        assertEquals(state.totalTrades + 1, replay(visible).totalTrades);
+    }
+
+    // One incremental pass as computeForUser runs it: trades above rescanFrom() in (executed_at, id) order
+    private static void pass(PerformanceState state, List<Trade> visible, EquityCurve equity) {
+        List<Trade> rows = new ArrayList<>();
+        int from = state.rescanFrom();
+        for (Trade t : visible) {
+            if (t.id > from) rows.add(t);
+        }
+        sort(rows);
+        for (Trade t : rows) {
+            PerformanceService.apply(state, t.id, t.orderId, t.symbol, t.side, t.price, t.quantity, t.executedAt, equity);
+        }
+        state.pruneRecentTradeIds();
+    }
+
+    // As computeFullReplay: a fresh state and every trade
+    private static PerformanceMetrics replay(List<Trade> visible) {
+        PerformanceState state = new PerformanceState(1);
+        EquityCurve equity = new EquityCurve();
+        List<Trade> rows = new ArrayList<>(visible);
+        sort(rows);
+        for (Trade t : rows) {
+            PerformanceService.apply(state, t.id, t.orderId, t.symbol, t.side, t.price, t.quantity, t.executedAt, equity);
+        }
+        state.pruneRecentTradeIds();
+        return metrics(state, equity);
+    }
+
+    private static PerformanceMetrics metrics(PerformanceState state, EquityCurve equity) {
+        PerformanceMetrics m = PerformanceService.toMetrics(state);
+        m.equity = equity;
+        return m;
+    }
+
+    private static void sort(List<Trade> rows) {
+        Collections.sort(rows, (a, b) -> a.executedAt != b.executedAt
+            ? Long.compare(a.executedAt, b.executedAt) : Integer.compare(a.id, b.id));
+    }
+
+    // A new long opened at the time of the last trade that is not yet visible; it never closes, so its
+    // place in the order only shifts the open lots, not any closed-trade metric
+    private static Trade lateOpen(List<Trade> all, int id) {
+        Trade last = all.get(all.size() - 1);
+        return new Trade(id, 1_000_000 + id, "ETH", "BUY", 2_500, 1, last.executedAt);
+    }
+
+    private static String describe(PerformanceMetrics m) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(m.totalTrades).append(' ').append(m.totalBuys).append(' ').append(m.totalSells)
+          .append(' ').append(m.closedTrades).append(' ').append(m.winningTrades).append(' ').append(m.losingTrades)
+          .append(' ').append(m.realizedPnl).append(' ').append(m.avgProfitPerTrade).append(' ').append(m.winRate)
+          .append(' ').append(m.grossProfit).append(' ').append(m.grossLoss).append(' ').append(m.profitFactor)
+          .append(' ').append(m.maxDrawdown).append(' ').append(m.sharpeRatio).append(' ').append(m.sortinoRatio)
+          .append(' ').append(m.avgHoldMillis).append(' ').append(m.exposure).append('\n');
+        for (Map.Entry<String, SymbolMetrics> e : m.bySymbol.entrySet()) {
+            SymbolMetrics s = e.getValue();
+            sb.append(e.getKey()).append(' ').append(s.closedTrades).append(' ').append(s.winningTrades)
+              .append(' ').append(s.losingTrades).append(' ').append(s.realizedPnl).append(' ').append(s.grossProfit)
+              .append(' ').append(s.grossLoss).append(' ').append(s.holdMillis).append('\n');
+        }
+        for (int i = 0; i < m.equity.size(); i++) {
+            sb.append(m.equity.getTime(i)).append('=').append(m.equity.getValue(i)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Orders opened by BUY/SELL and closed later by CLOSE_LONG/CLOSE_SHORT, up to 40 open at once;
+    // IDs and execution times increase together, and the history ends with positions still open
+    private static List<Trade> history(int count, long seed) {
+        Random random = new Random(seed);
+        String[] symbols = {"BTC", "ETH", "SOL", "XRP", "ADA"};
+        double[] prices = {50_000, 2_500, 100, 0.6, 0.4};
+        List<Trade> open = new ArrayList<>();
+        List<Trade> trades = new ArrayList<>(count);
+        int orderId = 0;
+        for (int id = 1; id <= count; id++) {
+            long at = START + id * 60_000L + random.nextInt(30_000);
+            int s = random.nextInt(symbols.length);
+            prices[s] *= 1 + (random.nextDouble() - 0.5) * 0.02;
+            boolean closing = !open.isEmpty() && (open.size() >= 40 || random.nextBoolean()) && id < count - 50;
+            if (closing) {
+                Trade o = open.remove(random.nextInt(open.size()));
+                double price = prices[indexOf(symbols, o.symbol)];
+                trades.add(new Trade(id, o.orderId, o.symbol, "BUY".equals(o.side) ? "CLOSE_LONG" : "CLOSE_SHORT",
+                    price, o.quantity, at));
+            } else {
+                Trade o = new Trade(id, ++orderId, symbols[s], random.nextBoolean() ? "BUY" : "SELL",
+                    prices[s], 0.1 + random.nextInt(50) * 0.1, at);
+                open.add(o);
+                trades.add(o);
+            }
+        }
+        return trades;
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) return i;
+        }
+        return -1;
+    }
+
+    private static class Trade {
+        final int id;
+        final int orderId;
+        final String symbol;
+        final String side;
+        final double price;
+        final double quantity;
+        final long executedAt;
+
+        Trade(int id, int orderId, String symbol, String side, double price, double quantity, long executedAt) {
+            this.id = id;
+            this.orderId = orderId;
+            this.symbol = symbol;
+            this.side = side;
+            this.price = price;
+            this.quantity = quantity;
+            this.executedAt = executedAt;
+        }
+    }
+}
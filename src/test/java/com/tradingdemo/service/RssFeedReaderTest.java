@@ -0,0 +1,212 @@
+package com.tradingdemo.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.tradingdemo.model.News;
+
+/**
+ * Checks RssFeedReader against the buffered regex parser it replaced (CoinDeskNewsService /
+ * CoinTelegraphNewsService before the StAX reader), and that DTDs and entities are not processed
+ */
+public class RssFeedReaderTest {
+
+    @Test
+    public void sameItemsAsRegexParser() {
+        byte[] feed = feed(500, 1);
+        assertEquals(describe(regexParse(feed, "CoinDesk", 1000)), describe(parse(feed, 1000)));
+    }
+
+    @Test
+    public void limitStopsAtSameItems() {
+        byte[] feed = feed(500, 2);
+        List<News> items = parse(feed, 20);
+        assertEquals(20, items.size());
+        assertEquals(describe(regexParse(feed, "CoinDesk", 20)), describe(items));
+    }
+
+    @Test
+    public void limitStopsReadingTheStream() {
+        byte[] feed = feed(5000, 3);
+        CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(feed));
+        assertEquals(20, RssFeedReader.parse(in, "CoinDesk", 20).size());
+        assertTrue("read " + in.count + " of " + feed.length + " bytes", in.count < feed.length / 10);
+    }
+
+    @Test
+    public void itemsWithoutTitleAreSkipped() {
+        String xml = "<rss><channel><item><link>https://x/1</link></item>"
+            + "<item><title><![CDATA[Kept]]></title></item></channel></rss>";
+        List<News> items = parse(xml.getBytes(StandardCharsets.UTF_8), 10);
+        assertEquals(1, items.size());
+        assertEquals("Kept", items.get(0).getTitle());
+    }
+
+    @Test
+    public void externalEntityIsNotResolved() {
+        String xml = "<?xml version=\"1.0\"?><!DOCTYPE rss [<!ENTITY xxe SYSTEM \"file:///etc/passwd\">]>"
+            + "<rss><channel><item><title>first</title></item><item><title>&xxe;</title></item></channel></rss>";
+        List<News> items = parse(xml.getBytes(StandardCharsets.UTF_8), 10);
+        // Parsing stops at the undeclared entity; items before it are kept
+        assertEquals(1, items.size());
+        assertEquals("first", items.get(0).getTitle());
+    }
+
+    @Test
+    public void internalEntityIsNotExpanded() {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\"?><!DOCTYPE rss [<!ENTITY a \"aaaaaaaaaa\">");
+        for (int i = 1; i < 8; i++) {
+            xml.append("<!ENTITY ").append((char) ('a' + i)).append(" \"");
+            for (int j = 0; j < 10; j++) xml.append('&').append((char) ('a' + i - 1)).append(';');
+            xml.append("\">");
+        }
+        xml.append("]><rss><channel><item><title>&h;</title></item></channel></rss>");
+        assertTrue(parse(xml.toString().getBytes(StandardCharsets.UTF_8), 10).isEmpty());
+    }
+
+    @Test
+    public void externalDtdIsNotFetched() {
+        String xml = "<?xml version=\"1.0\"?><!DOCTYPE rss SYSTEM \"http://127.0.0.1:1/rss.dtd\">"
+            + "<rss><channel><item><title>t</title></item></channel></rss>";
+        List<News> items = parse(xml.getBytes(StandardCharsets.UTF_8), 10);
+        assertEquals(1, items.size());
+        assertFalse(items.get(0).getTitle().isEmpty());
+    }
+
+    private static List<News> parse(byte[] feed, int limit) {
+        return RssFeedReader.parse(new ByteArrayInputStream(feed), "CoinDesk", limit);
+    }
+
+    private static List<String> describe(List<News> items) {
+        List<String> out = new ArrayList<>();
+        for (News n : items) {
+            out.add(n.getSource() + "|" + n.getTitle() + "|" + n.getUrl() + "|" + n.getContent()
+                + "|" + n.getTags() + "|" + n.getPublishedAt());
+        }
+        return out;
+    }
+
+    // The parser before RssFeedReader: whole feed in a String, DOTALL regexes per item and field
+    private static List<News> regexParse(byte[] feed, String source, int limit) {
+        String rssContent = new String(feed, StandardCharsets.UTF_8);
+        List<News> newsList = new ArrayList<>();
+        Matcher itemMatcher = Pattern.compile("<item>(.*?)</item>", Pattern.DOTALL).matcher(rssContent);
+        int count = 0;
+        while (itemMatcher.find() && count < limit) {
+            String itemContent = itemMatcher.group(1);
+            News news = new News();
+            news.setSource(source);
+            String title = extractTag(itemContent, "title");
+            if (title != null) news.setTitle(cleanCData(title));
+            String link = extractTag(itemContent, "link");
+            if (link != null) news.setUrl(link.trim());
+            String description = extractTag(itemContent, "description");
+            if (description != null) news.setContent(cleanHtml(cleanCData(description)));
+            String pubDate = extractTag(itemContent, "pubDate");
+            if (pubDate != null) {
+                try {
+                    news.setPublishedAt(LocalDateTime.parse(pubDate.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                } catch (Exception e) {
+                    news.setPublishedAt(LocalDateTime.now());
+                }
+            }
+            Matcher categoryMatcher = Pattern.compile("<category>(.*?)</category>").matcher(itemContent);
+            StringBuilder tags = new StringBuilder();
+            while (categoryMatcher.find()) {
+                if (tags.length() > 0) tags.append(", ");
+                tags.append(cleanCData(categoryMatcher.group(1)));
+            }
+            if (tags.length() > 0) news.setTags(tags.toString());
+            if (news.getTitle() != null && !news.getTitle().isEmpty()) {
+                newsList.add(news);
+                count++;
+            }
+        }
+        return newsList;
+    }
+
+    private static String extractTag(String content, String tagName) {
+        Matcher matcher = Pattern.compile("<" + tagName + ">(.*?)</" + tagName + ">", Pattern.DOTALL).matcher(content);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String cleanCData(String text) {
+        return text.replaceAll("<!\\[CDATA\\[", "").replaceAll("\\]\\]>", "").trim();
+    }
+
+    private static String cleanHtml(String text) {
+        return text.replaceAll("<[^>]+>", "").replaceAll("&nbsp;", " ")
+                   .replaceAll("&amp;", "&").replaceAll("&lt;", "<")
+                   .replaceAll("&gt;", ">").replaceAll("&quot;", "\"").trim();
+    }
+
+    // RSS 2.0 feed shaped like CoinDesk's: CDATA title/description (HTML), categories, RFC 1123 dates
+    private static byte[] feed(int items, long seed) {
+        Random random = new Random(seed);
+        String[] words = {"bitcoin", "ether", "etf", "inflows", "rally", "slips", "support", "traders", "sec", "stablecoin", "miners", "halving"};
+        ZonedDateTime date = ZonedDateTime.of(2026, 2, 13, 10, 30, 0, 0, ZoneOffset.UTC);
+        StringBuilder xml = new StringBuilder(items * 1500);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<rss version=\"2.0\"><channel><title>News</title>\n");
+        for (int i = 0; i < items; i++) {
+            xml.append("<item>\n<title><![CDATA[");
+            for (int w = 0; w < 10; w++) xml.append(w > 0 ? " " : "").append(words[random.nextInt(words.length)]);
+            xml.append(" #").append(i).append("]]></title>\n");
+            xml.append("<link>https://news.example.com/markets/").append(i).append("</link>\n");
+            xml.append("<description><![CDATA[<p>");
+            for (int s = 0; s < 8; s++) {
+                xml.append("<b>").append(words[random.nextInt(words.length)]).append("</b> &amp; ");
+                for (int w = 0; w < 12; w++) xml.append(words[random.nextInt(words.length)]).append(' ');
+                xml.append("&nbsp;");
+            }
+            xml.append("</p>]]></description>\n");
+            xml.append("<pubDate>").append(DateTimeFormatter.RFC_1123_DATE_TIME.format(date.minusMinutes(i))).append("</pubDate>\n");
+            int categories = random.nextInt(4);
+            for (int c = 0; c < categories; c++) {
+                xml.append("<category><![CDATA[").append(words[random.nextInt(words.length)]).append("]]></category>\n");
+            }
+            xml.append("</item>\n");
+        }
+        xml.append("</channel></rss>\n");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
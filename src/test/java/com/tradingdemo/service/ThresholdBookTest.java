@@ -0,0 +1,156 @@
+package com.tradingdemo.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tradingdemo.model.AlertRule;
+
+/**
+ * Checks that a value move selects exactly the alerts whose keys it crosses, using the
+ * engine's keys (AlertService.keyOf / isRising)
+ */
+public class ThresholdBookTest {
+
+    private ThresholdBook rising;
+    private ThresholdBook falling;
+    private final List<AlertRule> alerts = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        rising = new ThresholdBook();
+        falling = new ThresholdBook();
+        alerts.clear();
+    }
+
+    @Test
+    public void riseFiresAboveAlertsInHalfOpenRange() {
+        add(100, true);     // at the last price: already crossed
+        add(101, true);
+        add(103, true);
+        add(103, true);     // equal threshold
+        add(105, true);     // exactly at the new price
+        add(106, true);
+        add(102, false);    // below alerts wait for a fall
+        assertEquals(ids(2, 3, 4, 5), crossed(100, 105));
+    }
+
+    @Test
+    public void fallFiresBelowAlertsInHalfOpenRange() {
+        add(95, false);     // exactly at the new price
+        add(97, false);
+        add(97, false);     // equal threshold
+        add(99, false);
+        add(100, false);    // at the last price: already crossed
+        add(94, false);
+        add(98, true);      // above alerts wait for a rise
+        assertEquals(ids(1, 2, 3, 4), crossed(100, 95));
+    }
+
+    @Test
+    public void unchangedValueFiresNothing() {
+        add(100, true);
+        add(100, false);
+        assertEquals(ids(), crossed(100, 100));
+    }
+
+    @Test
+    public void firstValueFiresEverythingAlreadyOnItsSide() {
+        add(90, true);
+        add(100, true);
+        add(110, true);
+        add(90, false);
+        add(100, false);
+        add(110, false);
+        assertEquals(ids(1, 2, 5, 6), crossed(Double.NaN, 100));
+    }
+
+    @Test
+    public void disarmedAlertRearmsPastHysteresisBand() {
+        AlertRule a = add(100, true);
+        a.setHysteresisPct(2);
+        move(a);                                    // fired: re-arms at 98 or below
+        assertEquals(ids(), crossed(101, 98.5));
+        assertEquals(ids(1), crossed(98.5, 98));     // re-armed at 100
+        assertEquals(ids(1), crossed(98, 100));
+    }
+
+    @Test
+    public void randomWalkMatchesBruteForce() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            // Few distinct targets so many alerts share one
+            AlertRule a = add(90 + random.nextInt(41) * 0.5, random.nextBoolean());
+            a.setHysteresisPct(random.nextInt(3));
+        }
+        double last = Double.NaN;
+        double value = 110;
+        for (int tick = 0; tick < 5_000; tick++) {
+            Set<Integer> expected = new TreeSet<>();
+            for (AlertRule a : alerts) {
+                double key = AlertService.keyOf(a);
+                boolean hit = AlertService.isRising(a)
+                    ? (Double.isNaN(last) || key > last) && key <= value
+                    : (Double.isNaN(last) || key < last) && key >= value;
+                if (hit) expected.add(a.getId());
+            }
+            assertEquals("tick " + tick + " " + last + " -> " + value, expected, crossed(last, value));
+            last = value;
+            value = Math.max(80, Math.min(140, value + (random.nextInt(9) - 4) * 0.25));
+        }
+    }
+
+    @Test
+    public void removeTakesOnlyThatAlert() {
+        AlertRule a = add(100, true);
+        add(100, true);
+        rising.remove(AlertService.keyOf(a), a);
+        assertEquals(1, rising.size());
+        assertEquals(ids(2), crossed(99, 100));
+        assertEquals(0, rising.size());
+    }
+
+    private AlertRule add(double target, boolean above) {
+        AlertRule a = new AlertRule(1, "BTC", target, above);
+        a.setId(alerts.size() + 1);
+        alerts.add(a);
+        book(a).insert(AlertService.keyOf(a), a);
+        return a;
+    }
+
+    // Collects the crossed alerts and moves each to its other book, as AlertService.onCrossed does
+    private Set<Integer> crossed(double last, double value) {
+        List<AlertRule> out = new ArrayList<>();
+        ThresholdBook.collectCrossed(rising, falling, last, value, out);
+        Set<Integer> result = new TreeSet<>();
+        for (AlertRule a : out) {
+            assertTrue("alert " + a.getId() + " collected twice", result.add(a.getId()));
+            move(a);
+        }
+        return result;
+    }
+
+    private void move(AlertRule a) {
+        book(a).remove(AlertService.keyOf(a), a);
+        a.setArmed(!a.isArmed());
+        book(a).insert(AlertService.keyOf(a), a);
+    }
+
+    private ThresholdBook book(AlertRule a) {
+        return AlertService.isRising(a) ? rising : falling;
+    }
+
+    private static Set<Integer> ids(int... ids) {
+        Set<Integer> set = new TreeSet<>();
+        for (int id : ids) set.add(id);
+        return set;
+    }
+}
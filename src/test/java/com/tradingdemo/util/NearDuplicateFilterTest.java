@@ -0,0 +1,112 @@
+package com.tradingdemo.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+/**
+ * Checks NearDuplicateFilter against the pairwise Jaccard scan it replaced
+ * (AggregatedNewsService.removeDuplicates before MinHash)
+ */
+public class NearDuplicateFilterTest {
+
+    private static final double THRESHOLD = 0.8;
+
+    @Test
+    public void keptListMatchesPairwiseScanAt400() {
+        List<String> titles = titles(400, 1);
+        assertEquals(pairwise(titles, THRESHOLD), NearDuplicateFilter.filter(titles, Function.identity(), THRESHOLD));
+    }
+
+    @Test
+    public void keptListMatchesPairwiseScanAt4000() {
+        List<String> titles = titles(4000, 2);
+        assertEquals(pairwise(titles, THRESHOLD), NearDuplicateFilter.filter(titles, Function.identity(), THRESHOLD));
+    }
+
+    @Test
+    public void addingOneAtATimeMatchesFilter() {
+        List<String> titles = titles(400, 3);
+        NearDuplicateFilter<String> filter = new NearDuplicateFilter<>(Function.identity(), THRESHOLD);
+        List<String> kept = new ArrayList<>();
+        for (String title : titles) {
+            if (filter.add(title)) kept.add(title);
+        }
+        assertEquals(NearDuplicateFilter.filter(titles, Function.identity(), THRESHOLD), kept);
+        assertEquals(kept.size(), filter.size());
+    }
+
+    @Test
+    public void duplicatesAreStrictlyAboveThreshold() {
+        NearDuplicateFilter<String> filter = new NearDuplicateFilter<>(Function.identity(), THRESHOLD);
+        assertTrue(filter.add("bitcoin rallies past record as etf inflows surge again today"));
+        // Same words, different case: duplicate
+        assertFalse(filter.add("Bitcoin Rallies Past Record As ETF Inflows Surge Again Today"));
+        // 9 of 11 words shared (0.82): duplicate
+        assertFalse(filter.add("bitcoin rallies past record as etf inflows surge again tonight"));
+        // 7 of 9 words shared (0.78): kept
+        assertTrue(filter.add("ether slips below support as traders weigh cuts"));
+        assertTrue(filter.add("ether slips below support as traders weigh hikes"));
+    }
+
+    // The original O(n^2) scan: Jaccard index of the lower-cased word sets against every kept title
+    private static List<String> pairwise(List<String> titles, double threshold) {
+        List<String> kept = new ArrayList<>();
+        List<Set<String>> keptWords = new ArrayList<>();
+        for (String title : titles) {
+            Set<String> words = new HashSet<>(Arrays.asList(title.toLowerCase().split("\\s+")));
+            boolean duplicate = false;
+            for (Set<String> other : keptWords) {
+                Set<String> intersection = new HashSet<>(words);
+                intersection.retainAll(other);
+                int union = words.size() + other.size() - intersection.size();
+                if (union > 0 && (double) intersection.size() / union > threshold) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (!duplicate) {
+                kept.add(title);
+                keptWords.add(words);
+            }
+        }
+        return kept;
+    }
+
+    // Titles of 8-15 words; a quarter repeat an earlier title re-cased and/or with one word swapped
+    private static List<String> titles(int count, long seed) {
+        Random random = new Random(seed);
+        String[] vocabulary = new String[500];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = "w" + Integer.toString(i * 7919, 36);
+        }
+        List<String> titles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && random.nextInt(4) == 0) {
+                String[] words = titles.get(random.nextInt(i)).split(" ");
+                if (random.nextBoolean()) {
+                    words[random.nextInt(words.length)] = vocabulary[random.nextInt(vocabulary.length)];
+                }
+                String title = String.join(" ", words);
+                titles.add(random.nextBoolean() ? title.toUpperCase() : title);
+            } else {
+                String[] words = new String[8 + random.nextInt(8)];
+                for (int w = 0; w < words.length; w++) {
+                    words[w] = vocabulary[random.nextInt(vocabulary.length)];
+                }
+                titles.add(String.join(" ", words));
+            }
+        }
+        return titles;
+    }
+}
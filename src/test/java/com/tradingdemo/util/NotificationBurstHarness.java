@@ -0,0 +1,63 @@
+package com.tradingdemo.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+
+/**
+ * Fires a burst of showPopup calls from a background thread and reports the FX pulse gaps
+ * FxStallMonitor measured while idle and during the burst, until the overlay hides (needs a display)
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *           -Dexec.mainClass=com.tradingdemo.util.NotificationBurstHarness [-Dexec.args="1000 20"]
+ * Arguments: number of popups (default 1000), number of distinct keys (default 20)
+ */
+public class NotificationBurstHarness {
+
+    private static final long SETTLE_MS = 2_000;
+    private static final long OBSERVE_MS = 6_000; // past the 4 second hide timer
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int keys = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(() -> {
+            Platform.setImplicitExit(false);
+            FxStallMonitor.getInstance().start();
+            started.countDown();
+        });
+        if (!started.await(10, TimeUnit.SECONDS)) {
+            System.err.println("JavaFX toolkit did not start");
+            System.exit(1);
+        }
+
+        FxStallMonitor monitor = FxStallMonitor.getInstance();
+        Thread.sleep(SETTLE_MS);
+        System.out.println("Idle:  " + monitor.summary());
+        onFxThread(monitor::reset);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            String symbol = "SYM" + (i % keys);
+            NotificationUtil.showPopup(symbol, symbol + " alert", symbol + " crossed " + (1000 + i));
+        }
+        long submitNanos = System.nanoTime() - start;
+        Thread.sleep(OBSERVE_MS);
+        onFxThread(monitor::stop);
+
+        System.out.printf("Burst: %d showPopup calls over %d keys in %.1f ms on the caller thread%n",
+            count, keys, submitNanos / 1_000_000.0);
+        System.out.println("       " + monitor.summary());
+        Platform.exit();
+    }
+
+    private static void onFxThread(Runnable action) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            action.run();
+            done.countDown();
+        });
+        done.await(5, TimeUnit.SECONDS);
+    }
+}